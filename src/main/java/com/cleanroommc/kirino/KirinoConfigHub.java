@@ -8,10 +8,24 @@ public final class KirinoConfigHub {
     public boolean enableRenderDelegate = true;
     public boolean enableHDR = true;
     public boolean enablePostProcessing = true;
+    public boolean enableEcsScanCache = true;
+    public boolean enableParallelBootstrap = true;
 
     public float chunkPriorityFalloffDistance = 46f / 2f;
+    // per-frame CPU budget of chunk meshing; dirty sections beyond it are carried over to later frames
+    public float chunkMeshingBudgetMillis = 4f;
+    // debug view; every generated meshlet is kept as gizmos
+    public boolean enableMeshletGizmos = false;
+    // max projected geometric error of a selected meshlet LOD, in pixels; at 1080p and 70 degrees fov,
+    // level 1 kicks in beyond ~260 blocks and level 2 beyond ~520 blocks
+    public float meshletLodPixelThreshold = 6f;
 
     public int targetWorkloadPerThread = 5000;
+    public boolean enableJobWorkloadCalibration = true;
+    public int targetPartitionDurationMicros = 500;
 
     public int maxMultiDrawIndirectUnitCount = 5000;
+
+    // 0 disables periodic ECS stats logging
+    public int ecsStatsLogIntervalSeconds = 0;
 }
@@ -5,10 +5,16 @@ import com.cleanroommc.kirino.ecs.component.scan.event.ComponentScanningEvent;
 import com.cleanroommc.kirino.ecs.component.scan.event.StructScanningEvent;
 import com.cleanroommc.kirino.ecs.job.event.JobRegistrationEvent;
 import com.cleanroommc.kirino.engine.KirinoEngine;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockUnifier;
 import com.cleanroommc.kirino.engine.render.pipeline.post.event.PostProcessingRegistrationEvent;
 import com.cleanroommc.kirino.engine.render.shader.event.ShaderRegistrationEvent;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkDirtyHistogramJob;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkDirtyMarkingJob;
 import com.cleanroommc.kirino.engine.render.task.job.ChunkMeshletGenJob;
 import com.cleanroommc.kirino.engine.render.task.job.ChunkPrioritizationJob;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkSnapshotJob;
+import com.cleanroommc.kirino.engine.render.task.job.MeshletCullingJob;
+import com.cleanroommc.kirino.engine.render.task.job.MeshletLodSelectionJob;
 import com.cleanroommc.kirino.gl.GLTest;
 import com.cleanroommc.kirino.gl.debug.*;
 import com.cleanroommc.kirino.utils.ReflectionUtils;
@@ -21,6 +27,7 @@ import net.minecraft.client.renderer.culling.ClippingHelperImpl;
 import net.minecraft.client.renderer.culling.Frustum;
 import net.minecraft.client.renderer.culling.ICamera;
 import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.client.resources.IReloadableResourceManager;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.ResourceLocation;
@@ -39,6 +46,7 @@ import org.lwjgl.util.glu.Project;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -466,10 +474,11 @@ public final class KirinoCore {
         StopWatch stopWatch = StopWatch.createStarted();
 
         try {
-            MethodHandle ctor = ReflectionUtils.getConstructor(CleanECSRuntime.class, EventBus.class, Logger.class);
+            MethodHandle ctor = ReflectionUtils.getConstructor(CleanECSRuntime.class, EventBus.class, Logger.class, Path.class);
             Preconditions.checkNotNull(ctor);
 
-            ECS_RUNTIME = (CleanECSRuntime) ctor.invokeExact(KIRINO_EVENT_BUS, LOGGER);
+            Path scanCacheFile = KIRINO_CONFIG_HUB.enableEcsScanCache ? MINECRAFT.gameDir.toPath().resolve("kirino").resolve("ecs_scan_cache.bin") : null;
+            ECS_RUNTIME = (CleanECSRuntime) ctor.invokeExact(KIRINO_EVENT_BUS, LOGGER, scanCacheFile);
         } catch (Throwable throwable) {
             throw new RuntimeException("ECS Runtime failed to initialize.", throwable);
         }
@@ -517,6 +526,14 @@ public final class KirinoCore {
 
         KIRINO_ENGINE.renderingCoordinator.deferredInit();
 
+        // registries are frozen by now; registering the listener also builds the table right away
+        if (MINECRAFT.getResourceManager() instanceof IReloadableResourceManager reloadableResourceManager) {
+            reloadableResourceManager.registerReloadListener(resourceManager -> BlockUnifier.rebuildClassificationTable());
+        } else {
+            BlockUnifier.rebuildClassificationTable();
+        }
+        LOGGER.info("Block classification table built. Size: {}", BlockUnifier.getClassificationTable().size());
+
         stopWatch.stop();
         LOGGER.info("Kirino Engine Post-Initialized. Time taken: {} ms", stopWatch.getTime(TimeUnit.MILLISECONDS));
         LOGGER.info("---------------");
@@ -537,8 +554,13 @@ public final class KirinoCore {
 
     @SubscribeEvent
     public static void onJobRegister(JobRegistrationEvent event) {
+        event.register(ChunkDirtyHistogramJob.class);
+        event.register(ChunkDirtyMarkingJob.class);
         event.register(ChunkMeshletGenJob.class);
         event.register(ChunkPrioritizationJob.class);
+        event.register(ChunkSnapshotJob.class);
+        event.register(MeshletCullingJob.class);
+        event.register(MeshletLodSelectionJob.class);
     }
 
     @SubscribeEvent
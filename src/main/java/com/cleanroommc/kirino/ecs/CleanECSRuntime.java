@@ -8,6 +8,7 @@ import com.cleanroommc.kirino.ecs.component.scan.ComponentRegisterPlan;
 import com.cleanroommc.kirino.ecs.component.scan.StructRegisterPlan;
 import com.cleanroommc.kirino.ecs.component.scan.event.ComponentScanningEvent;
 import com.cleanroommc.kirino.ecs.component.scan.event.StructScanningEvent;
+import com.cleanroommc.kirino.ecs.component.scan.helper.ClassScanIndex;
 import com.cleanroommc.kirino.ecs.component.scan.helper.ComponentScanningHelper;
 import com.cleanroommc.kirino.ecs.component.scan.helper.StructScanningHelper;
 import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldDef;
@@ -17,18 +18,23 @@ import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructDef;
 import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructRegistry;
 import com.cleanroommc.kirino.ecs.entity.EntityManager;
 import com.cleanroommc.kirino.ecs.job.IParallelJob;
-import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobDataBinding;
 import com.cleanroommc.kirino.ecs.job.JobRegistry;
 import com.cleanroommc.kirino.ecs.job.JobScheduler;
 import com.cleanroommc.kirino.ecs.job.event.JobRegistrationEvent;
+import com.cleanroommc.kirino.utils.BootstrapTaskGraph;
 import com.cleanroommc.kirino.utils.ReflectionUtils;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import net.minecraftforge.fml.common.eventhandler.EventBus;
 import org.apache.logging.log4j.Logger;
 import org.joml.*;
+import org.jspecify.annotations.Nullable;
 
 import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -41,7 +47,7 @@ public class CleanECSRuntime {
     public final JobScheduler jobScheduler;
 
     @SuppressWarnings({"DataFlowIssue"})
-    private CleanECSRuntime(EventBus eventBus, Logger logger) {
+    private CleanECSRuntime(EventBus eventBus, Logger logger, @Nullable Path scanCacheFile) {
         structRegistry = new StructRegistry();
         fieldRegistry = new FieldRegistry(structRegistry);
 
@@ -57,14 +63,30 @@ public class CleanECSRuntime {
 
         StructScanningEvent structScanningEvent = new StructScanningEvent();
         eventBus.post(structScanningEvent);
-        for (StructRegisterPlan plan : StructScanningHelper.scanStructClasses(structScanningEvent, fieldRegistry)) {
+        ComponentScanningEvent componentScanningEvent = new ComponentScanningEvent();
+        eventBus.post(componentScanningEvent);
+
+        // one pass for both structs and components
+        ClassScanIndex scanIndex = ClassScanIndex.build(structScanningEvent, componentScanningEvent, scanCacheFile, logger);
+        logger.info("Class scan finished. Scanned classpath elements: " + scanIndex.scannedElementCount + "; Cached classpath elements: " + scanIndex.cachedElementCount);
+
+        // class loading runs in the background while plans are generated and registered in order
+        BootstrapTaskGraph taskGraph = BootstrapTaskGraph.create();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Map<String, BootstrapTaskGraph.Task<Class<?>>> classLoadingTasks = new HashMap<>();
+        for (String className : scanIndex.getClassNames()) {
+            classLoadingTasks.put(className, taskGraph.supply("load " + className, () -> {
+                try {
+                    return Class.forName(className, false, classLoader);
+                } catch (ClassNotFoundException e) { // impossible
+                    throw new RuntimeException("Unexpected class not found.", e);
+                }
+            }));
+        }
+
+        for (StructRegisterPlan plan : StructScanningHelper.scanStructClasses(scanIndex, structScanningEvent, fieldRegistry)) {
             // struct class loading
-            Class<?> structClass;
-            try {
-                structClass = Class.forName(plan.structClass(), false, Thread.currentThread().getContextClassLoader());
-            } catch (ClassNotFoundException e) { // impossible
-                throw new RuntimeException("Unexpected class not found.", e);
-            }
+            Class<?> structClass = classLoadingTasks.get(plan.structClass()).join();
 
             try {
                 structClass.getDeclaredConstructor();
@@ -92,16 +114,9 @@ public class CleanECSRuntime {
 
         componentRegistry = new ComponentRegistry(fieldRegistry);
 
-        ComponentScanningEvent componentScanningEvent = new ComponentScanningEvent();
-        eventBus.post(componentScanningEvent);
-        for (ComponentRegisterPlan plan : ComponentScanningHelper.scanComponentClasses(componentScanningEvent, fieldRegistry)) {
+        for (ComponentRegisterPlan plan : ComponentScanningHelper.scanComponentClasses(scanIndex, componentScanningEvent, fieldRegistry)) {
             // component class loading
-            Class<? extends ICleanComponent> componentClass;
-            try {
-                componentClass = Class.forName(plan.componentClass(), false, Thread.currentThread().getContextClassLoader()).asSubclass(ICleanComponent.class);
-            } catch (ClassNotFoundException e) { // impossible
-                throw new RuntimeException("Unexpected class not found.", e);
-            }
+            Class<? extends ICleanComponent> componentClass = classLoadingTasks.get(plan.componentClass()).join().asSubclass(ICleanComponent.class);
 
             try {
                 componentClass.getDeclaredConstructor();
@@ -134,12 +149,19 @@ public class CleanECSRuntime {
         JobRegistrationEvent jobRegistrationEvent = new JobRegistrationEvent();
         eventBus.post(jobRegistrationEvent);
         List<Class<? extends IParallelJob>> parallelJobs = getParallelJobs(jobRegistrationEvent);
+        // accessor and metafactory generation in parallel; registration in order
+        List<BootstrapTaskGraph.Task<JobRegistry.PreparedParallelJob>> jobPreparationTasks = new ArrayList<>();
         for (Class<? extends IParallelJob> clazz : parallelJobs) {
-            jobRegistry.registerParallelJob(clazz);
+            jobPreparationTasks.add(taskGraph.supply("prepare " + clazz.getName(), () -> jobRegistry.prepareParallelJob(clazz)));
+        }
+        for (int i = 0; i < parallelJobs.size(); i++) {
+            Class<? extends IParallelJob> clazz = parallelJobs.get(i);
+            jobRegistry.registerParallelJob(jobPreparationTasks.get(i).join());
             logger.info("Parallel job " + clazz.getName() + " registered. Data queries are as follows:" +
-                    (jobRegistry.getParallelJobDataQueries(clazz).keySet().isEmpty() && jobRegistry.getParallelJobExternalDataQueries(clazz).keySet().isEmpty() ? " (Empty)" : ""));
-            for (JobDataQuery jobDataQuery : jobRegistry.getParallelJobDataQueries(clazz).keySet()) {
-                logger.info("  - Array query: " + componentRegistry.getComponentName(jobDataQuery.componentClass().asSubclass(ICleanComponent.class)) + "; " + String.join(".", jobDataQuery.fieldAccessChain()));
+                    (jobRegistry.getParallelJobDataBindings(clazz).isEmpty() && jobRegistry.getParallelJobExternalDataQueries(clazz).keySet().isEmpty() ? " (Empty)" : ""));
+            for (JobDataBinding jobDataBinding : jobRegistry.getParallelJobDataBindings(clazz)) {
+                logger.info("  - " + (jobDataBinding.groupType() == null ? "Array query: " : "Array group query (" + jobDataBinding.groupType() + "): ") +
+                        componentRegistry.getComponentName(jobDataBinding.componentClass()) + "; " + String.join(".", jobDataBinding.fieldAccessChain()));
             }
             for (String fieldName : jobRegistry.getParallelJobExternalDataQueries(clazz).keySet()) {
                 logger.info("  - External query: " +  fieldName);
@@ -0,0 +1,19 @@
+package com.cleanroommc.kirino.ecs.component;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a {@link ICleanComponent} into double buffering.
+ *
+ * <p>Writers keep targeting the back buffer, while an immutable front view of the component's columns is published
+ * at every {@link com.cleanroommc.kirino.ecs.entity.EntityManager#flush()}. Jobs whose query calls
+ * {@link com.cleanroommc.kirino.ecs.entity.EntityQuery#readFrontBuffer()} read that view, so they may overlap jobs
+ * that write the back buffer.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DoubleBuffered {
+}
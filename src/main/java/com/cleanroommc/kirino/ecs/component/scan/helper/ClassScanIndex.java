@@ -0,0 +1,471 @@
+package com.cleanroommc.kirino.ecs.component.scan.helper;
+
+import com.cleanroommc.kirino.ecs.component.scan.event.ComponentScanningEvent;
+import com.cleanroommc.kirino.ecs.component.scan.event.StructScanningEvent;
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.FieldInfo;
+import io.github.classgraph.Resource;
+import io.github.classgraph.ScanResult;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * All {@link com.cleanroommc.kirino.ecs.component.scan.CleanStruct} and {@link com.cleanroommc.kirino.ecs.component.scan.CleanComponent}
+ * classes found by a single ClassGraph pass over the union of the scan packages.
+ *
+ * <p>Results are cached per classpath jar, keyed by its path, size and last modified time.
+ * Only new or changed jars are rescanned. Directories (i.e. dev environments) are always rescanned
+ * since their modified time doesn't reflect nested changes. The cache keeps the raw hierarchy of every class
+ * in the scan packages, and whether a class implements {@link com.cleanroommc.kirino.ecs.component.ICleanComponent}
+ * is only resolved after all elements are merged in classpath order.</p>
+ *
+ * <p>There is no class loading involved at all.</p>
+ */
+public final class ClassScanIndex {
+    private static final String CLEAN_STRUCT = "com.cleanroommc.kirino.ecs.component.scan.CleanStruct";
+    private static final String CLEAN_COMPONENT = "com.cleanroommc.kirino.ecs.component.scan.CleanComponent";
+    private static final String CLEAN_COMPONENT_INTERFACE = "com.cleanroommc.kirino.ecs.component.ICleanComponent";
+
+    private static final int CACHE_MAGIC = 0x4B45_4353; // KECS
+    private static final int CACHE_VERSION = 2;
+
+    private final Map<String, ScannedClass> classes;
+
+    /**
+     * The number of classpath elements that were scanned by ClassGraph.
+     */
+    public final int scannedElementCount;
+
+    /**
+     * The number of classpath elements that were served by the cache.
+     */
+    public final int cachedElementCount;
+
+    private ClassScanIndex(Map<String, ScannedClass> classes, int scannedElementCount, int cachedElementCount) {
+        this.classes = classes;
+        this.scannedElementCount = scannedElementCount;
+        this.cachedElementCount = cachedElementCount;
+    }
+
+    /**
+     * Both events must have been posted already.
+     *
+     * @param structScanningEvent The struct scanning event
+     * @param componentScanningEvent The component scanning event
+     * @param cacheFile The cache file, or null to disable caching
+     * @param logger The logger
+     * @return The scan index
+     */
+    public static ClassScanIndex build(
+            @NonNull StructScanningEvent structScanningEvent,
+            @NonNull ComponentScanningEvent componentScanningEvent,
+            @Nullable Path cacheFile,
+            @NonNull Logger logger) {
+
+        List<String> packages = getPackages(structScanningEvent, componentScanningEvent);
+        if (packages.isEmpty()) {
+            return new ClassScanIndex(new TreeMap<>(), 0, 0);
+        }
+
+        // classpath discovery only; no scanning
+        List<File> classpathFiles = new ClassGraph().acceptPackages(packages.toArray(new String[0])).getClasspathFiles();
+        return build(structScanningEvent, componentScanningEvent, classpathFiles, cacheFile, logger);
+    }
+
+    /**
+     * Same as {@link #build(StructScanningEvent, ComponentScanningEvent, Path, Logger)} but with an explicit classpath
+     * instead of the one of the current class loaders.
+     *
+     * @param structScanningEvent The struct scanning event
+     * @param componentScanningEvent The component scanning event
+     * @param classpathFiles The classpath elements in lookup order
+     * @param cacheFile The cache file, or null to disable caching
+     * @param logger The logger
+     * @return The scan index
+     */
+    public static ClassScanIndex build(
+            @NonNull StructScanningEvent structScanningEvent,
+            @NonNull ComponentScanningEvent componentScanningEvent,
+            @NonNull List<@NonNull File> classpathFiles,
+            @Nullable Path cacheFile,
+            @NonNull Logger logger) {
+
+        List<String> packages = getPackages(structScanningEvent, componentScanningEvent);
+
+        Map<String, ScannedClass> classes = new TreeMap<>();
+        if (packages.isEmpty()) {
+            return new ClassScanIndex(classes, 0, 0);
+        }
+
+        Map<String, CacheEntry> cache = cacheFile == null ? new HashMap<>() : readCache(cacheFile, packages, logger);
+        Map<String, CacheEntry> newCache = new LinkedHashMap<>();
+
+        // per classpath element, in classpath order; null until scanned
+        List<List<ClassNode>> elementNodes = new ArrayList<>(classpathFiles.size());
+        List<File> uncachedFiles = new ArrayList<>();
+        for (File file : classpathFiles) {
+            if (file.isFile()) {
+                CacheEntry entry = cache.get(file.getAbsolutePath());
+                if (entry != null && entry.size == file.length() && entry.lastModified == file.lastModified()) {
+                    newCache.put(entry.path, entry);
+                    elementNodes.add(entry.classes);
+                    continue;
+                }
+            }
+            elementNodes.add(null);
+            uncachedFiles.add(file);
+        }
+
+        Map<String, List<ClassNode>> scannedNodes = uncachedFiles.isEmpty() ? new HashMap<>() : scanElements(uncachedFiles, packages);
+        for (int i = 0; i < classpathFiles.size(); i++) {
+            if (elementNodes.get(i) != null) {
+                continue;
+            }
+
+            File file = classpathFiles.get(i);
+            List<ClassNode> scanned = scannedNodes.getOrDefault(getElementKey(file), new ArrayList<>());
+            if (file.isFile()) {
+                newCache.put(file.getAbsolutePath(), new CacheEntry(file.getAbsolutePath(), file.length(), file.lastModified(), scanned));
+            }
+            elementNodes.set(i, scanned);
+        }
+        int scannedCount = uncachedFiles.size();
+
+        Map<String, ClassNode> nodes = new HashMap<>();
+        for (List<ClassNode> element : elementNodes) {
+            for (ClassNode node : element) {
+                // first one wins, same as class loading
+                nodes.putIfAbsent(node.className, node);
+            }
+        }
+
+        // the hierarchy is resolved on the merged index, since supertypes may live in other (cached) elements
+        Map<String, Boolean> implementsComponent = new HashMap<>();
+        for (ClassNode node : nodes.values()) {
+            if (node.cleanStruct || node.cleanComponent) {
+                classes.put(node.className, new ScannedClass(
+                        node.className,
+                        node.cleanStruct,
+                        node.cleanComponent,
+                        implementsComponent(node.className, nodes, implementsComponent),
+                        node.fields));
+            }
+        }
+
+        if (cacheFile != null && scannedCount != 0) {
+            writeCache(cacheFile, packages, newCache.values(), logger);
+        }
+
+        return new ClassScanIndex(classes, scannedCount, classpathFiles.size() - scannedCount);
+    }
+
+    /**
+     * Scans the given classpath elements in a single ClassGraph pass and splits the classes by the element they come from.
+     *
+     * <p>ClassGraph drops classes masked by an earlier element of the same scan. Their classfiles are still listed
+     * as resources though, so only the elements that hold masked classes get a follow-up scan restricted to
+     * those classes. That keeps the cache entry of every element complete, while the precedence between the copies
+     * is decided by the merge in classpath order.</p>
+     *
+     * @return The class nodes keyed by {@link #getElementKey(File)}
+     */
+    private static Map<String, List<ClassNode>> scanElements(List<File> files, List<String> packages) {
+        Map<String, List<ClassNode>> scanned = new HashMap<>();
+        Map<File, String> elementKeys = new HashMap<>();
+        Map<String, List<String>> maskedClasses = new LinkedHashMap<>();
+
+        try (ScanResult scanResult = newClassGraph()
+                .overrideClasspath(files)
+                .acceptPackages(packages.toArray(new String[0]))
+                .scan()) {
+            for (ClassInfo classInfo : scanResult.getAllClasses()) {
+                String elementKey = elementKeys.computeIfAbsent(classInfo.getClasspathElementFile(), ClassScanIndex::getElementKey);
+                scanned.computeIfAbsent(elementKey, k -> new ArrayList<>()).add(toClassNode(classInfo));
+            }
+
+            for (Resource resource : scanResult.getResourcesWithExtension("class")) {
+                String path = resource.getPath();
+                String className = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+                // package-info and module-info have no class info
+                ClassInfo classInfo = scanResult.getClassInfo(className);
+                if (classInfo == null) {
+                    continue;
+                }
+
+                String elementKey = elementKeys.computeIfAbsent(resource.getClasspathElementFile(), ClassScanIndex::getElementKey);
+                String classElementKey = elementKeys.computeIfAbsent(classInfo.getClasspathElementFile(), ClassScanIndex::getElementKey);
+                if (!elementKey.equals(classElementKey)) {
+                    maskedClasses.computeIfAbsent(elementKey, k -> new ArrayList<>()).add(className);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : maskedClasses.entrySet()) {
+            try (ScanResult scanResult = newClassGraph()
+                    .overrideClasspath(entry.getKey())
+                    .acceptClasses(entry.getValue().toArray(new String[0]))
+                    .scan()) {
+                for (ClassInfo classInfo : scanResult.getAllClasses()) {
+                    scanned.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(toClassNode(classInfo));
+                }
+            }
+        }
+
+        return scanned;
+    }
+
+    private static ClassGraph newClassGraph() {
+        return new ClassGraph()
+                .enableClassInfo()
+                .enableFieldInfo()
+                .enableAnnotationInfo()
+                .ignoreClassVisibility()
+                .ignoreFieldVisibility();
+    }
+
+    private static ClassNode toClassNode(ClassInfo classInfo) {
+        boolean cleanStruct = classInfo.hasAnnotation(CLEAN_STRUCT);
+        boolean cleanComponent = classInfo.hasAnnotation(CLEAN_COMPONENT);
+
+        // fields only matter for annotated classes; the others are kept for the hierarchy
+        List<ScannedField> fields = new ArrayList<>();
+        if (cleanStruct || cleanComponent) {
+            for (FieldInfo fieldInfo : classInfo.getFieldInfo()) {
+                fields.add(new ScannedField(fieldInfo.getName(), fieldInfo.getTypeDescriptor().toString()));
+            }
+        }
+
+        ClassInfo superclass = classInfo.getSuperclass();
+        return new ClassNode(
+                classInfo.getName(),
+                superclass == null ? "" : superclass.getName(),
+                classInfo.getInterfaces().directOnly().getNames(),
+                cleanStruct,
+                cleanComponent,
+                fields);
+    }
+
+    /**
+     * ClassGraph may report an element under a different path than it was given, e.g. with symbolic links resolved.
+     */
+    private static String getElementKey(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static List<String> getPackages(StructScanningEvent structScanningEvent, ComponentScanningEvent componentScanningEvent) {
+        Set<String> packageSet = new TreeSet<>(StructScanningHelper.getScanPackageNames(structScanningEvent));
+        packageSet.addAll(ComponentScanningHelper.getScanPackageNames(componentScanningEvent));
+        return new ArrayList<>(packageSet);
+    }
+
+    /**
+     * Supertypes outside the scan packages are unknown, so only direct implementations are found there.
+     */
+    private static boolean implementsComponent(String className, Map<String, ClassNode> nodes, Map<String, Boolean> memo) {
+        Boolean cached = memo.get(className);
+        if (cached != null) {
+            return cached;
+        }
+
+        ClassNode node = nodes.get(className);
+        if (node == null) {
+            return false;
+        }
+
+        // guards against malformed cyclic hierarchies
+        memo.put(className, false);
+
+        boolean result = node.interfaceNames.contains(CLEAN_COMPONENT_INTERFACE);
+        if (!result && !node.superclassName.isEmpty()) {
+            result = implementsComponent(node.superclassName, nodes, memo);
+        }
+        for (int i = 0; !result && i < node.interfaceNames.size(); i++) {
+            result = implementsComponent(node.interfaceNames.get(i), nodes, memo);
+        }
+
+        memo.put(className, result);
+        return result;
+    }
+
+    /**
+     * @return The names of all struct and component classes, sorted
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * @param packages The packages (including sub-packages) to look into
+     * @return All struct classes sorted by class name
+     */
+    Map<String, ScannedClass> getStructClasses(List<String> packages) {
+        Map<String, ScannedClass> result = new TreeMap<>();
+        for (ScannedClass scannedClass : classes.values()) {
+            if (scannedClass.cleanStruct() && ClassScanUtils.isInPackages(scannedClass.className(), packages)) {
+                result.put(scannedClass.className(), scannedClass);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param packages The packages (including sub-packages) to look into
+     * @return All component classes sorted by class name
+     */
+    Map<String, ScannedClass> getComponentClasses(List<String> packages) {
+        Map<String, ScannedClass> result = new TreeMap<>();
+        for (ScannedClass scannedClass : classes.values()) {
+            if (scannedClass.cleanComponent() && ClassScanUtils.isInPackages(scannedClass.className(), packages)) {
+                result.put(scannedClass.className(), scannedClass);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every class in the scan packages, annotated or not.
+     *
+     * @param superclassName The superclass name, or empty if there is none
+     * @param interfaceNames The directly implemented interfaces
+     */
+    private record ClassNode(
+            String className,
+            String superclassName,
+            List<String> interfaceNames,
+            boolean cleanStruct,
+            boolean cleanComponent,
+            List<ScannedField> fields) {
+    }
+
+    //<editor-fold desc="cache">
+    private record CacheEntry(String path, long size, long lastModified, List<ClassNode> classes) {
+    }
+
+    private static Map<String, CacheEntry> readCache(Path cacheFile, List<String> packages, Logger logger) {
+        Map<String, CacheEntry> cache = new HashMap<>();
+        if (!Files.isRegularFile(cacheFile)) {
+            return cache;
+        }
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(cacheFile)))) {
+            if (input.readInt() != CACHE_MAGIC || input.readInt() != CACHE_VERSION) {
+                return cache;
+            }
+
+            int packageCount = readCount(input);
+            List<String> cachedPackages = new ArrayList<>(packageCount);
+            for (int i = 0; i < packageCount; i++) {
+                cachedPackages.add(input.readUTF());
+            }
+            // a different package list invalidates everything
+            if (!cachedPackages.equals(packages)) {
+                return cache;
+            }
+
+            int entryCount = readCount(input);
+            for (int i = 0; i < entryCount; i++) {
+                String path = input.readUTF();
+                long size = input.readLong();
+                long lastModified = input.readLong();
+                int classCount = readCount(input);
+                List<ClassNode> classes = new ArrayList<>(classCount);
+                for (int j = 0; j < classCount; j++) {
+                    String className = input.readUTF();
+                    String superclassName = input.readUTF();
+                    int interfaceCount = readCount(input);
+                    List<String> interfaceNames = new ArrayList<>(interfaceCount);
+                    for (int k = 0; k < interfaceCount; k++) {
+                        interfaceNames.add(input.readUTF());
+                    }
+                    byte flags = input.readByte();
+                    int fieldCount = readCount(input);
+                    List<ScannedField> fields = new ArrayList<>(fieldCount);
+                    for (int k = 0; k < fieldCount; k++) {
+                        fields.add(new ScannedField(input.readUTF(), input.readUTF()));
+                    }
+                    classes.add(new ClassNode(className, superclassName, interfaceNames, (flags & 0b01) != 0, (flags & 0b10) != 0, fields));
+                }
+                cache.put(path, new CacheEntry(path, size, lastModified, classes));
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read the ECS scan cache " + cacheFile + ". Falling back to a full scan.", e);
+            cache.clear();
+            try {
+                Files.deleteIfExists(cacheFile);
+            } catch (IOException deleteException) {
+                logger.warn("Failed to delete the ECS scan cache " + cacheFile + ".", deleteException);
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * Every counted item takes at least one byte, so a count beyond the remaining bytes means a corrupt file.
+     */
+    private static int readCount(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > input.available()) {
+            throw new IOException("Invalid count " + count + ". Remaining bytes: " + input.available() + ".");
+        }
+        return count;
+    }
+
+    private static void writeCache(Path cacheFile, List<String> packages, Collection<CacheEntry> entries, Logger logger) {
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                output.writeInt(CACHE_MAGIC);
+                output.writeInt(CACHE_VERSION);
+
+                output.writeInt(packages.size());
+                for (String packageName : packages) {
+                    output.writeUTF(packageName);
+                }
+
+                output.writeInt(entries.size());
+                for (CacheEntry entry : entries) {
+                    output.writeUTF(entry.path);
+                    output.writeLong(entry.size);
+                    output.writeLong(entry.lastModified);
+                    output.writeInt(entry.classes.size());
+                    for (ClassNode node : entry.classes) {
+                        output.writeUTF(node.className);
+                        output.writeUTF(node.superclassName);
+                        output.writeInt(node.interfaceNames.size());
+                        for (String interfaceName : node.interfaceNames) {
+                            output.writeUTF(interfaceName);
+                        }
+                        output.writeByte((node.cleanStruct ? 0b01 : 0) | (node.cleanComponent ? 0b10 : 0));
+                        output.writeInt(node.fields.size());
+                        for (ScannedField field : node.fields) {
+                            output.writeUTF(field.name());
+                            output.writeUTF(field.typeName());
+                        }
+                    }
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write the ECS scan cache " + cacheFile + ".", e);
+        }
+    }
+    //</editor-fold>
+}
@@ -1,16 +1,11 @@
 package com.cleanroommc.kirino.ecs.component.scan.helper;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfo;
-import io.github.classgraph.ScanResult;
-
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
- * A util class that only works for {@link ComponentScanningHelper} and {@link StructScanningHelper}
+ * A util class that only works for {@link ComponentScanningHelper}, {@link StructScanningHelper} and {@link ClassScanIndex}
  *
+ * @see ClassScanIndex
  * @see ComponentScanningHelper
  * @see StructScanningHelper
  */
@@ -23,16 +18,14 @@ public final class ClassScanUtils {
         return lastDot == -1 ? className : className.substring(lastDot + 1);
     }
 
-    static Map<String, ClassInfo> scan(List<String> packages, String annotation) {
-        Map<String, ClassInfo> allClassInfos = new TreeMap<>();
-        try (ScanResult scanResult = new ClassGraph()
-                .enableAllInfo()
-                .acceptPackages(packages.toArray(new String[0]))
-                .scan()) {
-            for (ClassInfo classInfo : scanResult.getClassesWithAnnotation(annotation)) {
-                allClassInfos.put(classInfo.getName(), classInfo);
+    static boolean isInPackages(String className, List<String> packages) {
+        for (String packageName : packages) {
+            if (className.startsWith(packageName) &&
+                    className.length() > packageName.length() &&
+                    className.charAt(packageName.length()) == '.') {
+                return true;
             }
         }
-        return allClassInfos;
+        return false;
     }
 }
@@ -6,8 +6,6 @@ import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldRegistry;
 import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
 import com.cleanroommc.kirino.utils.ReflectionUtils;
 import com.google.common.base.Preconditions;
-import io.github.classgraph.ClassInfo;
-import io.github.classgraph.FieldInfo;
 
 import java.lang.invoke.MethodHandle;
 import java.util.*;
@@ -22,28 +20,28 @@ public final class ComponentScanningHelper {
     private ComponentScanningHelper() {
     }
 
-    private static List<FieldInfo> getValidFields(ClassInfo componentClassInfo, FieldRegistry fieldRegistry) {
-        List<FieldInfo> fields = new ArrayList<>();
+    private static List<ScannedField> getValidFields(ScannedClass componentClass, FieldRegistry fieldRegistry) {
+        List<ScannedField> fields = new ArrayList<>();
 
-        for (FieldInfo field : componentClassInfo.getFieldInfo()) {
-            String fieldClassName = field.getTypeDescriptor().toString();
+        for (ScannedField field : componentClass.fields()) {
+            String fieldClassName = field.typeName();
             if (fieldRegistry.fieldTypeExists_ClassName(fieldClassName)) {
                 fields.add(field);
             }
         }
 
-        fields.sort(Comparator.comparing(FieldInfo::getName));
+        fields.sort(Comparator.comparing(ScannedField::name));
 
         return fields;
     }
 
-    private static List<ComponentRegisterPlan> generatePlans(Map<String, List<FieldInfo>> components, FieldRegistry fieldRegistry) {
+    private static List<ComponentRegisterPlan> generatePlans(Map<String, List<ScannedField>> components, FieldRegistry fieldRegistry) {
         List<ComponentRegisterPlan> plans = new ArrayList<>();
 
         Map<String, Integer> componentNameDuplicates = new HashMap<>();
         Map<String, String> componentNames = new HashMap<>();
 
-        for (Map.Entry<String, List<FieldInfo>> entry : components.entrySet()) {
+        for (Map.Entry<String, List<ScannedField>> entry : components.entrySet()) {
             String componentName = ClassScanUtils.getClassSimpleName(entry.getKey());
             int duplicate = 0;
             if (componentNameDuplicates.containsKey(componentName)) {
@@ -58,13 +56,13 @@ public final class ComponentScanningHelper {
             componentNames.put(entry.getKey(), componentName);
         }
 
-        for (Map.Entry<String, List<FieldInfo>> entry : components.entrySet()) {
+        for (Map.Entry<String, List<ScannedField>> entry : components.entrySet()) {
             String componentClass = entry.getKey();
             String componentName = componentNames.get(entry.getKey());
-            MemberLayout memberLayout = new MemberLayout(entry.getValue().stream().map(FieldInfo::getName).toList());
+            MemberLayout memberLayout = new MemberLayout(entry.getValue().stream().map(ScannedField::name).toList());
             String[] fieldTypeNames = new String[entry.getValue().size()];
             for (int i = 0; i < fieldTypeNames.length; i++) {
-                String fieldClassName = entry.getValue().get(i).getTypeDescriptor().toString();
+                String fieldClassName = entry.getValue().get(i).typeName();
                 fieldTypeNames[i] = fieldRegistry.getFieldTypeName_ClassName(fieldClassName);
             }
 
@@ -77,19 +75,18 @@ public final class ComponentScanningHelper {
     /**
      * Retrieve a list of component register plans.
      *
+     * @param scanIndex The scan index
      * @param event The component scanning event
      * @param fieldRegistry The field registry
      * @return A list of component register plans
      */
-    public static List<ComponentRegisterPlan> scanComponentClasses(ComponentScanningEvent event, FieldRegistry fieldRegistry) {
+    public static List<ComponentRegisterPlan> scanComponentClasses(ClassScanIndex scanIndex, ComponentScanningEvent event, FieldRegistry fieldRegistry) {
         List<String> scanPackageNames = getScanPackageNames(event);
-        Map<String, ClassInfo> allClassInfos = ClassScanUtils.scan(
-                scanPackageNames,
-                "com.cleanroommc.kirino.ecs.component.scan.CleanComponent");
+        Map<String, ScannedClass> allClasses = scanIndex.getComponentClasses(scanPackageNames);
 
-        Map<String, List<FieldInfo>> components = new TreeMap<>();
-        for (Map.Entry<String, ClassInfo> entry : allClassInfos.entrySet()) {
-            if (entry.getValue().implementsInterface("com.cleanroommc.kirino.ecs.component.ICleanComponent")) {
+        Map<String, List<ScannedField>> components = new TreeMap<>();
+        for (Map.Entry<String, ScannedClass> entry : allClasses.entrySet()) {
+            if (entry.getValue().implementsComponent()) {
                 components.put(entry.getKey(), getValidFields(entry.getValue(), fieldRegistry));
             }
         }
@@ -98,7 +95,7 @@ public final class ComponentScanningHelper {
     }
 
     @SuppressWarnings("unchecked")
-    private static List<String> getScanPackageNames(ComponentScanningEvent event) {
+    static List<String> getScanPackageNames(ComponentScanningEvent event) {
         MethodHandle scanPackageNamesGetter = ReflectionUtils.getFieldGetter(ComponentScanningEvent.class, "scanPackageNames", List.class);
         Preconditions.checkNotNull(scanPackageNamesGetter);
 
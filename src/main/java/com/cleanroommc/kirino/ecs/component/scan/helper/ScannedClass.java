@@ -0,0 +1,20 @@
+package com.cleanroommc.kirino.ecs.component.scan.helper;
+
+import java.util.List;
+
+/**
+ * A lightweight replacement of ClassGraph's <code>ClassInfo</code> that outlives the scan result and can be cached.
+ *
+ * @param className The class name
+ * @param cleanStruct Whether the class is annotated with {@link com.cleanroommc.kirino.ecs.component.scan.CleanStruct}
+ * @param cleanComponent Whether the class is annotated with {@link com.cleanroommc.kirino.ecs.component.scan.CleanComponent}
+ * @param implementsComponent Whether the class implements {@link com.cleanroommc.kirino.ecs.component.ICleanComponent}
+ * @param fields All declared fields in declaration order
+ */
+record ScannedClass(
+        String className,
+        boolean cleanStruct,
+        boolean cleanComponent,
+        boolean implementsComponent,
+        List<ScannedField> fields) {
+}
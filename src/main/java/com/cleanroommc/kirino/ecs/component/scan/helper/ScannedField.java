@@ -0,0 +1,10 @@
+package com.cleanroommc.kirino.ecs.component.scan.helper;
+
+/**
+ * A lightweight replacement of ClassGraph's <code>FieldInfo</code> that outlives the scan result and can be cached.
+ *
+ * @param name The field name
+ * @param typeName The field type name, e.g. <code>int</code> or <code>org.joml.Vector3f</code>
+ */
+record ScannedField(String name, String typeName) {
+}
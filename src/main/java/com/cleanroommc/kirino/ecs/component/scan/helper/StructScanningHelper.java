@@ -8,8 +8,6 @@ import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructDef;
 import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
 import com.cleanroommc.kirino.utils.ReflectionUtils;
 import com.google.common.base.Preconditions;
-import io.github.classgraph.ClassInfo;
-import io.github.classgraph.FieldInfo;
 
 import java.lang.invoke.MethodHandle;
 import java.util.*;
@@ -25,32 +23,32 @@ public final class StructScanningHelper {
         super();
     }
 
-    private static List<FieldInfo> getValidFields(Map<String, ClassInfo> allClassInfos, ClassInfo structClassInfo, FieldRegistry fieldRegistry) {
-        List<FieldInfo> fields = new ArrayList<>();
+    private static List<ScannedField> getValidFields(Map<String, ScannedClass> allClasses, ScannedClass structClass, FieldRegistry fieldRegistry) {
+        List<ScannedField> fields = new ArrayList<>();
 
-        for (FieldInfo field : structClassInfo.getFieldInfo()) {
-            String fieldClassName = field.getTypeDescriptor().toString();
-            if (allClassInfos.containsKey(fieldClassName) || fieldRegistry.fieldTypeExists_ClassName(fieldClassName)) {
+        for (ScannedField field : structClass.fields()) {
+            String fieldClassName = field.typeName();
+            if (allClasses.containsKey(fieldClassName) || fieldRegistry.fieldTypeExists_ClassName(fieldClassName)) {
                 fields.add(field);
             }
         }
 
-        fields.sort(Comparator.comparing(FieldInfo::getName));
+        fields.sort(Comparator.comparing(ScannedField::name));
 
         return fields;
     }
 
     // todo: more strict algorithm - not allowing one's subclasses to be included in the fields
-    private static void removeSelfReference(Set<String> dirtyStructs, Map<String, List<FieldInfo>> structs, String structClass, List<String> prevStructClasses, List<FieldInfo> fields) {
+    private static void removeSelfReference(Set<String> dirtyStructs, Map<String, List<ScannedField>> structs, String structClass, List<String> prevStructClasses, List<ScannedField> fields) {
         if (dirtyStructs.contains(structClass)) {
             return;
         }
         dirtyStructs.add(structClass);
 
-        List<FieldInfo> fieldsToRemove = new ArrayList<>();
+        List<ScannedField> fieldsToRemove = new ArrayList<>();
 
-        for (FieldInfo field : fields) {
-            String fieldClassName = field.getTypeDescriptor().toString();
+        for (ScannedField field : fields) {
+            String fieldClassName = field.typeName();
             if (prevStructClasses.contains(fieldClassName)) {
                 fieldsToRemove.add(field);
                 continue;
@@ -65,13 +63,13 @@ public final class StructScanningHelper {
         fields.removeAll(fieldsToRemove);
     }
 
-    private static List<StructRegisterPlan> generatePlans(Map<String, List<FieldInfo>> structs, FieldRegistry fieldRegistry) {
+    private static List<StructRegisterPlan> generatePlans(Map<String, List<ScannedField>> structs, FieldRegistry fieldRegistry) {
         List<StructRegisterPlan> plans = new ArrayList<>();
 
         Map<String, Integer> structNameDuplicates = new HashMap<>();
         Map<String, String> structNames = new HashMap<>();
 
-        for (Map.Entry<String, List<FieldInfo>> entry : structs.entrySet()) {
+        for (Map.Entry<String, List<ScannedField>> entry : structs.entrySet()) {
             String structName = ClassScanUtils.getClassSimpleName(entry.getKey());
             int duplicate = 0;
             if (structNameDuplicates.containsKey(structName)) {
@@ -86,13 +84,13 @@ public final class StructScanningHelper {
             structNames.put(entry.getKey(), structName);
         }
 
-        for (Map.Entry<String, List<FieldInfo>> entry : structs.entrySet()) {
+        for (Map.Entry<String, List<ScannedField>> entry : structs.entrySet()) {
             String structClass = entry.getKey();
             String structName = structNames.get(entry.getKey());
-            MemberLayout memberLayout = new MemberLayout(entry.getValue().stream().map(FieldInfo::getName).toList());
+            MemberLayout memberLayout = new MemberLayout(entry.getValue().stream().map(ScannedField::name).toList());
             List<FieldDef> fieldDefs = new ArrayList<>();
-            for (FieldInfo field : entry.getValue()) {
-                String fieldClassName = field.getTypeDescriptor().toString();
+            for (ScannedField field : entry.getValue()) {
+                String fieldClassName = field.typeName();
                 if (structNames.containsKey(fieldClassName)) {
                     fieldDefs.add(new FieldDef(structNames.get(fieldClassName)));
                 } else {
@@ -110,23 +108,22 @@ public final class StructScanningHelper {
     /**
      * Retrieve a list of struct register plans.
      *
+     * @param scanIndex The scan index
      * @param event The struct scanning event
      * @param fieldRegistry The field registry
      * @return A list of struct register plans
      */
-    public static List<StructRegisterPlan> scanStructClasses(StructScanningEvent event, FieldRegistry fieldRegistry) {
+    public static List<StructRegisterPlan> scanStructClasses(ClassScanIndex scanIndex, StructScanningEvent event, FieldRegistry fieldRegistry) {
         List<String> scanPackageNames = getScanPackageNames(event);
-        Map<String, ClassInfo> allClassInfos = ClassScanUtils.scan(
-                scanPackageNames,
-                "com.cleanroommc.kirino.ecs.component.scan.CleanStruct");
+        Map<String, ScannedClass> allClasses = scanIndex.getStructClasses(scanPackageNames);
 
-        Map<String, List<FieldInfo>> structs = new TreeMap<>();
-        for (Map.Entry<String, ClassInfo> entry : allClassInfos.entrySet()) {
-            structs.put(entry.getKey(), getValidFields(allClassInfos, entry.getValue(), fieldRegistry));
+        Map<String, List<ScannedField>> structs = new TreeMap<>();
+        for (Map.Entry<String, ScannedClass> entry : allClasses.entrySet()) {
+            structs.put(entry.getKey(), getValidFields(allClasses, entry.getValue(), fieldRegistry));
         }
 
         Set<String> dirtyStructs = new HashSet<>();
-        for (Map.Entry<String, List<FieldInfo>> entry : structs.entrySet()) {
+        for (Map.Entry<String, List<ScannedField>> entry : structs.entrySet()) {
             removeSelfReference(dirtyStructs, structs, entry.getKey(), Collections.singletonList(entry.getKey()), entry.getValue());
         }
 
@@ -134,7 +131,7 @@ public final class StructScanningHelper {
     }
 
     @SuppressWarnings("unchecked")
-    private static List<String> getScanPackageNames(StructScanningEvent event) {
+    static List<String> getScanPackageNames(StructScanningEvent event) {
         MethodHandle scanPackageNamesGetter = ReflectionUtils.getFieldGetter(StructScanningEvent.class, "scanPackageNames", List.class);
         Preconditions.checkNotNull(scanPackageNamesGetter);
 
@@ -2,15 +2,31 @@ package com.cleanroommc.kirino.ecs.entity;
 
 import com.cleanroommc.kirino.ecs.component.ComponentRegistry;
 import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FlattenedField;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.FlattenedScalarType;
 import com.cleanroommc.kirino.ecs.storage.ArchetypeDataPool;
 import com.cleanroommc.kirino.ecs.storage.ArchetypeKey;
 import com.cleanroommc.kirino.ecs.storage.HeapPool;
+import com.cleanroommc.kirino.ecs.storage.PoolPolicy;
+import com.cleanroommc.kirino.ecs.storage.PoolPolicyHint;
+import com.cleanroommc.kirino.ecs.storage.PoolStats;
 import com.cleanroommc.kirino.ecs.world.CleanWorld;
 import com.google.common.base.Preconditions;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class EntityManager {
@@ -63,8 +79,51 @@ public class EntityManager {
 
     private final Map<ArchetypeKey, ArchetypeDataPool> archetypes = new HashMap<>();
 
+    private final Map<ArchetypeKey, PoolPolicy> poolPolicies = new HashMap<>();
+
     protected final List<EntityCommand> commandBuffer = new ArrayList<>();
 
+    // flush stats
+    private long flushCount = 0;
+    private int lastFlushCommands = 0;
+    private int maxFlushCommands = 0;
+    private long totalFlushCommands = 0;
+    private long lastFlushNanos = 0;
+    private long maxFlushNanos = 0;
+    private long totalFlushNanos = 0;
+
+    /**
+     * Registers the pool policy of the archetype with exactly these components. It overrides {@link PoolPolicyHint}s
+     * and only affects pools created afterward.
+     * </br></br>
+     * Thread safety is guaranteed.
+     *
+     * @param policy The pool policy
+     * @param components The component types of the archetype
+     */
+    public synchronized void registerPoolPolicy(@NonNull PoolPolicy policy, @NonNull Class<? extends ICleanComponent> @NonNull ... components) {
+        Preconditions.checkNotNull(policy);
+        Preconditions.checkNotNull(components);
+        Preconditions.checkArgument(components.length != 0, "Argument \"components\" must not be empty.");
+
+        poolPolicies.put(new ArchetypeKey(Arrays.asList(components)), policy);
+    }
+
+    private ArchetypeDataPool newPool(ArchetypeKey archetypeKey, List<Class<? extends ICleanComponent>> components) {
+        PoolPolicy policy = poolPolicies.get(archetypeKey);
+        if (policy == null) {
+            List<PoolPolicyHint> hints = new ArrayList<>();
+            for (Class<? extends ICleanComponent> component : components) {
+                PoolPolicyHint hint = component.getAnnotation(PoolPolicyHint.class);
+                if (hint != null) {
+                    hints.add(hint);
+                }
+            }
+            policy = PoolPolicy.combine(hints);
+        }
+        return new HeapPool(componentRegistry, components, policy);
+    }
+
     @NonNull
     public EntityQuery newQuery() {
         return EntityQuery.query();
@@ -102,19 +161,22 @@ public class EntityManager {
     }
 
     /**
-     * Consume all buffered commands.
+     * Consume all buffered commands, then swap the buffers of {@link com.cleanroommc.kirino.ecs.component.DoubleBuffered} components.
      * </br></br>
-     * Thread safety is guaranteed, but never call it during job or system execution.
+     * Thread safety is guaranteed, but never call it during job or system execution, except for jobs that only read front buffers.
      * The only place to call it is the end of {@link CleanWorld#update()}.
      */
     public synchronized void flush() {
+        long startNanos = System.nanoTime();
+        int commandCount;
         synchronized (commandBuffer) {
+            commandCount = commandBuffer.size();
             for (EntityCommand command : commandBuffer) {
                 switch (command.type) {
                     case CREATE -> {
                         List<Class<? extends ICleanComponent>> components = entityComponents.get(command.index);
                         ArchetypeKey archetypeKey = entityArchetypeLocations.get(command.index);
-                        ArchetypeDataPool pool = archetypes.computeIfAbsent(archetypeKey, k -> new HeapPool(componentRegistry, components, 100, 50, 50));
+                        ArchetypeDataPool pool = archetypes.computeIfAbsent(archetypeKey, k -> newPool(k, components));
                         pool.addEntity(command.index, command.newComponents);
                     }
                     case DESTROY -> {
@@ -149,7 +211,7 @@ public class EntityManager {
                         archetypeKey = new ArchetypeKey(components);
                         entityArchetypeLocations.set(command.index, archetypeKey);
 
-                        ArchetypeDataPool newPool = archetypes.computeIfAbsent(archetypeKey, k -> new HeapPool(componentRegistry, components, 100, 50, 50));
+                        ArchetypeDataPool newPool = archetypes.computeIfAbsent(archetypeKey, k -> newPool(k, components));
                         oldPool.removeEntity(command.index);
                         newPool.addEntity(command.index, newComponents);
                     }
@@ -170,7 +232,7 @@ public class EntityManager {
                         archetypeKey = new ArchetypeKey(components);
                         entityArchetypeLocations.set(command.index, archetypeKey);
 
-                        ArchetypeDataPool newPool = archetypes.computeIfAbsent(archetypeKey, k -> new HeapPool(componentRegistry, components, 100, 50, 50));
+                        ArchetypeDataPool newPool = archetypes.computeIfAbsent(archetypeKey, k -> newPool(k, components));
                         oldPool.removeEntity(command.index);
                         newPool.addEntity(command.index, newComponents);
                     }
@@ -178,6 +240,55 @@ public class EntityManager {
             }
             commandBuffer.clear();
         }
+
+        for (ArchetypeDataPool pool : archetypes.values()) {
+            pool.tryShrink();
+            pool.swapBuffers();
+        }
+
+        long nanos = System.nanoTime() - startNanos;
+        flushCount++;
+        lastFlushCommands = commandCount;
+        maxFlushCommands = Math.max(maxFlushCommands, commandCount);
+        totalFlushCommands += commandCount;
+        lastFlushNanos = nanos;
+        maxFlushNanos = Math.max(maxFlushNanos, nanos);
+        totalFlushNanos += nanos;
+    }
+
+    /**
+     * Thread safety is guaranteed.
+     *
+     * @return The memory usage and flush activity
+     */
+    @NonNull
+    public synchronized EntityManagerStats getStats() {
+        List<PoolStats> poolStats = new ArrayList<>(archetypes.size());
+        int liveEntities = 0;
+        for (ArchetypeDataPool pool : archetypes.values()) {
+            PoolStats stats = pool.getStats();
+            poolStats.add(stats);
+            liveEntities += stats.liveRows();
+        }
+
+        int pendingCommands;
+        synchronized (commandBuffer) {
+            pendingCommands = commandBuffer.size();
+        }
+
+        return new EntityManagerStats(
+                indexCounter,
+                liveEntities,
+                freeIndexes.size(),
+                pendingCommands,
+                flushCount,
+                lastFlushCommands,
+                maxFlushCommands,
+                totalFlushCommands,
+                lastFlushNanos,
+                maxFlushNanos,
+                totalFlushNanos,
+                poolStats);
     }
 
     /**
@@ -296,6 +407,276 @@ public class EntityManager {
         }
     }
 
+    //<editor-fold desc="snapshot">
+    private static final int SNAPSHOT_MAGIC = 0x4B45_534E; // KESN
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private static String readSnapshotString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        Preconditions.checkArgument(length >= 0 && length <= buffer.remaining(),
+                "String length %s is out of bounds. Remaining bytes: %s.", length, buffer.remaining());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes all entities to a binary snapshot.
+     * The header contains the component schema (component and field names with their flattened scalar types) and the entity table,
+     * followed by the raw column blocks of every archetype.
+     * Destroy callbacks aren't persisted.
+     * </br></br>
+     * Thread safety is guaranteed, but never call it during job or system execution. Buffered commands must be flushed beforehand.
+     *
+     * @see #readSnapshot(Path, Function)
+     *
+     * @param file The snapshot file
+     * @throws IOException If the file can't be written
+     */
+    public synchronized void writeSnapshot(@NonNull Path file) throws IOException {
+        Preconditions.checkNotNull(file);
+        synchronized (commandBuffer) {
+            Preconditions.checkState(commandBuffer.isEmpty(), "Buffered commands must be flushed before writing a snapshot.");
+        }
+
+        List<ArchetypeDataPool> pools = new ArrayList<>(archetypes.values());
+        List<Class<? extends ICleanComponent>> schema = new ArrayList<>();
+        Map<Class<? extends ICleanComponent>, Integer> schemaOrdinals = new HashMap<>();
+        for (ArchetypeDataPool pool : pools) {
+            for (Class<? extends ICleanComponent> component : pool.components) {
+                if (!schemaOrdinals.containsKey(component)) {
+                    schemaOrdinals.put(component, schema.size());
+                    schema.add(component);
+                }
+            }
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotChannelWriter writer = new SnapshotChannelWriter(channel);
+            writer.writeInt(SNAPSHOT_MAGIC);
+            writer.writeInt(SNAPSHOT_VERSION);
+
+            // component schema
+            writer.writeInt(schema.size());
+            for (Class<? extends ICleanComponent> component : schema) {
+                String componentName = componentRegistry.getComponentName(component);
+                writer.writeString(componentName);
+                List<String> fieldNames = componentRegistry.getClassMemberLayout(componentName).fieldNames;
+                List<FlattenedField> fields = componentRegistry.getComponentDescFlattened(componentName).fields;
+                writer.writeInt(fields.size());
+                for (int i = 0; i < fields.size(); i++) {
+                    writer.writeString(fieldNames.get(i));
+                    writer.writeInt(fields.get(i).scalarTypes.size());
+                    for (FlattenedScalarType scalarType : fields.get(i).scalarTypes) {
+                        writer.writeInt(scalarType.ordinal());
+                    }
+                }
+            }
+
+            // entity table
+            writer.writeInt(indexCounter);
+            for (int i = 0; i < indexCounter; i++) {
+                writer.writeInt(entityGenerations.get(i));
+            }
+            writer.writeInt(freeIndexes.size());
+            for (int freeIndex : freeIndexes) {
+                writer.writeInt(freeIndex);
+            }
+
+            // archetypes
+            writer.writeInt(pools.size());
+            for (ArchetypeDataPool pool : pools) {
+                writer.writeInt(pool.components.size());
+                for (Class<? extends ICleanComponent> component : pool.components) {
+                    writer.writeInt(schemaOrdinals.get(component));
+                }
+                int[] rowEntityIDs = pool.getRowEntityIDs();
+                writer.writeInt(rowEntityIDs.length);
+                writer.writeInts(rowEntityIDs, rowEntityIDs.length);
+                pool.writeColumns(writer);
+            }
+
+            writer.flush();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces all entities with the ones from a snapshot written by {@link #writeSnapshot(Path)}.
+     * The file is memory-mapped and column blocks are bulk-copied into the pools, so there is no per-entity parsing or reflection.
+     * </br>
+     * Entity handles obtained before this call must be dropped. Destroy callbacks of the replaced entities aren't executed.
+     * </br></br>
+     * Thread safety is guaranteed, but never call it during job or system execution. Buffered commands must be flushed beforehand.
+     *
+     * @param file The snapshot file
+     * @param destroyCallbackProvider Provides the destroy callback for a restored entity given its component types; nullable
+     * @return Handles of all restored entities
+     * @throws IOException If the file can't be read, is malformed, or its component schema doesn't match the component registry
+     */
+    @NonNull
+    public synchronized List<CleanEntityHandle> readSnapshot(
+            @NonNull Path file,
+            @Nullable Function<List<Class<? extends ICleanComponent>>, @Nullable IEntityDestroyCallback> destroyCallbackProvider) throws IOException {
+
+        Preconditions.checkNotNull(file);
+        synchronized (commandBuffer) {
+            Preconditions.checkState(commandBuffer.isEmpty(), "Buffered commands must be flushed before reading a snapshot.");
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is too large.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int entityCount;
+        int[] generations;
+        int[] newFreeIndexes;
+        Map<ArchetypeKey, ArchetypeDataPool> newArchetypes = new HashMap<>();
+        List<List<Class<? extends ICleanComponent>>> newEntityComponents;
+        ArchetypeKey[] newEntityArchetypeLocations;
+        try {
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Snapshot " + file + " has an unknown format.");
+            }
+
+            // component schema
+            int schemaSize = buffer.getInt();
+            Preconditions.checkArgument(schemaSize >= 0, "Negative schema size %s.", schemaSize);
+            List<Class<? extends ICleanComponent>> schema = new ArrayList<>(schemaSize);
+            for (int i = 0; i < schemaSize; i++) {
+                String componentName = readSnapshotString(buffer);
+                if (!componentRegistry.componentExists(componentName)) {
+                    throw new IOException("Snapshot " + file + " contains an unregistered component \"" + componentName + "\".");
+                }
+
+                // same field names in the same order, each with the same flattened scalar types
+                List<String> fieldNames = componentRegistry.getClassMemberLayout(componentName).fieldNames;
+                List<FlattenedField> fields = componentRegistry.getComponentDescFlattened(componentName).fields;
+                boolean match = buffer.getInt() == fields.size();
+                for (int j = 0; match && j < fields.size(); j++) {
+                    List<FlattenedScalarType> scalarTypes = fields.get(j).scalarTypes;
+                    match = readSnapshotString(buffer).equals(fieldNames.get(j)) && buffer.getInt() == scalarTypes.size();
+                    for (int k = 0; match && k < scalarTypes.size(); k++) {
+                        match = buffer.getInt() == scalarTypes.get(k).ordinal();
+                    }
+                }
+                if (!match) {
+                    throw new IOException("Snapshot " + file + " has a different layout of component \"" + componentName + "\".");
+                }
+
+                schema.add(componentRegistry.getComponentClass(componentName));
+            }
+
+            // entity table
+            entityCount = buffer.getInt();
+            Preconditions.checkArgument(entityCount >= 0, "Negative entity count %s.", entityCount);
+            generations = new int[entityCount];
+            buffer.asIntBuffer().get(generations);
+            buffer.position(buffer.position() + entityCount * Integer.BYTES);
+            int freeIndexCount = buffer.getInt();
+            Preconditions.checkArgument(freeIndexCount >= 0 && freeIndexCount <= entityCount,
+                    "Free index count %s is out of bounds. Entity count: %s.", freeIndexCount, entityCount);
+            newFreeIndexes = new int[freeIndexCount];
+            buffer.asIntBuffer().get(newFreeIndexes);
+            buffer.position(buffer.position() + newFreeIndexes.length * Integer.BYTES);
+            boolean[] free = new boolean[entityCount];
+            for (int freeIndex : newFreeIndexes) {
+                Preconditions.checkElementIndex(freeIndex, entityCount, "Free index");
+                Preconditions.checkArgument(!free[freeIndex], "Duplicated free index %s.", freeIndex);
+                free[freeIndex] = true;
+            }
+
+            // archetypes
+            newEntityComponents = new ArrayList<>(Collections.nCopies(entityCount, null));
+            newEntityArchetypeLocations = new ArchetypeKey[entityCount];
+            int archetypeCount = buffer.getInt();
+            Preconditions.checkArgument(archetypeCount >= 0, "Negative archetype count %s.", archetypeCount);
+            for (int i = 0; i < archetypeCount; i++) {
+                List<Class<? extends ICleanComponent>> components = new ArrayList<>();
+                int componentCount = buffer.getInt();
+                Preconditions.checkArgument(componentCount >= 0, "Negative component count %s.", componentCount);
+                for (int j = 0; j < componentCount; j++) {
+                    components.add(schema.get(buffer.getInt()));
+                }
+
+                ArchetypeKey archetypeKey = new ArchetypeKey(components);
+                int rowCount = buffer.getInt();
+                Preconditions.checkArgument(rowCount >= 0, "Negative row count %s.", rowCount);
+                int[] rowEntityIDs = new int[rowCount];
+                buffer.asIntBuffer().get(rowEntityIDs);
+                buffer.position(buffer.position() + rowEntityIDs.length * Integer.BYTES);
+                for (int entityID : rowEntityIDs) {
+                    if (entityID == -1) {
+                        continue;
+                    }
+                    if (entityID < 0 || entityID >= entityCount || newEntityComponents.get(entityID) != null) {
+                        throw new IOException("Snapshot " + file + " contains an invalid entity id " + entityID + ".");
+                    }
+                    newEntityComponents.set(entityID, components);
+                    newEntityArchetypeLocations[entityID] = archetypeKey;
+                }
+
+                ArchetypeDataPool pool = newPool(archetypeKey, components);
+                pool.readColumns(buffer, rowEntityIDs);
+                pool.swapBuffers();
+                if (newArchetypes.put(archetypeKey, pool) != null) {
+                    throw new IOException("Snapshot " + file + " contains duplicated archetypes.");
+                }
+            }
+
+            // an index is free if and only if no archetype holds it
+            for (int i = 0; i < entityCount; i++) {
+                Preconditions.checkArgument(free[i] == (newEntityComponents.get(i) == null),
+                        "Entity %s is %s but %s.", i, free[i] ? "free" : "dead", free[i] ? "alive" : "not free");
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Snapshot " + file + " is truncated or malformed.", e);
+        }
+
+        // nothing is touched until the whole file is parsed
+        entityComponents.clear();
+        entityArchetypeLocations.clear();
+        entityGenerations.clear();
+        entityDestroyCallbacks.clear();
+        freeIndexes.clear();
+        archetypes.clear();
+        archetypes.putAll(newArchetypes);
+        indexCounter = entityCount;
+        for (int freeIndex : newFreeIndexes) {
+            freeIndexes.add(freeIndex);
+        }
+
+        ArchetypeKey emptyArchetypeKey = new ArchetypeKey(new ArrayList<>());
+        List<CleanEntityHandle> handles = new ArrayList<>();
+        for (int i = 0; i < entityCount; i++) {
+            List<Class<? extends ICleanComponent>> components = newEntityComponents.get(i);
+            boolean alive = components != null;
+            components = alive ? new ArrayList<>(components) : new ArrayList<>();
+
+            entityComponents.add(components);
+            entityArchetypeLocations.add(alive ? newEntityArchetypeLocations[i] : emptyArchetypeKey);
+            entityGenerations.add(generations[i]);
+            entityDestroyCallbacks.add(alive && destroyCallbackProvider != null ? destroyCallbackProvider.apply(components) : null);
+
+            if (alive) {
+                handles.add(new CleanEntityHandle(this, i, generations[i]));
+            }
+        }
+
+        return handles;
+    }
+    //</editor-fold>
+
     protected int getLatestGeneration(int index) {
         Preconditions.checkPositionIndex(index, entityGenerations.size());
 
@@ -0,0 +1,92 @@
+package com.cleanroommc.kirino.ecs.entity;
+
+import com.cleanroommc.kirino.ecs.storage.PoolStats;
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable snapshot of the memory usage and flush activity of an {@link EntityManager}.
+ *
+ * <p>Durations are in nanoseconds.</p>
+ *
+ * @param entitySlots The number of entity ids handed out so far
+ * @param liveEntities The number of live entities
+ * @param freeEntitySlots The number of entity ids waiting for reuse
+ * @param pendingCommands The number of buffered commands not flushed yet
+ * @param flushCount The number of flushes so far
+ * @param lastFlushCommands The number of commands consumed by the latest flush
+ * @param maxFlushCommands The maximum number of commands consumed by a single flush
+ * @param totalFlushCommands The number of commands consumed by all flushes
+ * @param lastFlushNanos The duration of the latest flush
+ * @param maxFlushNanos The maximum duration of a single flush
+ * @param totalFlushNanos The duration of all flushes
+ * @param archetypes The stats of every archetype
+ */
+public record EntityManagerStats(
+        int entitySlots,
+        int liveEntities,
+        int freeEntitySlots,
+        int pendingCommands,
+        long flushCount,
+        int lastFlushCommands,
+        int maxFlushCommands,
+        long totalFlushCommands,
+        long lastFlushNanos,
+        long maxFlushNanos,
+        long totalFlushNanos,
+        @NonNull List<PoolStats> archetypes) {
+
+    public long totalColumnBytes() {
+        long bytes = 0;
+        for (PoolStats pool : archetypes) {
+            bytes += pool.columnBytes() + pool.frontBufferBytes();
+        }
+        return bytes;
+    }
+
+    public long totalUnusedBytes() {
+        long bytes = 0;
+        for (PoolStats pool : archetypes) {
+            bytes += pool.unusedBytes();
+        }
+        return bytes;
+    }
+
+    public double averageFlushCommands() {
+        return flushCount == 0 ? 0d : (double) totalFlushCommands / flushCount;
+    }
+
+    public double averageFlushNanos() {
+        return flushCount == 0 ? 0d : (double) totalFlushNanos / flushCount;
+    }
+
+    /**
+     * @return A multi-line summary for logging
+     */
+    @NonNull
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("ECS stats: ").append(liveEntities).append(" live entities; ")
+                .append(entitySlots).append(" slots (").append(freeEntitySlots).append(" free); ")
+                .append(archetypes.size()).append(" archetypes; ")
+                .append(totalColumnBytes() / 1024).append(" KiB columns (").append(totalUnusedBytes() / 1024).append(" KiB unused)\n");
+        builder.append("  Flushes: ").append(flushCount)
+                .append("; Commands last/avg/max: ").append(lastFlushCommands).append("/").append(String.format(Locale.ROOT, "%.1f", averageFlushCommands())).append("/").append(maxFlushCommands)
+                .append("; Duration last/avg/max: ").append(String.format(Locale.ROOT, "%.3f/%.3f/%.3f ms", lastFlushNanos / 1e6, averageFlushNanos() / 1e6, maxFlushNanos / 1e6))
+                .append("; Pending commands: ").append(pendingCommands);
+        for (PoolStats pool : archetypes) {
+            builder.append("\n  - ").append(pool.components().stream().map(Class::getSimpleName).toList())
+                    .append(": rows ").append(pool.liveRows()).append("/").append(pool.highWaterRows()).append("/").append(pool.capacity())
+                    .append(" (live/used/capacity); fragmentation ").append(String.format(Locale.ROOT, "%.1f%%", pool.fragmentation() * 100))
+                    .append("; ").append(pool.columnBytes() / 1024).append(" KiB columns");
+            if (pool.frontBufferBytes() != 0) {
+                builder.append(" + ").append(pool.frontBufferBytes() / 1024).append(" KiB front");
+            }
+            builder.append("; grow/shrink ").append(pool.growCount()).append("/").append(pool.shrinkCount())
+                    .append(" (").append(pool.resizeBytesCopied() / 1024).append(" KiB copied)");
+        }
+        return builder.toString();
+    }
+}
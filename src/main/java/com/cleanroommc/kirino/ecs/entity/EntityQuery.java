@@ -9,6 +9,7 @@ import java.util.List;
 public final class EntityQuery {
     final List<Class<? extends ICleanComponent>> mustHave;
     final List<Class<? extends ICleanComponent>> mustNotHave;
+    boolean frontBuffer;
 
     private EntityQuery() {
         mustHave = new ArrayList<>();
@@ -49,4 +50,20 @@ public final class EntityQuery {
         mustNotHave.add(component);
         return this;
     }
+
+    /**
+     * Reads the front view of each archetype instead of the live data.
+     * Only components annotated with {@link com.cleanroommc.kirino.ecs.component.DoubleBuffered} can be read this way.
+     *
+     * @return The query object
+     */
+    @NonNull
+    public EntityQuery readFrontBuffer() {
+        frontBuffer = true;
+        return this;
+    }
+
+    public boolean readsFrontBuffer() {
+        return frontBuffer;
+    }
 }
@@ -0,0 +1,87 @@
+package com.cleanroommc.kirino.ecs.entity;
+
+import com.cleanroommc.kirino.ecs.storage.IColumnWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered little-endian writer for entity snapshots. Column blocks are copied in bulk.
+ */
+final class SnapshotChannelWriter implements IColumnWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    SnapshotChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    @Override
+    public void writeInts(int @NonNull [] src, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ensureRemaining(Integer.BYTES);
+            int count = Math.min(buffer.remaining() / Integer.BYTES, length - offset);
+            buffer.asIntBuffer().put(src, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void writeFloats(float @NonNull [] src, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ensureRemaining(Float.BYTES);
+            int count = Math.min(buffer.remaining() / Float.BYTES, length - offset);
+            buffer.asFloatBuffer().put(src, offset, count);
+            buffer.position(buffer.position() + count * Float.BYTES);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void writeBooleans(boolean @NonNull [] src, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            ensureRemaining(1);
+            buffer.put(src[i] ? (byte) 1 : (byte) 0);
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
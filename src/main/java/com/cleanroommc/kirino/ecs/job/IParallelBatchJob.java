@@ -0,0 +1,26 @@
+package com.cleanroommc.kirino.ecs.job;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A parallel job that processes contiguous runs of rows at once, which enables column-wide kernels
+ * (see {@link com.cleanroommc.kirino.ecs.job.kernel.ColumnKernels}).
+ *
+ * <p>The scheduler calls {@link #executeBatch(EntityManager, int, int, int)} instead of
+ * {@link #execute(EntityManager, int, int)}. Every index within a batch is alive.</p>
+ */
+public interface IParallelBatchJob extends IParallelJob {
+    /**
+     * @param entityManager The entity manager
+     * @param startIndex The start index
+     * @param endIndexExclusive The end index (exclusive)
+     * @param threadOrdinal The ordinal number of the current thread
+     */
+    void executeBatch(@NonNull EntityManager entityManager, int startIndex, int endIndexExclusive, int threadOrdinal);
+
+    @Override
+    default void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+        executeBatch(entityManager, index, index + 1, threadOrdinal);
+    }
+}
@@ -12,6 +12,9 @@ public interface IParallelJob {
      * Every execution should be stateless except the index.
      * You can introduce state-dependent logic if two executions share the same <code>threadOrdinal</code>.
      *
+     * <p>Note: rows of one <code>threadOrdinal</code> may come from multiple archetypes.
+     * Each archetype gets its own job instance, so state is only shared within the same archetype.</p>
+     *
      * @param entityManager The entity manager
      * @param index The index
      * @param threadOrdinal The ordinal number of the current thread
@@ -0,0 +1,42 @@
+package com.cleanroommc.kirino.ecs.job;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A parallel job that produces an aggregate result.
+ *
+ * <p>Every thread ordinal owns exactly one accumulator, so executions never contend on shared state.
+ * After all executions are done, accumulators are combined in ascending thread ordinal order.
+ * Reduction jobs are partitioned every {@link JobScheduler#REDUCTION_ROWS_PER_PARTITION} alive rows regardless of
+ * timing calibration and the processor count, so the result is reproducible for the same entity layout
+ * even if <code>combine</code> isn't associative (e.g. floating-point sums).</p>
+ *
+ * <p>The result is available through {@link JobScheduler.ExecutionHandle#joinReduction()}.</p>
+ *
+ * @param <T> The accumulator type
+ */
+public interface IParallelReductionJob<T> extends IParallelJob {
+    /**
+     * Creates an accumulator in its identity state. Must not depend on injected data.
+     *
+     * @return A new accumulator
+     */
+    @NonNull T newAccumulator();
+
+    /**
+     * Called before any execution. All job instances of the same thread ordinal are bound to the same accumulator.
+     *
+     * @param accumulator The accumulator of the current thread ordinal
+     */
+    void bindAccumulator(@NonNull T accumulator);
+
+    /**
+     * Combines two accumulators. <code>left</code> always comes from lower thread ordinals than <code>right</code>.
+     * It's allowed to mutate and return <code>left</code>.
+     *
+     * @param left The left accumulator
+     * @param right The right accumulator
+     * @return The combined accumulator
+     */
+    @NonNull T combine(@NonNull T left, @NonNull T right);
+}
@@ -0,0 +1,23 @@
+package com.cleanroommc.kirino.ecs.job;
+
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.storage.column.ColumnGroupType;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A job data query whose field layout has been resolved at registration.
+ *
+ * @param componentClass The component class
+ * @param fieldAccessChain The field access chain from the annotation
+ * @param fieldOrdinals The flattened field ordinals. Single element unless <code>groupType</code> is present
+ * @param groupType The grouped column view type, or null for a plain {@link com.cleanroommc.kirino.ecs.storage.IPrimitiveArray}
+ * @param injector The injector
+ */
+public record JobDataBinding(
+        @NonNull Class<? extends ICleanComponent> componentClass,
+        @NonNull String @NonNull [] fieldAccessChain,
+        int @NonNull [] fieldOrdinals,
+        @Nullable ColumnGroupType groupType,
+        @NonNull IJobDataInjector injector) {
+}
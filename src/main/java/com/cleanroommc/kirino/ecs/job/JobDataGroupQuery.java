@@ -0,0 +1,20 @@
+package com.cleanroommc.kirino.ecs.job;
+
+import org.jspecify.annotations.NonNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects a grouped column view ({@link com.cleanroommc.kirino.ecs.storage.column.Vec3Columns},
+ * {@link com.cleanroommc.kirino.ecs.storage.column.AabbColumns} or {@link com.cleanroommc.kirino.ecs.storage.column.Mat4Columns})
+ * into the annotated field. <code>fieldAccessChain</code> names the vec3/AABB/mat4 field itself, not its members.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface JobDataGroupQuery {
+    @NonNull Class<?> componentClass();
+    @NonNull String @NonNull [] fieldAccessChain();
+}
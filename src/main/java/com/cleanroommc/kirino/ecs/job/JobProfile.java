@@ -0,0 +1,122 @@
+package com.cleanroommc.kirino.ecs.job;
+
+import com.cleanroommc.kirino.utils.QuantileUtils;
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Execution profile of a parallel job class. All methods are thread-safe.
+ *
+ * <p>Partitions report their wall time together with the number of rows and estimated workload units,
+ * from which a smoothed nanoseconds-per-unit figure is derived. The scheduler uses it to convert
+ * a target partition duration into a workload per thread.</p>
+ */
+public final class JobProfile {
+    private static final int SAMPLE_CAPACITY = 256;
+    private static final int MIN_CALIBRATION_SAMPLES = 8;
+    private static final double NANOS_PER_UNIT_SMOOTHING = 0.1d;
+
+    public final Class<? extends IParallelJob> jobClass;
+
+    // ring buffers
+    private final long[] jobNanosSamples = new long[SAMPLE_CAPACITY];
+    private final long[] partitionNanosSamples = new long[SAMPLE_CAPACITY];
+    private long partitionCount;
+    private long executionCount;
+
+    private long totalRows;
+    private long totalUnits;
+    private double nanosPerUnit = Double.NaN;
+
+    private long[] lastThreadNanos = new long[0];
+
+    JobProfile(@NonNull Class<? extends IParallelJob> jobClass) {
+        this.jobClass = jobClass;
+    }
+
+    synchronized void recordPartition(long nanos, int rows, long units) {
+        partitionNanosSamples[(int) (partitionCount % SAMPLE_CAPACITY)] = nanos;
+        partitionCount++;
+
+        if (rows > 0 && units > 0) {
+            double sample = (double) nanos / units;
+            if (Double.isNaN(nanosPerUnit)) {
+                nanosPerUnit = sample;
+            } else {
+                nanosPerUnit += (sample - nanosPerUnit) * NANOS_PER_UNIT_SMOOTHING;
+            }
+        }
+    }
+
+    /**
+     * @param threadNanos The wall time per thread ordinal of this execution. It's owned by the execution,
+     *                    so overlapping executions of the same job class never mix their samples
+     */
+    synchronized void recordExecution(long nanos, int rows, long units, long @NonNull [] threadNanos) {
+        lastThreadNanos = threadNanos;
+        jobNanosSamples[(int) (executionCount % SAMPLE_CAPACITY)] = nanos;
+        executionCount++;
+        totalRows += rows;
+        totalUnits += units;
+    }
+
+    /**
+     * Converts the target partition duration into a workload per thread with the calibrated nanoseconds-per-unit figure.
+     * <code>fallback</code> is returned until enough partitions have been recorded.
+     *
+     * @param targetNanos The target partition duration
+     * @param fallback The workload per thread to use before calibration
+     * @return The workload per thread (at least 1)
+     */
+    public synchronized int suggestWorkloadPerThread(long targetNanos, int fallback) {
+        Preconditions.checkArgument(targetNanos > 0, "Argument \"targetNanos\" must be positive.");
+        Preconditions.checkArgument(fallback >= 1, "Argument \"fallback\" must be greater than or equal to 1.");
+
+        if (partitionCount < MIN_CALIBRATION_SAMPLES || Double.isNaN(nanosPerUnit) || nanosPerUnit <= 0d) {
+            return fallback;
+        }
+
+        double workload = targetNanos / nanosPerUnit;
+        if (workload >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(1, (int) workload);
+    }
+
+    public synchronized double getNanosPerUnit() {
+        return nanosPerUnit;
+    }
+
+    public synchronized @NonNull JobStats getStats() {
+        long[] jobQuantiles = quantiles(jobNanosSamples, executionCount);
+        long[] partitionQuantiles = quantiles(partitionNanosSamples, partitionCount);
+
+        return new JobStats(
+                jobClass,
+                executionCount,
+                jobQuantiles[0],
+                jobQuantiles[1],
+                partitionQuantiles[0],
+                partitionQuantiles[1],
+                nanosPerUnit,
+                executionCount == 0 ? 0d : (double) totalRows / executionCount,
+                executionCount == 0 ? 0d : (double) totalUnits / executionCount,
+                lastThreadNanos.clone());
+    }
+
+    private static long[] quantiles(long[] samples, long count) {
+        int size = (int) Math.min(count, SAMPLE_CAPACITY);
+        if (size == 0) {
+            return new long[]{0L, 0L};
+        }
+
+        Long[] boxed = new Long[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = samples[i];
+        }
+
+        long p50 = QuantileUtils.quantile(boxed, 0.5f, Long::compareTo);
+        long p99 = QuantileUtils.quantile(boxed, 0.99f, Long::compareTo);
+        return new long[]{p50, p99};
+    }
+}
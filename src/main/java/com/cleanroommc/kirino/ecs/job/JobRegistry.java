@@ -2,7 +2,10 @@ package com.cleanroommc.kirino.ecs.job;
 
 import com.cleanroommc.kirino.ecs.component.ComponentRegistry;
 import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FlattenedField;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.FlattenedScalarType;
 import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.ecs.storage.column.ColumnGroupType;
 import com.cleanroommc.kirino.utils.ReflectionUtils;
 import com.google.common.base.Preconditions;
 import org.jspecify.annotations.NonNull;
@@ -11,13 +14,16 @@ import org.jspecify.annotations.Nullable;
 import java.lang.invoke.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class JobRegistry {
     private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-    private final Map<Class<? extends IParallelJob>, Map<JobDataQuery, IJobDataInjector>> parallelJobDataQueryMap = new HashMap<>();
+    private final Map<Class<? extends IParallelJob>, List<JobDataBinding>> parallelJobDataBindingMap = new HashMap<>();
     private final Map<Class<? extends IParallelJob>, Map<String, IJobDataInjector>> parallelJobExternalDataQueryMap = new HashMap<>();
     private final Map<Class<? extends IParallelJob>, IJobInstantiator> parallelJobInstantiatorMap = new HashMap<>();
 
@@ -77,17 +83,35 @@ public class JobRegistry {
         }
     }
 
-    public void registerParallelJob(Class<? extends IParallelJob> clazz) {
+    /**
+     * Everything generated for a parallel job class before it's registered.
+     */
+    public record PreparedParallelJob(
+            @NonNull Class<? extends IParallelJob> jobClass,
+            @NonNull IJobInstantiator instantiator,
+            @NonNull List<JobDataBinding> dataBindings,
+            @NonNull Map<String, IJobDataInjector> externalDataQueries) {
+    }
+
+    /**
+     * Validates the job class and generates its instantiator and injectors.
+     * Only reads the component registry, so it's safe to prepare multiple jobs concurrently.
+     *
+     * @param clazz The parallel job class
+     * @return The prepared job, which still has to be registered via {@link #registerParallelJob(PreparedParallelJob)}
+     */
+    @NonNull
+    public PreparedParallelJob prepareParallelJob(@NonNull Class<? extends IParallelJob> clazz) {
         try {
             clazz.getConstructor();
         } catch (NoSuchMethodException e) {
             throw new RuntimeException("Parallel job class " + clazz.getName() + " is missing a default constructor with no parameters.", e);
         }
 
-        parallelJobInstantiatorMap.computeIfAbsent(clazz, this::genParallelJobInstantiator);
+        IJobInstantiator instantiator = genParallelJobInstantiator(clazz);
 
-        Map<JobDataQuery, IJobDataInjector> dataQueryMap = parallelJobDataQueryMap.computeIfAbsent(clazz, k -> new HashMap<>());
-        Map<String, IJobDataInjector> externalDataQueryMap = parallelJobExternalDataQueryMap.computeIfAbsent(clazz, k -> new HashMap<>());
+        List<JobDataBinding> dataBindings = new ArrayList<>();
+        Map<String, IJobDataInjector> externalDataQueryMap = new HashMap<>();
 
         String exceptionText = "Parallel job class " + clazz.getName() + " contains invalid annotation entries.";
 
@@ -100,24 +124,48 @@ public class JobRegistry {
 
                 JobDataQuery jobDataQuery = field.getAnnotation(JobDataQuery.class);
 
-                if (!ICleanComponent.class.isAssignableFrom(jobDataQuery.componentClass())) {
-                    throw new RuntimeException(exceptionText, new IllegalStateException("ICleanComponent must be assignable from JobDataQuery#componentClass() " + jobDataQuery.componentClass().getName() + "."));
-                }
-                if (jobDataQuery.componentClass() == ICleanComponent.class) {
-                    throw new RuntimeException(exceptionText, new IllegalStateException("JobDataQuery#componentClass() " + jobDataQuery.componentClass().getName() + " must not be ICleanComponent itself."));
-                }
-                if (!componentRegistry.componentExists(jobDataQuery.componentClass().asSubclass(ICleanComponent.class))) {
-                    throw new RuntimeException(exceptionText, new IllegalStateException("JobDataQuery#componentClass() " + jobDataQuery.componentClass().getName() + " isn't registered in the component registry."));
-                }
-                String componentName = componentRegistry.getComponentName(jobDataQuery.componentClass().asSubclass(ICleanComponent.class));
+                Class<? extends ICleanComponent> componentClass = validateComponentClass(jobDataQuery.componentClass(), "JobDataQuery", exceptionText);
+                String componentName = componentRegistry.getComponentName(componentClass);
+                int ordinal;
                 try {
-                    componentRegistry.getFieldOrdinal(componentName, jobDataQuery.fieldAccessChain());
+                    ordinal = componentRegistry.getFieldOrdinal(componentName, jobDataQuery.fieldAccessChain());
                 } catch (Throwable e) {
                     throw new RuntimeException(exceptionText, new IllegalStateException("JobDataQuery#fieldAccessChain() is invalid.", e));
                 }
 
                 IJobDataInjector jobDataInjector = genParallelJobDataInjector(clazz, field.getName(), field.getType());
-                dataQueryMap.put(jobDataQuery, jobDataInjector);
+                dataBindings.add(new JobDataBinding(componentClass, jobDataQuery.fieldAccessChain(), new int[]{ordinal}, null, jobDataInjector));
+            }
+            // scan JobDataGroupQuery
+            if (field.isAnnotationPresent(JobDataGroupQuery.class) && !Modifier.isStatic(field.getModifiers())) {
+                ColumnGroupType groupType = ColumnGroupType.fromViewClass(field.getType()).orElseThrow(() -> new RuntimeException(exceptionText,
+                        new IllegalStateException("The type of the JobDataGroupQuery-annotated field " + field.getName() + " must be one of " + Arrays.toString(ColumnGroupType.values()) + ".")));
+
+                JobDataGroupQuery jobDataGroupQuery = field.getAnnotation(JobDataGroupQuery.class);
+
+                Class<? extends ICleanComponent> componentClass = validateComponentClass(jobDataGroupQuery.componentClass(), "JobDataGroupQuery", exceptionText);
+                String componentName = componentRegistry.getComponentName(componentClass);
+                int[] ordinals = new int[groupType.memberCount()];
+                String[] fieldAccessChain = Arrays.copyOf(jobDataGroupQuery.fieldAccessChain(), jobDataGroupQuery.fieldAccessChain().length + 1);
+                for (int i = 0; i < ordinals.length; i++) {
+                    fieldAccessChain[fieldAccessChain.length - 1] = groupType.memberName(i);
+                    try {
+                        ordinals[i] = componentRegistry.getFieldOrdinal(componentName, fieldAccessChain);
+                    } catch (Throwable e) {
+                        throw new RuntimeException(exceptionText, new IllegalStateException("JobDataGroupQuery#fieldAccessChain() doesn't point to a " + groupType + " field.", e));
+                    }
+                }
+                List<FlattenedScalarType> scalarTypes = getFlattenedScalarTypes(componentName);
+                for (int i = 0; i < ordinals.length; i++) {
+                    FlattenedScalarType scalarType = scalarTypes.get(ordinals[i]);
+                    if (scalarType != groupType.memberType) {
+                        throw new RuntimeException(exceptionText, new IllegalStateException("Member " + groupType.memberName(i) + " of the JobDataGroupQuery-annotated field " + field.getName() +
+                                " is " + scalarType + ", but " + groupType + " members must be " + groupType.memberType + "."));
+                    }
+                }
+
+                IJobDataInjector jobDataInjector = genParallelJobDataInjector(clazz, field.getName(), field.getType());
+                dataBindings.add(new JobDataBinding(componentClass, jobDataGroupQuery.fieldAccessChain(), ordinals, groupType, jobDataInjector));
             }
             // scan JobExternalDataQuery
             if (field.isAnnotationPresent(JobExternalDataQuery.class) && !Modifier.isStatic(field.getModifiers())) {
@@ -125,11 +173,46 @@ public class JobRegistry {
                 externalDataQueryMap.put(field.getName(), jobDataInjector);
             }
         }
+
+        return new PreparedParallelJob(clazz, instantiator, dataBindings, externalDataQueryMap);
+    }
+
+    public void registerParallelJob(@NonNull PreparedParallelJob preparedJob) {
+        Class<? extends IParallelJob> clazz = preparedJob.jobClass();
+        parallelJobInstantiatorMap.putIfAbsent(clazz, preparedJob.instantiator());
+        parallelJobDataBindingMap.computeIfAbsent(clazz, k -> new ArrayList<>()).addAll(preparedJob.dataBindings());
+        parallelJobExternalDataQueryMap.computeIfAbsent(clazz, k -> new HashMap<>()).putAll(preparedJob.externalDataQueries());
+    }
+
+    public void registerParallelJob(@NonNull Class<? extends IParallelJob> clazz) {
+        registerParallelJob(prepareParallelJob(clazz));
+    }
+
+    private Class<? extends ICleanComponent> validateComponentClass(Class<?> componentClass, String annotationName, String exceptionText) {
+        if (!ICleanComponent.class.isAssignableFrom(componentClass)) {
+            throw new RuntimeException(exceptionText, new IllegalStateException("ICleanComponent must be assignable from " + annotationName + "#componentClass() " + componentClass.getName() + "."));
+        }
+        if (componentClass == ICleanComponent.class) {
+            throw new RuntimeException(exceptionText, new IllegalStateException(annotationName + "#componentClass() " + componentClass.getName() + " must not be ICleanComponent itself."));
+        }
+        if (!componentRegistry.componentExists(componentClass.asSubclass(ICleanComponent.class))) {
+            throw new RuntimeException(exceptionText, new IllegalStateException(annotationName + "#componentClass() " + componentClass.getName() + " isn't registered in the component registry."));
+        }
+        return componentClass.asSubclass(ICleanComponent.class);
+    }
+
+    // indexed by field ordinal
+    private List<FlattenedScalarType> getFlattenedScalarTypes(String componentName) {
+        List<FlattenedScalarType> scalarTypes = new ArrayList<>();
+        for (FlattenedField field : componentRegistry.getComponentDescFlattened(componentName).fields) {
+            scalarTypes.addAll(field.scalarTypes);
+        }
+        return scalarTypes;
     }
 
     @Nullable
-    public Map<JobDataQuery, IJobDataInjector> getParallelJobDataQueries(Class<? extends IParallelJob> clazz) {
-        return parallelJobDataQueryMap.get(clazz);
+    public List<JobDataBinding> getParallelJobDataBindings(Class<? extends IParallelJob> clazz) {
+        return parallelJobDataBindingMap.get(clazz);
     }
 
     @Nullable
@@ -1,11 +1,11 @@
 package com.cleanroommc.kirino.ecs.job;
 
 import com.cleanroommc.kirino.KirinoCore;
-import com.cleanroommc.kirino.ecs.component.ICleanComponent;
 import com.cleanroommc.kirino.ecs.entity.EntityManager;
 import com.cleanroommc.kirino.ecs.entity.EntityQuery;
 import com.cleanroommc.kirino.ecs.storage.ArchetypeDataPool;
 import com.cleanroommc.kirino.ecs.storage.ArrayRange;
+import com.cleanroommc.kirino.ecs.storage.IArchetypeView;
 import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
 import com.google.common.base.Preconditions;
 import org.jspecify.annotations.NonNull;
@@ -14,24 +14,78 @@ import org.jspecify.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 public class JobScheduler {
+    /**
+     * Reduction jobs are partitioned by a fixed number of alive rows instead of the calibrated workload,
+     * so the same data always gives the same partitions and hence the same combine order.
+     */
+    public static final int REDUCTION_ROWS_PER_PARTITION = 1024;
+
     private final JobRegistry jobRegistry;
+    private final Map<Class<? extends IParallelJob>, JobProfile> jobProfiles = new ConcurrentHashMap<>();
 
     public JobScheduler(JobRegistry jobRegistry) {
         this.jobRegistry = jobRegistry;
     }
 
-    public record ExecutionHandle(@NonNull CompletableFuture<?> future, int totalThreadCount, boolean async) {
+    /**
+     * @param future The future of the whole job. It completes with the combined accumulator if <code>reduction</code> is true
+     * @param totalThreadCount The number of thread ordinals
+     * @param async Whether the job runs asynchronously
+     * @param reduction Whether the job is an {@link IParallelReductionJob}
+     */
+    public record ExecutionHandle(@NonNull CompletableFuture<?> future, int totalThreadCount, boolean async, boolean reduction) {
+        /**
+         * Blocks until the job completes and returns the combined accumulator.
+         *
+         * @return The reduction result
+         */
+        @SuppressWarnings("unchecked")
+        public <T> @NonNull T joinReduction() {
+            Preconditions.checkState(reduction, "The job isn't a reduction job.");
+
+            return (T) future.join();
+        }
+    }
+
+    /**
+     * @param clazz The parallel job class
+     * @return The execution stats, or empty if the job has never been executed
+     */
+    public Optional<JobStats> getJobStats(Class<? extends IParallelJob> clazz) {
+        JobProfile profile = jobProfiles.get(clazz);
+        return profile == null ? Optional.empty() : Optional.of(profile.getStats());
+    }
+
+    /**
+     * A cheap alternative to {@link #getJobStats(Class)} for per-frame cost predictions.
+     *
+     * @param clazz The parallel job class
+     * @return The calibrated nanoseconds per estimated workload unit, or <code>NaN</code> if not calibrated yet
+     */
+    public double getNanosPerUnit(Class<? extends IParallelJob> clazz) {
+        JobProfile profile = jobProfiles.get(clazz);
+        return profile == null ? Double.NaN : profile.getNanosPerUnit();
+    }
+
+    public List<JobStats> getAllJobStats() {
+        List<JobStats> result = new ArrayList<>();
+        for (JobProfile profile : jobProfiles.values()) {
+            result.add(profile.getStats());
+        }
+        return result;
     }
 
     public ExecutionHandle executeParallelJob(EntityManager entityManager, Class<? extends IParallelJob> clazz, @Nullable Map<String, Object> externalData, Executor executor) {
-        Map<JobDataQuery, IJobDataInjector> parallelJobDataQueries = jobRegistry.getParallelJobDataQueries(clazz);
+        List<JobDataBinding> parallelJobDataBindings = jobRegistry.getParallelJobDataBindings(clazz);
         Map<String, IJobDataInjector> parallelJobExternalDataQueries = jobRegistry.getParallelJobExternalDataQueries(clazz);
         IJobInstantiator instantiator = jobRegistry.getParallelJobInstantiator(clazz);
-        if (parallelJobDataQueries == null || parallelJobExternalDataQueries == null || instantiator == null) {
+        if (parallelJobDataBindings == null || parallelJobExternalDataQueries == null || instantiator == null) {
             throw new IllegalStateException("Parallel job class " + clazz.getName() + " isn't registered.");
         }
 
@@ -44,19 +98,29 @@ public class JobScheduler {
             }
         }
 
+        IParallelJob prototype = (IParallelJob) instantiator.instantiate();
+        final IParallelReductionJob<Object> reducer = prototype instanceof IParallelReductionJob<?> ? castReductionJob(prototype) : null;
         EntityQuery query = entityManager.newQuery();
-        ((IParallelJob) instantiator.instantiate()).query(query);
+        prototype.query(query);
         List<ArchetypeDataPool> archetypes = entityManager.startQuery(query);
 
-        List<CompletableFuture<?>> futures = new ArrayList<>();
+        JobProfile profile = jobProfiles.computeIfAbsent(clazz, JobProfile::new);
+        long startNanos = System.nanoTime();
 
-        int threadOrdinal = 0;
+        // gather work units across all archetypes
+        List<ArchetypeWork> works = new ArrayList<>(archetypes.size());
+        int totalRows = 0;
+        long totalUnits = 0;
         for (ArchetypeDataPool archetype : archetypes) {
-            IParallelJob job = newParallelJob(instantiator, parallelJobDataQueries, parallelJobExternalDataQueries, archetype, externalData);
+            // a front view stays consistent even if a flush happens during execution
+            IArchetypeView view = query.readsFrontBuffer() ? archetype.getFrontView() : archetype;
+            IParallelJob job = newParallelJob(instantiator, parallelJobDataBindings, parallelJobExternalDataQueries, view, externalData);
 
-            ArrayRange arrayRange = archetype.getArrayRange();
+            ArrayRange arrayRange = view.getArrayRange();
 
-            int workload = 0;
+            // 0 marks a deprecated index
+            int[] workloads = new int[arrayRange.end - arrayRange.start];
+            int rows = 0;
             for (int i = arrayRange.start; i < arrayRange.end; i++) {
                 if (arrayRange.deprecatedIndexes.contains(i)) {
                     continue;
@@ -67,113 +131,243 @@ public class JobScheduler {
                         "The estimated workload at index=%d must be greater than or equal to 1. (Parallel job class: %s)",
                         i, clazz.getName());
 
-                workload += jobWorkload;
+                workloads[i - arrayRange.start] = jobWorkload;
+                rows++;
+                totalUnits += jobWorkload;
             }
 
-            // future count
-            int targetWorkloadPerThread = KirinoCore.KIRINO_CONFIG_HUB.targetWorkloadPerThread;
-            int futureCount = Math.ceilDivExact(workload, targetWorkloadPerThread);
-            if (futureCount > Runtime.getRuntime().availableProcessors()) {
-                futureCount = Runtime.getRuntime().availableProcessors();
-                targetWorkloadPerThread = workload / futureCount;
+            if (rows != 0) {
+                totalRows += rows;
+                works.add(new ArchetypeWork(view, arrayRange, workloads));
             }
+        }
 
-            if (futureCount <= 1) {
-                // run synchronously
-                for (int i = arrayRange.start; i < arrayRange.end; i++) {
-                    if (arrayRange.deprecatedIndexes.contains(i)) {
-                        continue;
-                    }
+        // target workload per thread
+        long targetWorkloadPerThread = KirinoCore.KIRINO_CONFIG_HUB.targetWorkloadPerThread;
+        if (KirinoCore.KIRINO_CONFIG_HUB.enableJobWorkloadCalibration) {
+            targetWorkloadPerThread = profile.suggestWorkloadPerThread(
+                    KirinoCore.KIRINO_CONFIG_HUB.targetPartitionDurationMicros * 1000L, (int) targetWorkloadPerThread);
+        }
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        targetWorkloadPerThread = Math.max(targetWorkloadPerThread, (totalUnits + workerCount - 1) / workerCount);
+
+        // pack small archetypes together and split large ones
+        List<Partition> partitions = new ArrayList<>();
+        Partition partition = new Partition();
+        for (ArchetypeWork work : works) {
+            int segmentStart = work.arrayRange.start;
+            int segmentRows = 0;
+
+            for (int i = work.arrayRange.start; i < work.arrayRange.end; i++) {
+                int jobWorkload = work.workloads[i - work.arrayRange.start];
+                if (jobWorkload == 0) {
+                    continue;
+                }
 
-                    job.execute(entityManager, i, threadOrdinal);
+                segmentRows++;
+                partition.rows++;
+                partition.units += jobWorkload;
+
+                boolean full = reducer == null ? partition.units >= targetWorkloadPerThread : partition.rows >= REDUCTION_ROWS_PER_PARTITION;
+                if (full) {
+                    partition.segments.add(new Segment(work, segmentStart, i + 1));
+                    partitions.add(partition);
+                    partition = new Partition();
+                    segmentStart = i + 1;
+                    segmentRows = 0;
                 }
-                threadOrdinal++;
-            } else {
-                // run asynchronously
-                int accumulated = 0;
-                int startIndex = arrayRange.start;
+            }
 
-                for (int i = arrayRange.start; i < arrayRange.end; i++) {
-                    if (arrayRange.deprecatedIndexes.contains(i)) {
-                        continue;
-                    }
+            if (segmentRows != 0) {
+                partition.segments.add(new Segment(work, segmentStart, work.arrayRange.end));
+            }
+        }
+        if (partition.rows != 0) {
+            partitions.add(partition);
+        }
 
-                    accumulated += job.estimateWorkload(i);
+        final int finalTotalRows = totalRows;
+        final long finalTotalUnits = totalUnits;
 
-                    if (accumulated >= targetWorkloadPerThread) {
-                        final int endIndexExclusive = i + 1;
-                        final int finalThreadOrdinal = threadOrdinal;
-                        final int finalStartIndex = startIndex;
+        // one accumulator per thread ordinal
+        final Object[] accumulators = reducer == null ? null : new Object[partitions.size()];
+        // per-execution state; each thread ordinal only writes its own slot
+        final long[] threadNanos = new long[partitions.size()];
 
-                        final IParallelJob jobPerThread = newParallelJob(instantiator, parallelJobDataQueries, parallelJobExternalDataQueries, archetype, externalData);
+        if (partitions.size() <= 1) {
+            // run synchronously
+            if (!partitions.isEmpty()) {
+                IParallelJob[] jobs = newParallelJobs(partitions.getFirst(), instantiator, parallelJobDataBindings, parallelJobExternalDataQueries, externalData);
+                if (reducer != null) {
+                    accumulators[0] = bindAccumulator(reducer, jobs);
+                }
+                executePartition(partitions.getFirst(), jobs, entityManager, 0, profile, threadNanos);
+            }
+            profile.recordExecution(System.nanoTime() - startNanos, finalTotalRows, finalTotalUnits, threadNanos);
+            return new ExecutionHandle(
+                    CompletableFuture.completedFuture(reducer == null ? null : combineAccumulators(reducer, accumulators)),
+                    partitions.size(),
+                    false,
+                    reducer != null);
+        }
 
-                        futures.add(CompletableFuture.runAsync(() -> {
-                            for (int j = finalStartIndex; j < endIndexExclusive; j++) {
-                                if (arrayRange.deprecatedIndexes.contains(j)) {
-                                    continue;
-                                }
+        // run asynchronously
+        List<CompletableFuture<?>> futures = new ArrayList<>(partitions.size());
+        for (int threadOrdinal = 0; threadOrdinal < partitions.size(); threadOrdinal++) {
+            final int finalThreadOrdinal = threadOrdinal;
+            final Partition finalPartition = partitions.get(threadOrdinal);
+            final IParallelJob[] jobs = newParallelJobs(finalPartition, instantiator, parallelJobDataBindings, parallelJobExternalDataQueries, externalData);
+            if (reducer != null) {
+                accumulators[threadOrdinal] = bindAccumulator(reducer, jobs);
+            }
 
-                                jobPerThread.execute(entityManager, j, finalThreadOrdinal);
-                            }
-                        }, executor));
+            futures.add(CompletableFuture.runAsync(() -> {
+                executePartition(finalPartition, jobs, entityManager, finalThreadOrdinal, profile, threadNanos);
+            }, executor));
+        }
 
-                        threadOrdinal++;
-                        startIndex = endIndexExclusive;
-                        accumulated = 0;
-                    }
-                }
+        CompletableFuture<?> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        future = future.whenComplete((result, throwable) -> {
+            profile.recordExecution(System.nanoTime() - startNanos, finalTotalRows, finalTotalUnits, threadNanos);
+        });
+        if (reducer != null) {
+            future = future.thenApply(result -> combineAccumulators(reducer, accumulators));
+        }
+        return new ExecutionHandle(future, partitions.size(), true, reducer != null);
+    }
 
-                boolean hasRemainingWork = false;
-                for (int j = startIndex; j < arrayRange.end; j++) {
-                    if (!arrayRange.deprecatedIndexes.contains(j)) {
-                        hasRemainingWork = true;
-                        break;
-                    }
-                }
+    @SuppressWarnings("unchecked")
+    private static IParallelReductionJob<Object> castReductionJob(IParallelJob job) {
+        return (IParallelReductionJob<Object>) job;
+    }
+
+    private static Object bindAccumulator(IParallelReductionJob<Object> reducer, IParallelJob[] jobs) {
+        Object accumulator = reducer.newAccumulator();
+        Preconditions.checkNotNull(accumulator,
+                "The new accumulator must not be null. (Parallel job class: %s)", reducer.getClass().getName());
 
-                if (hasRemainingWork) {
-                    final int finalThreadOrdinal = threadOrdinal;
-                    final int finalStartIndex = startIndex;
+        for (IParallelJob job : jobs) {
+            castReductionJob(job).bindAccumulator(accumulator);
+        }
+        return accumulator;
+    }
 
-                    final IParallelJob jobPerThread = newParallelJob(instantiator, parallelJobDataQueries, parallelJobExternalDataQueries, archetype, externalData);
+    /**
+     * Combines accumulators in ascending thread ordinal order.
+     */
+    private static Object combineAccumulators(IParallelReductionJob<Object> reducer, Object[] accumulators) {
+        if (accumulators.length == 0) {
+            return reducer.newAccumulator();
+        }
 
-                    futures.add(CompletableFuture.runAsync(() -> {
-                        for (int j = finalStartIndex; j < arrayRange.end; j++) {
-                            if (arrayRange.deprecatedIndexes.contains(j)) {
-                                continue;
-                            }
+        Object result = accumulators[0];
+        for (int i = 1; i < accumulators.length; i++) {
+            result = reducer.combine(result, accumulators[i]);
+        }
+        return result;
+    }
+
+    private record ArchetypeWork(IArchetypeView view, ArrayRange arrayRange, int[] workloads) {
+    }
+
+    /**
+     * A contiguous index range of a single archetype.
+     */
+    private record Segment(ArchetypeWork work, int startIndex, int endIndexExclusive) {
+    }
+
+    /**
+     * The work of a single thread. It may span multiple archetypes.
+     */
+    private static final class Partition {
+        final List<Segment> segments = new ArrayList<>();
+        int rows;
+        long units;
+    }
 
-                            jobPerThread.execute(entityManager, j, finalThreadOrdinal);
+    private static void executePartition(
+            Partition partition,
+            IParallelJob[] jobs,
+            EntityManager entityManager,
+            int threadOrdinal,
+            JobProfile profile,
+            long[] threadNanos) {
+
+        long startNanos = System.nanoTime();
+        for (int s = 0; s < jobs.length; s++) {
+            Segment segment = partition.segments.get(s);
+            int[] workloads = segment.work.workloads;
+            int offset = segment.work.arrayRange.start;
+
+            if (jobs[s] instanceof IParallelBatchJob batchJob) {
+                // contiguous runs of alive rows
+                int runStart = -1;
+                for (int i = segment.startIndex; i < segment.endIndexExclusive; i++) {
+                    if (workloads[i - offset] == 0) {
+                        if (runStart != -1) {
+                            batchJob.executeBatch(entityManager, runStart, i, threadOrdinal);
+                            runStart = -1;
                         }
-                    }, executor));
+                    } else if (runStart == -1) {
+                        runStart = i;
+                    }
+                }
+                if (runStart != -1) {
+                    batchJob.executeBatch(entityManager, runStart, segment.endIndexExclusive, threadOrdinal);
+                }
+                continue;
+            }
 
-                    threadOrdinal++;
+            for (int i = segment.startIndex; i < segment.endIndexExclusive; i++) {
+                if (workloads[i - offset] == 0) {
+                    continue;
                 }
+
+                jobs[s].execute(entityManager, i, threadOrdinal);
             }
         }
+        long nanos = System.nanoTime() - startNanos;
+        threadNanos[threadOrdinal] = nanos;
+        profile.recordPartition(nanos, partition.rows, partition.units);
+    }
 
-        if (futures.isEmpty()) {
-            return new ExecutionHandle(CompletableFuture.completedFuture(null), threadOrdinal, false);
-        } else if (futures.size() == 1) {
-            return new ExecutionHandle(futures.getFirst(), threadOrdinal, true);
-        } else {
-            return new ExecutionHandle(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), threadOrdinal, true);
+    /**
+     * Instantiates one job per segment since injected arrays are archetype-specific.
+     */
+    private IParallelJob[] newParallelJobs(
+            Partition partition,
+            IJobInstantiator instantiator,
+            List<JobDataBinding> parallelJobDataBindings,
+            Map<String, IJobDataInjector> parallelJobExternalDataQueries,
+            @Nullable Map<String, Object> externalData) {
+
+        IParallelJob[] jobs = new IParallelJob[partition.segments.size()];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = newParallelJob(instantiator, parallelJobDataBindings, parallelJobExternalDataQueries, partition.segments.get(i).work.view, externalData);
         }
+        return jobs;
     }
 
     private IParallelJob newParallelJob(
             IJobInstantiator instantiator,
-            Map<JobDataQuery, IJobDataInjector> parallelJobDataQueries,
+            List<JobDataBinding> parallelJobDataBindings,
             Map<String, IJobDataInjector> parallelJobExternalDataQueries,
-            ArchetypeDataPool archetype,
+            IArchetypeView archetype,
             @Nullable Map<String, Object> externalData) {
 
         IParallelJob job = (IParallelJob) instantiator.instantiate();
 
         // data injection
-        for (Map.Entry<JobDataQuery, IJobDataInjector> entry : parallelJobDataQueries.entrySet()) {
-            IPrimitiveArray array = archetype.getArray(entry.getKey().componentClass().asSubclass(ICleanComponent.class), entry.getKey().fieldAccessChain());
-            entry.getValue().inject(job, array);
+        for (JobDataBinding binding : parallelJobDataBindings) {
+            if (binding.groupType() == null) {
+                binding.injector().inject(job, archetype.getArray(binding.componentClass(), binding.fieldOrdinals()[0]));
+            } else {
+                IPrimitiveArray[] arrays = new IPrimitiveArray[binding.fieldOrdinals().length];
+                for (int i = 0; i < arrays.length; i++) {
+                    arrays[i] = archetype.getArray(binding.componentClass(), binding.fieldOrdinals()[i]);
+                }
+                binding.injector().inject(job, binding.groupType().create(arrays));
+            }
         }
         if (externalData != null) {
             for (Map.Entry<String, IJobDataInjector> entry : parallelJobExternalDataQueries.entrySet()) {
@@ -0,0 +1,32 @@
+package com.cleanroommc.kirino.ecs.job;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * An immutable snapshot of {@link JobProfile}.
+ *
+ * <p>Durations are in nanoseconds. Quantiles are computed over the most recent samples only.</p>
+ *
+ * @param jobClass The parallel job class
+ * @param executionCount The number of executions recorded so far
+ * @param jobNanosP50 The p50 wall time of a whole execution
+ * @param jobNanosP99 The p99 wall time of a whole execution
+ * @param partitionNanosP50 The p50 wall time of a single partition
+ * @param partitionNanosP99 The p99 wall time of a single partition
+ * @param nanosPerUnit The calibrated nanoseconds per estimated workload unit, or <code>NaN</code> if not calibrated yet
+ * @param averageRows The average number of rows processed per execution
+ * @param averageUnits The average number of estimated workload units per execution
+ * @param lastThreadNanos The busy time of every thread ordinal during the latest execution
+ */
+public record JobStats(
+        @NonNull Class<? extends IParallelJob> jobClass,
+        long executionCount,
+        long jobNanosP50,
+        long jobNanosP99,
+        long partitionNanosP50,
+        long partitionNanosP99,
+        double nanosPerUnit,
+        double averageRows,
+        double averageUnits,
+        long @NonNull [] lastThreadNanos) {
+}
@@ -0,0 +1,133 @@
+package com.cleanroommc.kirino.ecs.job.kernel;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Column-wide kernels over plain arrays, usually filled by the bulk getters of
+ * {@link com.cleanroommc.kirino.ecs.storage.IPrimitiveArray}.
+ *
+ * <p>Every loop is a counted loop without branches or calls in its body, so C2's superword pass turns them into
+ * SIMD instructions on its own. Masks are produced from sign bits instead of comparisons for the same reason.</p>
+ *
+ * <p>All kernels process the index range <code>[0, length)</code> of their arrays.</p>
+ */
+public final class ColumnKernels {
+    /**
+     * Recommended number of rows per kernel call, which keeps scratch arrays small enough to stay in cache.
+     */
+    public static final int BATCH_SIZE = 1024;
+
+    private ColumnKernels() {
+    }
+
+    private static void checkLength(int length, int arrayLength) {
+        Preconditions.checkArgument(length >= 0 && length <= arrayLength,
+                "Argument \"length\"=%s is out of bounds. Array length: %s.", length, arrayLength);
+    }
+
+    /**
+     * <code>dst[i] = src[i] * scale</code>
+     */
+    public static void intToFloat(int[] src, float scale, float[] dst, int length) {
+        checkLength(length, src.length);
+        checkLength(length, dst.length);
+
+        for (int i = 0; i < length; i++) {
+            dst[i] = src[i] * scale;
+        }
+    }
+
+    /**
+     * <code>dst[i] = (int) (src[i] * scale)</code>
+     */
+    public static void scaleToInt(float[] src, float scale, int[] dst, int length) {
+        checkLength(length, src.length);
+        checkLength(length, dst.length);
+
+        for (int i = 0; i < length; i++) {
+            dst[i] = (int) (src[i] * scale);
+        }
+    }
+
+    /**
+     * <code>dst[i] = |(x[i], y[i], z[i]) - (px, py, pz)|^2</code>
+     */
+    public static void distanceSquaredToPoint(float[] x, float[] y, float[] z, float px, float py, float pz, float[] dst, int length) {
+        checkLength(length, x.length);
+        checkLength(length, y.length);
+        checkLength(length, z.length);
+        checkLength(length, dst.length);
+
+        for (int i = 0; i < length; i++) {
+            float dx = x[i] - px;
+            float dy = y[i] - py;
+            float dz = z[i] - pz;
+            dst[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * <code>dst[i] = |(x[i], y[i], z[i]) - (px, py, pz)|</code>
+     */
+    public static void distanceToPoint(float[] x, float[] y, float[] z, float px, float py, float pz, float[] dst, int length) {
+        distanceSquaredToPoint(x, y, z, px, py, pz, dst, length);
+
+        for (int i = 0; i < length; i++) {
+            dst[i] = (float) Math.sqrt(dst[i]);
+        }
+    }
+
+    /**
+     * Sets <code>flag</code> in <code>mask[i]</code> if the box lies completely on the negative side of
+     * the plane <code>a * x + b * y + c * z + d = 0</code>, i.e. even its most positive vertex is behind the plane.
+     *
+     * <p>The vertex selection only depends on the plane, so it's hoisted out of the loop.</p>
+     */
+    public static void aabbBehindPlane(
+            float[] minX, float[] minY, float[] minZ,
+            float[] maxX, float[] maxY, float[] maxZ,
+            float a, float b, float c, float d,
+            int flag, int[] mask, int length) {
+
+        checkLength(length, minX.length);
+        checkLength(length, minY.length);
+        checkLength(length, minZ.length);
+        checkLength(length, maxX.length);
+        checkLength(length, maxY.length);
+        checkLength(length, maxZ.length);
+        checkLength(length, mask.length);
+
+        float[] px = a >= 0f ? maxX : minX;
+        float[] py = b >= 0f ? maxY : minY;
+        float[] pz = c >= 0f ? maxZ : minZ;
+
+        for (int i = 0; i < length; i++) {
+            float distance = a * px[i] + b * py[i] + c * pz[i] + d;
+            mask[i] |= -(Float.floatToRawIntBits(distance) >>> 31) & flag;
+        }
+    }
+
+    /**
+     * Sets <code>flag</code> in <code>mask[i]</code> if <code>values[i] &gt; threshold</code>. Behavior on NaN is unspecified.
+     */
+    public static void greaterThanMask(float[] values, float threshold, int flag, int[] mask, int length) {
+        checkLength(length, values.length);
+        checkLength(length, mask.length);
+
+        for (int i = 0; i < length; i++) {
+            mask[i] |= -(Float.floatToRawIntBits(threshold - values[i]) >>> 31) & flag;
+        }
+    }
+
+    /**
+     * Sets <code>flag</code> in <code>mask[i]</code> if <code>values[i] &lt; threshold</code>. Behavior on NaN is unspecified.
+     */
+    public static void lessThanMask(float[] values, float threshold, int flag, int[] mask, int length) {
+        checkLength(length, values.length);
+        checkLength(length, mask.length);
+
+        for (int i = 0; i < length; i++) {
+            mask[i] |= -(Float.floatToRawIntBits(values[i] - threshold) >>> 31) & flag;
+        }
+    }
+}
@@ -5,21 +5,20 @@ import com.cleanroommc.kirino.ecs.component.ICleanComponent;
 import com.google.common.collect.ImmutableList;
 import org.jspecify.annotations.NonNull;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
- * Besides the abstract methods, a pool must implement grow and shrink mechanism.
+ * Besides the abstract methods, a pool must implement grow and shrink mechanism following its {@link #policy}.
  *
- * @see #growStep
- * @see #shrinkStep
+ * @see PoolPolicy
  */
-public abstract class ArchetypeDataPool {
+public abstract class ArchetypeDataPool implements IArchetypeView {
     public final ImmutableList<Class<? extends ICleanComponent>> components;
 
     protected int currentSize;
-    public final int initSize;
-    public final int growStep;
-    public final int shrinkStep;
+    public final PoolPolicy policy;
 
     protected final ComponentRegistry componentRegistry;
 
@@ -40,17 +39,13 @@ public abstract class ArchetypeDataPool {
      *
      * @param componentRegistry The component registry
      * @param components The component types for this archetype
-     * @param initSize The number entities this pool can contain initially
-     * @param growStep The size to grow when the pool is full
-     * @param shrinkStep The threshold to judge when the pool is too large; Also the size to shrink
+     * @param policy The grow and shrink policy
      */
-    public ArchetypeDataPool(ComponentRegistry componentRegistry, List<Class<? extends ICleanComponent>> components, int initSize, int growStep, int shrinkStep) {
+    public ArchetypeDataPool(ComponentRegistry componentRegistry, List<Class<? extends ICleanComponent>> components, PoolPolicy policy) {
         this.componentRegistry = componentRegistry;
         this.components = ImmutableList.copyOf(components);
-        this.initSize = initSize;
-        this.growStep = growStep;
-        this.shrinkStep = shrinkStep;
-        currentSize = initSize;
+        this.policy = policy;
+        currentSize = policy.initialCapacity();
     }
 
     public abstract boolean containsEntity(int entityID);
@@ -116,7 +111,83 @@ public abstract class ArchetypeDataPool {
      */
     public abstract IPrimitiveArray getArray(Class<? extends ICleanComponent> component, String... fieldAccessChain);
 
+    /**
+     * Same as {@link #getArray(Class, String...)} but skips the field resolution.
+     *
+     * <p>Prerequisite include:</p>
+     * <ul>
+     *     <li><code>component</code> is in {@link ArchetypeDataPool#components}</li>
+     *     <li><code>fieldOrdinal</code> is obtained from {@link ComponentRegistry#getFieldOrdinal(String, String...)}</li>
+     * </ul>
+     *
+     * @param component The component class
+     * @param fieldOrdinal The flattened ordinal of the field
+     * @return An array of field values
+     */
+    public abstract IPrimitiveArray getArray(Class<? extends ICleanComponent> component, int fieldOrdinal);
+
     public abstract ArrayRange getArrayRange();
 
+    /**
+     * Returns the front view published by the latest {@link #swapBuffers()}. It's immutable, so it can be read
+     * while writers modify this pool. Only columns of {@link com.cleanroommc.kirino.ecs.component.DoubleBuffered} components are available.
+     * A view stays intact until the second {@link #swapBuffers()} after the one that replaced it, so readers may hold it
+     * across at most one more swap before its blocks are recycled.
+     *
+     * @return The front view
+     */
+    @NonNull
+    public abstract IArchetypeView getFrontView();
+
+    /**
+     * Publishes the current state of double-buffered columns as the new front view. No-op if there is no such column.
+     * Must only be called by {@link com.cleanroommc.kirino.ecs.entity.EntityManager}.
+     */
+    public abstract void swapBuffers();
+
+    /**
+     * Shrinks the pool if {@link #policy} says so. Called once per {@link com.cleanroommc.kirino.ecs.entity.EntityManager#flush()}.
+     */
+    public abstract void tryShrink();
+
+    /**
+     * @return The entity id of every row in <code>[0, getArrayRange().end)</code>; <code>-1</code> for deprecated rows
+     */
+    public abstract int @NonNull [] getRowEntityIDs();
+
+    /**
+     * Writes every column as a raw block of <code>getArrayRange().end</code> values.
+     * The column order is stable for the same {@link ArchetypeDataPool#components} order.
+     *
+     * @param writer The column writer
+     * @throws IOException If the writer fails
+     */
+    public abstract void writeColumns(@NonNull IColumnWriter writer) throws IOException;
+
+    /**
+     * Replaces all rows with the column blocks written by {@link #writeColumns(IColumnWriter)}.
+     * The byte order of <code>buffer</code> must be set by the caller, and its position is advanced past the blocks.
+     *
+     * <p>Prerequisite include:</p>
+     * <ul>
+     *     <li>This pool is empty</li>
+     *     <li>{@link ArchetypeDataPool#components} has the same order as the pool that wrote the blocks</li>
+     * </ul>
+     *
+     * @param buffer The buffer positioned at the first column block
+     * @param rowEntityIDs The entity id of every row; <code>-1</code> for deprecated rows
+     */
+    public abstract void readColumns(@NonNull ByteBuffer buffer, int @NonNull [] rowEntityIDs);
+
+    /**
+     * @return The memory usage of this pool
+     */
+    @NonNull
+    public abstract PoolStats getStats();
+
+    /**
+     * @return A debug string of the first few rows
+     * @see #getStats()
+     */
     public abstract String getSnapshot();
 }
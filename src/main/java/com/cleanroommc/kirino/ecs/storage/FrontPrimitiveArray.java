@@ -0,0 +1,135 @@
+package com.cleanroommc.kirino.ecs.storage;
+
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A read-only column of a front view. Values are stored in blocks of {@link HeapPool#BLOCK_SIZE},
+ * which are shared between front views as long as they aren't written.
+ */
+final class FrontPrimitiveArray implements IPrimitiveArray {
+    private final PrimitiveArrayType type;
+    private final int length;
+    private final int[][] intBlocks;
+    private final float[][] floatBlocks;
+    private final boolean[][] booleanBlocks;
+
+    FrontPrimitiveArray(int[][] blocks, int length) {
+        type = PrimitiveArrayType.INT;
+        this.length = length;
+        intBlocks = blocks;
+        floatBlocks = null;
+        booleanBlocks = null;
+    }
+
+    FrontPrimitiveArray(float[][] blocks, int length) {
+        type = PrimitiveArrayType.FLOAT;
+        this.length = length;
+        intBlocks = null;
+        floatBlocks = blocks;
+        booleanBlocks = null;
+    }
+
+    FrontPrimitiveArray(boolean[][] blocks, int length) {
+        type = PrimitiveArrayType.BOOL;
+        this.length = length;
+        intBlocks = null;
+        floatBlocks = null;
+        booleanBlocks = blocks;
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public int getInt(int index) {
+        Preconditions.checkState(type == PrimitiveArrayType.INT,
+                "This is not a integer-typed array.");
+
+        return intBlocks[index >>> HeapPool.BLOCK_SHIFT][index & HeapPool.BLOCK_MASK];
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public float getFloat(int index) {
+        Preconditions.checkState(type == PrimitiveArrayType.FLOAT,
+                "This is not a float-typed array.");
+
+        return floatBlocks[index >>> HeapPool.BLOCK_SHIFT][index & HeapPool.BLOCK_MASK];
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public boolean getBool(int index) {
+        Preconditions.checkState(type == PrimitiveArrayType.BOOL,
+                "This is not a boolean-typed array.");
+
+        return booleanBlocks[index >>> HeapPool.BLOCK_SHIFT][index & HeapPool.BLOCK_MASK];
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        throw new UnsupportedOperationException("Front buffer views are read-only.");
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        throw new UnsupportedOperationException("Front buffer views are read-only.");
+    }
+
+    @Override
+    public void setBool(int index, boolean value) {
+        throw new UnsupportedOperationException("Front buffer views are read-only.");
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public void getInts(int index, int @NonNull [] dst, int dstOffset, int length) {
+        Preconditions.checkState(type == PrimitiveArrayType.INT,
+                "This is not a integer-typed array.");
+
+        while (length > 0) {
+            int offset = index & HeapPool.BLOCK_MASK;
+            int count = Math.min(length, HeapPool.BLOCK_SIZE - offset);
+            System.arraycopy(intBlocks[index >>> HeapPool.BLOCK_SHIFT], offset, dst, dstOffset, count);
+            index += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public void getFloats(int index, float @NonNull [] dst, int dstOffset, int length) {
+        Preconditions.checkState(type == PrimitiveArrayType.FLOAT,
+                "This is not a float-typed array.");
+
+        while (length > 0) {
+            int offset = index & HeapPool.BLOCK_MASK;
+            int count = Math.min(length, HeapPool.BLOCK_SIZE - offset);
+            System.arraycopy(floatBlocks[index >>> HeapPool.BLOCK_SHIFT], offset, dst, dstOffset, count);
+            index += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void setInts(int index, int @NonNull [] src, int srcOffset, int length) {
+        throw new UnsupportedOperationException("Front buffer views are read-only.");
+    }
+
+    @Override
+    public void setFloats(int index, float @NonNull [] src, int srcOffset, int length) {
+        throw new UnsupportedOperationException("Front buffer views are read-only.");
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @NonNull
+    @Override
+    public PrimitiveArrayType type() {
+        return type;
+    }
+}
@@ -2,22 +2,55 @@ package com.cleanroommc.kirino.ecs.storage;
 
 import com.cleanroommc.kirino.ecs.component.ComponentDescFlattened;
 import com.cleanroommc.kirino.ecs.component.ComponentRegistry;
+import com.cleanroommc.kirino.ecs.component.DoubleBuffered;
 import com.cleanroommc.kirino.ecs.component.ICleanComponent;
 import com.cleanroommc.kirino.ecs.component.schema.def.field.FlattenedField;
 import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.FlattenedScalarType;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
 
 /**
  * It guarantees SoA memory layout.
  */
 public final class HeapPool extends ArchetypeDataPool{
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
     private final List<int[]> intPool = new ArrayList<>();
     private final List<float[]> floatPool = new ArrayList<>();
     private final List<boolean[]> booleanPool = new ArrayList<>();
 
+    // double buffering; entries are null for columns of components without @DoubleBuffered
+    private final List<boolean @Nullable []> intDirtyBlocks = new ArrayList<>();
+    private final List<boolean @Nullable []> floatDirtyBlocks = new ArrayList<>();
+    private final List<boolean @Nullable []> booleanDirtyBlocks = new ArrayList<>();
+    private final List<int @Nullable [][]> frontIntPool = new ArrayList<>();
+    private final List<float @Nullable [][]> frontFloatPool = new ArrayList<>();
+    private final List<boolean @Nullable [][]> frontBooleanPool = new ArrayList<>();
+    private final FrontBlockPool<int[]> intBlockPool = new FrontBlockPool<>(int[]::new);
+    private final FrontBlockPool<float[]> floatBlockPool = new FrontBlockPool<>(float[]::new);
+    private final FrontBlockPool<boolean[]> booleanBlockPool = new FrontBlockPool<>(boolean[]::new);
+    private final boolean doubleBuffered;
+    private volatile FrontView frontView;
+
+    // stats
+    private final int rowBytes;
+    private long growCount = 0;
+    private long shrinkCount = 0;
+    private long resizeBytesCopied = 0;
+    private long swapBytesCopied = 0;
+
+    private int framesBelowShrinkThreshold = 0;
+
     public static class ComDataLocation {
         public final int intArrFrom;
         public final int intArrTo;
@@ -57,14 +90,17 @@ public final class HeapPool extends ArchetypeDataPool{
      * @param components The component types for this archetype
      */
     @SuppressWarnings("DataFlowIssue")
-    public HeapPool(ComponentRegistry componentRegistry, List<Class<? extends ICleanComponent>> components, int initSize, int growStep, int shrinkStep) {
-        super(componentRegistry, components, initSize, growStep, shrinkStep);
+    public HeapPool(ComponentRegistry componentRegistry, List<Class<? extends ICleanComponent>> components, PoolPolicy policy) {
+        super(componentRegistry, components, policy);
 
         int intArrCount = 0;
         int floatArrCount = 0;
         int booleanArrCount = 0;
+        boolean doubleBuffered = false;
         for (Class<? extends ICleanComponent> clazz : components) {
             ComponentDescFlattened descFlattened = componentRegistry.getComponentDescFlattened(componentRegistry.getComponentName(clazz));
+            boolean componentDoubleBuffered = clazz.isAnnotationPresent(DoubleBuffered.class);
+            doubleBuffered |= componentDoubleBuffered;
 
             int intArrFrom = intArrCount;
             int floatArrFrom = floatArrCount;
@@ -74,13 +110,19 @@ public final class HeapPool extends ArchetypeDataPool{
             for (FlattenedField flattenedField : descFlattened.fields) {
                 for (FlattenedScalarType flattenedScalarType : flattenedField.scalarTypes) {
                     if (flattenedScalarType == FlattenedScalarType.INT) {
-                        intPool.add(new int[initSize]);
+                        intPool.add(new int[currentSize]);
+                        intDirtyBlocks.add(componentDoubleBuffered ? new boolean[0] : null);
+                        frontIntPool.add(componentDoubleBuffered ? new int[0][] : null);
                         intArrCount++;
                     } else if (flattenedScalarType == FlattenedScalarType.FLOAT) {
-                        floatPool.add(new float[initSize]);
+                        floatPool.add(new float[currentSize]);
+                        floatDirtyBlocks.add(componentDoubleBuffered ? new boolean[0] : null);
+                        frontFloatPool.add(componentDoubleBuffered ? new float[0][] : null);
                         floatArrCount++;
                     } else if (flattenedScalarType == FlattenedScalarType.BOOL) {
-                        booleanPool.add(new boolean[initSize]);
+                        booleanPool.add(new boolean[currentSize]);
+                        booleanDirtyBlocks.add(componentDoubleBuffered ? new boolean[0] : null);
+                        frontBooleanPool.add(componentDoubleBuffered ? new boolean[0][] : null);
                         booleanArrCount++;
                     }
                     order.add(flattenedScalarType);
@@ -93,6 +135,69 @@ public final class HeapPool extends ArchetypeDataPool{
 
             componentDataLocations.put(clazz, new ComDataLocation(ImmutableList.copyOf(order), intArrFrom, intArrTo, floatArrFrom, floatArrTo, booleanArrFrom, booleanArrTo));
         }
+
+        this.doubleBuffered = doubleBuffered;
+        rowBytes = intArrCount * Integer.BYTES + floatArrCount * Float.BYTES + booleanArrCount;
+        markAllDirty();
+        frontView = new FrontView(componentDataLocations, new ArrayList<>(frontIntPool), new ArrayList<>(frontFloatPool), new ArrayList<>(frontBooleanPool),
+                0, new ArrayRange(0, 0, new HashSet<>()));
+    }
+
+    private record ColumnIndex(FlattenedScalarType type, int index) {
+    }
+
+    private static ColumnIndex locateColumn(ComDataLocation location, int ordinal) {
+        int intArrIndex = location.intArrFrom;
+        int floatArrIndex = location.floatArrFrom;
+        int booleanArrIndex = location.booleanArrFrom;
+        for (int i = 0; i < location.order.size(); i++) {
+            FlattenedScalarType flattenedScalarType = location.order.get(i);
+            if (flattenedScalarType == FlattenedScalarType.INT) {
+                if (i == ordinal) {
+                    return new ColumnIndex(flattenedScalarType, intArrIndex);
+                }
+                intArrIndex++;
+            } else if (flattenedScalarType == FlattenedScalarType.FLOAT) {
+                if (i == ordinal) {
+                    return new ColumnIndex(flattenedScalarType, floatArrIndex);
+                }
+                floatArrIndex++;
+            } else if (flattenedScalarType == FlattenedScalarType.BOOL) {
+                if (i == ordinal) {
+                    return new ColumnIndex(flattenedScalarType, booleanArrIndex);
+                }
+                booleanArrIndex++;
+            }
+        }
+
+        throw new IllegalArgumentException("Unable to find such array.");
+    }
+
+    private static void markDirty(boolean @Nullable [] dirtyBlocks, int index) {
+        if (dirtyBlocks != null) {
+            dirtyBlocks[index >>> BLOCK_SHIFT] = true;
+        }
+    }
+
+    /**
+     * Must be called whenever the pool is resized.
+     */
+    private void markAllDirty() {
+        if (!doubleBuffered) {
+            return;
+        }
+        int blockCount = (currentSize + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        UnaryOperator<boolean[]> reset = original -> {
+            if (original == null) {
+                return null;
+            }
+            boolean[] dirtyBlocks = new boolean[blockCount];
+            Arrays.fill(dirtyBlocks, true);
+            return dirtyBlocks;
+        };
+        intDirtyBlocks.replaceAll(reset);
+        floatDirtyBlocks.replaceAll(reset);
+        booleanDirtyBlocks.replaceAll(reset);
     }
 
     @Override
@@ -147,12 +252,15 @@ public final class HeapPool extends ArchetypeDataPool{
         for (FlattenedScalarType flattenedScalarType : location.order) {
             if (flattenedScalarType == FlattenedScalarType.INT) {
                 intPool.get(intArrIndex)[index] = (Integer) args[argIndex];
+                markDirty(intDirtyBlocks.get(intArrIndex), index);
                 intArrIndex++;
             } else if (flattenedScalarType == FlattenedScalarType.FLOAT) {
                 floatPool.get(floatArrIndex)[index] = (Float) args[argIndex];
+                markDirty(floatDirtyBlocks.get(floatArrIndex), index);
                 floatArrIndex++;
             } else if (flattenedScalarType == FlattenedScalarType.BOOL) {
                 booleanPool.get(booleanArrIndex)[index] = (Boolean) args[argIndex];
+                markDirty(booleanDirtyBlocks.get(booleanArrIndex), index);
                 booleanArrIndex++;
             }
             argIndex++;
@@ -165,10 +273,13 @@ public final class HeapPool extends ArchetypeDataPool{
         if (freeIndexes.isEmpty()) {
             // grow pool
             if (indexCounter >= currentSize) {
-                currentSize += growStep;
+                growCount++;
+                resizeBytesCopied += (long) currentSize * rowBytes;
+                currentSize = policy.grow(currentSize, indexCounter + 1);
                 intPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
                 floatPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
                 booleanPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
+                markAllDirty();
             }
             index = indexCounter++;
         } else {
@@ -190,12 +301,15 @@ public final class HeapPool extends ArchetypeDataPool{
             for (FlattenedScalarType flattenedScalarType : location.order) {
                 if (flattenedScalarType == FlattenedScalarType.INT) {
                     intPool.get(intArrIndex)[index] = (Integer) args[argIndex];
+                    markDirty(intDirtyBlocks.get(intArrIndex), index);
                     intArrIndex++;
                 } else if (flattenedScalarType == FlattenedScalarType.FLOAT) {
                     floatPool.get(floatArrIndex)[index] = (Float) args[argIndex];
+                    markDirty(floatDirtyBlocks.get(floatArrIndex), index);
                     floatArrIndex++;
                 } else if (flattenedScalarType == FlattenedScalarType.BOOL) {
                     booleanPool.get(booleanArrIndex)[index] = (Boolean) args[argIndex];
+                    markDirty(booleanDirtyBlocks.get(booleanArrIndex), index);
                     booleanArrIndex++;
                 }
                 argIndex++;
@@ -215,15 +329,6 @@ public final class HeapPool extends ArchetypeDataPool{
             for (Integer freeIndex : freeIndexesToRemove) {
                 freeIndexes.remove(freeIndex);
             }
-            // shrink pool
-            if (indexCounter + shrinkStep <= currentSize) {
-                if (currentSize - shrinkStep >= initSize) {
-                    currentSize -= shrinkStep;
-                    intPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
-                    floatPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
-                    booleanPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
-                }
-            }
         } else {
             freeIndexes.add(index);
         }
@@ -231,39 +336,392 @@ public final class HeapPool extends ArchetypeDataPool{
 
     @Override
     public IPrimitiveArray getArray(Class<? extends ICleanComponent> component, String... fieldAccessChain) {
-        int ordinal = componentRegistry.getFieldOrdinal(componentRegistry.getComponentName(component), fieldAccessChain);
-        ComDataLocation location = componentDataLocations.get(component);
+        return getArray(component, componentRegistry.getFieldOrdinal(componentRegistry.getComponentName(component), fieldAccessChain));
+    }
 
-        int index = 0;
-        int intArrIndex = location.intArrFrom;
-        int floatArrIndex = location.floatArrFrom;
-        int booleanArrIndex = location.booleanArrFrom;
-        for (FlattenedScalarType flattenedScalarType : location.order) {
-            if (flattenedScalarType == FlattenedScalarType.INT) {
-                if (index == ordinal) {
-                    return new HeapPrimitiveArray(intPool.get(intArrIndex));
+    @Override
+    public IPrimitiveArray getArray(Class<? extends ICleanComponent> component, int ordinal) {
+        ColumnIndex column = locateColumn(componentDataLocations.get(component), ordinal);
+        return switch (column.type()) {
+            case INT -> new HeapPrimitiveArray(intPool.get(column.index()), intDirtyBlocks.get(column.index()));
+            case FLOAT -> new HeapPrimitiveArray(floatPool.get(column.index()), floatDirtyBlocks.get(column.index()));
+            case BOOL -> new HeapPrimitiveArray(booleanPool.get(column.index()), booleanDirtyBlocks.get(column.index()));
+        };
+    }
+
+    @Override
+    public ArrayRange getArrayRange() {
+        return new ArrayRange(0, indexCounter, new HashSet<>(freeIndexes));
+    }
+
+    @Override
+    public int @NonNull [] getRowEntityIDs() {
+        int[] rowEntityIDs = new int[indexCounter];
+        Arrays.fill(rowEntityIDs, -1);
+        for (Map.Entry<Integer, Integer> entry : entityDataIndexes.entrySet()) {
+            rowEntityIDs[entry.getValue()] = entry.getKey();
+        }
+        return rowEntityIDs;
+    }
+
+    @Override
+    public void writeColumns(@NonNull IColumnWriter writer) throws IOException {
+        for (int[] column : intPool) {
+            writer.writeInts(column, indexCounter);
+        }
+        for (float[] column : floatPool) {
+            writer.writeFloats(column, indexCounter);
+        }
+        for (boolean[] column : booleanPool) {
+            writer.writeBooleans(column, indexCounter);
+        }
+    }
+
+    @Override
+    public void readColumns(@NonNull ByteBuffer buffer, int @NonNull [] rowEntityIDs) {
+        Preconditions.checkState(indexCounter == 0 && entityDataIndexes.isEmpty(),
+                "Columns can only be read into an empty pool.");
+
+        int rowCount = rowEntityIDs.length;
+        if (rowCount > currentSize) {
+            currentSize = policy.grow(currentSize, rowCount);
+            intPool.replaceAll(original -> new int[currentSize]);
+            floatPool.replaceAll(original -> new float[currentSize]);
+            booleanPool.replaceAll(original -> new boolean[currentSize]);
+        }
+
+        // bulk copies straight from the (possibly mapped) buffer
+        for (int[] column : intPool) {
+            buffer.asIntBuffer().get(column, 0, rowCount);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+        }
+        for (float[] column : floatPool) {
+            buffer.asFloatBuffer().get(column, 0, rowCount);
+            buffer.position(buffer.position() + rowCount * Float.BYTES);
+        }
+        for (boolean[] column : booleanPool) {
+            for (int i = 0; i < rowCount; i++) {
+                column[i] = buffer.get() != 0;
+            }
+        }
+
+        for (int i = 0; i < rowCount; i++) {
+            if (rowEntityIDs[i] == -1) {
+                freeIndexes.add(i);
+            } else {
+                entityDataIndexes.put(rowEntityIDs[i], i);
+            }
+        }
+        indexCounter = rowCount;
+        markAllDirty();
+    }
+
+    //<editor-fold desc="double buffering">
+    private static final class FrontView implements IArchetypeView {
+        private final Map<Class<? extends ICleanComponent>, ComDataLocation> componentDataLocations;
+        private final List<int @Nullable [][]> intPool;
+        private final List<float @Nullable [][]> floatPool;
+        private final List<boolean @Nullable [][]> booleanPool;
+        private final int length;
+        private final ArrayRange arrayRange;
+
+        private FrontView(
+                Map<Class<? extends ICleanComponent>, ComDataLocation> componentDataLocations,
+                List<int @Nullable [][]> intPool,
+                List<float @Nullable [][]> floatPool,
+                List<boolean @Nullable [][]> booleanPool,
+                int length,
+                ArrayRange arrayRange) {
+
+            this.componentDataLocations = componentDataLocations;
+            this.intPool = intPool;
+            this.floatPool = floatPool;
+            this.booleanPool = booleanPool;
+            this.length = length;
+            this.arrayRange = arrayRange;
+        }
+
+        @NonNull
+        @Override
+        public IPrimitiveArray getArray(@NonNull Class<? extends ICleanComponent> component, int fieldOrdinal) {
+            ColumnIndex column = locateColumn(componentDataLocations.get(component), fieldOrdinal);
+            IPrimitiveArray array = switch (column.type()) {
+                case INT -> intPool.get(column.index()) == null ? null : new FrontPrimitiveArray(intPool.get(column.index()), length);
+                case FLOAT -> floatPool.get(column.index()) == null ? null : new FrontPrimitiveArray(floatPool.get(column.index()), length);
+                case BOOL -> booleanPool.get(column.index()) == null ? null : new FrontPrimitiveArray(booleanPool.get(column.index()), length);
+            };
+            if (array == null) {
+                throw new IllegalStateException("Component " + component.getName() + " isn't double-buffered.");
+            }
+            return array;
+        }
+
+        @NonNull
+        @Override
+        public ArrayRange getArrayRange() {
+            return arrayRange;
+        }
+    }
+
+    @NonNull
+    @Override
+    public IArchetypeView getFrontView() {
+        return frontView;
+    }
+
+    /**
+     * Recycles the blocks of one primitive type. A block replaced by a swap may still be read through the front view
+     * it belonged to, so it's only reused two swaps later, i.e. readers may hold a front view across one more swap
+     * after the one that replaced it.
+     */
+    private static final class FrontBlockPool<T> {
+        private final IntFunction<T> allocator;
+        private final ArrayDeque<T> spareBlocks = new ArrayDeque<>();
+        private List<T> retiringBlocks = new ArrayList<>();
+        private List<T> retiredLastSwap = new ArrayList<>();
+        private List<T> retiredTwoSwapsAgo = new ArrayList<>();
+        private long allocatedCount = 0;
+
+        private FrontBlockPool(IntFunction<T> allocator) {
+            this.allocator = allocator;
+        }
+
+        private void beginSwap() {
+            // no reader can hold these anymore
+            spareBlocks.addAll(retiredTwoSwapsAgo);
+            retiredTwoSwapsAgo.clear();
+        }
+
+        private T take() {
+            T block = spareBlocks.poll();
+            if (block == null) {
+                block = allocator.apply(BLOCK_SIZE);
+                allocatedCount++;
+            }
+            return block;
+        }
+
+        private void retire(T block) {
+            retiringBlocks.add(block);
+        }
+
+        /**
+         * @param maxSpareBlocks The number of spare blocks to keep at most, so a shrunk pool releases its memory
+         */
+        private void endSwap(int maxSpareBlocks) {
+            List<T> empty = retiredTwoSwapsAgo;
+            retiredTwoSwapsAgo = retiredLastSwap;
+            retiredLastSwap = retiringBlocks;
+            retiringBlocks = empty;
+            while (spareBlocks.size() > maxSpareBlocks) {
+                spareBlocks.poll();
+            }
+        }
+
+        private int retainedBlockCount() {
+            return spareBlocks.size() + retiredLastSwap.size() + retiredTwoSwapsAgo.size();
+        }
+    }
+
+    @Override
+    public void swapBuffers() {
+        if (!doubleBuffered) {
+            return;
+        }
+
+        // copy-on-write: only dirty blocks are replaced; clean blocks are shared with the previous front view
+        intBlockPool.beginSwap();
+        floatBlockPool.beginSwap();
+        booleanBlockPool.beginSwap();
+        int intBlockCount = 0;
+        int floatBlockCount = 0;
+        int booleanBlockCount = 0;
+        for (int i = 0; i < intPool.size(); i++) {
+            boolean[] dirtyBlocks = intDirtyBlocks.get(i);
+            if (dirtyBlocks == null) {
+                continue;
+            }
+            int[] back = intPool.get(i);
+            int[][] oldBlocks = frontIntPool.get(i);
+            int[][] blocks = Arrays.copyOf(oldBlocks, dirtyBlocks.length);
+            for (int j = dirtyBlocks.length; j < oldBlocks.length; j++) {
+                intBlockPool.retire(oldBlocks[j]);
+            }
+            for (int j = 0; j < dirtyBlocks.length; j++) {
+                if (dirtyBlocks[j] || blocks[j] == null) {
+                    if (blocks[j] != null) {
+                        intBlockPool.retire(blocks[j]);
+                    }
+                    int start = j << BLOCK_SHIFT;
+                    blocks[j] = intBlockPool.take();
+                    int length = Math.min(BLOCK_SIZE, back.length - start);
+                    System.arraycopy(back, start, blocks[j], 0, length);
+                    swapBytesCopied += (long) length * Integer.BYTES;
+                    dirtyBlocks[j] = false;
                 }
-                intArrIndex++;
-            } else if (flattenedScalarType == FlattenedScalarType.FLOAT) {
-                if (index == ordinal) {
-                    return new HeapPrimitiveArray(floatPool.get(floatArrIndex));
+            }
+            frontIntPool.set(i, blocks);
+            intBlockCount += blocks.length;
+        }
+        for (int i = 0; i < floatPool.size(); i++) {
+            boolean[] dirtyBlocks = floatDirtyBlocks.get(i);
+            if (dirtyBlocks == null) {
+                continue;
+            }
+            float[] back = floatPool.get(i);
+            float[][] oldBlocks = frontFloatPool.get(i);
+            float[][] blocks = Arrays.copyOf(oldBlocks, dirtyBlocks.length);
+            for (int j = dirtyBlocks.length; j < oldBlocks.length; j++) {
+                floatBlockPool.retire(oldBlocks[j]);
+            }
+            for (int j = 0; j < dirtyBlocks.length; j++) {
+                if (dirtyBlocks[j] || blocks[j] == null) {
+                    if (blocks[j] != null) {
+                        floatBlockPool.retire(blocks[j]);
+                    }
+                    int start = j << BLOCK_SHIFT;
+                    blocks[j] = floatBlockPool.take();
+                    int length = Math.min(BLOCK_SIZE, back.length - start);
+                    System.arraycopy(back, start, blocks[j], 0, length);
+                    swapBytesCopied += (long) length * Float.BYTES;
+                    dirtyBlocks[j] = false;
                 }
-                floatArrIndex++;
-            } else if (flattenedScalarType == FlattenedScalarType.BOOL) {
-                if (index == ordinal) {
-                    return new HeapPrimitiveArray(booleanPool.get(booleanArrIndex));
+            }
+            frontFloatPool.set(i, blocks);
+            floatBlockCount += blocks.length;
+        }
+        for (int i = 0; i < booleanPool.size(); i++) {
+            boolean[] dirtyBlocks = booleanDirtyBlocks.get(i);
+            if (dirtyBlocks == null) {
+                continue;
+            }
+            boolean[] back = booleanPool.get(i);
+            boolean[][] oldBlocks = frontBooleanPool.get(i);
+            boolean[][] blocks = Arrays.copyOf(oldBlocks, dirtyBlocks.length);
+            for (int j = dirtyBlocks.length; j < oldBlocks.length; j++) {
+                booleanBlockPool.retire(oldBlocks[j]);
+            }
+            for (int j = 0; j < dirtyBlocks.length; j++) {
+                if (dirtyBlocks[j] || blocks[j] == null) {
+                    if (blocks[j] != null) {
+                        booleanBlockPool.retire(blocks[j]);
+                    }
+                    int start = j << BLOCK_SHIFT;
+                    blocks[j] = booleanBlockPool.take();
+                    int length = Math.min(BLOCK_SIZE, back.length - start);
+                    System.arraycopy(back, start, blocks[j], 0, length);
+                    swapBytesCopied += (long) length;
+                    dirtyBlocks[j] = false;
                 }
-                booleanArrIndex++;
             }
-            index++;
+            frontBooleanPool.set(i, blocks);
+            booleanBlockCount += blocks.length;
         }
+        intBlockPool.endSwap(intBlockCount);
+        floatBlockPool.endSwap(floatBlockCount);
+        booleanBlockPool.endSwap(booleanBlockCount);
 
-        throw new IllegalArgumentException("Unable to find such array.");
+        frontView = new FrontView(componentDataLocations, new ArrayList<>(frontIntPool), new ArrayList<>(frontFloatPool), new ArrayList<>(frontBooleanPool),
+                currentSize, getArrayRange());
+    }
+    //</editor-fold>
+
+    /**
+     * Moves every live row at or above the live row count into a free row below it, so rows
+     * <code>[0, liveRows)</code> are all live and there are no free rows left. Row indexes change, so it must only run
+     * while no job is executing, i.e. during {@link com.cleanroommc.kirino.ecs.entity.EntityManager#flush()}.
+     */
+    private void compact() {
+        if (freeIndexes.isEmpty()) {
+            return;
+        }
+        int liveRows = entityDataIndexes.size();
+        int[] rowEntityIDs = getRowEntityIDs();
+
+        int target = 0;
+        for (int row = liveRows; row < indexCounter; row++) {
+            int entityID = rowEntityIDs[row];
+            if (entityID == -1) {
+                continue;
+            }
+            while (rowEntityIDs[target] != -1) {
+                target++;
+            }
+            for (int[] column : intPool) {
+                column[target] = column[row];
+            }
+            for (float[] column : floatPool) {
+                column[target] = column[row];
+            }
+            for (boolean[] column : booleanPool) {
+                column[target] = column[row];
+            }
+            rowEntityIDs[target] = entityID;
+            entityDataIndexes.put(entityID, target);
+        }
+
+        freeIndexes.clear();
+        indexCounter = liveRows;
     }
 
     @Override
-    public ArrayRange getArrayRange() {
-        return new ArrayRange(0, indexCounter, new HashSet<>(freeIndexes));
+    public void tryShrink() {
+        // free rows below the high water mark don't count, otherwise a fragmented pool never shrinks
+        int liveRows = entityDataIndexes.size();
+        if (!policy.shouldShrink(currentSize, liveRows)) {
+            framesBelowShrinkThreshold = 0;
+            return;
+        }
+        if (++framesBelowShrinkThreshold < policy.shrinkDelayFrames()) {
+            return;
+        }
+        framesBelowShrinkThreshold = 0;
+
+        int newSize = policy.shrink(liveRows);
+        if (newSize >= currentSize) {
+            return;
+        }
+        compact();
+        currentSize = newSize;
+        shrinkCount++;
+        resizeBytesCopied += (long) currentSize * rowBytes;
+        intPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
+        floatPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
+        booleanPool.replaceAll(original -> Arrays.copyOf(original, currentSize));
+        markAllDirty();
+    }
+
+    @NonNull
+    @Override
+    public PoolStats getStats() {
+        long frontBufferBytes = 0;
+        for (int[][] blocks : frontIntPool) {
+            frontBufferBytes += blocks == null ? 0 : (long) blocks.length * BLOCK_SIZE * Integer.BYTES;
+        }
+        for (float[][] blocks : frontFloatPool) {
+            frontBufferBytes += blocks == null ? 0 : (long) blocks.length * BLOCK_SIZE * Float.BYTES;
+        }
+        for (boolean[][] blocks : frontBooleanPool) {
+            frontBufferBytes += blocks == null ? 0 : (long) blocks.length * BLOCK_SIZE;
+        }
+        frontBufferBytes += (long) intBlockPool.retainedBlockCount() * BLOCK_SIZE * Integer.BYTES;
+        frontBufferBytes += (long) floatBlockPool.retainedBlockCount() * BLOCK_SIZE * Float.BYTES;
+        frontBufferBytes += (long) booleanBlockPool.retainedBlockCount() * BLOCK_SIZE;
+
+        return new PoolStats(
+                components,
+                rowBytes,
+                currentSize,
+                indexCounter,
+                entityDataIndexes.size(),
+                freeIndexes.size(),
+                (long) currentSize * rowBytes,
+                frontBufferBytes,
+                growCount,
+                shrinkCount,
+                resizeBytesCopied,
+                swapBytesCopied,
+                intBlockPool.allocatedCount + floatBlockPool.allocatedCount + booleanBlockPool.allocatedCount);
     }
 
     @Override
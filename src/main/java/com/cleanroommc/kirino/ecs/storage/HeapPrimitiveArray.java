@@ -2,6 +2,7 @@ package com.cleanroommc.kirino.ecs.storage;
 
 import com.google.common.base.Preconditions;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 public final class HeapPrimitiveArray implements IPrimitiveArray {
     private final PrimitiveArrayType type;
@@ -9,29 +10,55 @@ public final class HeapPrimitiveArray implements IPrimitiveArray {
     private final int[] intArray;
     private final float[] floatArray;
     private final boolean[] booleanArray;
+    // non-null for double-buffered columns; one flag per HeapPool#BLOCK_SIZE elements
+    private final boolean @Nullable [] dirtyBlocks;
 
     HeapPrimitiveArray(int[] array) {
+        this(array, null);
+    }
+
+    HeapPrimitiveArray(float[] array) {
+        this(array, null);
+    }
+
+    HeapPrimitiveArray(boolean[] array) {
+        this(array, null);
+    }
+
+    HeapPrimitiveArray(int[] array, boolean @Nullable [] dirtyBlocks) {
         type = PrimitiveArrayType.INT;
         length = array.length;
         intArray = array;
         floatArray = null;
         booleanArray = null;
+        this.dirtyBlocks = dirtyBlocks;
     }
 
-    HeapPrimitiveArray(float[] array) {
+    HeapPrimitiveArray(float[] array, boolean @Nullable [] dirtyBlocks) {
         type = PrimitiveArrayType.FLOAT;
         length = array.length;
         intArray = null;
         floatArray = array;
         booleanArray = null;
+        this.dirtyBlocks = dirtyBlocks;
     }
 
-    HeapPrimitiveArray(boolean[] array) {
+    HeapPrimitiveArray(boolean[] array, boolean @Nullable [] dirtyBlocks) {
         type = PrimitiveArrayType.BOOL;
         length = array.length;
         intArray = null;
         floatArray = null;
         booleanArray = array;
+        this.dirtyBlocks = dirtyBlocks;
+    }
+
+    private void markDirty(int index, int length) {
+        if (dirtyBlocks != null && length > 0) {
+            int last = (index + length - 1) >>> HeapPool.BLOCK_SHIFT;
+            for (int i = index >>> HeapPool.BLOCK_SHIFT; i <= last; i++) {
+                dirtyBlocks[i] = true;
+            }
+        }
     }
 
     @SuppressWarnings("DataFlowIssue")
@@ -68,6 +95,7 @@ public final class HeapPrimitiveArray implements IPrimitiveArray {
                 "This is not a integer-typed array.");
 
         intArray[index] = value;
+        markDirty(index, 1);
     }
 
     @SuppressWarnings("DataFlowIssue")
@@ -77,6 +105,7 @@ public final class HeapPrimitiveArray implements IPrimitiveArray {
                 "This is not a float-typed array.");
 
         floatArray[index] = value;
+        markDirty(index, 1);
     }
 
     @SuppressWarnings("DataFlowIssue")
@@ -86,6 +115,45 @@ public final class HeapPrimitiveArray implements IPrimitiveArray {
                 "This is not a boolean-typed array.");
 
         booleanArray[index] = value;
+        markDirty(index, 1);
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public void getInts(int index, int @NonNull [] dst, int dstOffset, int length) {
+        Preconditions.checkState(type == PrimitiveArrayType.INT,
+                "This is not a integer-typed array.");
+
+        System.arraycopy(intArray, index, dst, dstOffset, length);
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public void getFloats(int index, float @NonNull [] dst, int dstOffset, int length) {
+        Preconditions.checkState(type == PrimitiveArrayType.FLOAT,
+                "This is not a float-typed array.");
+
+        System.arraycopy(floatArray, index, dst, dstOffset, length);
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public void setInts(int index, int @NonNull [] src, int srcOffset, int length) {
+        Preconditions.checkState(type == PrimitiveArrayType.INT,
+                "This is not a integer-typed array.");
+
+        System.arraycopy(src, srcOffset, intArray, index, length);
+        markDirty(index, length);
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Override
+    public void setFloats(int index, float @NonNull [] src, int srcOffset, int length) {
+        Preconditions.checkState(type == PrimitiveArrayType.FLOAT,
+                "This is not a float-typed array.");
+
+        System.arraycopy(src, srcOffset, floatArray, index, length);
+        markDirty(index, length);
     }
 
     @Override
@@ -0,0 +1,21 @@
+package com.cleanroommc.kirino.ecs.storage;
+
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Column access to an archetype. It's either the live back buffer (the {@link ArchetypeDataPool} itself)
+ * or an immutable front view (see {@link ArchetypeDataPool#getFrontView()}).
+ */
+public interface IArchetypeView {
+    /**
+     * @param component The component class
+     * @param fieldOrdinal The flattened ordinal of the field
+     * @return An array of field values
+     */
+    @NonNull
+    IPrimitiveArray getArray(@NonNull Class<? extends ICleanComponent> component, int fieldOrdinal);
+
+    @NonNull
+    ArrayRange getArrayRange();
+}
@@ -0,0 +1,18 @@
+package com.cleanroommc.kirino.ecs.storage;
+
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+
+/**
+ * A sink for raw column blocks.
+ *
+ * @see ArchetypeDataPool#writeColumns(IColumnWriter)
+ */
+public interface IColumnWriter {
+    void writeInts(int @NonNull [] src, int length) throws IOException;
+
+    void writeFloats(float @NonNull [] src, int length) throws IOException;
+
+    void writeBooleans(boolean @NonNull [] src, int length) throws IOException;
+}
@@ -51,6 +51,46 @@ public interface IPrimitiveArray {
      */
     void setBool(int index, boolean value);
 
+    /**
+     * Bulk getter for integers. Copies <code>length</code> values starting at <code>index</code> into <code>dst</code>.
+     *
+     * @param index The start index
+     * @param dst The destination
+     * @param dstOffset The offset of the destination
+     * @param length The number of values
+     */
+    void getInts(int index, int @NonNull [] dst, int dstOffset, int length);
+
+    /**
+     * Bulk getter for floats. Copies <code>length</code> values starting at <code>index</code> into <code>dst</code>.
+     *
+     * @param index The start index
+     * @param dst The destination
+     * @param dstOffset The offset of the destination
+     * @param length The number of values
+     */
+    void getFloats(int index, float @NonNull [] dst, int dstOffset, int length);
+
+    /**
+     * Bulk setter for integers. Copies <code>length</code> values from <code>src</code> starting at <code>index</code>.
+     *
+     * @param index The start index
+     * @param src The source
+     * @param srcOffset The offset of the source
+     * @param length The number of values
+     */
+    void setInts(int index, int @NonNull [] src, int srcOffset, int length);
+
+    /**
+     * Bulk setter for floats. Copies <code>length</code> values from <code>src</code> starting at <code>index</code>.
+     *
+     * @param index The start index
+     * @param src The source
+     * @param srcOffset The offset of the source
+     * @param length The number of values
+     */
+    void setFloats(int index, float @NonNull [] src, int srcOffset, int length);
+
     /**
      * Returns the length.
      *
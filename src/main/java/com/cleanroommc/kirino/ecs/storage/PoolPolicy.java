@@ -0,0 +1,102 @@
+package com.cleanroommc.kirino.ecs.storage;
+
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+
+/**
+ * Decides how an {@link ArchetypeDataPool} grows and shrinks.
+ *
+ * <p>Growth is geometric, so filling a pool with <code>n</code> rows takes <code>O(log n)</code> reallocations.
+ * A pool shrinks only after its used rows have stayed at or below <code>shrinkThreshold * capacity</code> for
+ * <code>shrinkDelayFrames</code> consecutive flushes, which avoids thrashing on fluctuating archetypes.</p>
+ *
+ * @param growthFactor The capacity multiplier on growth; must be greater than 1
+ * @param minCapacity The capacity never goes below it
+ * @param expectedSize The expected number of rows, used as the initial capacity if it's larger than <code>minCapacity</code>
+ * @param shrinkThreshold The ratio of used rows to capacity below which the pool may shrink; in <code>[0, 1)</code>, 0 disables shrinking
+ * @param shrinkDelayFrames The number of consecutive flushes the pool must stay below the threshold before it shrinks
+ */
+public record PoolPolicy(
+        float growthFactor,
+        int minCapacity,
+        int expectedSize,
+        float shrinkThreshold,
+        int shrinkDelayFrames) {
+
+    public static final PoolPolicy DEFAULT = new PoolPolicy(2f, 16, 64, 0.25f, 120);
+
+    public PoolPolicy {
+        Preconditions.checkArgument(growthFactor > 1f,
+                "Argument \"growthFactor\" must be greater than 1.");
+        Preconditions.checkArgument(minCapacity >= 1,
+                "Argument \"minCapacity\" must be greater than or equal to 1.");
+        Preconditions.checkArgument(expectedSize >= 0,
+                "Argument \"expectedSize\" must be greater than or equal to 0.");
+        Preconditions.checkArgument(shrinkThreshold >= 0f && shrinkThreshold < 1f,
+                "Argument \"shrinkThreshold\" must be in [0, 1).");
+        Preconditions.checkArgument(shrinkDelayFrames >= 0,
+                "Argument \"shrinkDelayFrames\" must be greater than or equal to 0.");
+    }
+
+    public int initialCapacity() {
+        return Math.max(minCapacity, expectedSize);
+    }
+
+    /**
+     * @param capacity The current capacity
+     * @param requiredRows The number of rows that must fit
+     * @return The new capacity
+     */
+    public int grow(int capacity, int requiredRows) {
+        long grown = (long) Math.ceil((double) capacity * growthFactor);
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(Math.max(grown, requiredRows), minCapacity));
+    }
+
+    /**
+     * @param capacity The current capacity
+     * @param usedRows The number of live rows, i.e. free rows below the high water mark don't count
+     * @return Whether the pool is sparse enough to be a shrink candidate
+     */
+    public boolean shouldShrink(int capacity, int usedRows) {
+        return capacity > initialCapacity() && usedRows <= capacity * shrinkThreshold;
+    }
+
+    /**
+     * Leaves one growth step of headroom, so the pool doesn't grow again right after shrinking.
+     *
+     * @param usedRows The number of live rows, i.e. free rows below the high water mark don't count
+     * @return The capacity to shrink to
+     */
+    public int shrink(int usedRows) {
+        return Math.max(initialCapacity(), (int) Math.ceil(usedRows * (double) growthFactor));
+    }
+
+    /**
+     * Combines the hints of multiple components. The result is as generous as the most generous hint.
+     *
+     * @param hints The hints
+     * @return The combined policy, or {@link #DEFAULT} if there is no hint
+     */
+    @NonNull
+    public static PoolPolicy combine(@NonNull List<PoolPolicyHint> hints) {
+        if (hints.isEmpty()) {
+            return DEFAULT;
+        }
+
+        float growthFactor = 0f;
+        int minCapacity = 0;
+        int expectedSize = 0;
+        float shrinkThreshold = 1f;
+        int shrinkDelayFrames = 0;
+        for (PoolPolicyHint hint : hints) {
+            growthFactor = Math.max(growthFactor, hint.growthFactor());
+            minCapacity = Math.max(minCapacity, hint.minCapacity());
+            expectedSize = Math.max(expectedSize, hint.expectedSize());
+            shrinkThreshold = Math.min(shrinkThreshold, hint.shrinkThreshold());
+            shrinkDelayFrames = Math.max(shrinkDelayFrames, hint.shrinkDelayFrames());
+        }
+        return new PoolPolicy(growthFactor, minCapacity, expectedSize, shrinkThreshold, shrinkDelayFrames);
+    }
+}
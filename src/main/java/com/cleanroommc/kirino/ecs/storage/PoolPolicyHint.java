@@ -0,0 +1,23 @@
+package com.cleanroommc.kirino.ecs.storage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotated on a {@link com.cleanroommc.kirino.ecs.component.ICleanComponent} to hint the {@link PoolPolicy} of every
+ * archetype containing it. Hints of multiple components are merged via {@link PoolPolicy#combine(java.util.List)}.
+ * A policy registered for the exact component set takes precedence.
+ *
+ * @see com.cleanroommc.kirino.ecs.entity.EntityManager#registerPoolPolicy(PoolPolicy, Class[])
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PoolPolicyHint {
+    float growthFactor() default 2f;
+    int minCapacity() default 16;
+    int expectedSize() default 64;
+    float shrinkThreshold() default 0.25f;
+    int shrinkDelayFrames() default 120;
+}
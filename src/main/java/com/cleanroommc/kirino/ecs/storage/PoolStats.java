@@ -0,0 +1,55 @@
+package com.cleanroommc.kirino.ecs.storage;
+
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of the memory usage of an {@link ArchetypeDataPool}.
+ *
+ * <p>Bytes are counted as primitive payload only, i.e. array headers and bookkeeping maps are excluded.</p>
+ *
+ * @param components The component types of the archetype
+ * @param rowBytes The payload bytes of a single row across all columns
+ * @param capacity The number of rows currently allocated
+ * @param highWaterRows The number of rows in use, including free ones below the highest live row
+ * @param liveRows The number of live entities
+ * @param freeRows The number of free rows below the high water mark
+ * @param columnBytes The payload bytes of all columns, i.e. <code>capacity * rowBytes</code>
+ * @param frontBufferBytes The payload bytes of the front view of double-buffered columns, including replaced blocks kept for recycling
+ * @param growCount The number of grow reallocations so far
+ * @param shrinkCount The number of shrink reallocations so far
+ * @param resizeBytesCopied The bytes copied by grow and shrink reallocations so far
+ * @param swapBytesCopied The bytes copied into front views so far
+ * @param frontBlocksAllocated The number of front view blocks allocated so far; stays flat once swaps recycle enough blocks
+ */
+public record PoolStats(
+        @NonNull List<Class<? extends ICleanComponent>> components,
+        int rowBytes,
+        int capacity,
+        int highWaterRows,
+        int liveRows,
+        int freeRows,
+        long columnBytes,
+        long frontBufferBytes,
+        long growCount,
+        long shrinkCount,
+        long resizeBytesCopied,
+        long swapBytesCopied,
+        long frontBlocksAllocated) {
+
+    /**
+     * @return The ratio of free rows to used rows; 0 if no row is used
+     */
+    public double fragmentation() {
+        return highWaterRows == 0 ? 0d : (double) freeRows / highWaterRows;
+    }
+
+    /**
+     * @return The payload bytes of all rows that don't hold a live entity
+     */
+    public long unusedBytes() {
+        return (long) (capacity - liveRows) * rowBytes;
+    }
+}
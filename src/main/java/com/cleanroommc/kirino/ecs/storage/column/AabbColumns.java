@@ -0,0 +1,61 @@
+package com.cleanroommc.kirino.ecs.storage.column;
+
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.engine.render.geometry.AABB;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Grouped float columns of an {@link AABB} field.
+ */
+public final class AabbColumns {
+    public final IPrimitiveArray xMin;
+    public final IPrimitiveArray yMin;
+    public final IPrimitiveArray zMin;
+    public final IPrimitiveArray xMax;
+    public final IPrimitiveArray yMax;
+    public final IPrimitiveArray zMax;
+
+    AabbColumns(IPrimitiveArray xMin, IPrimitiveArray yMin, IPrimitiveArray zMin,
+                IPrimitiveArray xMax, IPrimitiveArray yMax, IPrimitiveArray zMax) {
+        this.xMin = xMin;
+        this.yMin = yMin;
+        this.zMin = zMin;
+        this.xMax = xMax;
+        this.yMax = yMax;
+        this.zMax = zMax;
+    }
+
+    public @NonNull AABB get(int index, @NonNull AABB dest) {
+        dest.xMin = xMin.getFloat(index);
+        dest.yMin = yMin.getFloat(index);
+        dest.zMin = zMin.getFloat(index);
+        dest.xMax = xMax.getFloat(index);
+        dest.yMax = yMax.getFloat(index);
+        dest.zMax = zMax.getFloat(index);
+        return dest;
+    }
+
+    public void set(int index, @NonNull AABB aabb) {
+        xMin.setFloat(index, aabb.xMin);
+        yMin.setFloat(index, aabb.yMin);
+        zMin.setFloat(index, aabb.zMin);
+        xMax.setFloat(index, aabb.xMax);
+        yMax.setFloat(index, aabb.yMax);
+        zMax.setFloat(index, aabb.zMax);
+    }
+
+    /**
+     * Bulk loads <code>length</code> rows starting at <code>index</code>.
+     */
+    public void load(int index,
+                     float @NonNull [] xMins, float @NonNull [] yMins, float @NonNull [] zMins,
+                     float @NonNull [] xMaxs, float @NonNull [] yMaxs, float @NonNull [] zMaxs,
+                     int length) {
+        xMin.getFloats(index, xMins, 0, length);
+        yMin.getFloats(index, yMins, 0, length);
+        zMin.getFloats(index, zMins, 0, length);
+        xMax.getFloats(index, xMaxs, 0, length);
+        yMax.getFloats(index, yMaxs, 0, length);
+        zMax.getFloats(index, zMaxs, 0, length);
+    }
+}
@@ -0,0 +1,72 @@
+package com.cleanroommc.kirino.ecs.storage.column;
+
+import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.FlattenedScalarType;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Describes how a grouped column view is assembled from flattened columns.
+ */
+public enum ColumnGroupType {
+    VEC3(Vec3Columns.class, FlattenedScalarType.FLOAT, new String[]{"x", "y", "z"},
+            arrays -> new Vec3Columns(arrays[0], arrays[1], arrays[2])),
+    AABB(AabbColumns.class, FlattenedScalarType.FLOAT, new String[]{"xMin", "yMin", "zMin", "xMax", "yMax", "zMax"},
+            arrays -> new AabbColumns(arrays[0], arrays[1], arrays[2], arrays[3], arrays[4], arrays[5])),
+    MAT4(Mat4Columns.class, FlattenedScalarType.FLOAT, new String[]{
+            "m00", "m01", "m02", "m03",
+            "m10", "m11", "m12", "m13",
+            "m20", "m21", "m22", "m23",
+            "m30", "m31", "m32", "m33"},
+            Mat4Columns::new);
+
+    public final Class<?> viewClass;
+    /**
+     * The scalar type every member column must have, since the view accesses them through the matching getters.
+     */
+    public final FlattenedScalarType memberType;
+    private final String[] memberNames;
+    private final Function<IPrimitiveArray[], Object> factory;
+
+    ColumnGroupType(Class<?> viewClass, FlattenedScalarType memberType, String[] memberNames, Function<IPrimitiveArray[], Object> factory) {
+        this.viewClass = viewClass;
+        this.memberType = memberType;
+        this.memberNames = memberNames;
+        this.factory = factory;
+    }
+
+    public int memberCount() {
+        return memberNames.length;
+    }
+
+    /**
+     * @param member The member index
+     * @return The name of the member, which is appended to the field access chain of the group
+     */
+    public @NonNull String memberName(int member) {
+        return memberNames[member];
+    }
+
+    /**
+     * @param arrays Member columns in the order of {@link #memberName(int)}
+     * @return A new view
+     */
+    public @NonNull Object create(IPrimitiveArray @NonNull [] arrays) {
+        Preconditions.checkArgument(arrays.length == memberNames.length,
+                "Expected %s arrays. Got %s instead.", memberNames.length, arrays.length);
+
+        return factory.apply(arrays);
+    }
+
+    public static Optional<ColumnGroupType> fromViewClass(Class<?> viewClass) {
+        for (ColumnGroupType type : values()) {
+            if (type.viewClass == viewClass) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,51 @@
+package com.cleanroommc.kirino.ecs.storage.column;
+
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import org.joml.Matrix4f;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Grouped float columns of a mat4 field. Element order follows JOML, i.e. <code>m00, m01, ..., m33</code>.
+ */
+public final class Mat4Columns {
+    private final IPrimitiveArray[] elements;
+
+    Mat4Columns(IPrimitiveArray[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * @param element The element index within [0, 16)
+     * @return The column of the element
+     */
+    public @NonNull IPrimitiveArray element(int element) {
+        return elements[element];
+    }
+
+    public @NonNull Matrix4f get(int index, @NonNull Matrix4f dest) {
+        return dest.set(
+                elements[0].getFloat(index), elements[1].getFloat(index), elements[2].getFloat(index), elements[3].getFloat(index),
+                elements[4].getFloat(index), elements[5].getFloat(index), elements[6].getFloat(index), elements[7].getFloat(index),
+                elements[8].getFloat(index), elements[9].getFloat(index), elements[10].getFloat(index), elements[11].getFloat(index),
+                elements[12].getFloat(index), elements[13].getFloat(index), elements[14].getFloat(index), elements[15].getFloat(index));
+    }
+
+    public void set(int index, @NonNull Matrix4f matrix4f) {
+        elements[0].setFloat(index, matrix4f.m00());
+        elements[1].setFloat(index, matrix4f.m01());
+        elements[2].setFloat(index, matrix4f.m02());
+        elements[3].setFloat(index, matrix4f.m03());
+        elements[4].setFloat(index, matrix4f.m10());
+        elements[5].setFloat(index, matrix4f.m11());
+        elements[6].setFloat(index, matrix4f.m12());
+        elements[7].setFloat(index, matrix4f.m13());
+        elements[8].setFloat(index, matrix4f.m20());
+        elements[9].setFloat(index, matrix4f.m21());
+        elements[10].setFloat(index, matrix4f.m22());
+        elements[11].setFloat(index, matrix4f.m23());
+        elements[12].setFloat(index, matrix4f.m30());
+        elements[13].setFloat(index, matrix4f.m31());
+        elements[14].setFloat(index, matrix4f.m32());
+        elements[15].setFloat(index, matrix4f.m33());
+    }
+}
@@ -0,0 +1,48 @@
+package com.cleanroommc.kirino.ecs.storage.column;
+
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import org.joml.Vector3f;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Grouped float columns of a vec3 field.
+ */
+public final class Vec3Columns {
+    public final IPrimitiveArray x;
+    public final IPrimitiveArray y;
+    public final IPrimitiveArray z;
+
+    Vec3Columns(IPrimitiveArray x, IPrimitiveArray y, IPrimitiveArray z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public @NonNull Vector3f get(int index, @NonNull Vector3f dest) {
+        return dest.set(x.getFloat(index), y.getFloat(index), z.getFloat(index));
+    }
+
+    public void set(int index, float x, float y, float z) {
+        this.x.setFloat(index, x);
+        this.y.setFloat(index, y);
+        this.z.setFloat(index, z);
+    }
+
+    /**
+     * Bulk loads <code>length</code> rows starting at <code>index</code>.
+     */
+    public void load(int index, float @NonNull [] xs, float @NonNull [] ys, float @NonNull [] zs, int length) {
+        x.getFloats(index, xs, 0, length);
+        y.getFloats(index, ys, 0, length);
+        z.getFloats(index, zs, 0, length);
+    }
+
+    /**
+     * Bulk stores <code>length</code> rows starting at <code>index</code>.
+     */
+    public void store(int index, float @NonNull [] xs, float @NonNull [] ys, float @NonNull [] zs, int length) {
+        x.setFloats(index, xs, 0, length);
+        y.setFloats(index, ys, 0, length);
+        z.setFloats(index, zs, 0, length);
+    }
+}
@@ -1,5 +1,6 @@
 package com.cleanroommc.kirino.ecs.world;
 
+import com.cleanroommc.kirino.KirinoCore;
 import com.cleanroommc.kirino.ecs.entity.EntityManager;
 import com.cleanroommc.kirino.ecs.job.JobScheduler;
 import com.cleanroommc.kirino.ecs.system.CleanSystem;
@@ -11,6 +12,8 @@ public class CleanWorld {
 
     private final SystemExeGraph systemExeGraph = new SystemExeGraph();
 
+    private long lastStatsLogNanos = System.nanoTime();
+
     // need more params to indicate dep
     public final void addSystem(CleanSystem system) {
         // systemExeGraph.add
@@ -24,5 +27,11 @@ public class CleanWorld {
     public void update() {
         systemExeGraph.execute();
         entityManager.flush();
+
+        int statsLogInterval = KirinoCore.KIRINO_CONFIG_HUB.ecsStatsLogIntervalSeconds;
+        if (statsLogInterval > 0 && System.nanoTime() - lastStatsLogNanos >= statsLogInterval * 1_000_000_000L) {
+            lastStatsLogNanos = System.nanoTime();
+            KirinoCore.LOGGER.info(entityManager.getStats().format());
+        }
     }
 }
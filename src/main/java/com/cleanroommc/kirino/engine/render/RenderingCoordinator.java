@@ -35,6 +35,7 @@ import com.cleanroommc.kirino.gl.vao.attribute.AttributeLayout;
 import com.cleanroommc.kirino.gl.vao.attribute.Slot;
 import com.cleanroommc.kirino.gl.vao.attribute.Stride;
 import com.cleanroommc.kirino.gl.vao.attribute.Type;
+import com.cleanroommc.kirino.utils.BootstrapTaskGraph;
 import com.cleanroommc.kirino.utils.Reference;
 import com.cleanroommc.kirino.utils.ReflectionUtils;
 import com.google.common.base.Preconditions;
@@ -106,8 +107,20 @@ public class RenderingCoordinator {
         ShaderRegistrationEvent shaderRegistrationEvent = new ShaderRegistrationEvent();
         eventBus.post(shaderRegistrationEvent);
         List<ResourceLocation> shaderResourceLocations = getShaderResourceLocations(shaderRegistrationEvent);
+        glslRegistry = new GLSLRegistry();
+        defaultShaderAnalyzer = new DefaultShaderAnalyzer();
+        // source reading and analysis in parallel; only GL object creation stays on the render thread
+        BootstrapTaskGraph taskGraph = BootstrapTaskGraph.create();
+        List<BootstrapTaskGraph.Task<Shader>> shaderLoadingTasks = new ArrayList<>();
+        List<BootstrapTaskGraph.Task<Void>> shaderAnalysisTasks = new ArrayList<>();
         for (ResourceLocation rl : shaderResourceLocations) {
-            Shader shader = shaderRegistry.register(rl);
+            BootstrapTaskGraph.Task<Shader> shaderLoadingTask = taskGraph.supply("load shader " + rl, () -> ShaderRegistry.load(rl));
+            shaderLoadingTasks.add(shaderLoadingTask);
+            shaderAnalysisTasks.add(taskGraph.run("analyze shader " + rl, () -> shaderLoadingTask.join().analyze(glslRegistry, defaultShaderAnalyzer), shaderLoadingTask));
+        }
+        for (int i = 0; i < shaderResourceLocations.size(); i++) {
+            ResourceLocation rl = shaderResourceLocations.get(i);
+            Shader shader = shaderRegistry.register(shaderLoadingTasks.get(i).join());
             logger.info("Registered " + shader.getShaderType().toString() + " shader " + rl + ".");
             if (shader.getShaderSource().isEmpty()) {
                 logger.info("Warning! " + rl + " is empty.");
@@ -115,9 +128,9 @@ public class RenderingCoordinator {
         }
         shaderRegistry.compile();
         logger.info("Shader compilation passed.");
-        glslRegistry = new GLSLRegistry();
-        defaultShaderAnalyzer = new DefaultShaderAnalyzer();
-        shaderRegistry.analyze(glslRegistry, defaultShaderAnalyzer);
+        for (BootstrapTaskGraph.Task<Void> shaderAnalysisTask : shaderAnalysisTasks) {
+            shaderAnalysisTask.join();
+        }
 
         stagingBufferManager = new StagingBufferManager();
         graphicResourceManager = new GraphicResourceManager(stagingBufferManager);
@@ -0,0 +1,176 @@
+package com.cleanroommc.kirino.engine.render.camera;
+
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletCulling;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * An immutable copy of the camera state, captured once per frame on the render thread and then shared by jobs,
+ * so workers never read the camera (i.e. the Minecraft entity) themselves.
+ *
+ * <p>Frustum planes are relative to the camera, since the view matrix has no translation.</p>
+ */
+public final class CameraSnapshot {
+    /**
+     * The weight of the squared distance of sections outside the frustum but right next to the view direction.
+     */
+    public static final float OUT_OF_VIEW_WEIGHT = 2f;
+
+    /**
+     * The weight of the squared distance of sections right behind the camera, i.e. they rank like in-view sections
+     * twice as far away.
+     */
+    public static final float BEHIND_WEIGHT = 4f;
+
+    private final float positionX;
+    private final float positionY;
+    private final float positionZ;
+    private final float forwardX;
+    private final float forwardY;
+    private final float forwardZ;
+    private final float fovY;
+    private final float projectionScale;
+    private final float[] frustumPlanes = new float[MeshletCulling.FRUSTUM_PLANE_COUNT * 4];
+
+    private CameraSnapshot(
+            @NonNull Matrix4fc projection,
+            @NonNull Matrix4fc viewRotation,
+            @NonNull Vector3fc position,
+            int viewportHeight) {
+
+        positionX = position.x();
+        positionY = position.y();
+        positionZ = position.z();
+
+        // the camera looks down -z in view space
+        Vector3f forward = viewRotation.positiveZ(new Vector3f()).negate();
+        forwardX = forward.x;
+        forwardY = forward.y;
+        forwardZ = forward.z;
+
+        // m11 = cot(fovY / 2)
+        fovY = 2f * (float) Math.atan(1d / projection.m11());
+        projectionScale = projection.m11() * viewportHeight * 0.5f;
+
+        MeshletCulling.extractFrustumPlanes(projection.mul(viewRotation, new Matrix4f()), frustumPlanes);
+    }
+
+    /**
+     * Must be called on the render thread.
+     *
+     * @param camera The camera
+     * @param viewportHeight The viewport height in pixels
+     * @return A new snapshot
+     */
+    public static @NonNull CameraSnapshot capture(@NonNull ICamera camera, int viewportHeight) {
+        return new CameraSnapshot(camera.getProjectionMatrix(), camera.getViewRotationMatrix(), camera.getWorldOffset(), viewportHeight);
+    }
+
+    /**
+     * @param projection The projection matrix
+     * @param viewRotation The view matrix without translation
+     * @param position The world-space camera position
+     * @param viewportHeight The viewport height in pixels
+     * @return A new snapshot
+     */
+    public static @NonNull CameraSnapshot of(
+            @NonNull Matrix4fc projection,
+            @NonNull Matrix4fc viewRotation,
+            @NonNull Vector3fc position,
+            int viewportHeight) {
+
+        return new CameraSnapshot(projection, viewRotation, position, viewportHeight);
+    }
+
+    public float getPositionX() {
+        return positionX;
+    }
+
+    public float getPositionY() {
+        return positionY;
+    }
+
+    public float getPositionZ() {
+        return positionZ;
+    }
+
+    /**
+     * @return The x component of the normalized world-space view direction
+     */
+    public float getForwardX() {
+        return forwardX;
+    }
+
+    public float getForwardY() {
+        return forwardY;
+    }
+
+    public float getForwardZ() {
+        return forwardZ;
+    }
+
+    /**
+     * @return The vertical field of view in radians
+     */
+    public float getFovY() {
+        return fovY;
+    }
+
+    /**
+     * @return Pixels per world unit at distance 1
+     */
+    public float getProjectionScale() {
+        return projectionScale;
+    }
+
+    /**
+     * @param plane The plane index. Domain: [0, 5]
+     * @param component 0, 1, 2 or 3 for a, b, c or d
+     * @return The component of the camera-relative plane <code>a * x + b * y + c * z + d = 0</code>
+     * whose normal points inwards
+     */
+    public float getFrustumPlane(int plane, int component) {
+        return frustumPlanes[plane * 4 + component];
+    }
+
+    /**
+     * See {@link MeshletCulling#isOutsideFrustum(float[], float, float, float, float, float, float)}.
+     * Coordinates are relative to the camera.
+     *
+     * @return Whether the AABB is entirely outside the frustum
+     */
+    public boolean isOutsideFrustum(
+            float xMin, float yMin, float zMin,
+            float xMax, float yMax, float zMax) {
+
+        return MeshletCulling.isOutsideFrustum(frustumPlanes, xMin, yMin, zMin, xMax, yMax, zMax);
+    }
+
+    /**
+     * The squared distance weighted by the view angle. Points inside the frustum keep their squared distance;
+     * points outside get a weight from {@link #OUT_OF_VIEW_WEIGHT} (along the view direction)
+     * to {@link #BEHIND_WEIGHT} (right behind the camera).
+     *
+     * <p>The angle is measured via the signed squared cosine, which is monotonic in the angle and needs no square root.</p>
+     *
+     * @param dx The camera-relative x-coordinate
+     * @param dy The camera-relative y-coordinate
+     * @param dz The camera-relative z-coordinate
+     * @param inFrustum Whether the point (or the box around it) is inside the frustum
+     * @return The weighted squared distance
+     */
+    public float weightedDistanceSquared(float dx, float dy, float dz, boolean inFrustum) {
+        float distanceSquared = dx * dx + dy * dy + dz * dz;
+        if (inFrustum || distanceSquared == 0f) {
+            return distanceSquared;
+        }
+
+        float dot = dx * forwardX + dy * forwardY + dz * forwardZ;
+        // 0 straight ahead, 1 straight behind
+        float behind = (1f - dot * Math.abs(dot) / distanceSquared) * 0.5f;
+        return distanceSquared * (OUT_OF_VIEW_WEIGHT + (BEHIND_WEIGHT - OUT_OF_VIEW_WEIGHT) * behind);
+    }
+}
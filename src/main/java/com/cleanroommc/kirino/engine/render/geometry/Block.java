@@ -82,15 +82,54 @@ public class Block {
      *         <tr>
      *             <th>f</th>
      *             <th>A bitfield of the sides to be rendered. From the right in order:
-     *             Down, Up, North, South, West, East</th>
+     *             Z- (North), Z+ (South), Y- (Down), Y+ (Up), X- (West), X+ (East),
+     *             i.e. face <code>i</code> of {@link VoxelOccupancy} is bit <code>5 - i</code></th>
      *         </tr>
      *     </table>
      * </p>
      * @return The integer as described above
      */
     int compress() {
-        return (position.x & 0b1111) << 14
-                | (position.y & 0b1111) << 10
-                | (position.z & 0b1111) << 6;
+        return pack(position.x, position.y, position.z, faceMask);
+    }
+
+    /**
+     * Packs a block rendering record the same way as {@link #compress()} without allocating a {@link Block}.
+     *
+     * @param x Local x-coordinate. Domain: [0, 15]
+     * @param y Local y-coordinate. Domain: [0, 15]
+     * @param z Local z-coordinate. Domain: [0, 15]
+     * @param faceMask The 6-bit face mask
+     * @return The packed integer
+     */
+    public static int pack(int x, int y, int z, int faceMask) {
+        return (z & 0b1111) << 14
+                | (y & 0b1111) << 10
+                | (x & 0b1111) << 6
+                | (faceMask & 0b111111);
+    }
+
+    public static int unpackX(int packed) {
+        return (packed >>> 6) & 0b1111;
+    }
+
+    public static int unpackY(int packed) {
+        return (packed >>> 10) & 0b1111;
+    }
+
+    public static int unpackZ(int packed) {
+        return (packed >>> 14) & 0b1111;
+    }
+
+    public static int unpackFaceMask(int packed) {
+        return packed & 0b111111;
+    }
+
+    /**
+     * @param packed The packed integer
+     * @return The position bits only, i.e. a unique index in [0, 4095] of the 16x16x16 cube
+     */
+    public static int unpackPositionIndex(int packed) {
+        return (packed >>> 6) & 0xFFF;
     }
 }
@@ -0,0 +1,177 @@
+package com.cleanroommc.kirino.engine.render.geometry;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * An 18x18x18 occupancy bitset, i.e. a 16x16x16 chunk section plus a one-voxel border taken from its neighbors,
+ * and the six face masks of the inner 16x16x16 cube derived from it.
+ *
+ * <p>Local coordinates range over [-1, 16]. Occupancy is stored as one 64-bit word per row along the x-axis,
+ * where bit <code>x + 1</code> of row <code>(y + 1) * 18 + (z + 1)</code> is the voxel (x, y, z).
+ * Face masks only cover the inner cube and are stored as 16-bit rows indexed by <code>y * 16 + z</code>,
+ * where bit <code>x</code> is the voxel (x, y, z).</p>
+ *
+ * <p>Face masks are derived by shifting (x-axis) or offsetting (y-axis and z-axis) whole rows and ANDing them,
+ * which is 256 rows times 6 faces instead of a neighbor lookup per voxel and per face.</p>
+ */
+public final class VoxelOccupancy {
+    public static final int SIZE = 18;
+    public static final int FACE_COUNT = 6;
+
+    /**
+     * The order of faces. The face bit of face <code>i</code> is <code>1 &lt;&lt; (5 - i)</code>.
+     */
+    public static final int FACE_X_POS_INDEX = 0;
+    public static final int FACE_X_NEG_INDEX = 1;
+    public static final int FACE_Y_POS_INDEX = 2;
+    public static final int FACE_Y_NEG_INDEX = 3;
+    public static final int FACE_Z_POS_INDEX = 4;
+    public static final int FACE_Z_NEG_INDEX = 5;
+
+    private static final int INNER_ROWS = 16 * 16;
+    private static final long INNER_ROW_MASK = 0xFFFFL;
+
+    private final long[] rows = new long[SIZE * SIZE];
+    private final int[] faceRows = new int[FACE_COUNT * INNER_ROWS];
+    private final int[] surfaceRows = new int[INNER_ROWS];
+    private boolean innerEmpty = true;
+
+    private static int rowIndex(int y, int z) {
+        return (y + 1) * SIZE + (z + 1);
+    }
+
+    public void clear() {
+        Arrays.fill(rows, 0L);
+        innerEmpty = true;
+    }
+
+    /**
+     * @param x Local x-coordinate. Domain: [-1, 16]
+     * @param y Local y-coordinate. Domain: [-1, 16]
+     * @param z Local z-coordinate. Domain: [-1, 16]
+     */
+    public void set(int x, int y, int z) {
+        rows[rowIndex(y, z)] |= 1L << (x + 1);
+    }
+
+    /**
+     * @param y Local y-coordinate. Domain: [-1, 16]
+     * @param z Local z-coordinate. Domain: [-1, 16]
+     * @param row 18 voxels along the x-axis, where bit <code>x + 1</code> is the voxel (x, y, z)
+     */
+    public void setRow(int y, int z, long row) {
+        rows[rowIndex(y, z)] = row;
+    }
+
+    /**
+     * @param x Local x-coordinate. Domain: [-1, 16]
+     * @param y Local y-coordinate. Domain: [-1, 16]
+     * @param z Local z-coordinate. Domain: [-1, 16]
+     * @return Whether the voxel is occupied
+     */
+    public boolean get(int x, int y, int z) {
+        Preconditions.checkArgument(x >= -1 && x <= 16,
+                "Argument x=%d must be between [-1, 16].", x);
+        Preconditions.checkArgument(y >= -1 && y <= 16,
+                "Argument y=%d must be between [-1, 16].", y);
+        Preconditions.checkArgument(z >= -1 && z <= 16,
+                "Argument z=%d must be between [-1, 16].", z);
+
+        return (rows[rowIndex(y, z)] >>> (x + 1) & 1L) != 0;
+    }
+
+    /**
+     * Derives the face masks from the current occupancy. A face exists if the voxel is occupied
+     * and its neighbor in that direction is not.
+     */
+    public void computeFaceMasks() {
+        boolean empty = true;
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                int index = rowIndex(y, z);
+                long row = rows[index];
+                long inner = (row >>> 1) & INNER_ROW_MASK;
+                int innerRow = y * 16 + z;
+
+                if (inner == 0) {
+                    for (int face = 0; face < FACE_COUNT; face++) {
+                        faceRows[face * INNER_ROWS + innerRow] = 0;
+                    }
+                    surfaceRows[innerRow] = 0;
+                    continue;
+                }
+                empty = false;
+
+                int xPos = (int) (inner & ~(row >>> 2));
+                int xNeg = (int) (inner & ~row);
+                int yPos = (int) (inner & ~(rows[index + SIZE] >>> 1));
+                int yNeg = (int) (inner & ~(rows[index - SIZE] >>> 1));
+                int zPos = (int) (inner & ~(rows[index + 1] >>> 1));
+                int zNeg = (int) (inner & ~(rows[index - 1] >>> 1));
+
+                faceRows[FACE_X_POS_INDEX * INNER_ROWS + innerRow] = xPos;
+                faceRows[FACE_X_NEG_INDEX * INNER_ROWS + innerRow] = xNeg;
+                faceRows[FACE_Y_POS_INDEX * INNER_ROWS + innerRow] = yPos;
+                faceRows[FACE_Y_NEG_INDEX * INNER_ROWS + innerRow] = yNeg;
+                faceRows[FACE_Z_POS_INDEX * INNER_ROWS + innerRow] = zPos;
+                faceRows[FACE_Z_NEG_INDEX * INNER_ROWS + innerRow] = zNeg;
+                surfaceRows[innerRow] = xPos | xNeg | yPos | yNeg | zPos | zNeg;
+            }
+        }
+        innerEmpty = empty;
+    }
+
+    /**
+     * Only valid after {@link #computeFaceMasks()}.
+     *
+     * @return Whether the inner 16x16x16 cube has no occupied voxel at all
+     */
+    public boolean isInnerEmpty() {
+        return innerEmpty;
+    }
+
+    /**
+     * Only valid after {@link #computeFaceMasks()}.
+     *
+     * @param y Local y-coordinate. Domain: [0, 15]
+     * @param z Local z-coordinate. Domain: [0, 15]
+     * @return A 16-bit row along the x-axis of voxels that have at least one face
+     */
+    public int getSurfaceRow(int y, int z) {
+        return surfaceRows[y * 16 + z];
+    }
+
+    /**
+     * Only valid after {@link #computeFaceMasks()}.
+     *
+     * @param face The face index, e.g. {@link #FACE_X_POS_INDEX}
+     * @param y Local y-coordinate. Domain: [0, 15]
+     * @param z Local z-coordinate. Domain: [0, 15]
+     * @return A 16-bit row along the x-axis of voxels that have this face
+     */
+    public int getFaceRow(int face, int y, int z) {
+        return faceRows[face * INNER_ROWS + y * 16 + z];
+    }
+
+    /**
+     * Only valid after {@link #computeFaceMasks()}.
+     *
+     * @param x Local x-coordinate. Domain: [0, 15]
+     * @param y Local y-coordinate. Domain: [0, 15]
+     * @param z Local z-coordinate. Domain: [0, 15]
+     * @return The 6-bit face mask of the voxel, where face <code>i</code> is bit <code>5 - i</code>
+     */
+    public int getFaceMask(int x, int y, int z) {
+        int innerRow = y * 16 + z;
+        if ((surfaceRows[innerRow] >>> x & 1) == 0) {
+            return 0;
+        }
+        int mask = 0;
+        for (int face = 0; face < FACE_COUNT; face++) {
+            mask |= (faceRows[face * INNER_ROWS + innerRow] >>> x & 1) << (5 - face);
+        }
+        return mask;
+    }
+}
@@ -1,9 +1,15 @@
 package com.cleanroommc.kirino.engine.render.geometry.component;
 
+import com.cleanroommc.kirino.ecs.component.DoubleBuffered;
 import com.cleanroommc.kirino.ecs.component.ICleanComponent;
 import com.cleanroommc.kirino.ecs.component.scan.CleanComponent;
+import com.cleanroommc.kirino.ecs.storage.PoolPolicyHint;
 
+// 16 sections per chunk; a 12-chunk render distance already means ~10k of them
+// double-buffered so the meshing planner reads the last flushed state while this frame's jobs write the back buffer
 @CleanComponent
+@DoubleBuffered
+@PoolPolicyHint(expectedSize = 4096)
 public class ChunkComponent implements ICleanComponent {
     /**
      * X-coordinate.
@@ -21,10 +27,16 @@ public class ChunkComponent implements ICleanComponent {
     public int chunkPosZ;
 
     /**
-     * Whether the meshlet-gen task has been ran on this chunk.
+     * Whether the meshlet-gen task has to run on this chunk. Block updates set it again.
      */
     public boolean isDirty = true;
 
+    /**
+     * Whether the section was all air when last checked, i.e. meshing it is free and it takes no meshing budget.
+     * Block updates clear it, since they may have placed the first block.
+     */
+    public boolean isEmpty = false;
+
     /**
      * The closer to the camera, the higher the priority and smaller the number.
      * <p>Domain: [0, inf]; 0 is the highest priority.</p>
@@ -3,8 +3,19 @@ package com.cleanroommc.kirino.engine.render.geometry.component;
 import com.cleanroommc.kirino.ecs.component.ICleanComponent;
 import com.cleanroommc.kirino.ecs.component.scan.CleanComponent;
 
+/**
+ * One per meshed section. See {@link com.cleanroommc.kirino.engine.render.meshlet.MeshletClusterTree}.
+ */
 @CleanComponent
 public class MeshletClusterTreeComponent implements ICleanComponent {
+    public int chunkPosX;
+    public int chunkPosY;
+    public int chunkPosZ;
+    public int nodeCount;
+    /**
+     * The number of nodes in the last selected LOD cut.
+     */
+    public int selectedNodeCount;
     public int handleID;
     public int handleGeneration;
 }
@@ -2,16 +2,38 @@ package com.cleanroommc.kirino.engine.render.geometry.component;
 
 import com.cleanroommc.kirino.ecs.component.ICleanComponent;
 import com.cleanroommc.kirino.ecs.component.scan.CleanComponent;
+import com.cleanroommc.kirino.ecs.storage.PoolPolicyHint;
 import com.cleanroommc.kirino.engine.render.geometry.AABB;
 import org.joml.Vector3f;
 
+// tens of meshlets per non-empty section
 @CleanComponent
+@PoolPolicyHint(expectedSize = 16384)
 public class MeshletComponent implements ICleanComponent {
     // todo
+    /**
+     * Tight world-space bounds.
+     */
     public AABB aabb;
+    /**
+     * The normalized average normal, which is also the axis of the normal cone.
+     */
     public Vector3f normal;
+    /**
+     * The cosine of the normal cone half-angle. See {@link com.cleanroommc.kirino.engine.render.meshlet.MeshletCulling#coneCutoff(float, float, float, int)}.
+     */
+    public float coneCutoff;
+    /**
+     * <p><b>0</b>: opaque</p>
+     * <p><b>1</b>: transparent</p>
+     * <p><b>2</b>: cutout</p>
+     */
     public int pass;
     public boolean isDirty;
+    /**
+     * Written by the culling job every frame; invisible meshlets are skipped by draw generation.
+     */
+    public boolean isVisible;
     public int chunkPosX;
     public int chunkPosY;
     public int chunkPosZ;
@@ -68,6 +68,36 @@ public class GizmosManager {
         }
     }
 
+    /**
+     * Draws the voxels of one meshlet in a random color. Voxels that were already drawn at the same position with the
+     * same face mask are drawn in red instead, which marks voxels shared by multiple meshlets.
+     *
+     * @param xOffset The world x-coordinate of the section origin
+     * @param yOffset The world y-coordinate of the section origin
+     * @param zOffset The world z-coordinate of the section origin
+     * @param packedVoxels Voxels packed via {@link Block#pack(int, int, int, int)}
+     * @param start The first voxel of the meshlet
+     * @param end The end of the meshlet (exclusive)
+     */
+    public void addMeshlet(int xOffset, int yOffset, int zOffset, int[] packedVoxels, int start, int end) {
+        Random random = new Random();
+        Color color = new Color(random.nextFloat(), random.nextFloat(), random.nextFloat(), 0.5f);
+        for (int i = start; i < end; i++) {
+            int packed = packedVoxels[i];
+            int posX = Block.unpackX(packed) + xOffset;
+            int posY = Block.unpackY(packed) + yOffset;
+            int posZ = Block.unpackZ(packed) + zOffset;
+            int faceMask = Block.unpackFaceMask(packed);
+
+            if (blocks.contains(new BlockRecord(posX, posY, posZ, faceMask))) {
+                addBlockSurface(posX, posY, posZ, faceMask, Color.RED.getRGB());
+            } else {
+                blocks.add(new BlockRecord(posX, posY, posZ, faceMask));
+                addBlockSurface(posX, posY, posZ, faceMask, color.getRGB());
+            }
+        }
+    }
+
     public void addBlockSurface(float x, float y, float z, int faceMask, int color) {
         blockSurfaces.add(new BlockSurface(x, y, z, faceMask, color));
     }
@@ -0,0 +1,26 @@
+package com.cleanroommc.kirino.engine.render.meshlet;
+
+/**
+ * Read-only classified blocks of a chunk section plus a one-block border, i.e. the input of {@link SectionMesher}.
+ *
+ * <p>Local coordinates range over [-1, 16]. The voxel (x, y, z) is at index
+ * <code>((y + 1) * 18 + (z + 1)) * 18 + (x + 1)</code>, i.e. x is the fastest-varying axis.</p>
+ *
+ * @see com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshot
+ */
+public interface ISectionBlockSource {
+    int SIZE = 18;
+    int VOLUME = SIZE * SIZE * SIZE;
+
+    static int index(int x, int y, int z) {
+        return ((y + 1) * SIZE + (z + 1)) * SIZE + (x + 1);
+    }
+
+    /**
+     * Must be safe to call from a worker thread.
+     *
+     * @param index The voxel index, see {@link #index(int, int, int)}
+     * @return The packed {@link com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable} entry
+     */
+    int getEntry(int index);
+}
@@ -7,7 +7,13 @@ import java.util.List;
 public class Meshlet {
     public final List<Block> blocks;
 
-    public Meshlet(List<Block> blocks) {
+    /**
+     * The render pass, see {@link com.cleanroommc.kirino.engine.render.geometry.component.MeshletComponent#pass}.
+     */
+    public final int pass;
+
+    public Meshlet(List<Block> blocks, int pass) {
         this.blocks = blocks;
+        this.pass = pass;
     }
 }
@@ -1,5 +1,243 @@
 package com.cleanroommc.kirino.engine.render.meshlet;
 
-// todo: ring buffer
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Generational slots of encoded meshlets (see {@link MeshletFormat}) in one contiguous native buffer.
+ *
+ * <p>The buffer is managed by a slab allocator: it's divided into {@link #PAGE_SIZE} pages, every page is dedicated to
+ * one size class on first use, and released meshlets go back to the free list of their class. Since the buffer is
+ * contiguous and already encoded, it can be uploaded as-is; meshlets are addressed by {@link #getByteOffset(int)}.</p>
+ *
+ * <p>A slot handle is the pair of slot id and generation; a stale handle is never confused with the slot's new owner.
+ * Slots, pages and offsets are all recycled, so memory is bounded by the peak number of live meshlets per size class.</p>
+ *
+ * <p>Notice: not thread-safe. Allocation and release both happen on the client thread.</p>
+ */
 public class MeshletBufferStorage {
+    public static final int PAGE_SIZE = 64 * 1024;
+
+    /**
+     * Max block counts of the size classes.
+     */
+    private static final int[] CLASS_BLOCK_COUNTS = {8, 16, 32, MeshletFormat.MAX_BLOCK_COUNT};
+    private static final int[] CLASS_SIZES = new int[CLASS_BLOCK_COUNTS.length];
+
+    static {
+        for (int i = 0; i < CLASS_BLOCK_COUNTS.length; i++) {
+            CLASS_SIZES[i] = MeshletFormat.sizeInBytes(CLASS_BLOCK_COUNTS[i]);
+        }
+    }
+
+    private static int sizeClass(int blockCount) {
+        for (int i = 0; i < CLASS_BLOCK_COUNTS.length; i++) {
+            if (blockCount <= CLASS_BLOCK_COUNTS[i]) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "Argument \"blockCount\" must be less than or equal to %d. Got %d instead.", MeshletFormat.MAX_BLOCK_COUNT, blockCount));
+    }
+
+    private ByteBuffer buffer = BufferUtils.createByteBuffer(PAGE_SIZE * 4);
+    private int pageCount = 0;
+
+    // per size class
+    private final int[][] freeOffsets = new int[CLASS_BLOCK_COUNTS.length][64];
+    private final int[] freeOffsetCounts = new int[CLASS_BLOCK_COUNTS.length];
+    private final int[] bumpOffsets = new int[CLASS_BLOCK_COUNTS.length];
+    private final int[] bumpEnds = new int[CLASS_BLOCK_COUNTS.length];
+
+    // per slot
+    private int[] slotOffsets = new int[256];
+    private byte[] slotClasses = new byte[256];
+    private int[] generations = new int[256];
+    private boolean[] occupied = new boolean[256];
+    private int slotCount = 0;
+
+    private int[] freeSlots = new int[64];
+    private int freeSlotCount = 0;
+
+    private int liveCount = 0;
+    private long liveBytes = 0;
+
+    /**
+     * Encodes a cluster into a new slot.
+     *
+     * @param originX The section origin x in world block coordinates
+     * @param originY The section origin y in world block coordinates
+     * @param originZ The section origin z in world block coordinates
+     * @param source The output buffer holding the cluster
+     * @param cluster The cluster index
+     * @return The slot id. See {@link #getGeneration(int)} for its generation
+     */
+    public int allocate(int originX, int originY, int originZ, @NonNull MeshletOutputBuffer source, int cluster) {
+        int blockCount = source.getClusterEnd(cluster) - source.getClusterStart(cluster);
+        int sizeClass = sizeClass(blockCount);
+        int offset = allocateOffset(sizeClass);
+
+        MeshletFormat.write(buffer, offset, originX, originY, originZ, source, cluster);
+
+        int slot;
+        if (freeSlotCount != 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotCount == slotOffsets.length) {
+                slotOffsets = Arrays.copyOf(slotOffsets, slotCount * 2);
+                slotClasses = Arrays.copyOf(slotClasses, slotCount * 2);
+                generations = Arrays.copyOf(generations, slotCount * 2);
+                occupied = Arrays.copyOf(occupied, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+
+        slotOffsets[slot] = offset;
+        slotClasses[slot] = (byte) sizeClass;
+        occupied[slot] = true;
+        liveCount++;
+        liveBytes += MeshletFormat.sizeInBytes(blockCount);
+
+        return slot;
+    }
+
+    private int allocateOffset(int sizeClass) {
+        if (freeOffsetCounts[sizeClass] != 0) {
+            return freeOffsets[sizeClass][--freeOffsetCounts[sizeClass]];
+        }
+
+        int size = CLASS_SIZES[sizeClass];
+        if (bumpOffsets[sizeClass] + size > bumpEnds[sizeClass]) {
+            // dedicate a new page to this class; the tail of the old page is too small for any slot
+            int pageStart = newPage();
+            bumpOffsets[sizeClass] = pageStart;
+            bumpEnds[sizeClass] = pageStart + PAGE_SIZE;
+        }
+
+        int offset = bumpOffsets[sizeClass];
+        bumpOffsets[sizeClass] += size;
+        return offset;
+    }
+
+    private int newPage() {
+        int pageStart = pageCount * PAGE_SIZE;
+        if (pageStart + PAGE_SIZE > buffer.capacity()) {
+            ByteBuffer newBuffer = BufferUtils.createByteBuffer(buffer.capacity() * 2);
+            buffer.clear();
+            newBuffer.put(buffer);
+            newBuffer.clear();
+            buffer = newBuffer;
+        }
+        pageCount++;
+        return pageStart;
+    }
+
+    /**
+     * @param slot The slot id
+     * @param generation The generation obtained at allocation
+     * @return Whether the slot was released; <code>false</code> if the handle is stale
+     */
+    public boolean release(int slot, int generation) {
+        if (!isValid(slot, generation)) {
+            return false;
+        }
+
+        int sizeClass = slotClasses[slot];
+        int[] offsets = freeOffsets[sizeClass];
+        if (freeOffsetCounts[sizeClass] == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            freeOffsets[sizeClass] = offsets;
+        }
+        offsets[freeOffsetCounts[sizeClass]++] = slotOffsets[slot];
+        liveBytes -= MeshletFormat.sizeInBytes(MeshletFormat.getBlockCount(buffer, slotOffsets[slot]));
+
+        occupied[slot] = false;
+        generations[slot]++;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+        liveCount--;
+
+        return true;
+    }
+
+    public boolean isValid(int slot, int generation) {
+        return slot >= 0 && slot < slotCount && occupied[slot] && generations[slot] == generation;
+    }
+
+    public int getGeneration(int slot) {
+        Preconditions.checkElementIndex(slot, slotCount);
+
+        return generations[slot];
+    }
+
+    /**
+     * @param slot The slot id
+     * @return The byte offset of the encoded meshlet in {@link #getBuffer()}
+     */
+    public int getByteOffset(int slot) {
+        Preconditions.checkElementIndex(slot, slotCount);
+        Preconditions.checkState(occupied[slot], "Slot %s isn't allocated.", slot);
+
+        return slotOffsets[slot];
+    }
+
+    public int getBlockCount(int slot) {
+        return MeshletFormat.getBlockCount(buffer, getByteOffset(slot));
+    }
+
+    /**
+     * @param slot The slot id
+     * @param index The block index
+     * @return The packed block record
+     */
+    public int getBlock(int slot, int index) {
+        int offset = getByteOffset(slot);
+        Preconditions.checkElementIndex(index, MeshletFormat.getBlockCount(buffer, offset));
+
+        return MeshletFormat.getBlock(buffer, offset, index);
+    }
+
+    /**
+     * The backing buffer in native byte order, which is replaced whenever the storage grows.
+     * Bytes of released slots are left as they are.
+     *
+     * @return The backing buffer, whose first {@link #getUsedBytes()} bytes are in use
+     */
+    public @NonNull ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return The bytes of all pages handed out so far
+     */
+    public int getUsedBytes() {
+        return pageCount * PAGE_SIZE;
+    }
+
+    /**
+     * @return The encoded bytes of all live meshlets
+     */
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * @return The number of allocated slots
+     */
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * @return The number of slots ever created, i.e. the peak number of live slots
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
 }
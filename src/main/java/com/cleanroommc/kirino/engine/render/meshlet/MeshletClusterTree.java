@@ -1,4 +1,411 @@
 package com.cleanroommc.kirino.engine.render.meshlet;
 
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A cluster hierarchy over the meshlets of one section.
+ *
+ * <p>Leaves (level 0) are the meshlets themselves. A node of level <code>l</code> merges the nodes of level <code>l - 1</code>
+ * of the same pass whose bounds centers fall into the same cubic region of size <code>2^(l + 1)</code>, so level
+ * {@link #MAX_LEVEL} ends up with one root per pass. The simplified representation of a parent is a set of coarse cells
+ * of size <code>2^l</code>, each being the union of the covered voxels and their face masks, packed like
+ * {@link Block#pack(int, int, int, int)} in cell coordinates.</p>
+ *
+ * <p>The geometric error of a node is its cell size <code>2^level</code>. Cells of all levels lie on one aligned grid,
+ * so a coarse cell contains every voxel it covers and no covered surface moves further than the cell size, no matter how
+ * many levels it went through. Errors double per level, thus grow strictly towards the roots and, as parent bounds
+ * contain child bounds, so do projected errors. That makes {@link #selectCut(float, float, float, float, float)}
+ * a per-node test that always yields exactly one selected node on every root-to-leaf path.</p>
+ */
 public class MeshletClusterTree {
+    public static final int MAX_LEVEL = 3;
+
+    /**
+     * Working memory of {@link #build(int, int, int, MeshletOutputBuffer, int, int, BuildScratch)}, to be reused across
+     * builds of the same thread. Not thread-safe.
+     */
+    public static final class BuildScratch {
+        // all zero between merges
+        private final int[] cellMasks = new int[4096];
+        private final int[] touchedCells = new int[4096];
+        private int[] sortKeys = new int[64];
+
+        private int[] sortKeys(int length) {
+            if (sortKeys.length < length) {
+                sortKeys = new int[Math.max(length, sortKeys.length * 2)];
+            }
+            return sortKeys;
+        }
+    }
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+
+    private int nodeCount = 0;
+    private int leafCount = 0;
+
+    // per node
+    private int[] levels;
+    private int[] passes;
+    private int[] parents;
+    private int[] bounds;
+    private float[] errors;
+    private int[] recordStarts;
+    private int[] recordEnds;
+    private boolean[] selected;
+
+    private int[] records = new int[64];
+    private int recordCount = 0;
+
+    // per leaf
+    private int[] leafSlots;
+    private int[] leafGenerations;
+
+    private MeshletClusterTree(int originX, int originY, int originZ, int leafCount) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.leafCount = leafCount;
+
+        // a rough guess; every level at most as many nodes as the one below
+        int capacity = Math.max(leafCount * 2, 8);
+        levels = new int[capacity];
+        passes = new int[capacity];
+        parents = new int[capacity];
+        bounds = new int[capacity * 6];
+        errors = new float[capacity];
+        recordStarts = new int[capacity];
+        recordEnds = new int[capacity];
+
+        leafSlots = new int[leafCount];
+        leafGenerations = new int[leafCount];
+        Arrays.fill(leafSlots, -1);
+    }
+
+    /**
+     * Same as {@link #build(int, int, int, MeshletOutputBuffer, int, int, BuildScratch)} with a fresh scratch.
+     */
+    public static @NonNull MeshletClusterTree build(
+            int originX, int originY, int originZ,
+            @NonNull MeshletOutputBuffer source, int clusterStart, int clusterEnd) {
+
+        return build(originX, originY, originZ, source, clusterStart, clusterEnd, new BuildScratch());
+    }
+
+    /**
+     * Builds the tree of a section. Pure CPU work; safe to call from any thread with its own scratch.
+     *
+     * @param originX The section origin x in world block coordinates
+     * @param originY The section origin y in world block coordinates
+     * @param originZ The section origin z in world block coordinates
+     * @param source The output buffer holding the section's clusters
+     * @param clusterStart The first cluster of the section (inclusive)
+     * @param clusterEnd The last cluster of the section (exclusive)
+     * @param scratch The working memory
+     * @return The tree, whose leaf <code>i</code> is cluster <code>clusterStart + i</code>
+     */
+    public static @NonNull MeshletClusterTree build(
+            int originX, int originY, int originZ,
+            @NonNull MeshletOutputBuffer source, int clusterStart, int clusterEnd,
+            @NonNull BuildScratch scratch) {
+
+        Preconditions.checkArgument(clusterStart <= clusterEnd,
+                "Argument \"clusterStart\" must be less than or equal to \"clusterEnd\".");
+
+        MeshletClusterTree tree = new MeshletClusterTree(originX, originY, originZ, clusterEnd - clusterStart);
+
+        for (int cluster = clusterStart; cluster < clusterEnd; cluster++) {
+            int node = tree.addNode(0, source.getClusterPass(cluster));
+            for (int axis = 0; axis < 3; axis++) {
+                tree.bounds[node * 6 + axis] = source.getClusterMin(cluster, axis);
+                tree.bounds[node * 6 + 3 + axis] = source.getClusterMax(cluster, axis);
+            }
+            // leaves keep their records in the buffer storage
+            tree.recordStarts[node] = 0;
+            tree.recordEnds[node] = 0;
+        }
+
+        int[] cellMasks = scratch.cellMasks;
+        int[] touchedCells = scratch.touchedCells;
+        int[] sortKeys = scratch.sortKeys(tree.nodeCount);
+        int levelStart = 0;
+        int levelEnd = tree.nodeCount;
+        for (int level = 1; level <= MAX_LEVEL && levelEnd > levelStart; level++) {
+            int regionShift = level + 1;
+            int regionsPerAxis = 16 >> regionShift;
+
+            // group by (pass, region); keys stay below 2^11 and node indexes below 2^16
+            int childCount = levelEnd - levelStart;
+            for (int i = 0; i < childCount; i++) {
+                int child = levelStart + i;
+                int regionX = ((tree.bounds[child * 6] + tree.bounds[child * 6 + 3]) >> 1) >> regionShift;
+                int regionY = ((tree.bounds[child * 6 + 1] + tree.bounds[child * 6 + 4]) >> 1) >> regionShift;
+                int regionZ = ((tree.bounds[child * 6 + 2] + tree.bounds[child * 6 + 5]) >> 1) >> regionShift;
+                int key = ((tree.passes[child] * regionsPerAxis + regionY) * regionsPerAxis + regionZ) * regionsPerAxis + regionX;
+                sortKeys[i] = (key << 16) | child;
+            }
+            Arrays.sort(sortKeys, 0, childCount);
+
+            for (int groupStart = 0; groupStart < childCount; ) {
+                int key = sortKeys[groupStart] >>> 16;
+                int groupEnd = groupStart + 1;
+                while (groupEnd < childCount && sortKeys[groupEnd] >>> 16 == key) {
+                    groupEnd++;
+                }
+
+                int firstChild = sortKeys[groupStart] & 0xFFFF;
+                int parent = tree.addNode(level, tree.passes[firstChild]);
+                tree.mergeChildren(parent, sortKeys, groupStart, groupEnd, source, clusterStart, cellMasks, touchedCells);
+
+                groupStart = groupEnd;
+            }
+
+            levelStart = levelEnd;
+            levelEnd = tree.nodeCount;
+        }
+
+        tree.selected = new boolean[tree.nodeCount];
+        return tree;
+    }
+
+    private int addNode(int level, int pass) {
+        if (nodeCount == levels.length) {
+            int capacity = nodeCount * 2;
+            levels = Arrays.copyOf(levels, capacity);
+            passes = Arrays.copyOf(passes, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            bounds = Arrays.copyOf(bounds, capacity * 6);
+            errors = Arrays.copyOf(errors, capacity);
+            recordStarts = Arrays.copyOf(recordStarts, capacity);
+            recordEnds = Arrays.copyOf(recordEnds, capacity);
+        }
+        int node = nodeCount++;
+        levels[node] = level;
+        passes[node] = pass;
+        parents[node] = -1;
+        errors[node] = 0f;
+        return node;
+    }
+
+    private void addRecord(int record) {
+        if (recordCount == records.length) {
+            records = Arrays.copyOf(records, recordCount * 2);
+        }
+        records[recordCount++] = record;
+    }
+
+    private void mergeChildren(
+            int parent, int[] sortKeys, int groupStart, int groupEnd,
+            MeshletOutputBuffer source, int clusterStart,
+            int[] cellMasks, int[] touchedCells) {
+
+        int level = levels[parent];
+        int minX = 16, minY = 16, minZ = 16;
+        int maxX = 0, maxY = 0, maxZ = 0;
+        int touchedCount = 0;
+
+        for (int i = groupStart; i < groupEnd; i++) {
+            int child = sortKeys[i] & 0xFFFF;
+            parents[child] = parent;
+            minX = Math.min(minX, bounds[child * 6]);
+            minY = Math.min(minY, bounds[child * 6 + 1]);
+            minZ = Math.min(minZ, bounds[child * 6 + 2]);
+            maxX = Math.max(maxX, bounds[child * 6 + 3]);
+            maxY = Math.max(maxY, bounds[child * 6 + 4]);
+            maxZ = Math.max(maxZ, bounds[child * 6 + 5]);
+
+            // leaves contribute voxels, other children cells of half the size
+            int shift;
+            int start, end;
+            int[] childRecords;
+            if (levels[child] == 0) {
+                shift = level;
+                childRecords = source.getVoxels();
+                start = source.getClusterStart(clusterStart + child);
+                end = source.getClusterEnd(clusterStart + child);
+            } else {
+                shift = 1;
+                childRecords = records;
+                start = recordStarts[child];
+                end = recordEnds[child];
+            }
+            for (int r = start; r < end; r++) {
+                int record = childRecords[r];
+                int cell = (Block.unpackX(record) >> shift) | ((Block.unpackY(record) >> shift) << 4) | ((Block.unpackZ(record) >> shift) << 8);
+                if (cellMasks[cell] == 0) {
+                    touchedCells[touchedCount++] = cell;
+                }
+                // bit 6 marks the cell as touched even if no face is exposed
+                cellMasks[cell] |= Block.unpackFaceMask(record) | (1 << 6);
+            }
+        }
+
+        recordStarts[parent] = recordCount;
+        for (int i = 0; i < touchedCount; i++) {
+            int cell = touchedCells[i];
+            int faceMask = cellMasks[cell] & 0b111111;
+            cellMasks[cell] = 0;
+            addRecord(Block.pack(cell & 15, (cell >> 4) & 15, (cell >> 8) & 15, faceMask));
+        }
+        recordEnds[parent] = recordCount;
+
+        bounds[parent * 6] = minX;
+        bounds[parent * 6 + 1] = minY;
+        bounds[parent * 6 + 2] = minZ;
+        bounds[parent * 6 + 3] = maxX;
+        bounds[parent * 6 + 4] = maxY;
+        bounds[parent * 6 + 5] = maxZ;
+        errors[parent] = 1 << level;
+    }
+
+    /**
+     * Selects the cut of the tree: a node is selected if its projected error is within the threshold while its parent's isn't.
+     *
+     * @param cameraX The world-space camera position
+     * @param cameraY The world-space camera position
+     * @param cameraZ The world-space camera position
+     * @param projectionScale Pixels per world unit at distance 1, i.e. <code>viewportHeight / (2 * tan(fovY / 2))</code>
+     * @param pixelThreshold The max projected error in pixels
+     * @return The number of selected nodes
+     */
+    public int selectCut(float cameraX, float cameraY, float cameraZ, float projectionScale, float pixelThreshold) {
+        int selectedCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            boolean select = projectedError(node, cameraX, cameraY, cameraZ, projectionScale) <= pixelThreshold
+                    && (parents[node] == -1 || projectedError(parents[node], cameraX, cameraY, cameraZ, projectionScale) > pixelThreshold);
+            selected[node] = select;
+            if (select) {
+                selectedCount++;
+            }
+        }
+        return selectedCount;
+    }
+
+    private float projectedError(int node, float cameraX, float cameraY, float cameraZ, float projectionScale) {
+        float error = errors[node];
+        if (error == 0f) {
+            return 0f;
+        }
+
+        // distance to the closest point of the bounds
+        float dx = Math.max(Math.max(originX + bounds[node * 6] - cameraX, cameraX - originX - bounds[node * 6 + 3]), 0f);
+        float dy = Math.max(Math.max(originY + bounds[node * 6 + 1] - cameraY, cameraY - originY - bounds[node * 6 + 4]), 0f);
+        float dz = Math.max(Math.max(originZ + bounds[node * 6 + 2] - cameraZ, cameraZ - originZ - bounds[node * 6 + 5]), 0f);
+        float distanceSquared = dx * dx + dy * dy + dz * dz;
+        if (distanceSquared == 0f) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        return error * projectionScale / (float) Math.sqrt(distanceSquared);
+    }
+
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginY() {
+        return originY;
+    }
+
+    public int getOriginZ() {
+        return originZ;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Leaves are nodes <code>[0, leafCount)</code>.
+     */
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public int getLevel(int node) {
+        return levels[node];
+    }
+
+    public int getPass(int node) {
+        return passes[node];
+    }
+
+    /**
+     * @return The parent node, or <code>-1</code> for a root
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @return The geometric error in world units; <code>0</code> for leaves
+     */
+    public float getError(int node) {
+        return errors[node];
+    }
+
+    /**
+     * @param axis 0, 1 or 2 for x, y or z
+     * @return The inclusive local min coordinate
+     */
+    public int getMin(int node, int axis) {
+        return bounds[node * 6 + axis];
+    }
+
+    /**
+     * @param axis 0, 1 or 2 for x, y or z
+     * @return The exclusive local max coordinate
+     */
+    public int getMax(int node, int axis) {
+        return bounds[node * 6 + 3 + axis];
+    }
+
+    /**
+     * Leaves have no records here; theirs are in the {@link MeshletBufferStorage} slot from {@link #getLeafSlot(int)}.
+     *
+     * @return The number of coarse cells of the node
+     */
+    public int getRecordCount(int node) {
+        return recordEnds[node] - recordStarts[node];
+    }
+
+    /**
+     * @param index The record index. Domain: [0, {@link #getRecordCount(int)})
+     * @return The coarse cell record, packed like {@link Block#pack(int, int, int, int)} in cells of size <code>2^level</code>
+     */
+    public int getRecord(int node, int index) {
+        Preconditions.checkElementIndex(index, getRecordCount(node));
+
+        return records[recordStarts[node] + index];
+    }
+
+    /**
+     * @return Whether the node is part of the last {@link #selectCut(float, float, float, float, float) cut}
+     */
+    public boolean isSelected(int node) {
+        return selected[node];
+    }
+
+    public void setLeafSlot(int leaf, int slot, int generation) {
+        Preconditions.checkElementIndex(leaf, leafCount);
+
+        leafSlots[leaf] = slot;
+        leafGenerations[leaf] = generation;
+    }
+
+    /**
+     * @return The {@link MeshletBufferStorage} slot of the leaf's meshlet, or <code>-1</code> if not assigned
+     */
+    public int getLeafSlot(int leaf) {
+        return leafSlots[leaf];
+    }
+
+    public int getLeafGeneration(int leaf) {
+        return leafGenerations[leaf];
+    }
 }
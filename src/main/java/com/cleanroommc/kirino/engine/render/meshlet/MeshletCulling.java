@@ -0,0 +1,141 @@
+package com.cleanroommc.kirino.engine.render.meshlet;
+
+import com.google.common.base.Preconditions;
+import org.joml.Matrix4fc;
+import org.joml.Vector4f;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * CPU meshlet culling against a view frustum and a normal cone.
+ *
+ * <p>All tests are conservative, i.e. they may keep an invisible meshlet but never drop a visible one.
+ * Everything here is pure math on primitives so it can run inside batch jobs without allocating.</p>
+ */
+public final class MeshletCulling {
+    public static final int FRUSTUM_PLANE_COUNT = 6;
+
+    private MeshletCulling() {
+    }
+
+    /**
+     * Extracts normalized frustum planes <code>(a, b, c, d)</code> whose normals point inwards,
+     * i.e. a point is inside if <code>a * x + b * y + c * z + d &gt;= 0</code> for all planes.
+     *
+     * @param viewProjection The view-projection matrix
+     * @param dest The destination of length {@code 6 * 4}
+     * @return The destination
+     */
+    public static float @NonNull [] extractFrustumPlanes(@NonNull Matrix4fc viewProjection, float @NonNull [] dest) {
+        Preconditions.checkArgument(dest.length >= FRUSTUM_PLANE_COUNT * 4,
+                "Argument \"dest\" must have a length of at least %d.", FRUSTUM_PLANE_COUNT * 4);
+
+        Vector4f plane = new Vector4f();
+        for (int i = 0; i < FRUSTUM_PLANE_COUNT; i++) {
+            // PLANE_NX ... PLANE_PZ are 0 ... 5
+            viewProjection.frustumPlane(i, plane);
+            dest[i * 4] = plane.x;
+            dest[i * 4 + 1] = plane.y;
+            dest[i * 4 + 2] = plane.z;
+            dest[i * 4 + 3] = plane.w;
+        }
+        return dest;
+    }
+
+    /**
+     * @param frustumPlanes Planes from {@link #extractFrustumPlanes(Matrix4fc, float[])}
+     * @return Whether the AABB is entirely outside at least one plane
+     */
+    public static boolean isOutsideFrustum(
+            float @NonNull [] frustumPlanes,
+            float xMin, float yMin, float zMin,
+            float xMax, float yMax, float zMax) {
+
+        for (int i = 0; i < FRUSTUM_PLANE_COUNT; i++) {
+            float a = frustumPlanes[i * 4];
+            float b = frustumPlanes[i * 4 + 1];
+            float c = frustumPlanes[i * 4 + 2];
+            float d = frustumPlanes[i * 4 + 3];
+            // the corner furthest along the plane normal
+            float x = a >= 0f ? xMax : xMin;
+            float y = b >= 0f ? yMax : yMin;
+            float z = c >= 0f ? zMax : zMin;
+            if (a * x + b * y + c * z + d < 0f) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The cone cutoff is the cosine of the cone half-angle, i.e. the minimum dot product between the axis
+     * and any face normal of the meshlet.
+     *
+     * @param axisX The normalized cone axis
+     * @param axisY The normalized cone axis
+     * @param axisZ The normalized cone axis
+     * @param faceMaskUnion The union of all face masks of the meshlet, where face <code>i</code> is bit <code>5 - i</code>
+     * @return The cone cutoff in [-1, 1]
+     */
+    public static float coneCutoff(float axisX, float axisY, float axisZ, int faceMaskUnion) {
+        float cutoff = 1f;
+        if ((faceMaskUnion & 0b100000) != 0) {
+            cutoff = Math.min(cutoff, axisX);
+        }
+        if ((faceMaskUnion & 0b010000) != 0) {
+            cutoff = Math.min(cutoff, -axisX);
+        }
+        if ((faceMaskUnion & 0b001000) != 0) {
+            cutoff = Math.min(cutoff, axisY);
+        }
+        if ((faceMaskUnion & 0b000100) != 0) {
+            cutoff = Math.min(cutoff, -axisY);
+        }
+        if ((faceMaskUnion & 0b000010) != 0) {
+            cutoff = Math.min(cutoff, axisZ);
+        }
+        if ((faceMaskUnion & 0b000001) != 0) {
+            cutoff = Math.min(cutoff, -axisZ);
+        }
+        return Math.max(cutoff, -1f);
+    }
+
+    /**
+     * Whether every face of the meshlet faces away from the camera. Faces are tested against the bounding sphere
+     * of the AABB: with <code>v = center - camera</code> and the cone half-angle <code>theta</code>, the meshlet is
+     * backfacing if <code>dot(v, axis) - r &gt;= sin(theta) * (|v| + r)</code>.
+     *
+     * @param cameraX The camera position
+     * @param cameraY The camera position
+     * @param cameraZ The camera position
+     * @param axisX The normalized cone axis
+     * @param axisY The normalized cone axis
+     * @param axisZ The normalized cone axis
+     * @param coneCutoff The cone cutoff from {@link #coneCutoff(float, float, float, int)}
+     * @return Whether the meshlet can be culled
+     */
+    public static boolean isBackfacing(
+            float cameraX, float cameraY, float cameraZ,
+            float xMin, float yMin, float zMin,
+            float xMax, float yMax, float zMax,
+            float axisX, float axisY, float axisZ,
+            float coneCutoff) {
+
+        // cones of 90 degrees or wider always contain a front face
+        if (coneCutoff <= 0f) {
+            return false;
+        }
+
+        float halfX = (xMax - xMin) * 0.5f;
+        float halfY = (yMax - yMin) * 0.5f;
+        float halfZ = (zMax - zMin) * 0.5f;
+        float radius = (float) Math.sqrt(halfX * halfX + halfY * halfY + halfZ * halfZ);
+
+        float vx = xMin + halfX - cameraX;
+        float vy = yMin + halfY - cameraY;
+        float vz = zMin + halfZ - cameraZ;
+        float distance = (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+
+        float sin = (float) Math.sqrt(1f - coneCutoff * coneCutoff);
+        return vx * axisX + vy * axisY + vz * axisZ - radius >= sin * (distance + radius);
+    }
+}
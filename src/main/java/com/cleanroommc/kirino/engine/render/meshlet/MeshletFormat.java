@@ -0,0 +1,169 @@
+package com.cleanroommc.kirino.engine.render.meshlet;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary meshlet encoding. A meshlet is a run of 32-bit words in native byte order, so a buffer of meshlets
+ * can be bound as a <code>uint[]</code> storage buffer as-is:
+ *
+ * <table>
+ *     <tr><th>word</th><th>content</th></tr>
+ *     <tr><td>0 - 2</td><td>section origin x, y, z in world block coordinates (int)</td></tr>
+ *     <tr><td>3</td><td>bounds and pass, see {@link #packBounds(int, int, int, int, int, int, int)}</td></tr>
+ *     <tr><td>4</td><td>block count <code>n</code></td></tr>
+ *     <tr><td>5 - 7</td><td>normal cone axis x, y, z (float)</td></tr>
+ *     <tr><td>8</td><td>normal cone cutoff (float)</td></tr>
+ *     <tr><td>9 - (8 + n)</td><td>block records, see {@link Block#pack(int, int, int, int)}</td></tr>
+ * </table>
+ *
+ * <p>That is 36 bytes plus 4 bytes per block, compared to roughly 60 bytes per block as a list of {@link Block}s.</p>
+ */
+public final class MeshletFormat {
+    public static final int HEADER_WORDS = 9;
+    public static final int MAX_BLOCK_COUNT = 64;
+
+    public static final int WORD_ORIGIN_X = 0;
+    public static final int WORD_ORIGIN_Y = 1;
+    public static final int WORD_ORIGIN_Z = 2;
+    public static final int WORD_BOUNDS = 3;
+    public static final int WORD_BLOCK_COUNT = 4;
+    public static final int WORD_CONE_AXIS_X = 5;
+    public static final int WORD_CONE_AXIS_Y = 6;
+    public static final int WORD_CONE_AXIS_Z = 7;
+    public static final int WORD_CONE_CUTOFF = 8;
+
+    private MeshletFormat() {
+    }
+
+    /**
+     * @param blockCount The block count
+     * @return The size of an encoded meshlet in bytes
+     */
+    public static int sizeInBytes(int blockCount) {
+        return (HEADER_WORDS + blockCount) * Integer.BYTES;
+    }
+
+    /**
+     * Packs local bounds and the pass into a word: 4 bits per inclusive min and inclusive max (i.e. <code>max - 1</code>)
+     * coordinate in the order min x, y, z, max x, y, z from bit 0, then 2 bits of pass from bit 24.
+     *
+     * @param maxX The exclusive max x. Domain: [1, 16]
+     * @param maxY The exclusive max y. Domain: [1, 16]
+     * @param maxZ The exclusive max z. Domain: [1, 16]
+     * @return The packed word
+     */
+    public static int packBounds(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int pass) {
+        return minX | (minY << 4) | (minZ << 8)
+                | ((maxX - 1) << 12) | ((maxY - 1) << 16) | ((maxZ - 1) << 20)
+                | (pass << 24);
+    }
+
+    /**
+     * @param axis 0, 1 or 2 for x, y or z
+     * @return The inclusive local min coordinate
+     */
+    public static int unpackMin(int bounds, int axis) {
+        return (bounds >>> (axis * 4)) & 0xF;
+    }
+
+    /**
+     * @param axis 0, 1 or 2 for x, y or z
+     * @return The exclusive local max coordinate
+     */
+    public static int unpackMax(int bounds, int axis) {
+        return ((bounds >>> (12 + axis * 4)) & 0xF) + 1;
+    }
+
+    public static int unpackPass(int bounds) {
+        return (bounds >>> 24) & 0x3;
+    }
+
+    /**
+     * Encodes a cluster.
+     *
+     * @param dest The destination in native byte order
+     * @param byteOffset The byte offset of the meshlet in <code>dest</code>
+     * @param originX The section origin x in world block coordinates
+     * @param originY The section origin y in world block coordinates
+     * @param originZ The section origin z in world block coordinates
+     * @param source The output buffer holding the cluster
+     * @param cluster The cluster index
+     */
+    public static void write(
+            @NonNull ByteBuffer dest, int byteOffset,
+            int originX, int originY, int originZ,
+            @NonNull MeshletOutputBuffer source, int cluster) {
+
+        int start = source.getClusterStart(cluster);
+        int blockCount = source.getClusterEnd(cluster) - start;
+        Preconditions.checkArgument(blockCount <= MAX_BLOCK_COUNT,
+                "Cluster %s has %s blocks, which exceeds the maximum of %s.", cluster, blockCount, MAX_BLOCK_COUNT);
+
+        dest.putInt(byteOffset + WORD_ORIGIN_X * 4, originX);
+        dest.putInt(byteOffset + WORD_ORIGIN_Y * 4, originY);
+        dest.putInt(byteOffset + WORD_ORIGIN_Z * 4, originZ);
+        dest.putInt(byteOffset + WORD_BOUNDS * 4, packBounds(
+                source.getClusterMin(cluster, 0), source.getClusterMin(cluster, 1), source.getClusterMin(cluster, 2),
+                source.getClusterMax(cluster, 0), source.getClusterMax(cluster, 1), source.getClusterMax(cluster, 2),
+                source.getClusterPass(cluster)));
+        dest.putInt(byteOffset + WORD_BLOCK_COUNT * 4, blockCount);
+        dest.putFloat(byteOffset + WORD_CONE_AXIS_X * 4, source.getClusterNormalX(cluster));
+        dest.putFloat(byteOffset + WORD_CONE_AXIS_Y * 4, source.getClusterNormalY(cluster));
+        dest.putFloat(byteOffset + WORD_CONE_AXIS_Z * 4, source.getClusterNormalZ(cluster));
+        dest.putFloat(byteOffset + WORD_CONE_CUTOFF * 4, source.getClusterConeCutoff(cluster));
+
+        int[] voxels = source.getVoxels();
+        int recordOffset = byteOffset + HEADER_WORDS * 4;
+        for (int i = 0; i < blockCount; i++) {
+            dest.putInt(recordOffset + i * 4, voxels[start + i]);
+        }
+    }
+
+    public static int getOriginX(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getInt(byteOffset + WORD_ORIGIN_X * 4);
+    }
+
+    public static int getOriginY(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getInt(byteOffset + WORD_ORIGIN_Y * 4);
+    }
+
+    public static int getOriginZ(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getInt(byteOffset + WORD_ORIGIN_Z * 4);
+    }
+
+    public static int getBounds(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getInt(byteOffset + WORD_BOUNDS * 4);
+    }
+
+    public static int getBlockCount(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getInt(byteOffset + WORD_BLOCK_COUNT * 4);
+    }
+
+    public static float getConeAxisX(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getFloat(byteOffset + WORD_CONE_AXIS_X * 4);
+    }
+
+    public static float getConeAxisY(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getFloat(byteOffset + WORD_CONE_AXIS_Y * 4);
+    }
+
+    public static float getConeAxisZ(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getFloat(byteOffset + WORD_CONE_AXIS_Z * 4);
+    }
+
+    public static float getConeCutoff(@NonNull ByteBuffer buffer, int byteOffset) {
+        return buffer.getFloat(byteOffset + WORD_CONE_CUTOFF * 4);
+    }
+
+    /**
+     * @param index The block index. Domain: [0, block count)
+     * @return The packed block record
+     */
+    public static int getBlock(@NonNull ByteBuffer buffer, int byteOffset, int index) {
+        return buffer.getInt(byteOffset + (HEADER_WORDS + index) * 4);
+    }
+}
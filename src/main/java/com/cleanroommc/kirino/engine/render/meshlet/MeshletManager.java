@@ -1,20 +1,357 @@
 package com.cleanroommc.kirino.engine.render.meshlet;
 
+import com.cleanroommc.kirino.KirinoCore;
+import com.cleanroommc.kirino.ecs.entity.CleanEntityHandle;
+import com.cleanroommc.kirino.ecs.entity.EntityDestroyContext;
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.IEntityDestroyCallback;
+import com.cleanroommc.kirino.engine.render.geometry.AABB;
 import com.cleanroommc.kirino.engine.render.geometry.component.MeshletClusterTreeComponent;
 import com.cleanroommc.kirino.engine.render.geometry.component.MeshletComponent;
+import com.cleanroommc.kirino.engine.render.gizmos.GizmosManager;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionKey;
+import com.google.common.base.Preconditions;
+import org.joml.Vector3f;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * It manages meshlet data storage and uploading, as well as meshlet cluster trees.
+ *
+ * <p>Every meshlet is a {@link MeshletComponent} entity whose payload lives in a {@link MeshletBufferStorage} slot,
+ * and every meshed section has a {@link MeshletClusterTreeComponent} entity for LOD selection.
+ * Meshing jobs write into per-thread {@link StagingBuffer}s, which {@link #flush()} bulk-inserts on the client thread.
+ * Re-meshing a section replaces all its meshlets, and removing a section destroys them; either way the destroy callback
+ * releases the buffer slots, so the bookkeeping is bounded by the loaded sections.</p>
  */
 public class MeshletManager {
-    // todo: entity destroy callback
-    public MeshletComponent addMeshlet() {
+    /**
+     * Meshing results of one thread ordinal. Sections are recorded even if they produce no clusters,
+     * since their old meshlets have to go anyway.
+     */
+    public static final class StagingBuffer {
+        private final MeshletOutputBuffer outputBuffer = new MeshletOutputBuffer();
+        private long[] sectionKeys = new long[16];
+        private int[] sectionClusterEnds = new int[16];
+        private MeshletClusterTree[] sectionTrees = new MeshletClusterTree[16];
+        private final MeshletClusterTree.BuildScratch treeScratch = new MeshletClusterTree.BuildScratch();
+        private int sectionCount = 0;
+        private int sectionClusterStart = 0;
+        private boolean inSection = false;
+
+        private StagingBuffer() {
+        }
+
+        /**
+         * @return The output buffer to append the section's clusters to
+         */
+        public @NonNull MeshletOutputBuffer beginSection(int chunkX, int chunkY, int chunkZ) {
+            Preconditions.checkState(!inSection, "The previous section hasn't ended yet.");
+
+            if (sectionCount == sectionKeys.length) {
+                sectionKeys = Arrays.copyOf(sectionKeys, sectionCount * 2);
+                sectionClusterEnds = Arrays.copyOf(sectionClusterEnds, sectionCount * 2);
+                sectionTrees = Arrays.copyOf(sectionTrees, sectionCount * 2);
+            }
+            sectionKeys[sectionCount] = SectionKey.pack(chunkX, chunkY, chunkZ);
+            sectionClusterStart = outputBuffer.getClusterCount();
+            inSection = true;
+            return outputBuffer;
+        }
+
+        /**
+         * Ends the section and builds its cluster tree on the calling thread.
+         */
+        public void endSection() {
+            Preconditions.checkState(inSection, "There is no section to end.");
+
+            long sectionKey = sectionKeys[sectionCount];
+            int clusterEnd = outputBuffer.getClusterCount();
+            sectionTrees[sectionCount] = clusterEnd == sectionClusterStart ? null : MeshletClusterTree.build(
+                    SectionKey.getX(sectionKey) * 16, SectionKey.getY(sectionKey) * 16, SectionKey.getZ(sectionKey) * 16,
+                    outputBuffer, sectionClusterStart, clusterEnd, treeScratch);
+            sectionClusterEnds[sectionCount++] = clusterEnd;
+            inSection = false;
+        }
 
-        return null;
+        private void clear() {
+            outputBuffer.clear();
+            Arrays.fill(sectionTrees, 0, sectionCount, null);
+            sectionCount = 0;
+            inSection = false;
+        }
     }
 
-    public MeshletClusterTreeComponent addMeshletClusterTree() {
+    private class MeshletDestroyCallback implements IEntityDestroyCallback {
+        @Override
+        public void beforeDestroy(@NonNull EntityDestroyContext destroyContext) {
+            MeshletComponent meshletComponent = (MeshletComponent) destroyContext.getComponent(MeshletComponent.class);
+            bufferStorage.release(meshletComponent.handleID, meshletComponent.handleGeneration);
+        }
+    }
+
+    private class ClusterTreeDestroyCallback implements IEntityDestroyCallback {
+        @Override
+        public void beforeDestroy(@NonNull EntityDestroyContext destroyContext) {
+            MeshletClusterTreeComponent treeComponent = (MeshletClusterTreeComponent) destroyContext.getComponent(MeshletClusterTreeComponent.class);
+            releaseClusterTree(treeComponent.handleID, treeComponent.handleGeneration);
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final GizmosManager gizmosManager;
+    private final MeshletBufferStorage bufferStorage = new MeshletBufferStorage();
+    private final MeshletDestroyCallback meshletDestroyCallback = new MeshletDestroyCallback();
+    private final ClusterTreeDestroyCallback clusterTreeDestroyCallback = new ClusterTreeDestroyCallback();
+
+    // generational cluster tree slots
+    private MeshletClusterTree[] clusterTrees = new MeshletClusterTree[256];
+    private int[] clusterTreeGenerations = new int[256];
+    private int clusterTreeSlotCount = 0;
+    private int[] freeClusterTreeSlots = new int[64];
+    private int freeClusterTreeSlotCount = 0;
+
+    private volatile StagingBuffer[] stagingBuffers = new StagingBuffer[0];
+
+    /**
+     * Live meshlet entities per section. See {@link SectionKey}.
+     */
+    private final Map<Long, List<CleanEntityHandle>> sectionMeshlets = new HashMap<>();
+    /**
+     * Live cluster tree entities per section. See {@link SectionKey}.
+     */
+    private final Map<Long, CleanEntityHandle> sectionClusterTrees = new HashMap<>();
+    private final Set<Long> pendingSectionRemovals = new HashSet<>();
+
+    public MeshletManager(@NonNull EntityManager entityManager, @NonNull GizmosManager gizmosManager) {
+        this.entityManager = entityManager;
+        this.gizmosManager = gizmosManager;
+    }
+
+    /**
+     * Thread safety is guaranteed, but a staging buffer itself must only be used by its own thread ordinal.
+     *
+     * @param threadOrdinal The thread ordinal of the calling job
+     * @return The staging buffer of the thread ordinal
+     */
+    public @NonNull StagingBuffer getStagingBuffer(int threadOrdinal) {
+        StagingBuffer[] buffers = stagingBuffers;
+        if (threadOrdinal < buffers.length) {
+            return buffers[threadOrdinal];
+        }
+
+        synchronized (this) {
+            buffers = stagingBuffers;
+            if (threadOrdinal >= buffers.length) {
+                StagingBuffer[] newBuffers = Arrays.copyOf(buffers, threadOrdinal + 1);
+                for (int i = buffers.length; i < newBuffers.length; i++) {
+                    newBuffers[i] = new StagingBuffer();
+                }
+                stagingBuffers = newBuffers;
+                buffers = newBuffers;
+            }
+            return buffers[threadOrdinal];
+        }
+    }
+
+    /**
+     * Destroys all meshlets of the section at the next {@link #flush()}. Safe to call from entity destroy callbacks
+     * and jobs executed on the client thread, but not from worker threads.
+     */
+    public void removeSection(int chunkX, int chunkY, int chunkZ) {
+        pendingSectionRemovals.add(SectionKey.pack(chunkX, chunkY, chunkZ));
+    }
+
+    /**
+     * Applies pending section removals, then replaces the meshlets of every staged section with the staged clusters.
+     * Must be called on the client thread after all meshing jobs have completed, and before {@link EntityManager#flush()}.
+     */
+    public void flush() {
+        for (Long sectionKey : pendingSectionRemovals) {
+            List<CleanEntityHandle> handles = sectionMeshlets.remove(sectionKey);
+            if (handles != null) {
+                destroyAll(handles);
+            }
+            CleanEntityHandle treeHandle = sectionClusterTrees.remove(sectionKey);
+            if (treeHandle != null) {
+                treeHandle.tryDestroy();
+            }
+        }
+        pendingSectionRemovals.clear();
+
+        boolean gizmos = KirinoCore.KIRINO_CONFIG_HUB.enableMeshletGizmos;
+        for (StagingBuffer stagingBuffer : stagingBuffers) {
+            MeshletOutputBuffer outputBuffer = stagingBuffer.outputBuffer;
+            int cluster = 0;
+            for (int section = 0; section < stagingBuffer.sectionCount; section++) {
+                long sectionKey = stagingBuffer.sectionKeys[section];
+                int clusterEnd = stagingBuffer.sectionClusterEnds[section];
+                int chunkX = SectionKey.getX(sectionKey);
+                int chunkY = SectionKey.getY(sectionKey);
+                int chunkZ = SectionKey.getZ(sectionKey);
+
+                List<CleanEntityHandle> handles = sectionMeshlets.get(sectionKey);
+                if (handles != null) {
+                    destroyAll(handles);
+                }
+                CleanEntityHandle treeHandle = sectionClusterTrees.remove(sectionKey);
+                if (treeHandle != null) {
+                    treeHandle.tryDestroy();
+                }
+                if (cluster == clusterEnd) {
+                    sectionMeshlets.remove(sectionKey);
+                    continue;
+                }
+                if (handles == null) {
+                    handles = new ArrayList<>(clusterEnd - cluster);
+                    sectionMeshlets.put(sectionKey, handles);
+                }
+
+                MeshletClusterTree tree = stagingBuffer.sectionTrees[section];
+                for (int leaf = 0; cluster < clusterEnd; cluster++, leaf++) {
+                    MeshletComponent meshletComponent = newMeshletComponent(chunkX, chunkY, chunkZ, outputBuffer, cluster);
+                    tree.setLeafSlot(leaf, meshletComponent.handleID, meshletComponent.handleGeneration);
+                    handles.add(entityManager.createEntity(meshletDestroyCallback, meshletComponent));
+                    if (gizmos) {
+                        gizmosManager.addMeshlet(chunkX * 16, chunkY * 16, chunkZ * 16,
+                                outputBuffer.getVoxels(), outputBuffer.getClusterStart(cluster), outputBuffer.getClusterEnd(cluster));
+                    }
+                }
+                sectionClusterTrees.put(sectionKey, addMeshletClusterTree(chunkX, chunkY, chunkZ, tree));
+            }
+            stagingBuffer.clear();
+        }
+    }
+
+    private static void destroyAll(List<CleanEntityHandle> handles) {
+        for (CleanEntityHandle handle : handles) {
+            handle.tryDestroy();
+        }
+        handles.clear();
+    }
+
+    /**
+     * Creates the meshlet entity of a cluster. The entity is created at the next {@link EntityManager#flush()}.
+     *
+     * @param chunkX The section x-coordinate
+     * @param chunkY The section y-coordinate
+     * @param chunkZ The section z-coordinate
+     * @param outputBuffer The output buffer holding the cluster
+     * @param cluster The cluster index
+     * @return The entity handle
+     */
+    public @NonNull CleanEntityHandle addMeshlet(int chunkX, int chunkY, int chunkZ, @NonNull MeshletOutputBuffer outputBuffer, int cluster) {
+        return entityManager.createEntity(meshletDestroyCallback, newMeshletComponent(chunkX, chunkY, chunkZ, outputBuffer, cluster));
+    }
+
+    private MeshletComponent newMeshletComponent(int chunkX, int chunkY, int chunkZ, MeshletOutputBuffer outputBuffer, int cluster) {
+        int originX = chunkX * 16;
+        int originY = chunkY * 16;
+        int originZ = chunkZ * 16;
+
+        int slot = bufferStorage.allocate(originX, originY, originZ, outputBuffer, cluster);
+
+        MeshletComponent meshletComponent = new MeshletComponent();
+        meshletComponent.aabb = new AABB(
+                originX + outputBuffer.getClusterMin(cluster, 0),
+                originY + outputBuffer.getClusterMin(cluster, 1),
+                originZ + outputBuffer.getClusterMin(cluster, 2),
+                originX + outputBuffer.getClusterMax(cluster, 0),
+                originY + outputBuffer.getClusterMax(cluster, 1),
+                originZ + outputBuffer.getClusterMax(cluster, 2));
+        meshletComponent.normal = new Vector3f(
+                outputBuffer.getClusterNormalX(cluster),
+                outputBuffer.getClusterNormalY(cluster),
+                outputBuffer.getClusterNormalZ(cluster));
+        meshletComponent.coneCutoff = outputBuffer.getClusterConeCutoff(cluster);
+        meshletComponent.pass = outputBuffer.getClusterPass(cluster);
+        meshletComponent.isVisible = true;
+        meshletComponent.chunkPosX = chunkX;
+        meshletComponent.chunkPosY = chunkY;
+        meshletComponent.chunkPosZ = chunkZ;
+        meshletComponent.handleID = slot;
+        meshletComponent.handleGeneration = bufferStorage.getGeneration(slot);
+
+        return meshletComponent;
+    }
+
+    /**
+     * Creates the cluster tree entity of a section. The entity is created at the next {@link EntityManager#flush()}.
+     *
+     * @param chunkX The section x-coordinate
+     * @param chunkY The section y-coordinate
+     * @param chunkZ The section z-coordinate
+     * @param tree The cluster tree
+     * @return The entity handle
+     */
+    public @NonNull CleanEntityHandle addMeshletClusterTree(int chunkX, int chunkY, int chunkZ, @NonNull MeshletClusterTree tree) {
+        int slot;
+        if (freeClusterTreeSlotCount != 0) {
+            slot = freeClusterTreeSlots[--freeClusterTreeSlotCount];
+        } else {
+            if (clusterTreeSlotCount == clusterTrees.length) {
+                clusterTrees = Arrays.copyOf(clusterTrees, clusterTreeSlotCount * 2);
+                clusterTreeGenerations = Arrays.copyOf(clusterTreeGenerations, clusterTreeSlotCount * 2);
+            }
+            slot = clusterTreeSlotCount++;
+        }
+        clusterTrees[slot] = tree;
+
+        MeshletClusterTreeComponent treeComponent = new MeshletClusterTreeComponent();
+        treeComponent.chunkPosX = chunkX;
+        treeComponent.chunkPosY = chunkY;
+        treeComponent.chunkPosZ = chunkZ;
+        treeComponent.nodeCount = tree.getNodeCount();
+        treeComponent.selectedNodeCount = 0;
+        treeComponent.handleID = slot;
+        treeComponent.handleGeneration = clusterTreeGenerations[slot];
+
+        return entityManager.createEntity(clusterTreeDestroyCallback, treeComponent);
+    }
+
+    private void releaseClusterTree(int slot, int generation) {
+        if (slot < 0 || slot >= clusterTreeSlotCount || clusterTrees[slot] == null || clusterTreeGenerations[slot] != generation) {
+            return;
+        }
+
+        clusterTrees[slot] = null;
+        clusterTreeGenerations[slot]++;
+        if (freeClusterTreeSlotCount == freeClusterTreeSlots.length) {
+            freeClusterTreeSlots = Arrays.copyOf(freeClusterTreeSlots, freeClusterTreeSlotCount * 2);
+        }
+        freeClusterTreeSlots[freeClusterTreeSlotCount++] = slot;
+    }
+
+    /**
+     * Thread safety is guaranteed as long as no {@link #flush()} or {@link EntityManager#flush()} runs concurrently.
+     *
+     * @param handleID {@link MeshletClusterTreeComponent#handleID}
+     * @param handleGeneration {@link MeshletClusterTreeComponent#handleGeneration}
+     * @return The cluster tree, or <code>null</code> if the handle is stale
+     */
+    public @Nullable MeshletClusterTree getClusterTree(int handleID, int handleGeneration) {
+        if (handleID < 0 || handleID >= clusterTreeSlotCount || clusterTreeGenerations[handleID] != handleGeneration) {
+            return null;
+        }
+        return clusterTrees[handleID];
+    }
+
+    public @NonNull MeshletBufferStorage getBufferStorage() {
+        return bufferStorage;
+    }
 
-        return null;
+    /**
+     * @return The number of sections with live meshlets
+     */
+    public int getSectionCount() {
+        return sectionMeshlets.size();
     }
 }
@@ -0,0 +1,190 @@
+package com.cleanroommc.kirino.engine.render.meshlet;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A reusable output buffer of meshlet clusters, where every cluster is an int range of packed voxels
+ * (see {@link Block#pack(int, int, int, int)}) plus its pass, average normal, local bounds and normal cone.
+ *
+ * <p>Buffers are meant to be owned by a single worker thread and {@link #clear() cleared} per section,
+ * so meshing doesn't allocate in the steady state.</p>
+ */
+public final class MeshletOutputBuffer {
+    private int[] voxels = new int[1024];
+    private int voxelCount = 0;
+
+    private int[] clusterStarts = new int[64];
+    private int[] clusterPasses = new int[64];
+    private float[] clusterNormals = new float[64 * 3];
+    private int[] clusterBounds = new int[64 * 6];
+    private float[] clusterConeCutoffs = new float[64];
+    private int clusterCount = 0;
+
+    private boolean inCluster = false;
+
+    public void clear() {
+        voxelCount = 0;
+        clusterCount = 0;
+        inCluster = false;
+    }
+
+    /**
+     * @param pass The render pass of the new cluster
+     */
+    public void beginCluster(int pass) {
+        Preconditions.checkState(!inCluster, "The previous cluster hasn't ended yet.");
+
+        if (clusterCount == clusterStarts.length) {
+            clusterStarts = Arrays.copyOf(clusterStarts, clusterCount * 2);
+            clusterPasses = Arrays.copyOf(clusterPasses, clusterCount * 2);
+            clusterNormals = Arrays.copyOf(clusterNormals, clusterCount * 2 * 3);
+            clusterBounds = Arrays.copyOf(clusterBounds, clusterCount * 2 * 6);
+            clusterConeCutoffs = Arrays.copyOf(clusterConeCutoffs, clusterCount * 2);
+        }
+        clusterStarts[clusterCount] = voxelCount;
+        clusterPasses[clusterCount] = pass;
+        inCluster = true;
+    }
+
+    /**
+     * @param packedVoxel A packed voxel
+     */
+    public void addVoxel(int packedVoxel) {
+        if (voxelCount == voxels.length) {
+            voxels = Arrays.copyOf(voxels, voxelCount * 2);
+        }
+        voxels[voxelCount++] = packedVoxel;
+    }
+
+    /**
+     * Ends the cluster and computes its tight local bounds and normal cone, with the average normal as the cone axis.
+     *
+     * @param normalX The x component of the normalized average normal
+     * @param normalY The y component of the normalized average normal
+     * @param normalZ The z component of the normalized average normal
+     */
+    public void endCluster(float normalX, float normalY, float normalZ) {
+        Preconditions.checkState(inCluster, "There is no cluster to end.");
+
+        int minX = 16, minY = 16, minZ = 16;
+        int maxX = 0, maxY = 0, maxZ = 0;
+        int faceMaskUnion = 0;
+        for (int i = clusterStarts[clusterCount]; i < voxelCount; i++) {
+            int voxel = voxels[i];
+            int x = Block.unpackX(voxel);
+            int y = Block.unpackY(voxel);
+            int z = Block.unpackZ(voxel);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x + 1);
+            maxY = Math.max(maxY, y + 1);
+            maxZ = Math.max(maxZ, z + 1);
+            faceMaskUnion |= Block.unpackFaceMask(voxel);
+        }
+
+        int boundsOffset = clusterCount * 6;
+        clusterBounds[boundsOffset] = minX;
+        clusterBounds[boundsOffset + 1] = minY;
+        clusterBounds[boundsOffset + 2] = minZ;
+        clusterBounds[boundsOffset + 3] = maxX;
+        clusterBounds[boundsOffset + 4] = maxY;
+        clusterBounds[boundsOffset + 5] = maxZ;
+        clusterConeCutoffs[clusterCount] = MeshletCulling.coneCutoff(normalX, normalY, normalZ, faceMaskUnion);
+
+        clusterNormals[clusterCount * 3] = normalX;
+        clusterNormals[clusterCount * 3 + 1] = normalY;
+        clusterNormals[clusterCount * 3 + 2] = normalZ;
+        clusterCount++;
+        inCluster = false;
+    }
+
+    /**
+     * @return The number of voxels added so far, i.e. the index of the next voxel
+     */
+    public int getVoxelCount() {
+        return voxelCount;
+    }
+
+    /**
+     * @param index The voxel index
+     * @return The packed voxel
+     */
+    public int getVoxel(int index) {
+        return voxels[index];
+    }
+
+    /**
+     * The backing array; valid until the next {@link #addVoxel(int)}.
+     *
+     * @return All packed voxels
+     */
+    public int[] getVoxels() {
+        return voxels;
+    }
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    /**
+     * @param cluster The cluster index
+     * @return The start index (inclusive) of the cluster's voxels
+     */
+    public int getClusterStart(int cluster) {
+        return clusterStarts[cluster];
+    }
+
+    /**
+     * @param cluster The cluster index
+     * @return The end index (exclusive) of the cluster's voxels
+     */
+    public int getClusterEnd(int cluster) {
+        return cluster + 1 < clusterCount ? clusterStarts[cluster + 1] : (inCluster ? clusterStarts[clusterCount] : voxelCount);
+    }
+
+    public int getClusterPass(int cluster) {
+        return clusterPasses[cluster];
+    }
+
+    public float getClusterNormalX(int cluster) {
+        return clusterNormals[cluster * 3];
+    }
+
+    public float getClusterNormalY(int cluster) {
+        return clusterNormals[cluster * 3 + 1];
+    }
+
+    public float getClusterNormalZ(int cluster) {
+        return clusterNormals[cluster * 3 + 2];
+    }
+
+    /**
+     * @param cluster The cluster index
+     * @param axis 0, 1 or 2 for x, y or z
+     * @return The inclusive minimum local coordinate of the cluster's bounds. Domain: [0, 15]
+     */
+    public int getClusterMin(int cluster, int axis) {
+        return clusterBounds[cluster * 6 + axis];
+    }
+
+    /**
+     * @param cluster The cluster index
+     * @param axis 0, 1 or 2 for x, y or z
+     * @return The exclusive maximum local coordinate of the cluster's bounds. Domain: [1, 16]
+     */
+    public int getClusterMax(int cluster, int axis) {
+        return clusterBounds[cluster * 6 + 3 + axis];
+    }
+
+    /**
+     * @param cluster The cluster index
+     * @return The cosine of the normal cone half-angle; see {@link MeshletCulling#coneCutoff(float, float, float, int)}
+     */
+    public float getClusterConeCutoff(int cluster) {
+        return clusterConeCutoffs[cluster];
+    }
+}
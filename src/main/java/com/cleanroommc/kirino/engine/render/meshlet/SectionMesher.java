@@ -0,0 +1,276 @@
+package com.cleanroommc.kirino.engine.render.meshlet;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.cleanroommc.kirino.engine.render.geometry.VoxelOccupancy;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import org.joml.Vector3f;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Turns the blocks of one section into meshlet clusters of surface voxels, in three stages:
+ * <ol>
+ *     <li>{@link #buildOccupancies(ISectionBlockSource)}: one sweep over the 18x18x18 cube fills the occupancy bitsets of all passes</li>
+ *     <li>{@link #computeFaceMasks()}: exposed faces per pass</li>
+ *     <li>{@link #growRegions(MeshletOutputBuffer)}: clusters of surface voxels with similar normals</li>
+ * </ol>
+ *
+ * <p>A mesher holds scratch state only and doesn't allocate in the steady state; use one per worker thread.</p>
+ */
+public final class SectionMesher {
+    /**
+     * The number of render passes. Meshlets of all passes are generated in one go.
+     * <p><b>0</b>: opaque</p>
+     * <p><b>1</b>: transparent</p>
+     * <p><b>2</b>: cutout</p>
+     */
+    public static final int PASS_COUNT = 3;
+
+    final static int[] FACE_DIR_X = {1, -1, 0, 0, 0, 0};
+    final static int[] FACE_DIR_Y = {0, 0, 1, -1, 0, 0};
+    final static int[] FACE_DIR_Z = {0, 0, 0, 0, 1, -1};
+
+    final static int FACE_X_POS = 0b100000;
+    final static int FACE_X_NEG = 0b010000;
+    final static int FACE_Y_POS = 0b001000;
+    final static int FACE_Y_NEG = 0b000100;
+    final static int FACE_Z_POS = 0b000010;
+    final static int FACE_Z_NEG = 0b000001;
+
+    final static double MESHLET_MAX_ANGLE = 1.1f * Math.PI / 2f;
+    final static float MESHLET_MIN_NORMAL_DOT = (float) Math.cos(MESHLET_MAX_ANGLE);
+    final static int MESHLET_MAX_SIZE = 32;
+
+    /**
+     * Normalized dominant normals indexed by face mask, i.e. <code>NORMAL_TABLE[faceMask * 3 + axis]</code>.
+     * Face mask 0 maps to a zero vector.
+     */
+    final static float[] NORMAL_TABLE = new float[64 * 3];
+
+    static {
+        for (int faceMask = 1; faceMask < 64; faceMask++) {
+            Vector3f normal = dominantNormal(faceMask);
+            NORMAL_TABLE[faceMask * 3] = normal.x;
+            NORMAL_TABLE[faceMask * 3 + 1] = normal.y;
+            NORMAL_TABLE[faceMask * 3 + 2] = normal.z;
+        }
+    }
+
+    /**
+     * One occupancy bitset per pass, all filled by a single sweep over the block source.
+     */
+    private final VoxelOccupancy[] occupancies = {new VoxelOccupancy(), new VoxelOccupancy(), new VoxelOccupancy()};
+
+    /**
+     * A 16x16x16 bitset indexed by {@link Block#unpackPositionIndex(int)}.
+     */
+    private final long[] visited = new long[4096 / 64];
+
+    /**
+     * Runs all three stages.
+     *
+     * @param source The blocks of the section
+     * @param outputBuffer The buffer clusters are appended to
+     */
+    public void mesh(@NonNull ISectionBlockSource source, @NonNull MeshletOutputBuffer outputBuffer) {
+        buildOccupancies(source);
+        computeFaceMasks();
+        growRegions(outputBuffer);
+    }
+
+    /**
+     * Fills the occupancy bitsets of all passes in one sweep over the source,
+     * i.e. one entry load per voxel of the 18x18x18 cube.
+     *
+     * @param source The blocks of the section
+     */
+    public void buildOccupancies(@NonNull ISectionBlockSource source) {
+        int index = 0;
+        for (int y = -1; y <= 16; y++) {
+            for (int z = -1; z <= 16; z++) {
+                long opaqueRow = 0L;
+                long transparentRow = 0L;
+                long cutoutRow = 0L;
+                for (int bit = 0; bit < ISectionBlockSource.SIZE; bit++, index++) {
+                    int entry = source.getEntry(index);
+                    if (BlockClassificationTable.isAir(entry)) {
+                        continue;
+                    }
+                    switch (BlockClassificationTable.getPass(entry)) {
+                        case 0 -> opaqueRow |= 1L << bit;
+                        case 1 -> transparentRow |= 1L << bit;
+                        case 2 -> cutoutRow |= 1L << bit;
+                    }
+                }
+                occupancies[0].setRow(y, z, opaqueRow);
+                occupancies[1].setRow(y, z, transparentRow);
+                occupancies[2].setRow(y, z, cutoutRow);
+            }
+        }
+    }
+
+    /**
+     * Must be called after {@link #buildOccupancies(ISectionBlockSource)}.
+     */
+    public void computeFaceMasks() {
+        for (VoxelOccupancy occupancy : occupancies) {
+            occupancy.computeFaceMasks();
+        }
+    }
+
+    /**
+     * Must be called after {@link #computeFaceMasks()}. Passes without surface voxels are skipped.
+     *
+     * @param outputBuffer The buffer clusters are appended to
+     */
+    public void growRegions(@NonNull MeshletOutputBuffer outputBuffer) {
+        for (int pass = 0; pass < PASS_COUNT; pass++) {
+            VoxelOccupancy occupancy = occupancies[pass];
+            if (occupancy.isInnerEmpty()) {
+                continue;
+            }
+
+            Arrays.fill(visited, 0L);
+            regionGrowing(occupancy, pass, outputBuffer);
+        }
+    }
+
+    /**
+     * @param pass The render pass
+     * @return The occupancy of the pass; valid until the next {@link #buildOccupancies(ISectionBlockSource)}
+     */
+    public @NonNull VoxelOccupancy getOccupancy(int pass) {
+        return occupancies[pass];
+    }
+
+    static Vector3f dominantNormal(int faceMask) {
+        float x = 0f, y = 0f, z = 0f;
+        if ((faceMask & FACE_X_POS) != 0 && (faceMask & FACE_X_NEG) != 0) {
+            x += 2f;
+        } else {
+            if ((faceMask & FACE_X_POS) != 0) {
+                x += 1f;
+            }
+            if ((faceMask & FACE_X_NEG) != 0) {
+                x -= 1f;
+            }
+        }
+        if ((faceMask & FACE_Y_POS) != 0 && (faceMask & FACE_Y_NEG) != 0) {
+            y += 2f;
+        } else {
+            if ((faceMask & FACE_Y_POS) != 0) {
+                y += 1f;
+            }
+            if ((faceMask & FACE_Y_NEG) != 0) {
+                y -= 1f;
+            }
+        }
+        if ((faceMask & FACE_Z_POS) != 0 && (faceMask & FACE_Z_NEG) != 0) {
+            z += 2f;
+        } else {
+            if ((faceMask & FACE_Z_POS) != 0) {
+                z += 1f;
+            }
+            if ((faceMask & FACE_Z_NEG) != 0) {
+                z -= 1f;
+            }
+        }
+        return (new Vector3f(x, y, z)).normalize();
+    }
+
+    private boolean testAndSetVisited(int positionIndex) {
+        long bit = 1L << positionIndex;
+        long word = visited[positionIndex >>> 6];
+        if ((word & bit) != 0) {
+            return true;
+        }
+        visited[positionIndex >>> 6] = word | bit;
+        return false;
+    }
+
+    /**
+     * Grows clusters of surface voxels with similar normals. Clusters are written into the output buffer as ranges
+     * of packed voxels; the range itself doubles as the breadth-first queue.
+     */
+    private void regionGrowing(VoxelOccupancy occupancy, int pass, MeshletOutputBuffer outputBuffer) {
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                int surfaceRow = occupancy.getSurfaceRow(y, z);
+                while (surfaceRow != 0) {
+                    int x = Integer.numberOfTrailingZeros(surfaceRow);
+                    surfaceRow &= surfaceRow - 1;
+
+                    int seed = Block.pack(x, y, z, occupancy.getFaceMask(x, y, z));
+                    if (testAndSetVisited(Block.unpackPositionIndex(seed))) {
+                        continue;
+                    }
+
+                    outputBuffer.beginCluster(pass);
+                    int clusterStart = outputBuffer.getVoxelCount();
+                    outputBuffer.addVoxel(seed);
+
+                    int seedFaceMask = Block.unpackFaceMask(seed);
+                    float normalX = NORMAL_TABLE[seedFaceMask * 3];
+                    float normalY = NORMAL_TABLE[seedFaceMask * 3 + 1];
+                    float normalZ = NORMAL_TABLE[seedFaceMask * 3 + 2];
+
+                    for (int head = clusterStart; head < outputBuffer.getVoxelCount(); head++) {
+                        int voxel = outputBuffer.getVoxel(head);
+                        int vx = Block.unpackX(voxel);
+                        int vy = Block.unpackY(voxel);
+                        int vz = Block.unpackZ(voxel);
+
+                        for (int dir = 0; dir < 6; dir++) {
+                            int nx = vx + FACE_DIR_X[dir];
+                            int ny = vy + FACE_DIR_Y[dir];
+                            int nz = vz + FACE_DIR_Z[dir];
+                            // ignore if it's out of the bounds
+                            if (nx == -1 || nx == 16 || ny == -1 || ny == 16 || nz == -1 || nz == 16) {
+                                continue;
+                            }
+                            int positionIndex = (nz << 8) | (ny << 4) | nx;
+                            if ((visited[positionIndex >>> 6] & (1L << positionIndex)) != 0) {
+                                continue;
+                            }
+                            int neighborFaceMask = occupancy.getFaceMask(nx, ny, nz);
+                            // ignore if it's not the surface
+                            if (neighborFaceMask == 0) {
+                                continue;
+                            }
+
+                            float voxelNormalX = NORMAL_TABLE[neighborFaceMask * 3];
+                            float voxelNormalY = NORMAL_TABLE[neighborFaceMask * 3 + 1];
+                            float voxelNormalZ = NORMAL_TABLE[neighborFaceMask * 3 + 2];
+
+                            if (normalX * voxelNormalX + normalY * voxelNormalY + normalZ * voxelNormalZ < MESHLET_MIN_NORMAL_DOT) {
+                                continue;
+                            }
+                            int clusterSize = outputBuffer.getVoxelCount() - clusterStart;
+                            if (clusterSize >= MESHLET_MAX_SIZE) {
+                                continue;
+                            }
+
+                            outputBuffer.addVoxel(Block.pack(nx, ny, nz, neighborFaceMask));
+                            testAndSetVisited(positionIndex);
+
+                            // running average of the normals
+                            float n = clusterSize + 1;
+                            float oldWeight = (n - 1f) / n;
+                            float newWeight = 1f / n;
+                            normalX = normalX * oldWeight + voxelNormalX * newWeight;
+                            normalY = normalY * oldWeight + voxelNormalY * newWeight;
+                            normalZ = normalZ * oldWeight + voxelNormalZ * newWeight;
+                            float invLength = 1f / (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+                            normalX *= invLength;
+                            normalY *= invLength;
+                            normalZ *= invLength;
+                        }
+                    }
+
+                    outputBuffer.endCluster(normalX, normalY, normalZ);
+                }
+            }
+        }
+    }
+}
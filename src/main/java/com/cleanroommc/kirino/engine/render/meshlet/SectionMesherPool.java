@@ -0,0 +1,39 @@
+package com.cleanroommc.kirino.engine.render.meshlet;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * One {@link SectionMesher} per thread ordinal, kept across executions, so meshing jobs never allocate meshers and
+ * their scratch state stays warm.
+ */
+public final class SectionMesherPool {
+    private volatile SectionMesher[] meshers = new SectionMesher[0];
+
+    /**
+     * Thread safety is guaranteed, but a mesher itself must only be used by its own thread ordinal.
+     *
+     * @param threadOrdinal The thread ordinal of the calling job
+     * @return The mesher of the thread ordinal
+     */
+    public @NonNull SectionMesher get(int threadOrdinal) {
+        SectionMesher[] meshers = this.meshers;
+        if (threadOrdinal < meshers.length) {
+            return meshers[threadOrdinal];
+        }
+
+        synchronized (this) {
+            meshers = this.meshers;
+            if (threadOrdinal >= meshers.length) {
+                SectionMesher[] newMeshers = Arrays.copyOf(meshers, threadOrdinal + 1);
+                for (int i = meshers.length; i < newMeshers.length; i++) {
+                    newMeshers[i] = new SectionMesher();
+                }
+                this.meshers = newMeshers;
+                meshers = newMeshers;
+            }
+            return meshers[threadOrdinal];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.cleanroommc.kirino.engine.render.minecraft.chunk;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Picks the dirty sections to mesh this frame from a histogram of dirty sections per priority bucket.
+ *
+ * <p>Buckets are drained in ascending order, so nearer sections always finish first. Every bucket below
+ * the {@link #getBoundaryBucket() boundary bucket} is meshed entirely, and at most {@link #getBoundaryBudget()}
+ * sections of the boundary bucket itself. Everything else stays dirty and is carried over to later frames.</p>
+ */
+public final class ChunkMeshingBudget {
+    private int boundaryBucket = -1;
+    private int boundaryBudget = 0;
+    private int plannedSections = 0;
+
+    /**
+     * Predicts how many sections fit into the frame budget. Snapshots are captured on the client thread one by one,
+     * while meshing is spread over the worker threads.
+     *
+     * @param budgetNanos The per-frame budget
+     * @param snapshotNanosPerSection The predicted single-threaded snapshot cost of a section
+     * @param meshNanosPerSection The predicted single-threaded meshing cost of a section
+     * @param parallelism The number of meshing threads
+     * @return The number of sections (at least 1, so meshing always makes progress)
+     */
+    public static int sectionBudget(double budgetNanos, double snapshotNanosPerSection, double meshNanosPerSection, int parallelism) {
+        Preconditions.checkArgument(parallelism >= 1, "Argument \"parallelism\" must be greater than or equal to 1.");
+
+        double nanosPerSection = snapshotNanosPerSection + meshNanosPerSection / parallelism;
+        if (!(nanosPerSection > 0d)) {
+            return 1;
+        }
+        return (int) Math.max(1d, Math.min(Integer.MAX_VALUE, budgetNanos / nanosPerSection));
+    }
+
+    /**
+     * @param histogram The number of dirty sections per priority bucket
+     * @param sectionBudget The max number of sections to mesh
+     */
+    public void plan(int[] histogram, int sectionBudget) {
+        Preconditions.checkArgument(sectionBudget >= 0, "Argument \"sectionBudget\" must be non-negative.");
+
+        boundaryBucket = -1;
+        boundaryBudget = 0;
+        plannedSections = 0;
+
+        for (int bucket = 0; bucket < histogram.length && plannedSections < sectionBudget; bucket++) {
+            int count = histogram[bucket];
+            if (count == 0) {
+                continue;
+            }
+
+            boundaryBucket = bucket;
+            boundaryBudget = Math.min(count, sectionBudget - plannedSections);
+            plannedSections += boundaryBudget;
+        }
+    }
+
+    /**
+     * @return Whether there is anything to mesh this frame
+     */
+    public boolean hasWork() {
+        return plannedSections > 0;
+    }
+
+    /**
+     * @return The last bucket to mesh this frame, or -1 if there is none
+     */
+    public int getBoundaryBucket() {
+        return boundaryBucket;
+    }
+
+    /**
+     * @return The max number of sections of the boundary bucket to mesh this frame
+     */
+    public int getBoundaryBudget() {
+        return boundaryBudget;
+    }
+
+    /**
+     * @return The number of sections planned for this frame
+     */
+    public int getPlannedSections() {
+        return plannedSections;
+    }
+}
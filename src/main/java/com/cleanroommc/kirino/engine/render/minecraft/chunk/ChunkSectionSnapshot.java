@@ -0,0 +1,288 @@
+package com.cleanroommc.kirino.engine.render.minecraft.chunk;
+
+import com.cleanroommc.kirino.engine.render.meshlet.ISectionBlockSource;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An immutable-after-capture copy of a 16x16x16 chunk section plus a one-block border taken from its neighbors,
+ * stored as a palette and an 18x18x18 <code>short[]</code> of palette indexes.
+ *
+ * <p>Snapshots are captured on the client thread and then read by meshing jobs on worker threads,
+ * so workers never touch live chunks. Instances are pooled and reused, see {@link ChunkSectionSnapshotStore}.</p>
+ *
+ * <p>Local coordinates range over [-1, 16]. The voxel (x, y, z) is at index
+ * <code>((y + 1) * 18 + (z + 1)) * 18 + (x + 1)</code>, i.e. x is the fastest-varying axis.
+ * Edges and corners of the 18x18x18 cube, blocks outside the world and blocks of missing sections are air.</p>
+ */
+public final class ChunkSectionSnapshot implements ISectionBlockSource {
+    // the center plus its six face borders; edges and corners never hide a face
+    private static final int FACE_CONNECTED_VOLUME = 16 * 16 * 16 + 6 * 16 * 16;
+
+    // linear palette lookup up to this size; an identity map beyond
+    private static final int LINEAR_PALETTE_LIMIT = 32;
+
+    private final short[] blocks = new short[VOLUME];
+    private IBlockState[] paletteStates = new IBlockState[16];
+    private int[] paletteEntries = new int[16];
+    private int paletteSize = 0;
+
+    // capture-only state
+    private final Map<IBlockState, Integer> paletteLookup = new IdentityHashMap<>();
+    private IBlockState lastState = null;
+    private int lastPaletteIndex = 0;
+    private BlockClassificationTable classificationTable = null;
+
+    private int chunkX;
+    private int chunkY;
+    private int chunkZ;
+    private boolean centerEmpty;
+    private int solidCount;
+
+    public static int index(int x, int y, int z) {
+        return ((y + 1) * SIZE + (z + 1)) * SIZE + (x + 1);
+    }
+
+    /**
+     * A cheap test that doesn't need a capture. Must be called on the client thread.
+     *
+     * @param chunk The chunk
+     * @param sectionY The section y-coordinate
+     * @return Whether the section has any non-air block
+     */
+    public static boolean hasBlocks(@NonNull Chunk chunk, int sectionY) {
+        return getSection(chunk, sectionY) != null;
+    }
+
+    private static @Nullable ExtendedBlockStorage getSection(Chunk chunk, int sectionY) {
+        ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+        if (sectionY < 0 || sectionY >= storageArray.length) {
+            return null;
+        }
+        ExtendedBlockStorage storage = storageArray[sectionY];
+        if (storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty()) {
+            return null;
+        }
+        return storage;
+    }
+
+    private int paletteIndexOf(IBlockState blockState) {
+        if (blockState == lastState) {
+            return lastPaletteIndex;
+        }
+
+        int paletteIndex = -1;
+        if (paletteSize <= LINEAR_PALETTE_LIMIT) {
+            for (int i = 0; i < paletteSize; i++) {
+                if (paletteStates[i] == blockState) {
+                    paletteIndex = i;
+                    break;
+                }
+            }
+        } else {
+            Integer boxed = paletteLookup.get(blockState);
+            if (boxed != null) {
+                paletteIndex = boxed;
+            }
+        }
+
+        if (paletteIndex == -1) {
+            if (paletteSize == paletteStates.length) {
+                paletteStates = Arrays.copyOf(paletteStates, paletteSize * 2);
+                paletteEntries = Arrays.copyOf(paletteEntries, paletteSize * 2);
+            }
+            paletteIndex = paletteSize++;
+            paletteStates[paletteIndex] = blockState;
+            paletteEntries[paletteIndex] = classificationTable.getEntry(blockState);
+            if (paletteSize > LINEAR_PALETTE_LIMIT) {
+                if (paletteLookup.isEmpty()) {
+                    for (int i = 0; i < paletteSize; i++) {
+                        paletteLookup.put(paletteStates[i], i);
+                    }
+                } else {
+                    paletteLookup.put(blockState, paletteIndex);
+                }
+            }
+        }
+
+        lastState = blockState;
+        lastPaletteIndex = paletteIndex;
+        return paletteIndex;
+    }
+
+    private void put(int x, int y, int z, IBlockState blockState) {
+        int paletteIndex = paletteIndexOf(blockState);
+        blocks[index(x, y, z)] = (short) paletteIndex;
+        int entry = paletteEntries[paletteIndex];
+        if (!BlockClassificationTable.isAir(entry) && BlockClassificationTable.getPass(entry) == 0) {
+            solidCount++;
+        }
+    }
+
+    /**
+     * Copies the section and its border. Must be called on the client thread.
+     *
+     * @param chunkX The chunk x-coordinate
+     * @param chunkY The section y-coordinate
+     * @param chunkZ The chunk z-coordinate
+     * @param center The chunk containing this section
+     * @param xPlus The chunk at <code>chunkX + 1</code>
+     * @param xMinus The chunk at <code>chunkX - 1</code>
+     * @param zPlus The chunk at <code>chunkZ + 1</code>
+     * @param zMinus The chunk at <code>chunkZ - 1</code>
+     * @param classificationTable The classification table used to fill palette entries
+     */
+    public void capture(
+            int chunkX, int chunkY, int chunkZ,
+            @NonNull Chunk center,
+            @NonNull Chunk xPlus,
+            @NonNull Chunk xMinus,
+            @NonNull Chunk zPlus,
+            @NonNull Chunk zMinus,
+            @NonNull BlockClassificationTable classificationTable) {
+
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.chunkZ = chunkZ;
+        this.classificationTable = classificationTable;
+
+        // palette index 0 is always air
+        Arrays.fill(blocks, (short) 0);
+        Arrays.fill(paletteStates, 0, paletteSize, null);
+        paletteLookup.clear();
+        paletteSize = 0;
+        lastState = null;
+        solidCount = 0;
+        paletteIndexOf(Blocks.AIR.getDefaultState());
+
+        ExtendedBlockStorage centerSection = getSection(center, chunkY);
+        centerEmpty = centerSection == null;
+        if (centerSection != null) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        put(x, y, z, centerSection.get(x, y, z));
+                    }
+                }
+            }
+        }
+
+        ExtendedBlockStorage below = getSection(center, chunkY - 1);
+        ExtendedBlockStorage above = getSection(center, chunkY + 1);
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                if (below != null) {
+                    put(x, -1, z, below.get(x, 15, z));
+                }
+                if (above != null) {
+                    put(x, 16, z, above.get(x, 0, z));
+                }
+            }
+        }
+
+        ExtendedBlockStorage xMinusSection = getSection(xMinus, chunkY);
+        ExtendedBlockStorage xPlusSection = getSection(xPlus, chunkY);
+        ExtendedBlockStorage zMinusSection = getSection(zMinus, chunkY);
+        ExtendedBlockStorage zPlusSection = getSection(zPlus, chunkY);
+        for (int y = 0; y < 16; y++) {
+            for (int i = 0; i < 16; i++) {
+                if (xMinusSection != null) {
+                    put(-1, y, i, xMinusSection.get(15, y, i));
+                }
+                if (xPlusSection != null) {
+                    put(16, y, i, xPlusSection.get(0, y, i));
+                }
+                if (zMinusSection != null) {
+                    put(i, y, -1, zMinusSection.get(i, y, 15));
+                }
+                if (zPlusSection != null) {
+                    put(i, y, 16, zPlusSection.get(i, y, 0));
+                }
+            }
+        }
+
+        this.classificationTable = null;
+        lastState = null;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * @return Whether the center section has no block storage at all, i.e. it is all air
+     */
+    public boolean isCenterEmpty() {
+        return centerEmpty;
+    }
+
+    /**
+     * Whether the center and all its face-adjacent border voxels are non-air blocks of the opaque pass, in which case
+     * every face of every pass is hidden and meshing yields nothing.
+     *
+     * @return Whether the section is fully buried
+     */
+    public boolean isBuried() {
+        return solidCount == FACE_CONNECTED_VOLUME;
+    }
+
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+
+    /**
+     * @param paletteIndex The palette index
+     * @return The packed {@link BlockClassificationTable} entry
+     */
+    public int getPaletteEntry(int paletteIndex) {
+        return paletteEntries[paletteIndex];
+    }
+
+    public @NonNull IBlockState getPaletteState(int paletteIndex) {
+        return paletteStates[paletteIndex];
+    }
+
+    /**
+     * @param index The voxel index, see {@link #index(int, int, int)}
+     * @return The palette index
+     */
+    public int getPaletteIndex(int index) {
+        return blocks[index];
+    }
+
+    /**
+     * @param index The voxel index, see {@link #index(int, int, int)}
+     * @return The packed {@link BlockClassificationTable} entry
+     */
+    @Override
+    public int getEntry(int index) {
+        return paletteEntries[blocks[index]];
+    }
+
+    /**
+     * @param x Local x-coordinate. Domain: [-1, 16]
+     * @param y Local y-coordinate. Domain: [-1, 16]
+     * @param z Local z-coordinate. Domain: [-1, 16]
+     * @return The blockstate
+     */
+    public @NonNull IBlockState getBlockState(int x, int y, int z) {
+        return paletteStates[blocks[index(x, y, z)]];
+    }
+}
@@ -0,0 +1,80 @@
+package com.cleanroommc.kirino.engine.render.minecraft.chunk;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hands {@link ChunkSectionSnapshot}s from the client thread over to meshing workers.
+ *
+ * <p>The client thread {@link #acquire()}s and {@link #publish(ChunkSectionSnapshot) publishes} snapshots,
+ * then workers {@link #take(long) take} and {@link #release(ChunkSectionSnapshot) release} them.
+ * Released snapshots are reused, so capturing doesn't allocate in the steady state.</p>
+ */
+public final class ChunkSectionSnapshotStore {
+    private final Map<Long, ChunkSectionSnapshot> published = new ConcurrentHashMap<>();
+    private final Queue<ChunkSectionSnapshot> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @return A pooled or new snapshot
+     */
+    public @NonNull ChunkSectionSnapshot acquire() {
+        ChunkSectionSnapshot snapshot = pool.poll();
+        return snapshot == null ? new ChunkSectionSnapshot() : snapshot;
+    }
+
+    /**
+     * Publishes a captured snapshot under its section key. An older snapshot of the same section is released.
+     *
+     * @param snapshot The captured snapshot
+     */
+    public void publish(@NonNull ChunkSectionSnapshot snapshot) {
+        ChunkSectionSnapshot old = published.put(SectionKey.pack(snapshot.getChunkX(), snapshot.getChunkY(), snapshot.getChunkZ()), snapshot);
+        if (old != null && old != snapshot) {
+            release(old);
+        }
+    }
+
+    /**
+     * @param sectionKey The section key, see {@link SectionKey}
+     * @return The published snapshot or null if there is none
+     */
+    public @Nullable ChunkSectionSnapshot take(long sectionKey) {
+        return published.remove(sectionKey);
+    }
+
+    /**
+     * @param sectionKey The section key, see {@link SectionKey}
+     * @return Whether a snapshot is published and not taken yet
+     */
+    public boolean contains(long sectionKey) {
+        return published.containsKey(sectionKey);
+    }
+
+    public void release(@NonNull ChunkSectionSnapshot snapshot) {
+        pool.offer(snapshot);
+    }
+
+    /**
+     * Releases every snapshot that hasn't been taken, e.g. because its section was unloaded.
+     */
+    public void releaseAll() {
+        for (Long key : published.keySet()) {
+            ChunkSectionSnapshot snapshot = published.remove(key);
+            if (snapshot != null) {
+                release(snapshot);
+            }
+        }
+    }
+
+    /**
+     * @return The number of published snapshots
+     */
+    public int size() {
+        return published.size();
+    }
+}
@@ -0,0 +1,34 @@
+package com.cleanroommc.kirino.engine.render.minecraft.chunk;
+
+/**
+ * Packs section coordinates (i.e. chunk x, section y and chunk z) into a single long.
+ *
+ * <p>x and z take 26 bits each and y takes 12 bits, so any section of a vanilla world fits.</p>
+ */
+public final class SectionKey {
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1L;
+    private static final long Y_MASK = (1L << Y_BITS) - 1L;
+    private static final int X_SHIFT = Y_BITS + XZ_BITS;
+    private static final int Z_SHIFT = Y_BITS;
+
+    private SectionKey() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+
+    public static int getX(long key) {
+        return (int) (key << (64 - X_SHIFT - XZ_BITS) >> (64 - XZ_BITS));
+    }
+
+    public static int getY(long key) {
+        return (int) (key << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public static int getZ(long key) {
+        return (int) (key << (64 - Z_SHIFT - XZ_BITS) >> (64 - XZ_BITS));
+    }
+}
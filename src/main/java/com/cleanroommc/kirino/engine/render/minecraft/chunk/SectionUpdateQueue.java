@@ -0,0 +1,113 @@
+package com.cleanroommc.kirino.engine.render.minecraft.chunk;
+
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Routes block updates to the sections whose meshes they affect and coalesces them until the next {@link #drain()}.
+ *
+ * <p>Any change of the block state id dirties the section containing the block, since its mesh is built from the
+ * states themselves, e.g. stone to dirt changes the texture but not the classification. Neighbors only read the border
+ * through the render classification (see {@link BlockClassificationTable}), so a face-adjacent section is only dirtied
+ * if the block sits on the shared border and its classification changes. Thus redstone wire power levels, repeater
+ * delays, lamps toggling and alike never re-mesh neighboring sections.</p>
+ *
+ * <p>Notice: not thread-safe. Block updates and draining both happen on the client thread.</p>
+ */
+public final class SectionUpdateQueue {
+    // primitive sets, so neither routing nor the per-row lookups of ChunkDirtyMarkingJob box the keys
+    private LongSet pending = new LongOpenHashSet();
+    private LongSet spare = new LongOpenHashSet();
+
+    /**
+     * @param x World x-coordinate
+     * @param y World y-coordinate
+     * @param z World z-coordinate
+     * @param oldState The old blockstate
+     * @param newState The new blockstate
+     * @param classificationTable The classification table
+     * @return Whether any section was dirtied
+     */
+    public boolean onBlockUpdate(int x, int y, int z, @NonNull IBlockState oldState, @NonNull IBlockState newState, @NonNull BlockClassificationTable classificationTable) {
+        int oldStateID = Block.getStateId(oldState);
+        int newStateID = Block.getStateId(newState);
+        if (oldStateID == newStateID) {
+            // saves the table lookups
+            return false;
+        }
+
+        return onBlockUpdate(x, y, z, oldStateID, newStateID, classificationTable.getEntry(oldState), classificationTable.getEntry(newState));
+    }
+
+    /**
+     * @param x World x-coordinate
+     * @param y World y-coordinate
+     * @param z World z-coordinate
+     * @param oldStateID The old blockstate id, see {@link Block#getStateId(IBlockState)}
+     * @param newStateID The new blockstate id
+     * @param oldEntry The {@link BlockClassificationTable} entry of the old blockstate
+     * @param newEntry The {@link BlockClassificationTable} entry of the new blockstate
+     * @return Whether any section was dirtied
+     */
+    public boolean onBlockUpdate(int x, int y, int z, int oldStateID, int newStateID, int oldEntry, int newEntry) {
+        if (y < 0 || y > 255) {
+            return false;
+        }
+        if (oldStateID == newStateID) {
+            return false;
+        }
+
+        int sectionX = x >> 4;
+        int sectionY = y >> 4;
+        int sectionZ = z >> 4;
+        int localX = x & 15;
+        int localY = y & 15;
+        int localZ = z & 15;
+
+        pending.add(SectionKey.pack(sectionX, sectionY, sectionZ));
+
+        if (oldEntry == newEntry) {
+            return true;
+        }
+
+        // border blocks are part of the neighbor snapshots as well
+        if (localX == 0) {
+            pending.add(SectionKey.pack(sectionX - 1, sectionY, sectionZ));
+        } else if (localX == 15) {
+            pending.add(SectionKey.pack(sectionX + 1, sectionY, sectionZ));
+        }
+        if (localY == 0 && sectionY > 0) {
+            pending.add(SectionKey.pack(sectionX, sectionY - 1, sectionZ));
+        } else if (localY == 15 && sectionY < 15) {
+            pending.add(SectionKey.pack(sectionX, sectionY + 1, sectionZ));
+        }
+        if (localZ == 0) {
+            pending.add(SectionKey.pack(sectionX, sectionY, sectionZ - 1));
+        } else if (localZ == 15) {
+            pending.add(SectionKey.pack(sectionX, sectionY, sectionZ + 1));
+        }
+
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * The returned set stays valid until the next call to this method.
+     *
+     * @return The keys of all sections dirtied since the last drain, see {@link SectionKey}
+     */
+    public @NonNull LongSet drain() {
+        LongSet drained = pending;
+        spare.clear();
+        pending = spare;
+        spare = drained;
+        return drained;
+    }
+}
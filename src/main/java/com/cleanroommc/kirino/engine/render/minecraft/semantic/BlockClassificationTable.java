@@ -0,0 +1,168 @@
+package com.cleanroommc.kirino.engine.render.minecraft.semantic;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A dense table of per-blockstate render classifications indexed by {@link Block#BLOCK_STATE_IDS} id.
+ *
+ * <p>Every entry is packed into a byte:</p>
+ * <table>
+ *     <tr><th>bits</th><th>content</th></tr>
+ *     <tr><td>0-1</td><td>{@link BlockRenderingType} ordinal</td></tr>
+ *     <tr><td>2-4</td><td>{@link BlockModelType} ordinal</td></tr>
+ *     <tr><td>5</td><td>{@link #FLAG_FULL_CUBE}</td></tr>
+ *     <tr><td>6</td><td>{@link #FLAG_OPAQUE}</td></tr>
+ *     <tr><td>7</td><td>{@link #FLAG_AIR}</td></tr>
+ * </table>
+ *
+ * <p>Note: {@link BlockRenderingType} ordinals equal render pass numbers.</p>
+ *
+ * @see BlockUnifier#getClassificationTable()
+ */
+public final class BlockClassificationTable {
+    private static final int RENDERING_TYPE_MASK = 0b11;
+    private static final int MODEL_TYPE_SHIFT = 2;
+    private static final int MODEL_TYPE_MASK = 0b111;
+
+    public static final int FLAG_FULL_CUBE = 1 << 5;
+    public static final int FLAG_OPAQUE = 1 << 6;
+    public static final int FLAG_AIR = 1 << 7;
+
+    /**
+     * The entry of air.
+     */
+    public static final int AIR_ENTRY = FLAG_AIR
+            | BlockRenderingType.OPAQUE.ordinal()
+            | (BlockModelType.INVISIBLE.ordinal() << MODEL_TYPE_SHIFT);
+
+    private static final BlockRenderingType[] RENDERING_TYPES = BlockRenderingType.values();
+    private static final BlockModelType[] MODEL_TYPES = BlockModelType.values();
+
+    private final byte[] entries;
+
+    private BlockClassificationTable(byte[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Must be called after the block registry is frozen.
+     *
+     * @return A table of all blockstates in {@link Block#BLOCK_STATE_IDS}
+     */
+    public static @NonNull BlockClassificationTable build() {
+        int maxID = -1;
+        for (IBlockState blockState : Block.BLOCK_STATE_IDS) {
+            maxID = Math.max(maxID, Block.BLOCK_STATE_IDS.get(blockState));
+        }
+
+        byte[] entries = new byte[maxID + 1];
+        // unregistered ids stay air
+        Arrays.fill(entries, (byte) AIR_ENTRY);
+        for (IBlockState blockState : Block.BLOCK_STATE_IDS) {
+            entries[Block.BLOCK_STATE_IDS.get(blockState)] = (byte) classify(blockState);
+        }
+
+        return new BlockClassificationTable(entries);
+    }
+
+    /**
+     * The slow path, i.e. the virtual calls this table saves.
+     *
+     * @param blockState The blockstate
+     * @return The packed entry
+     */
+    public static int classify(@NonNull IBlockState blockState) {
+        if (blockState.getMaterial() == Material.AIR) {
+            return AIR_ENTRY;
+        }
+
+        return pack(
+                BlockUnifier.getBlockRenderingType(blockState),
+                BlockUnifier.getBlockModelType(blockState),
+                blockState.isFullCube(),
+                blockState.isOpaqueCube());
+    }
+
+    /**
+     * @param renderingType The rendering type
+     * @param modelType The model type
+     * @param fullCube Whether the block is a full cube
+     * @param opaque Whether the block is an opaque cube
+     * @return The packed entry of a non-air block
+     */
+    public static int pack(@NonNull BlockRenderingType renderingType, @NonNull BlockModelType modelType, boolean fullCube, boolean opaque) {
+        int entry = renderingType.ordinal() | (modelType.ordinal() << MODEL_TYPE_SHIFT);
+        if (fullCube) {
+            entry |= FLAG_FULL_CUBE;
+        }
+        if (opaque) {
+            entry |= FLAG_OPAQUE;
+        }
+        return entry;
+    }
+
+    /**
+     * @return The number of ids covered by this table
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * @param stateID A {@link Block#BLOCK_STATE_IDS} id
+     * @return The packed entry; ids out of range are treated as air
+     */
+    public int getEntry(int stateID) {
+        if (stateID < 0 || stateID >= entries.length) {
+            return AIR_ENTRY;
+        }
+        return entries[stateID] & 0xFF;
+    }
+
+    /**
+     * Blockstates missing from the table (i.e. registered after it was built) fall back to {@link #classify(IBlockState)}.
+     *
+     * @param blockState The blockstate
+     * @return The packed entry
+     */
+    public int getEntry(@NonNull IBlockState blockState) {
+        int stateID = Block.BLOCK_STATE_IDS.get(blockState);
+        if (stateID < 0 || stateID >= entries.length) {
+            return classify(blockState);
+        }
+        return entries[stateID] & 0xFF;
+    }
+
+    public static boolean isAir(int entry) {
+        return (entry & FLAG_AIR) != 0;
+    }
+
+    public static boolean isFullCube(int entry) {
+        return (entry & FLAG_FULL_CUBE) != 0;
+    }
+
+    public static boolean isOpaque(int entry) {
+        return (entry & FLAG_OPAQUE) != 0;
+    }
+
+    /**
+     * @param entry The packed entry
+     * @return The render pass number, i.e. the {@link BlockRenderingType} ordinal
+     */
+    public static int getPass(int entry) {
+        return entry & RENDERING_TYPE_MASK;
+    }
+
+    public static @NonNull BlockRenderingType getRenderingType(int entry) {
+        return RENDERING_TYPES[entry & RENDERING_TYPE_MASK];
+    }
+
+    public static @NonNull BlockModelType getModelType(int entry) {
+        return MODEL_TYPES[(entry >>> MODEL_TYPE_SHIFT) & MODEL_TYPE_MASK];
+    }
+}
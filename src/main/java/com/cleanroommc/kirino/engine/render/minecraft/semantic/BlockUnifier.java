@@ -1,13 +1,34 @@
 package com.cleanroommc.kirino.engine.render.minecraft.semantic;
 
+import com.google.common.base.Preconditions;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumBlockRenderType;
 
 public final class BlockUnifier {
+    private static volatile BlockClassificationTable classificationTable = null;
+
     private BlockUnifier() {
     }
 
+    /**
+     * Rebuilds the classification table. Must be called after the block registry is frozen,
+     * and again whenever resources are reloaded.
+     */
+    public static void rebuildClassificationTable() {
+        classificationTable = BlockClassificationTable.build();
+    }
+
+    /**
+     * @return The current classification table
+     * @see #rebuildClassificationTable()
+     */
+    public static BlockClassificationTable getClassificationTable() {
+        BlockClassificationTable table = classificationTable;
+        Preconditions.checkState(table != null, "The block classification table hasn't been built yet.");
+        return table;
+    }
+
     public static BlockModelType getBlockModelType(IBlockState blockState) {
         if (blockState.isFullBlock()) {
             return BlockModelType.FULL_BLOCK;
@@ -7,36 +7,57 @@ import com.cleanroommc.kirino.ecs.entity.EntityManager;
 import com.cleanroommc.kirino.ecs.entity.IEntityDestroyCallback;
 import com.cleanroommc.kirino.ecs.job.JobScheduler;
 import com.cleanroommc.kirino.ecs.world.CleanWorld;
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
 import com.cleanroommc.kirino.engine.render.camera.MinecraftCamera;
 import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
 import com.cleanroommc.kirino.engine.render.gizmos.GizmosManager;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletManager;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshot;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionUpdateQueue;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockUnifier;
+import com.cleanroommc.kirino.engine.render.task.system.ChunkDirtyMarkingSystem;
 import com.cleanroommc.kirino.engine.render.task.system.ChunkMeshletGenSystem;
 import com.cleanroommc.kirino.engine.render.task.system.ChunkPrioritizationSystem;
+import com.cleanroommc.kirino.engine.render.task.system.MeshletCullingSystem;
+import com.cleanroommc.kirino.engine.render.task.system.MeshletLodSelectionSystem;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ChunkProviderClient;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.Chunk;
 import org.apache.commons.lang3.time.StopWatch;
 import org.jspecify.annotations.NonNull;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class MinecraftScene extends CleanWorld {
-    private final GizmosManager gizmosManager;
     private final MinecraftCamera camera;
+    private final MeshletManager meshletManager;
 
     public MinecraftScene(EntityManager entityManager, JobScheduler jobScheduler, GizmosManager gizmosManager, MinecraftCamera camera) {
         super(entityManager, jobScheduler);
-        this.gizmosManager = gizmosManager;
         this.camera = camera;
+        meshletManager = new MeshletManager(entityManager, gizmosManager);
+        chunkDestroyCallback = new ChunkDestroyCallback(meshletManager);
     }
 
     static class ChunkDestroyCallback implements IEntityDestroyCallback {
+        private final MeshletManager meshletManager;
+
+        ChunkDestroyCallback(MeshletManager meshletManager) {
+            this.meshletManager = meshletManager;
+        }
+
         @Override
         public void beforeDestroy(@NonNull EntityDestroyContext destroyContext) {
             ChunkComponent chunkComponent = (ChunkComponent) destroyContext.getComponent(ChunkComponent.class);
             //KirinoCore.LOGGER.info("chunk destroyed: " + chunkComponent.chunkPosX + ", " + chunkComponent.chunkPosY + ", " + chunkComponent.chunkPosZ);
+            // entities can't be destroyed during a flush; the meshlets go at the next meshlet manager flush
+            meshletManager.removeSection(chunkComponent.chunkPosX, chunkComponent.chunkPosY, chunkComponent.chunkPosZ);
         }
     }
 
@@ -44,8 +65,10 @@ public class MinecraftScene extends CleanWorld {
     }
 
     private final Map<ChunkPosKey, CleanEntityHandle> chunkHandles = new HashMap<>();
+    // the load callback fires before the chunk data arrives, so entities are created at the next update
+    private final Set<Long> pendingChunkLoads = new HashSet<>();
 
-    private static final ChunkDestroyCallback CHUNK_DESTROY_CALLBACK = new ChunkDestroyCallback();
+    private final ChunkDestroyCallback chunkDestroyCallback;
 
     private boolean rebuildWorld = false;
     private ChunkProviderClient chunkProvider = null;
@@ -54,16 +77,9 @@ public class MinecraftScene extends CleanWorld {
         if (this.chunkProvider != chunkProvider) {
             rebuildWorld = true;
             this.chunkProvider = chunkProvider;
-            this.chunkProvider.loadChunkCallback = (x, z) -> {
-                for (int i = 0; i < 16; i++) {
-                    ChunkComponent chunkComponent = new ChunkComponent();
-                    chunkComponent.chunkPosX = x;
-                    chunkComponent.chunkPosY = i;
-                    chunkComponent.chunkPosZ = z;
-                    chunkHandles.put(new ChunkPosKey(x, i, z), entityManager.createEntity(CHUNK_DESTROY_CALLBACK, chunkComponent));
-                }
-            };
+            this.chunkProvider.loadChunkCallback = (x, z) -> pendingChunkLoads.add(ChunkPos.asLong(x, z));
             this.chunkProvider.unloadChunkCallback = (x, z) -> {
+                pendingChunkLoads.remove(ChunkPos.asLong(x, z));
                 for (int i = 0; i < 16; i++) {
                     ChunkPosKey key = new ChunkPosKey(x, i, z);
                     CleanEntityHandle handle = chunkHandles.get(key);
@@ -77,15 +93,33 @@ public class MinecraftScene extends CleanWorld {
         }
     }
 
+    private void createChunkEntities(Chunk chunk) {
+        for (int i = 0; i < 16; i++) {
+            ChunkComponent chunkComponent = new ChunkComponent();
+            chunkComponent.chunkPosX = chunk.x;
+            chunkComponent.chunkPosY = i;
+            chunkComponent.chunkPosZ = chunk.z;
+            chunkComponent.isEmpty = !ChunkSectionSnapshot.hasBlocks(chunk, i);
+            chunkHandles.put(new ChunkPosKey(chunk.x, i, chunk.z), entityManager.createEntity(chunkDestroyCallback, chunkComponent));
+        }
+    }
+
+    private final SectionUpdateQueue sectionUpdateQueue = new SectionUpdateQueue();
+
     public void notifyBlockUpdate(int x, int y, int z, IBlockState oldState, IBlockState newState) {
+        // coalesced until the next update
+        sectionUpdateQueue.onBlockUpdate(x, y, z, oldState, newState, BlockUnifier.getClassificationTable());
     }
 
     public void notifyLightUpdate(int x, int y, int z) {
     }
 
     // temp
+    ChunkDirtyMarkingSystem chunkDirtyMarkingSystem = null;
     ChunkPrioritizationSystem chunkPrioritizationSystem = null;
     ChunkMeshletGenSystem chunkMeshletGenSystem = null;
+    MeshletCullingSystem meshletCullingSystem = null;
+    MeshletLodSelectionSystem meshletLodSelectionSystem = null;
 
     @Override
     public void update() {
@@ -95,30 +129,55 @@ public class MinecraftScene extends CleanWorld {
                 handle.tryDestroy();
             }
             chunkHandles.clear();
-            for (Long chunkKey : chunkProvider.getLoadedChunks().keySet()) {
-                for (int i = 0; i < 16; i++) {
-                    ChunkComponent chunkComponent = new ChunkComponent();
-                    chunkComponent.chunkPosX = ChunkPos.getX(chunkKey);
-                    chunkComponent.chunkPosY = i;
-                    chunkComponent.chunkPosZ = ChunkPos.getZ(chunkKey);
-                    chunkHandles.put(new ChunkPosKey(chunkComponent.chunkPosX, chunkComponent.chunkPosY, chunkComponent.chunkPosZ), entityManager.createEntity(CHUNK_DESTROY_CALLBACK, chunkComponent));
-                }
+            pendingChunkLoads.clear();
+            for (Chunk chunk : chunkProvider.getLoadedChunks().values()) {
+                createChunkEntities(chunk);
             }
             // all changes are buffered and will be consumed at the end of this update
         }
+        for (Long chunkKey : pendingChunkLoads) {
+            Chunk chunk = chunkProvider.getLoadedChunk(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey));
+            if (chunk != null && !chunkHandles.containsKey(new ChunkPosKey(chunk.x, 0, chunk.z))) {
+                createChunkEntities(chunk);
+            }
+        }
+        pendingChunkLoads.clear();
+
+        // captured once per frame; jobs never read the camera themselves
+        CameraSnapshot cameraSnapshot = CameraSnapshot.capture(camera, Minecraft.getMinecraft().displayHeight);
 
         // temp
+        if (chunkMeshletGenSystem == null) {
+            chunkMeshletGenSystem = new ChunkMeshletGenSystem(chunkProvider, meshletManager);
+        }
+        // reads the front buffer, so it overlaps the marking and prioritization below
+        chunkMeshletGenSystem.beginPlanning(entityManager, jobScheduler);
+
+        if (chunkDirtyMarkingSystem == null) {
+            chunkDirtyMarkingSystem = new ChunkDirtyMarkingSystem(sectionUpdateQueue);
+        }
+        chunkDirtyMarkingSystem.update(entityManager, jobScheduler);
+
         if (chunkPrioritizationSystem == null) {
-            chunkPrioritizationSystem = new ChunkPrioritizationSystem(camera);
+            chunkPrioritizationSystem = new ChunkPrioritizationSystem();
         }
+        chunkPrioritizationSystem.setCameraSnapshot(cameraSnapshot);
         chunkPrioritizationSystem.update(entityManager, jobScheduler);
 
-        if (chunkMeshletGenSystem == null) {
-            chunkMeshletGenSystem = new ChunkMeshletGenSystem(chunkProvider, gizmosManager);
-        }
-        chunkMeshletGenSystem.setPriority(0);
         chunkMeshletGenSystem.update(entityManager, jobScheduler);
 
+        if (meshletCullingSystem == null) {
+            meshletCullingSystem = new MeshletCullingSystem();
+        }
+        meshletCullingSystem.setCameraSnapshot(cameraSnapshot);
+        meshletCullingSystem.update(entityManager, jobScheduler);
+
+        if (meshletLodSelectionSystem == null) {
+            meshletLodSelectionSystem = new MeshletLodSelectionSystem(meshletManager);
+        }
+        meshletLodSelectionSystem.setCameraSnapshot(cameraSnapshot);
+        meshletLodSelectionSystem.update(entityManager, jobScheduler);
+
         super.update();
     }
 }
@@ -20,6 +20,21 @@ public class ShaderRegistry {
     private final Map<String, Shader> shaders = new HashMap<>();
 
     public Shader register(ResourceLocation rl) {
+        return register(load(rl));
+    }
+
+    public Shader register(Shader shader) {
+        shaders.put(shader.getShaderName(), shader);
+        return shader;
+    }
+
+    /**
+     * Reads the shader source and creates the shader without touching GL or the registry, so it's safe to call off the render thread.
+     *
+     * @param rl The shader resource location
+     * @return The shader, which isn't registered yet
+     */
+    public static Shader load(ResourceLocation rl) {
         String rawRl = rl.toString();
         int lastDot = rawRl.lastIndexOf('.');
         if (lastDot == -1) {
@@ -31,9 +46,7 @@ public class ShaderRegistry {
             throw new IllegalStateException("Invalid Shader ResourceLocation " + rawRl + ". Can't parse the shader type.");
         }
         String shaderSource = MinecraftResourceUtils.readText(rl, true);
-        Shader shader = MethodHolder.initShader(shaderSource, rawRl, shaderType);
-        shaders.put(rawRl, shader);
-        return shader;
+        return MethodHolder.initShader(shaderSource, rawRl, shaderType);
     }
 
     public void compile() {
@@ -0,0 +1,75 @@
+package com.cleanroommc.kirino.engine.render.task.job;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelReductionJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Counts dirty sections per priority bucket, i.e. <code>histogram[bucket]</code> is the number of dirty sections
+ * whose {@link #bucketOf(int) bucket} is <code>bucket</code>. {@link ChunkComponent#isEmpty Empty} sections are left out,
+ * since {@link ChunkSnapshotJob} cleans them without spending any budget.
+ *
+ * <p>It reads the front buffer, i.e. the state of the last flush, so it may overlap the jobs that mark and prioritize
+ * sections in the current frame.</p>
+ */
+public class ChunkDirtyHistogramJob implements IParallelReductionJob<int[]> {
+    /**
+     * Priorities beyond the last bucket share it. Priorities grow with the squared distance,
+     * so this covers <code>sqrt(1024) = 32</code> falloff distances.
+     */
+    public static final int BUCKET_COUNT = 1024;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isDirty"})
+    public IPrimitiveArray isDirtyArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isEmpty"})
+    public IPrimitiveArray isEmptyArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"priority"})
+    public IPrimitiveArray priorityArray;
+
+    private int[] histogram;
+
+    public static int bucketOf(int priority) {
+        return Math.max(0, Math.min(priority, BUCKET_COUNT - 1));
+    }
+
+    @Override
+    public int @NonNull [] newAccumulator() {
+        return new int[BUCKET_COUNT];
+    }
+
+    @Override
+    public void bindAccumulator(int @NonNull [] accumulator) {
+        histogram = accumulator;
+    }
+
+    @Override
+    public int @NonNull [] combine(int @NonNull [] left, int @NonNull [] right) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    @Override
+    public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+        if (isDirtyArray.getBool(index) && !isEmptyArray.getBool(index)) {
+            histogram[bucketOf(priorityArray.getInt(index))]++;
+        }
+    }
+
+    @Override
+    public void query(@NonNull EntityQuery entityQuery) {
+        entityQuery.with(ChunkComponent.class).readFrontBuffer();
+    }
+
+    @Override
+    public int estimateWorkload(int index) {
+        return 1;
+    }
+}
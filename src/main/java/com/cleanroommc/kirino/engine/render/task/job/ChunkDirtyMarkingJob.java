@@ -0,0 +1,73 @@
+package com.cleanroommc.kirino.engine.render.task.job;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelBatchJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
+import com.cleanroommc.kirino.ecs.job.kernel.ColumnKernels;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionKey;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Marks the sections in {@link #dirtySectionKeys} dirty so that {@link ChunkMeshletGenJob} re-meshes them.
+ * They are no longer known to be {@link ChunkComponent#isEmpty empty}.
+ */
+public class ChunkDirtyMarkingJob implements IParallelBatchJob {
+    /**
+     * Read-only during the execution. See {@link SectionKey}.
+     */
+    @JobExternalDataQuery
+    public LongSet dirtySectionKeys;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosX"})
+    public IPrimitiveArray chunkPosXArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosY"})
+    public IPrimitiveArray chunkPosYArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosZ"})
+    public IPrimitiveArray chunkPosZArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isDirty"})
+    public IPrimitiveArray isDirtyArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isEmpty"})
+    public IPrimitiveArray isEmptyArray;
+
+    // scratch columns
+    private final int[] xColumn = new int[ColumnKernels.BATCH_SIZE];
+    private final int[] yColumn = new int[ColumnKernels.BATCH_SIZE];
+    private final int[] zColumn = new int[ColumnKernels.BATCH_SIZE];
+
+    @Override
+    public void executeBatch(@NonNull EntityManager entityManager, int startIndex, int endIndexExclusive, int threadOrdinal) {
+        for (int batchStart = startIndex; batchStart < endIndexExclusive; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, endIndexExclusive - batchStart);
+
+            chunkPosXArray.getInts(batchStart, xColumn, 0, length);
+            chunkPosYArray.getInts(batchStart, yColumn, 0, length);
+            chunkPosZArray.getInts(batchStart, zColumn, 0, length);
+
+            for (int i = 0; i < length; i++) {
+                if (dirtySectionKeys.contains(SectionKey.pack(xColumn[i], yColumn[i], zColumn[i]))) {
+                    isDirtyArray.setBool(batchStart + i, true);
+                    isEmptyArray.setBool(batchStart + i, false);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void query(@NonNull EntityQuery entityQuery) {
+        entityQuery.with(ChunkComponent.class);
+    }
+
+    @Override
+    public int estimateWorkload(int index) {
+        return 1;
+    }
+}
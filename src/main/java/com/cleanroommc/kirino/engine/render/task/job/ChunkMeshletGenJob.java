@@ -6,43 +6,37 @@ import com.cleanroommc.kirino.ecs.job.IParallelJob;
 import com.cleanroommc.kirino.ecs.job.JobDataQuery;
 import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
 import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
-import com.cleanroommc.kirino.engine.render.geometry.Block;
-import com.cleanroommc.kirino.engine.render.meshlet.Meshlet;
 import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
-import com.cleanroommc.kirino.engine.render.gizmos.GizmosManager;
-import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockRenderingType;
-import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockUnifier;
-import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
-import net.minecraft.block.state.IBlockState;
-import net.minecraft.client.multiplayer.ChunkProviderClient;
-import net.minecraft.init.Blocks;
-import net.minecraft.world.chunk.Chunk;
-import org.joml.Vector3f;
-import org.joml.Vector3i;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletManager;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletOutputBuffer;
+import com.cleanroommc.kirino.engine.render.meshlet.SectionMesher;
+import com.cleanroommc.kirino.engine.render.meshlet.SectionMesherPool;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshot;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshotStore;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionKey;
 import org.jspecify.annotations.NonNull;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
-
+/**
+ * Meshes every dirty section that {@link ChunkSnapshotJob} captured this frame.
+ */
 public class ChunkMeshletGenJob implements IParallelJob {
     /**
-     * <p><b>0</b>: opaque</p>
-     * <p><b>1</b>: transparent</p>
-     * <p><b>2</b>: cutout</p>
+     * The estimated workload of meshing one section.
      */
-    public int pass = 0;
+    public static final int SECTION_WORKLOAD = 4096 * 2;
 
     @JobExternalDataQuery
-    public int priority;
+    public ChunkSectionSnapshotStore snapshotStore;
 
     @JobExternalDataQuery
-    public ChunkProviderClient chunkProvider;
+    public MeshletManager meshletManager;
 
+    /**
+     * Owned by {@link com.cleanroommc.kirino.engine.render.task.system.ChunkMeshletGenSystem}; job instances are per
+     * execution and segment, so they can't hold meshers themselves.
+     */
     @JobExternalDataQuery
-    public GizmosManager gizmosManager;
+    public SectionMesherPool mesherPool;
 
     @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosX"})
     public IPrimitiveArray chunkPosXArray;
@@ -56,9 +50,6 @@ public class ChunkMeshletGenJob implements IParallelJob {
     @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isDirty"})
     public IPrimitiveArray isDirtyArray;
 
-    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"priority"})
-    public IPrimitiveArray priorityArray;
-
     @Override
     public void query(@NonNull EntityQuery entityQuery) {
         entityQuery.with(ChunkComponent.class);
@@ -69,279 +60,48 @@ public class ChunkMeshletGenJob implements IParallelJob {
         if (!isDirtyArray.getBool(index)) {
             return 1;
         }
-        if (priorityArray.getInt(index) != priority) {
+        // sections deferred by the meshing budget have no snapshot
+        if (!snapshotStore.contains(SectionKey.pack(chunkPosXArray.getInt(index), chunkPosYArray.getInt(index), chunkPosZArray.getInt(index)))) {
             return 1;
         }
 
-        return 4096 * 2;
+        return SECTION_WORKLOAD;
     }
 
-    record ChunkCluster(
-            int chunkX, int chunkY, int chunkZ,
-            Chunk center,
-            Chunk xPlus,
-            Chunk xMinus,
-            Chunk zPlus,
-            Chunk zMinus) {
-    }
-
-    final static ImmutableList<Vector3i> FACE_DIRS = ImmutableList.of(
-            new Vector3i(1, 0, 0),
-            new Vector3i(-1, 0, 0),
-            new Vector3i(0, 1, 0),
-            new Vector3i(0, -1, 0),
-            new Vector3i(0, 0, 1),
-            new Vector3i(0, 0, -1));
-
-    final static int FACE_X_POS = 0b100000;
-    final static int FACE_X_NEG = 0b010000;
-    final static int FACE_Y_POS = 0b001000;
-    final static int FACE_Y_NEG = 0b000100;
-    final static int FACE_Z_POS = 0b000010;
-    final static int FACE_Z_NEG = 0b000001;
-
-    final static double MESHLET_MAX_ANGLE = 1.1f * Math.PI / 2f;
-    final static int MESHLET_MAX_SIZE = 32;
-
-    int[][][] faceMask = new int[16][16][16];
-    boolean[][][] visited = new boolean[16][16][16];
-
     @Override
     public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
-        Preconditions.checkState(pass == 0 || pass == 1 || pass == 2,
-                "Invalid pass number %d. Must be either 0 or 1 or 2.", pass);
-
         if (!isDirtyArray.getBool(index)) {
             return;
         }
-        if (priorityArray.getInt(index) != priority) {
-            return;
-        }
-
-        isDirtyArray.setBool(index, false);
 
         int chunkX = chunkPosXArray.getInt(index);
         int chunkY = chunkPosYArray.getInt(index);
         int chunkZ = chunkPosZArray.getInt(index);
 
-        ChunkCluster chunkCluster = new ChunkCluster(
-                chunkX, chunkY, chunkZ,
-                chunkProvider.provideChunk(chunkX, chunkZ),
-                chunkProvider.provideChunk(chunkX + 1, chunkZ),
-                chunkProvider.provideChunk(chunkX - 1, chunkZ),
-                chunkProvider.provideChunk(chunkX, chunkZ + 1),
-                chunkProvider.provideChunk(chunkX, chunkZ - 1));
-
-        buildFaceMask(faceMask, chunkCluster);
-
-        for (int x = 0; x < 16; x++) {
-            for (int y = 0; y < 16; y++) {
-                for (int z = 0; z < 16; z++) {
-                    visited[x][y][z] = false;
-                }
-            }
-        }
-
-        regionGrowing(faceMask, visited, chunkCluster, entityManager);
-    }
-
-    /**
-     * <p>Notice: a chunk is a 16x16x16 cube here, and xyz is a local coordinate inside this cube.</p>
-     *
-     * Returns whether the target position has a block or not depending on the current pass, opaque or transparent.
-     * <br>
-     * <br>
-     * If at least two arguments equal to -1 or 16 (i.e. the coordinate lies exactly on the edge of the 18x18x18 cube),
-     * then this method straight up returns <code>false</code>.
-     * <br>
-     * <br>
-     * If world y-coordinate is less than 0 or greater than 255,
-     * then this method straight up returns <code>false</code>.
-     *
-     * @param x Local x-coordinate. Domain: [-1, 16]. -1 and 16 corresponds to two neighbor chunks.
-     * @param y Local y-coordinate. Domain: [-1, 16]. -1 and 16 corresponds to two neighbor chunks.
-     * @param z Local z-coordinate. Domain: [-1, 16]. -1 and 16 corresponds to two neighbor chunks.
-     */
-    boolean blockExists(ChunkCluster chunkCluster, int x, int y, int z) {
-        Preconditions.checkArgument(x >= -1 && x <= 16,
-                "Argument x=%d must be between [-1, 16].", x);
-        Preconditions.checkArgument(y >= -1 && y <= 16,
-                "Argument y=%d must be between [-1, 16].", y);
-        Preconditions.checkArgument(z >= -1 && z <= 16,
-                "Argument z=%d must be between [-1, 16].", z);
-
-        if ((x == -1 || x == 16) && (y == -1 || y == 16) && (z == -1 || z == 16)) {
-            return false;
-        }
-        if ((x == -1 || x == 16) && (y == -1 || y == 16)) {
-            return false;
-        }
-        if ((x == -1 || x == 16) && (z == -1 || z == 16)) {
-            return false;
-        }
-        if ((y == -1 || y == 16) && (z == -1 || z == 16)) {
-            return false;
-        }
-        int yWorldCoord = chunkCluster.chunkY * 16;
-        if (yWorldCoord + y < 0 || yWorldCoord + y > 255) {
-            return false;
-        }
-
-        IBlockState result = null;
-        if (x == -1) {
-            result = chunkCluster.xMinus.getBlockState(15, yWorldCoord + y, z);
-        } else if (x == 16) {
-            result = chunkCluster.xPlus.getBlockState(0, yWorldCoord + y, z);
-        } else if (z == -1) {
-            result = chunkCluster.zMinus.getBlockState(x, yWorldCoord + y, 15);
-        } else if (z == 16) {
-            result = chunkCluster.zPlus.getBlockState(x, yWorldCoord + y, 0);
-        } else if (y == -1 || y == 16) {
-            result = chunkCluster.center.getBlockState(x, yWorldCoord + y, z);
-        } else {
-            // exactly inside the 16x16x16 cube
-            result = chunkCluster.center.getBlockState(x, yWorldCoord + y, z);
+        // captured by ChunkSnapshotJob on the client thread; live chunks are never touched here
+        ChunkSectionSnapshot snapshot = snapshotStore.take(SectionKey.pack(chunkX, chunkY, chunkZ));
+        if (snapshot == null) {
+            // deferred by the meshing budget
+            return;
         }
 
-        Preconditions.checkNotNull(result); // impossible to be null
-        Preconditions.checkNotNull(Blocks.AIR);
-
-        if (result == Blocks.AIR.getDefaultState()) {
-            return false;
-        }
+        isDirtyArray.setBool(index, false);
 
-        if (pass == 0) {
-            return BlockUnifier.getBlockRenderingType(result) == BlockRenderingType.OPAQUE;
-        } else if (pass == 1) {
-            return BlockUnifier.getBlockRenderingType(result) == BlockRenderingType.TRANSPARENT;
-        } else if (pass == 2) {
-            return BlockUnifier.getBlockRenderingType(result) == BlockRenderingType.CUTOUT;
+        SectionMesher mesher = mesherPool.get(threadOrdinal);
+        try {
+            mesher.buildOccupancies(snapshot);
+        } finally {
+            snapshotStore.release(snapshot);
         }
 
-        return false; // impossible
-    }
+        // handed over to the meshlet manager in bulk once all threads are done
+        MeshletManager.StagingBuffer stagingBuffer = meshletManager.getStagingBuffer(threadOrdinal);
+        MeshletOutputBuffer outputBuffer = stagingBuffer.beginSection(chunkX, chunkY, chunkZ);
 
-    void buildFaceMask(int[][][] faceMask, ChunkCluster chunkCluster) {
-        for (int x = 0; x < 16; x++) {
-            for (int y = 0; y < 16; y++) {
-                for (int z = 0; z < 16; z++) {
-                    faceMask[x][y][z] = 0;
-                    if (blockExists(chunkCluster, x, y, z)) {
-                        for (int i = 0; i < FACE_DIRS.size(); i++) {
-                            Vector3i dir = FACE_DIRS.get(i);
-                            int mask = 1 << (5 - i);
-                            // neighbor doesn't exist -> face exists
-                            if (!blockExists(chunkCluster, x + dir.x, y + dir.y, z + dir.z)) {
-                                faceMask[x][y][z] |= mask;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-    }
+        // blocks were classified once above; only face masks and region growing are per pass
+        mesher.computeFaceMasks();
+        mesher.growRegions(outputBuffer);
 
-    Vector3f dominantNormal(int faceMask) {
-        float x = 0f, y = 0f, z = 0f;
-        if ((faceMask & FACE_X_POS) != 0 && (faceMask & FACE_X_NEG) != 0) {
-            x += 2f;
-        } else {
-            if ((faceMask & FACE_X_POS) != 0) {
-                x += 1f;
-            }
-            if ((faceMask & FACE_X_NEG) != 0) {
-                x -= 1f;
-            }
-        }
-        if ((faceMask & FACE_Y_POS) != 0 && (faceMask & FACE_Y_NEG) != 0) {
-            y += 2f;
-        } else {
-            if ((faceMask & FACE_Y_POS) != 0) {
-                y += 1f;
-            }
-            if ((faceMask & FACE_Y_NEG) != 0) {
-                y -= 1f;
-            }
-        }
-        if ((faceMask & FACE_Z_POS) != 0 && (faceMask & FACE_Z_NEG) != 0) {
-            z += 2f;
-        } else {
-            if ((faceMask & FACE_Z_POS) != 0) {
-                z += 1f;
-            }
-            if ((faceMask & FACE_Z_NEG) != 0) {
-                z -= 1f;
-            }
-        }
-        return (new Vector3f(x, y, z)).normalize();
-    }
-
-    void regionGrowing(int[][][] faceMask, boolean[][][] visited, ChunkCluster chunkCluster, EntityManager entityManager) {
-        for (int x = 0; x < 16; x++) {
-            for (int y = 0; y < 16; y++) {
-                for (int z = 0; z < 16; z++) {
-
-                    if (faceMask[x][y][z] == 0) {
-                        continue;
-                    }
-                    if (visited[x][y][z]) {
-                        continue;
-                    }
-
-                    Block voxel = new Block(x, y, z, faceMask[x][y][z]);
-
-                    List<Block> cluster = new ArrayList<>();
-                    Deque<Block> queue = new ArrayDeque<>();
-
-                    cluster.add(voxel);
-                    queue.offerLast(voxel);
-                    visited[x][y][z] = true;
-
-                    Vector3f meshletNormal = dominantNormal(faceMask[x][y][z]);
-
-                    Block v;
-                    while ((v = queue.pollFirst()) != null) {
-                        for (Vector3i dir : FACE_DIRS) {
-                            int nx = v.position.x + dir.x;
-                            int ny = v.position.y + dir.y;
-                            int nz = v.position.z + dir.z;
-                            // ignore if it's out of the bounds
-                            if (nx == -1 || nx == 16 || ny == -1 || ny == 16 || nz == -1 || nz == 16) {
-                                continue;
-                            }
-                            // ignore if it's not the surface
-                            if (faceMask[nx][ny][nz] == 0) {
-                                continue;
-                            }
-                            if (visited[nx][ny][nz]) {
-                                continue;
-                            }
-
-                            Vector3f voxelNormal = dominantNormal(faceMask[nx][ny][nz]);
-
-                            if (meshletNormal.dot(voxelNormal) < Math.cos(MESHLET_MAX_ANGLE)) {
-                                continue;
-                            }
-                            if (cluster.size() >= MESHLET_MAX_SIZE) {
-                                continue;
-                            }
-
-                            Block newVoxel = new Block(nx, ny, nz, faceMask[nx][ny][nz]);
-                            cluster.add(newVoxel);
-                            queue.offerLast(newVoxel);
-                            visited[nx][ny][nz] = true;
-
-                            float n = cluster.size();
-                            meshletNormal = meshletNormal
-                                    .mul((n - 1f) / n)
-                                    .add(voxelNormal.mul(1f / n))
-                                    .normalize();
-                        }
-                    }
-
-                    gizmosManager.addMeshlet(chunkCluster.chunkX * 16, chunkCluster.chunkY * 16, chunkCluster.chunkZ * 16, new Meshlet(cluster));
-                }
-            }
-        }
+        stagingBuffer.endSection();
     }
 }
@@ -3,18 +3,24 @@ package com.cleanroommc.kirino.engine.render.task.job;
 import com.cleanroommc.kirino.KirinoCore;
 import com.cleanroommc.kirino.ecs.entity.EntityManager;
 import com.cleanroommc.kirino.ecs.entity.EntityQuery;
-import com.cleanroommc.kirino.ecs.job.IParallelJob;
+import com.cleanroommc.kirino.ecs.job.IParallelBatchJob;
 import com.cleanroommc.kirino.ecs.job.JobDataQuery;
 import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
+import com.cleanroommc.kirino.ecs.job.kernel.ColumnKernels;
 import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
-import com.cleanroommc.kirino.engine.render.camera.ICamera;
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
 import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
-import org.joml.Vector3f;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletCulling;
 import org.jspecify.annotations.NonNull;
 
-public class ChunkPrioritizationJob implements IParallelJob {
+/**
+ * Ranks sections by their squared distance to the camera, weighted by the view angle
+ * (see {@link CameraSnapshot#weightedDistanceSquared(float, float, float, boolean)}), so sections in view mesh
+ * before sections behind the player at the same distance. Lower is more urgent.
+ */
+public class ChunkPrioritizationJob implements IParallelBatchJob {
     @JobExternalDataQuery
-    public ICamera camera;
+    public CameraSnapshot cameraSnapshot;
 
     @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosX"})
     public IPrimitiveArray chunkPosXArray;
@@ -28,25 +34,65 @@ public class ChunkPrioritizationJob implements IParallelJob {
     @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"priority"})
     public IPrimitiveArray priorityArray;
 
-    Vector3f worldOffset = null;
+    // scratch columns
+    private final int[] intColumn = new int[ColumnKernels.BATCH_SIZE];
+    private final float[] xMinColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] yMinColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] zMinColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] xMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] yMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] zMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final int[] outsideMask = new int[ColumnKernels.BATCH_SIZE];
 
     @Override
-    public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
-        float chunkWorldX = (float) chunkPosXArray.getInt(index) * 16;
-        float chunkWorldY = (float) chunkPosYArray.getInt(index) * 16;
-        float chunkWorldZ = (float) chunkPosZArray.getInt(index) * 16;
+    public void executeBatch(@NonNull EntityManager entityManager, int startIndex, int endIndexExclusive, int threadOrdinal) {
+        float falloffDistance = KirinoCore.KIRINO_CONFIG_HUB.chunkPriorityFalloffDistance;
+        float priorityScale = 1f / (falloffDistance * falloffDistance);
 
-        if (worldOffset == null) {
-            worldOffset = camera.getWorldOffset();
-        }
+        float cameraX = cameraSnapshot.getPositionX();
+        float cameraY = cameraSnapshot.getPositionY();
+        float cameraZ = cameraSnapshot.getPositionZ();
+
+        for (int batchStart = startIndex; batchStart < endIndexExclusive; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, endIndexExclusive - batchStart);
 
-        float dis = (float) Math.sqrt((chunkWorldX - worldOffset.x) * (chunkWorldX - worldOffset.x) +
-                (chunkWorldY - worldOffset.y) * (chunkWorldY - worldOffset.y) +
-                (chunkWorldZ - worldOffset.z) * (chunkWorldZ - worldOffset.z));
+            // camera-relative section bounds
+            chunkPosXArray.getInts(batchStart, intColumn, 0, length);
+            ColumnKernels.intToFloat(intColumn, 16f, xMinColumn, length);
+            chunkPosYArray.getInts(batchStart, intColumn, 0, length);
+            ColumnKernels.intToFloat(intColumn, 16f, yMinColumn, length);
+            chunkPosZArray.getInts(batchStart, intColumn, 0, length);
+            ColumnKernels.intToFloat(intColumn, 16f, zMinColumn, length);
+            for (int i = 0; i < length; i++) {
+                xMinColumn[i] -= cameraX;
+                yMinColumn[i] -= cameraY;
+                zMinColumn[i] -= cameraZ;
+                xMaxColumn[i] = xMinColumn[i] + 16f;
+                yMaxColumn[i] = yMinColumn[i] + 16f;
+                zMaxColumn[i] = zMinColumn[i] + 16f;
+                outsideMask[i] = 0;
+            }
 
-        int priority = (int) (dis / KirinoCore.KIRINO_CONFIG_HUB.chunkPriorityFalloffDistance);
+            for (int plane = 0; plane < MeshletCulling.FRUSTUM_PLANE_COUNT; plane++) {
+                ColumnKernels.aabbBehindPlane(
+                        xMinColumn, yMinColumn, zMinColumn,
+                        xMaxColumn, yMaxColumn, zMaxColumn,
+                        cameraSnapshot.getFrustumPlane(plane, 0),
+                        cameraSnapshot.getFrustumPlane(plane, 1),
+                        cameraSnapshot.getFrustumPlane(plane, 2),
+                        cameraSnapshot.getFrustumPlane(plane, 3),
+                        1, outsideMask, length);
+            }
 
-        priorityArray.setInt(index, priority);
+            for (int i = 0; i < length; i++) {
+                float weightedDistanceSquared = cameraSnapshot.weightedDistanceSquared(
+                        xMinColumn[i] + 8f, yMinColumn[i] + 8f, zMinColumn[i] + 8f,
+                        outsideMask[i] == 0);
+                intColumn[i] = (int) (weightedDistanceSquared * priorityScale);
+            }
+
+            priorityArray.setInts(batchStart, intColumn, 0, length);
+        }
     }
 
     @Override
@@ -0,0 +1,172 @@
+package com.cleanroommc.kirino.engine.render.task.job;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletManager;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkMeshingBudget;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshot;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshotStore;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockUnifier;
+import net.minecraft.client.multiplayer.ChunkProviderClient;
+import net.minecraft.world.chunk.Chunk;
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures a {@link ChunkSectionSnapshot} of every section that {@link ChunkMeshletGenJob} is going to mesh.
+ *
+ * <p>Sections that would yield no meshlets at all, i.e. all-air or {@link ChunkSectionSnapshot#isBuried() buried} ones,
+ * are marked clean right here and never reach the meshing job. Their stale meshlets are removed.
+ * All-air sections are flagged {@link ChunkComponent#isEmpty empty}.</p>
+ *
+ * <p>Only dirty sections up to the boundary bucket are captured, see {@link ChunkMeshingBudget}.
+ * The boundary bucket is captured until its budget runs out; the remaining sections stay dirty.
+ * Sections already flagged empty are not part of the budget, so they are cleaned regardless of their bucket.</p>
+ *
+ * <p>Notice: this job touches live chunks, so it must be executed on the client thread.</p>
+ */
+public class ChunkSnapshotJob implements IParallelJob {
+    /**
+     * The estimated workload of capturing one section.
+     */
+    public static final int SECTION_WORKLOAD = 18 * 18 * 18;
+
+    /**
+     * See {@link ChunkDirtyHistogramJob#bucketOf(int)}.
+     */
+    @JobExternalDataQuery
+    public int boundaryBucket;
+
+    /**
+     * Shared by all job instances; decremented per captured section of the boundary bucket.
+     */
+    @JobExternalDataQuery
+    public AtomicInteger boundaryBudget;
+
+    @JobExternalDataQuery
+    public ChunkProviderClient chunkProvider;
+
+    @JobExternalDataQuery
+    public ChunkSectionSnapshotStore snapshotStore;
+
+    @JobExternalDataQuery
+    public MeshletManager meshletManager;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosX"})
+    public IPrimitiveArray chunkPosXArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosY"})
+    public IPrimitiveArray chunkPosYArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"chunkPosZ"})
+    public IPrimitiveArray chunkPosZArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isDirty"})
+    public IPrimitiveArray isDirtyArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"isEmpty"})
+    public IPrimitiveArray isEmptyArray;
+
+    @JobDataQuery(componentClass = ChunkComponent.class, fieldAccessChain = {"priority"})
+    public IPrimitiveArray priorityArray;
+
+    @Override
+    public void query(@NonNull EntityQuery entityQuery) {
+        entityQuery.with(ChunkComponent.class);
+    }
+
+    @Override
+    public int estimateWorkload(int index) {
+        if (!isDirtyArray.getBool(index) || isEmptyArray.getBool(index)) {
+            return 1;
+        }
+        if (ChunkDirtyHistogramJob.bucketOf(priorityArray.getInt(index)) > boundaryBucket) {
+            return 1;
+        }
+
+        return SECTION_WORKLOAD;
+    }
+
+    // sections of a column are laid out next to each other, so the column is resolved once
+    private boolean hasColumn = false;
+    private int columnX;
+    private int columnZ;
+    private Chunk center;
+    private Chunk xPlus;
+    private Chunk xMinus;
+    private Chunk zPlus;
+    private Chunk zMinus;
+
+    private BlockClassificationTable classificationTable = null;
+
+    @Override
+    public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+        if (!isDirtyArray.getBool(index)) {
+            return;
+        }
+        boolean knownEmpty = isEmptyArray.getBool(index);
+        int bucket = ChunkDirtyHistogramJob.bucketOf(priorityArray.getInt(index));
+        if (bucket > boundaryBucket && !knownEmpty) {
+            return;
+        }
+
+        int chunkX = chunkPosXArray.getInt(index);
+        int chunkY = chunkPosYArray.getInt(index);
+        int chunkZ = chunkPosZArray.getInt(index);
+
+        if (!hasColumn || columnX != chunkX || columnZ != chunkZ) {
+            hasColumn = true;
+            columnX = chunkX;
+            columnZ = chunkZ;
+            center = chunkProvider.provideChunk(chunkX, chunkZ);
+            xPlus = chunkProvider.provideChunk(chunkX + 1, chunkZ);
+            xMinus = chunkProvider.provideChunk(chunkX - 1, chunkZ);
+            zPlus = chunkProvider.provideChunk(chunkX, chunkZ + 1);
+            zMinus = chunkProvider.provideChunk(chunkX, chunkZ - 1);
+        }
+        if (classificationTable == null) {
+            classificationTable = BlockUnifier.getClassificationTable();
+        }
+
+        // fast path: an all-air section has no faces of its own regardless of the neighbors
+        if (!ChunkSectionSnapshot.hasBlocks(center, chunkY)) {
+            isEmptyArray.setBool(index, true);
+            markClean(index, chunkX, chunkY, chunkZ);
+            return;
+        }
+        if (knownEmpty) {
+            // the chunk data changed without a block update; it wasn't budgeted, so it waits for the next frame
+            isEmptyArray.setBool(index, false);
+            return;
+        }
+
+        // deferred to a later frame
+        if (bucket == boundaryBucket && boundaryBudget.getAndDecrement() <= 0) {
+            return;
+        }
+
+        ChunkSectionSnapshot snapshot = snapshotStore.acquire();
+        snapshot.capture(chunkX, chunkY, chunkZ, center, xPlus, xMinus, zPlus, zMinus, classificationTable);
+
+        // fast path: every face is hidden
+        if (snapshot.isBuried()) {
+            snapshotStore.release(snapshot);
+            markClean(index, chunkX, chunkY, chunkZ);
+            return;
+        }
+
+        snapshotStore.publish(snapshot);
+    }
+
+    private void markClean(int index, int chunkX, int chunkY, int chunkZ) {
+        isDirtyArray.setBool(index, false);
+        meshletManager.removeSection(chunkX, chunkY, chunkZ);
+    }
+}
@@ -0,0 +1,86 @@
+package com.cleanroommc.kirino.engine.render.task.job;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelBatchJob;
+import com.cleanroommc.kirino.ecs.job.JobDataGroupQuery;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
+import com.cleanroommc.kirino.ecs.job.kernel.ColumnKernels;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.ecs.storage.column.AabbColumns;
+import com.cleanroommc.kirino.ecs.storage.column.Vec3Columns;
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
+import com.cleanroommc.kirino.engine.render.geometry.component.MeshletComponent;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletCulling;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Tests every meshlet against the view frustum and its normal cone, and writes the result to
+ * {@link MeshletComponent#isVisible}.
+ */
+public class MeshletCullingJob implements IParallelBatchJob {
+    @JobExternalDataQuery
+    public CameraSnapshot cameraSnapshot;
+
+    @JobDataGroupQuery(componentClass = MeshletComponent.class, fieldAccessChain = {"aabb"})
+    public AabbColumns aabbColumns;
+
+    @JobDataGroupQuery(componentClass = MeshletComponent.class, fieldAccessChain = {"normal"})
+    public Vec3Columns normalColumns;
+
+    @JobDataQuery(componentClass = MeshletComponent.class, fieldAccessChain = {"coneCutoff"})
+    public IPrimitiveArray coneCutoffArray;
+
+    @JobDataQuery(componentClass = MeshletComponent.class, fieldAccessChain = {"isVisible"})
+    public IPrimitiveArray isVisibleArray;
+
+    // scratch columns
+    private final float[] xMinColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] yMinColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] zMinColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] xMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] yMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] zMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] normalXColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] normalYColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] normalZColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] coneCutoffColumn = new float[ColumnKernels.BATCH_SIZE];
+
+    @Override
+    public void executeBatch(@NonNull EntityManager entityManager, int startIndex, int endIndexExclusive, int threadOrdinal) {
+        float cameraX = cameraSnapshot.getPositionX();
+        float cameraY = cameraSnapshot.getPositionY();
+        float cameraZ = cameraSnapshot.getPositionZ();
+
+        for (int batchStart = startIndex; batchStart < endIndexExclusive; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, endIndexExclusive - batchStart);
+
+            aabbColumns.load(batchStart, xMinColumn, yMinColumn, zMinColumn, xMaxColumn, yMaxColumn, zMaxColumn, length);
+            normalColumns.load(batchStart, normalXColumn, normalYColumn, normalZColumn, length);
+            coneCutoffArray.getFloats(batchStart, coneCutoffColumn, 0, length);
+
+            for (int i = 0; i < length; i++) {
+                boolean culled = cameraSnapshot.isOutsideFrustum(
+                        xMinColumn[i] - cameraX, yMinColumn[i] - cameraY, zMinColumn[i] - cameraZ,
+                        xMaxColumn[i] - cameraX, yMaxColumn[i] - cameraY, zMaxColumn[i] - cameraZ)
+                        || MeshletCulling.isBackfacing(cameraX, cameraY, cameraZ,
+                        xMinColumn[i], yMinColumn[i], zMinColumn[i],
+                        xMaxColumn[i], yMaxColumn[i], zMaxColumn[i],
+                        normalXColumn[i], normalYColumn[i], normalZColumn[i],
+                        coneCutoffColumn[i]);
+                isVisibleArray.setBool(batchStart + i, !culled);
+            }
+        }
+    }
+
+    @Override
+    public void query(@NonNull EntityQuery entityQuery) {
+        entityQuery.with(MeshletComponent.class);
+    }
+
+    @Override
+    public int estimateWorkload(int index) {
+        return 2;
+    }
+}
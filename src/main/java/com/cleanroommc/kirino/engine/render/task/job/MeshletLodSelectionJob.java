@@ -0,0 +1,61 @@
+package com.cleanroommc.kirino.engine.render.task.job;
+
+import com.cleanroommc.kirino.KirinoCore;
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
+import com.cleanroommc.kirino.engine.render.geometry.component.MeshletClusterTreeComponent;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletClusterTree;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletManager;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Selects the LOD cut of every section's cluster tree from the projected screen-space error.
+ * See {@link MeshletClusterTree#selectCut(float, float, float, float, float)}.
+ */
+public class MeshletLodSelectionJob implements IParallelJob {
+    @JobExternalDataQuery
+    public MeshletManager meshletManager;
+
+    @JobExternalDataQuery
+    public CameraSnapshot cameraSnapshot;
+
+    @JobDataQuery(componentClass = MeshletClusterTreeComponent.class, fieldAccessChain = {"nodeCount"})
+    public IPrimitiveArray nodeCountArray;
+
+    @JobDataQuery(componentClass = MeshletClusterTreeComponent.class, fieldAccessChain = {"selectedNodeCount"})
+    public IPrimitiveArray selectedNodeCountArray;
+
+    @JobDataQuery(componentClass = MeshletClusterTreeComponent.class, fieldAccessChain = {"handleID"})
+    public IPrimitiveArray handleIDArray;
+
+    @JobDataQuery(componentClass = MeshletClusterTreeComponent.class, fieldAccessChain = {"handleGeneration"})
+    public IPrimitiveArray handleGenerationArray;
+
+    @Override
+    public void query(@NonNull EntityQuery entityQuery) {
+        entityQuery.with(MeshletClusterTreeComponent.class);
+    }
+
+    @Override
+    public int estimateWorkload(int index) {
+        return Math.max(nodeCountArray.getInt(index), 1);
+    }
+
+    @Override
+    public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+        MeshletClusterTree tree = meshletManager.getClusterTree(handleIDArray.getInt(index), handleGenerationArray.getInt(index));
+        if (tree == null) {
+            return;
+        }
+
+        int selectedCount = tree.selectCut(
+                cameraSnapshot.getPositionX(), cameraSnapshot.getPositionY(), cameraSnapshot.getPositionZ(),
+                cameraSnapshot.getProjectionScale(), KirinoCore.KIRINO_CONFIG_HUB.meshletLodPixelThreshold);
+        selectedNodeCountArray.setInt(index, selectedCount);
+    }
+}
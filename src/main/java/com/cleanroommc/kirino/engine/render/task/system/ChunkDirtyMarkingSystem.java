@@ -0,0 +1,37 @@
+package com.cleanroommc.kirino.engine.render.task.system;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.job.JobScheduler;
+import com.cleanroommc.kirino.ecs.system.CleanSystem;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionUpdateQueue;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkDirtyMarkingJob;
+import org.jspecify.annotations.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class ChunkDirtyMarkingSystem extends CleanSystem {
+    private final Map<String, Object> externalData;
+    private final SectionUpdateQueue sectionUpdateQueue;
+
+    public ChunkDirtyMarkingSystem(SectionUpdateQueue sectionUpdateQueue) {
+        externalData = new HashMap<>();
+        this.sectionUpdateQueue = sectionUpdateQueue;
+    }
+
+    @Override
+    public void update(@NonNull EntityManager entityManager, @NonNull JobScheduler jobScheduler) {
+        if (sectionUpdateQueue.isEmpty()) {
+            execution.noExecutions();
+            return;
+        }
+
+        externalData.put("dirtySectionKeys", sectionUpdateQueue.drain());
+        JobScheduler.ExecutionHandle handle = jobScheduler.executeParallelJob(entityManager, ChunkDirtyMarkingJob.class, externalData, ForkJoinPool.commonPool());
+        if (handle.async()) {
+            handle.future().join();
+        }
+        execution.updateExecutions(handle);
+    }
+}
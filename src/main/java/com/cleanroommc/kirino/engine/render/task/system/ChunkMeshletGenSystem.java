@@ -1,39 +1,109 @@
 package com.cleanroommc.kirino.engine.render.task.system;
 
+import com.cleanroommc.kirino.KirinoCore;
 import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.job.IParallelJob;
 import com.cleanroommc.kirino.ecs.job.JobScheduler;
 import com.cleanroommc.kirino.ecs.system.CleanSystem;
-import com.cleanroommc.kirino.engine.render.gizmos.GizmosManager;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletManager;
+import com.cleanroommc.kirino.engine.render.meshlet.SectionMesherPool;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkMeshingBudget;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkSectionSnapshotStore;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkDirtyHistogramJob;
 import com.cleanroommc.kirino.engine.render.task.job.ChunkMeshletGenJob;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkSnapshotJob;
 import net.minecraft.client.multiplayer.ChunkProviderClient;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Meshes dirty sections in ascending priority order within a per-frame CPU budget
+ * (see {@link com.cleanroommc.kirino.KirinoConfigHub#chunkMeshingBudgetMillis}). Leftovers stay dirty and are
+ * picked up by later frames. The cost of a section is predicted from the job profiles of the snapshot and meshing jobs.
+ */
 public class ChunkMeshletGenSystem extends CleanSystem {
+    // used until the job profiles are calibrated
+    private static final double FALLBACK_SNAPSHOT_NANOS_PER_SECTION = 50_000d;
+    private static final double FALLBACK_MESH_NANOS_PER_SECTION = 200_000d;
+
+    private final Map<String, Object> snapshotExternalData;
     private final Map<String, Object> externalData;
+    private final ChunkSectionSnapshotStore snapshotStore = new ChunkSectionSnapshotStore();
+    private final MeshletManager meshletManager;
+    private final SectionMesherPool mesherPool = new SectionMesherPool();
+    private final ChunkMeshingBudget budget = new ChunkMeshingBudget();
+    private final AtomicInteger boundaryBudget = new AtomicInteger();
+    private JobScheduler.@Nullable ExecutionHandle histogramHandle;
 
-    public ChunkMeshletGenSystem(ChunkProviderClient chunkClient, GizmosManager gizmosManager) {
+    public ChunkMeshletGenSystem(ChunkProviderClient chunkClient, MeshletManager meshletManager) {
+        snapshotExternalData = new HashMap<>();
+        snapshotExternalData.put("chunkProvider", chunkClient);
+        snapshotExternalData.put("snapshotStore", snapshotStore);
+        snapshotExternalData.put("meshletManager", meshletManager);
+        snapshotExternalData.put("boundaryBudget", boundaryBudget);
         externalData = new HashMap<>();
-        externalData.put("chunkProvider", chunkClient);
-        externalData.put("gizmosManager", gizmosManager);
+        externalData.put("snapshotStore", snapshotStore);
+        externalData.put("meshletManager", meshletManager);
+        externalData.put("mesherPool", mesherPool);
+        this.meshletManager = meshletManager;
     }
 
-    private int priority = 0;
-
-    public void setPriority(int priority) {
-        this.priority = priority;
+    /**
+     * Starts counting dirty sections on the front buffer, so it runs alongside the systems that update before this one.
+     * Optional; {@link #update(EntityManager, JobScheduler)} starts it itself otherwise.
+     *
+     * @param entityManager The entity manager
+     * @param jobScheduler The job scheduler
+     */
+    public void beginPlanning(@NonNull EntityManager entityManager, @NonNull JobScheduler jobScheduler) {
+        histogramHandle = jobScheduler.executeParallelJob(entityManager, ChunkDirtyHistogramJob.class, null, ForkJoinPool.commonPool());
     }
 
     @Override
     public void update(@NonNull EntityManager entityManager, @NonNull JobScheduler jobScheduler) {
-        externalData.put("priority", priority);
-        JobScheduler.ExecutionHandle handle = jobScheduler.executeParallelJob(entityManager, ChunkMeshletGenJob.class, externalData, ForkJoinPool.commonPool());
-        if (handle.async()) {
-            handle.future().join();
+        if (histogramHandle == null) {
+            beginPlanning(entityManager, jobScheduler);
+        }
+        JobScheduler.ExecutionHandle histogramHandle = this.histogramHandle;
+        this.histogramHandle = null;
+        // sections marked or re-prioritized this frame are planned from the last flush; the plan is approximate anyway
+        int[] histogram = histogramHandle.joinReduction();
+
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        budget.plan(histogram, ChunkMeshingBudget.sectionBudget(
+                KirinoCore.KIRINO_CONFIG_HUB.chunkMeshingBudgetMillis * 1_000_000d,
+                predictNanosPerSection(jobScheduler, ChunkSnapshotJob.class, ChunkSnapshotJob.SECTION_WORKLOAD, FALLBACK_SNAPSHOT_NANOS_PER_SECTION),
+                predictNanosPerSection(jobScheduler, ChunkMeshletGenJob.class, ChunkMeshletGenJob.SECTION_WORKLOAD, FALLBACK_MESH_NANOS_PER_SECTION),
+                parallelism));
+
+        if (budget.hasWork()) {
+            // snapshot stage; runs inline since it reads live chunks
+            snapshotExternalData.put("boundaryBucket", budget.getBoundaryBucket());
+            boundaryBudget.set(budget.getBoundaryBudget());
+            JobScheduler.ExecutionHandle snapshotHandle = jobScheduler.executeParallelJob(entityManager, ChunkSnapshotJob.class, snapshotExternalData, Runnable::run);
+
+            JobScheduler.ExecutionHandle handle = jobScheduler.executeParallelJob(entityManager, ChunkMeshletGenJob.class, externalData, ForkJoinPool.commonPool());
+            if (handle.async()) {
+                handle.future().join();
+            }
+            execution.updateExecutions(histogramHandle, snapshotHandle, handle);
+
+            snapshotStore.releaseAll();
+        } else {
+            execution.updateExecutions(histogramHandle);
         }
-        execution.updateExecutions(handle);
+
+        // meshlet entities are created and destroyed at the end of this update
+        meshletManager.flush();
+    }
+
+    private static double predictNanosPerSection(JobScheduler jobScheduler, Class<? extends IParallelJob> jobClass, int sectionWorkload, double fallback) {
+        double nanosPerUnit = jobScheduler.getNanosPerUnit(jobClass);
+        return Double.isNaN(nanosPerUnit) ? fallback : nanosPerUnit * sectionWorkload;
     }
 }
@@ -3,7 +3,7 @@ package com.cleanroommc.kirino.engine.render.task.system;
 import com.cleanroommc.kirino.ecs.entity.EntityManager;
 import com.cleanroommc.kirino.ecs.job.JobScheduler;
 import com.cleanroommc.kirino.ecs.system.CleanSystem;
-import com.cleanroommc.kirino.engine.render.camera.ICamera;
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
 import com.cleanroommc.kirino.engine.render.task.job.ChunkPrioritizationJob;
 import org.jspecify.annotations.NonNull;
 
@@ -14,9 +14,17 @@ import java.util.concurrent.ForkJoinPool;
 public class ChunkPrioritizationSystem extends CleanSystem {
     private final Map<String, Object> externalData;
 
-    public ChunkPrioritizationSystem(ICamera camera) {
+    public ChunkPrioritizationSystem() {
         externalData = new HashMap<>();
-        externalData.put("camera", camera);
+    }
+
+    /**
+     * Must be called every frame before {@link #update(EntityManager, JobScheduler)}.
+     *
+     * @param cameraSnapshot The camera snapshot of the current frame
+     */
+    public void setCameraSnapshot(@NonNull CameraSnapshot cameraSnapshot) {
+        externalData.put("cameraSnapshot", cameraSnapshot);
     }
 
     @Override
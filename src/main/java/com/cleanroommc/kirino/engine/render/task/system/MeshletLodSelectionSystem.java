@@ -0,0 +1,40 @@
+package com.cleanroommc.kirino.engine.render.task.system;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.job.JobScheduler;
+import com.cleanroommc.kirino.ecs.system.CleanSystem;
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletManager;
+import com.cleanroommc.kirino.engine.render.task.job.MeshletLodSelectionJob;
+import org.jspecify.annotations.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class MeshletLodSelectionSystem extends CleanSystem {
+    private final Map<String, Object> externalData;
+
+    public MeshletLodSelectionSystem(MeshletManager meshletManager) {
+        externalData = new HashMap<>();
+        externalData.put("meshletManager", meshletManager);
+    }
+
+    /**
+     * Must be called every frame before {@link #update(EntityManager, JobScheduler)}.
+     *
+     * @param cameraSnapshot The camera snapshot of the current frame
+     */
+    public void setCameraSnapshot(@NonNull CameraSnapshot cameraSnapshot) {
+        externalData.put("cameraSnapshot", cameraSnapshot);
+    }
+
+    @Override
+    public void update(@NonNull EntityManager entityManager, @NonNull JobScheduler jobScheduler) {
+        JobScheduler.ExecutionHandle handle = jobScheduler.executeParallelJob(entityManager, MeshletLodSelectionJob.class, externalData, ForkJoinPool.commonPool());
+        if (handle.async()) {
+            handle.future().join();
+        }
+        execution.updateExecutions(handle);
+    }
+}
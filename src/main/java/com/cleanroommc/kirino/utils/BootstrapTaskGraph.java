@@ -0,0 +1,100 @@
+package com.cleanroommc.kirino.utils;
+
+import com.cleanroommc.kirino.KirinoCore;
+import com.google.common.base.Preconditions;
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * A dependency-ordered task graph for bootstrap work.
+ *
+ * <p>Tasks run on the given executor as soon as all of their dependencies are done.
+ * Anything that must stay on the calling thread (e.g. registry mutation or GL calls) should
+ * {@link Task#join()} the tasks it needs and run inline instead.</p>
+ *
+ * <p>Note: worker threads don't inherit the context class loader of the calling thread,
+ * so capture it beforehand if a task loads classes.</p>
+ */
+public final class BootstrapTaskGraph {
+    private final Executor executor;
+
+    public BootstrapTaskGraph(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Tasks run on the common pool, or inline on the calling thread if parallel bootstrap is disabled.
+     *
+     * @return A new task graph
+     */
+    public static @NonNull BootstrapTaskGraph create() {
+        return new BootstrapTaskGraph(KirinoCore.KIRINO_CONFIG_HUB.enableParallelBootstrap ? ForkJoinPool.commonPool() : Runnable::run);
+    }
+
+    public static final class Task<T> {
+        public final String name;
+        private final CompletableFuture<T> future;
+
+        private Task(String name, CompletableFuture<T> future) {
+            this.name = name;
+            this.future = future;
+        }
+
+        /**
+         * Blocks until the task is done.
+         *
+         * @return The result
+         */
+        public T join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Bootstrap task \"" + name + "\" failed.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * @param name The task name used in error messages
+     * @param supplier The work
+     * @param dependencies Tasks that must be done before this one starts
+     * @return The task
+     */
+    public <T> @NonNull Task<T> supply(@NonNull String name, @NonNull Supplier<T> supplier, @NonNull Task<?> @NonNull ... dependencies) {
+        Preconditions.checkNotNull(name);
+        Preconditions.checkNotNull(supplier);
+
+        CompletableFuture<T> future;
+        if (dependencies.length == 0) {
+            future = CompletableFuture.supplyAsync(supplier, executor);
+        } else {
+            CompletableFuture<?>[] dependencyFutures = new CompletableFuture[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencyFutures[i] = dependencies[i].future;
+            }
+            future = CompletableFuture.allOf(dependencyFutures).thenApplyAsync(v -> supplier.get(), executor);
+        }
+
+        return new Task<>(name, future);
+    }
+
+    /**
+     * @param name The task name used in error messages
+     * @param runnable The work
+     * @param dependencies Tasks that must be done before this one starts
+     * @return The task
+     */
+    public @NonNull Task<Void> run(@NonNull String name, @NonNull Runnable runnable, @NonNull Task<?> @NonNull ... dependencies) {
+        Preconditions.checkNotNull(runnable);
+
+        return supply(name, () -> {
+            runnable.run();
+            return null;
+        }, dependencies);
+    }
+}
@@ -37,6 +37,29 @@ public final class QuantileUtils {
         return array[select(array, 0, array.length - 1, array.length >> 1, comparator)];
     }
 
+    /**
+     * Nearest-rank quantile. The array will be partially reordered.
+     *
+     * @param array The array
+     * @param quantile The quantile within [0, 1]
+     * @param comparator The comparator
+     * @return The element at the given quantile
+     */
+    public static <T> T quantile(@NonNull T @NonNull [] array, float quantile, @NonNull Comparator<T> comparator) {
+        Preconditions.checkNotNull(array);
+        Preconditions.checkNotNull(comparator);
+        Preconditions.checkState(array.length > 0);
+        Preconditions.checkArgument(quantile >= 0f && quantile <= 1f,
+                "Argument \"quantile\"=%s must be within [0, 1].", quantile);
+
+        if (array.length == 1) {
+            return array[0];
+        }
+
+        int rank = Math.max(0, Math.min(array.length - 1, (int) Math.ceil(quantile * array.length) - 1));
+        return array[select(array, 0, array.length - 1, rank, comparator)];
+    }
+
     private static <T> int select(@NonNull T @NonNull [] array, int left, int right, int n, Comparator<T> comparator) {
         Preconditions.checkState(right > left);
         Preconditions.checkPositionIndex(left, array.length);
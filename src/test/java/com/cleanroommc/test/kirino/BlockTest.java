@@ -0,0 +1,37 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.cleanroommc.kirino.engine.render.geometry.VoxelOccupancy;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlockTest {
+    @Test
+    public void testPackRoundTrip() {
+        int packed = Block.pack(15, 7, 3, 0b101001);
+
+        assertEquals(15, Block.unpackX(packed));
+        assertEquals(7, Block.unpackY(packed));
+        assertEquals(3, Block.unpackZ(packed));
+        assertEquals(0b101001, Block.unpackFaceMask(packed));
+        assertEquals(15 | 7 << 4 | 3 << 8, Block.unpackPositionIndex(packed));
+    }
+
+    @Test
+    public void testFaceBitOrder() {
+        // every neighbor but the one on +x is occupied, so X+ (East) is the only visible face
+        VoxelOccupancy occupancy = new VoxelOccupancy();
+        occupancy.set(3, 4, 5);
+        occupancy.set(2, 4, 5);
+        occupancy.set(3, 5, 5);
+        occupancy.set(3, 3, 5);
+        occupancy.set(3, 4, 6);
+        occupancy.set(3, 4, 4);
+        occupancy.computeFaceMasks();
+
+        int packed = Block.pack(3, 4, 5, occupancy.getFaceMask(3, 4, 5));
+        assertEquals(0b100000, Block.unpackFaceMask(packed));
+        assertEquals(1 << (5 - VoxelOccupancy.FACE_X_POS_INDEX), Block.unpackFaceMask(packed));
+    }
+}
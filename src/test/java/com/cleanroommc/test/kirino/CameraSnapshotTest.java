@@ -0,0 +1,62 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.camera.CameraSnapshot;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CameraSnapshotTest {
+    private static final float EPSILON = 1e-4f;
+
+    // looks down -z from (100, 64, 100)
+    private static CameraSnapshot snapshot() {
+        Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(70d), 16f / 9f, 0.05f, 512f);
+        return CameraSnapshot.of(projection, new Matrix4f(), new Vector3f(100f, 64f, 100f), 1080);
+    }
+
+    @Test
+    public void testCapturedState() {
+        CameraSnapshot snapshot = snapshot();
+
+        assertEquals(100f, snapshot.getPositionX(), EPSILON);
+        assertEquals(0f, snapshot.getForwardX(), EPSILON);
+        assertEquals(0f, snapshot.getForwardY(), EPSILON);
+        assertEquals(-1f, snapshot.getForwardZ(), EPSILON);
+        assertEquals(Math.toRadians(70d), snapshot.getFovY(), EPSILON);
+        assertEquals(540f / Math.tan(Math.toRadians(35d)), snapshot.getProjectionScale(), 1e-2f);
+    }
+
+    @Test
+    public void testFrustum() {
+        CameraSnapshot snapshot = snapshot();
+
+        // camera-relative
+        assertFalse(snapshot.isOutsideFrustum(-8f, -8f, -40f, 8f, 8f, -24f));
+        assertTrue(snapshot.isOutsideFrustum(-8f, -8f, 24f, 8f, 8f, 40f));
+        // the box containing the camera is always in view
+        assertFalse(snapshot.isOutsideFrustum(-8f, -8f, -8f, 8f, 8f, 8f));
+    }
+
+    @Test
+    public void testViewWeighting() {
+        CameraSnapshot snapshot = snapshot();
+
+        float ahead = snapshot.weightedDistanceSquared(0f, 0f, -32f, true);
+        float side = snapshot.weightedDistanceSquared(32f, 0f, 0f, false);
+        float behind = snapshot.weightedDistanceSquared(0f, 0f, 32f, false);
+
+        assertEquals(32f * 32f, ahead, EPSILON);
+        assertEquals(32f * 32f * (CameraSnapshot.OUT_OF_VIEW_WEIGHT + CameraSnapshot.BEHIND_WEIGHT) * 0.5f, side, EPSILON);
+        assertEquals(32f * 32f * CameraSnapshot.BEHIND_WEIGHT, behind, EPSILON);
+
+        // in view always beats out of view at the same distance
+        assertTrue(ahead < side);
+        assertTrue(side < behind);
+        // a section behind is as urgent as one in view twice as far
+        assertEquals(snapshot.weightedDistanceSquared(0f, 0f, -64f, true), behind, EPSILON);
+    }
+}
@@ -0,0 +1,60 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
+import com.cleanroommc.kirino.engine.render.geometry.component.ChunkComponent;
+import com.cleanroommc.kirino.engine.render.task.job.ChunkDirtyHistogramJob;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChunkDirtyHistogramJobTest {
+    private static EcsTestFixture newEcs() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        ecs.componentRegistry.registerComponent("ChunkComponent", ChunkComponent.class,
+                new MemberLayout("chunkPosX", "chunkPosY", "chunkPosZ", "isDirty", "isEmpty", "priority"),
+                "int", "int", "int", "bool", "bool", "int");
+        ecs.jobRegistry.registerParallelJob(ChunkDirtyHistogramJob.class);
+        return ecs;
+    }
+
+    private static void createSection(EcsTestFixture ecs, int priority, boolean isDirty, boolean isEmpty) {
+        ChunkComponent chunkComponent = new ChunkComponent();
+        chunkComponent.priority = priority;
+        chunkComponent.isDirty = isDirty;
+        chunkComponent.isEmpty = isEmpty;
+        ecs.entityManager.createEntity(chunkComponent);
+    }
+
+    private static int[] histogram(EcsTestFixture ecs) {
+        return ecs.jobScheduler.executeParallelJob(ecs.entityManager, ChunkDirtyHistogramJob.class, null, Runnable::run).joinReduction();
+    }
+
+    @Test
+    public void testCountsDirtySections() {
+        EcsTestFixture ecs = newEcs();
+        createSection(ecs, 0, true, false);
+        createSection(ecs, 3, true, false);
+        createSection(ecs, 3, true, false);
+        createSection(ecs, 3, false, false);
+        createSection(ecs, 5000, true, false);
+        ecs.entityManager.flush();
+
+        int[] histogram = histogram(ecs);
+        assertEquals(1, histogram[0]);
+        assertEquals(2, histogram[3]);
+        // clamped to the last bucket
+        assertEquals(1, histogram[ChunkDirtyHistogramJob.BUCKET_COUNT - 1]);
+    }
+
+    @Test
+    public void testEmptySectionsTakeNoBudget() {
+        EcsTestFixture ecs = newEcs();
+        createSection(ecs, 2, true, false);
+        for (int i = 0; i < 10; i++) {
+            createSection(ecs, 2, true, true);
+        }
+        ecs.entityManager.flush();
+
+        assertEquals(1, histogram(ecs)[2]);
+    }
+}
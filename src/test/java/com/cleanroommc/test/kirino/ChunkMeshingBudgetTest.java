@@ -0,0 +1,59 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.ChunkMeshingBudget;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkMeshingBudgetTest {
+    @Test
+    public void testNothingDirty() {
+        ChunkMeshingBudget budget = new ChunkMeshingBudget();
+        budget.plan(new int[8], 100);
+
+        assertFalse(budget.hasWork());
+        assertEquals(-1, budget.getBoundaryBucket());
+    }
+
+    @Test
+    public void testEverythingFits() {
+        ChunkMeshingBudget budget = new ChunkMeshingBudget();
+        budget.plan(new int[]{3, 0, 5, 0}, 100);
+
+        assertTrue(budget.hasWork());
+        assertEquals(2, budget.getBoundaryBucket());
+        assertEquals(5, budget.getBoundaryBudget());
+        assertEquals(8, budget.getPlannedSections());
+    }
+
+    @Test
+    public void testNearBucketsFirst() {
+        ChunkMeshingBudget budget = new ChunkMeshingBudget();
+        budget.plan(new int[]{0, 4, 6, 10}, 7);
+
+        // bucket 1 entirely, then 3 of bucket 2; bucket 3 is carried over
+        assertEquals(2, budget.getBoundaryBucket());
+        assertEquals(3, budget.getBoundaryBudget());
+        assertEquals(7, budget.getPlannedSections());
+    }
+
+    @Test
+    public void testExactFit() {
+        ChunkMeshingBudget budget = new ChunkMeshingBudget();
+        budget.plan(new int[]{4, 0, 6}, 4);
+
+        assertEquals(0, budget.getBoundaryBucket());
+        assertEquals(4, budget.getBoundaryBudget());
+    }
+
+    @Test
+    public void testSectionBudget() {
+        // 1ms of client-thread capture + 4ms of meshing spread over 4 threads = 2ms per section
+        assertEquals(5, ChunkMeshingBudget.sectionBudget(10_000_000d, 1_000_000d, 4_000_000d, 4));
+        // always makes progress
+        assertEquals(1, ChunkMeshingBudget.sectionBudget(1d, 1_000_000d, 4_000_000d, 4));
+        assertEquals(1, ChunkMeshingBudget.sectionBudget(1d, 0d, 0d, 4));
+    }
+}
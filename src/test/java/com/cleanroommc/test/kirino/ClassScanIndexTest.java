@@ -0,0 +1,214 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.component.scan.ComponentRegisterPlan;
+import com.cleanroommc.kirino.ecs.component.scan.event.ComponentScanningEvent;
+import com.cleanroommc.kirino.ecs.component.scan.event.StructScanningEvent;
+import com.cleanroommc.kirino.ecs.component.scan.helper.ClassScanIndex;
+import com.cleanroommc.kirino.ecs.component.scan.helper.ComponentScanningHelper;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldDef;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldRegistry;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.ScalarType;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassScanIndexTest {
+    private static final String PACKAGE = "com.cleanroommc.test.kirino.scanned";
+    private static final Logger LOGGER = LogManager.getLogger("ClassScanIndexTest");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Compiles the sources (simple name, source body without the package declaration) into a fresh directory.
+     */
+    private File compile(File extraClasspath, String... sources) throws IOException {
+        File sourceDir = temporaryFolder.newFolder();
+        File outputDir = temporaryFolder.newFolder();
+        List<String> arguments = new ArrayList<>(List.of(
+                "-d", outputDir.getPath(),
+                "-cp", System.getProperty("java.class.path") + (extraClasspath == null ? "" : File.pathSeparator + extraClasspath.getPath())));
+        for (int i = 0; i < sources.length; i += 2) {
+            Path sourceFile = sourceDir.toPath().resolve(sources[i] + ".java");
+            Files.writeString(sourceFile, "package " + PACKAGE + ";\n" + sources[i + 1]);
+            arguments.add(sourceFile.toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("A JDK is required.", compiler);
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+        return outputDir;
+    }
+
+    private File jar(File classDir) throws IOException {
+        File jarFile = temporaryFolder.newFile(classDir.getName() + ".jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jarFile.toPath()));
+             Stream<Path> files = Files.walk(classDir.toPath())) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                output.putNextEntry(new JarEntry(classDir.toPath().relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, output);
+                output.closeEntry();
+            }
+        }
+        return jarFile;
+    }
+
+    private static ClassScanIndex build(List<File> classpath, Path cacheFile) {
+        ComponentScanningEvent componentScanningEvent = new ComponentScanningEvent();
+        componentScanningEvent.register(PACKAGE);
+        return ClassScanIndex.build(new StructScanningEvent(), componentScanningEvent, classpath, cacheFile, LOGGER);
+    }
+
+    private static List<ComponentRegisterPlan> plans(ClassScanIndex index) {
+        FieldRegistry fieldRegistry = new FieldRegistry(new StructRegistry());
+        fieldRegistry.registerFieldType("int", int.class, new FieldDef(ScalarType.INT));
+        ComponentScanningEvent componentScanningEvent = new ComponentScanningEvent();
+        componentScanningEvent.register(PACKAGE);
+        return ComponentScanningHelper.scanComponentClasses(index, componentScanningEvent, fieldRegistry);
+    }
+
+    private static String componentSource(String field) {
+        return componentSource("Sample", field);
+    }
+
+    private static String componentSource(String className, String field) {
+        return "@com.cleanroommc.kirino.ecs.component.scan.CleanComponent\n" +
+                "public class " + className + " implements com.cleanroommc.kirino.ecs.component.ICleanComponent { public int " + field + "; }";
+    }
+
+    private static List<String> fieldNames(List<ComponentRegisterPlan> plans, String simpleName) {
+        for (ComponentRegisterPlan plan : plans) {
+            if (plan.componentClass().equals(PACKAGE + "." + simpleName)) {
+                return plan.memberLayout().fieldNames;
+            }
+        }
+        throw new AssertionError(simpleName + " wasn't found.");
+    }
+
+    @Test
+    public void testClasspathOrderWins() throws IOException {
+        File first = compile(null, "Sample", componentSource("fromFirst"));
+        File second = jar(compile(null, "Sample", componentSource("fromSecond")));
+        Path cacheFile = temporaryFolder.getRoot().toPath().resolve("cache.bin");
+
+        // a directory before a jar
+        List<ComponentRegisterPlan> plans = plans(build(List.of(first, second), cacheFile));
+        assertEquals(1, plans.size());
+        assertEquals(List.of("fromFirst"), plans.getFirst().memberLayout().fieldNames);
+
+        // a cached jar before a directory
+        plans = plans(build(List.of(second, first), cacheFile));
+        assertEquals(1, plans.size());
+        assertEquals(List.of("fromSecond"), plans.getFirst().memberLayout().fieldNames);
+    }
+
+    @Test
+    public void testCacheReuse() throws IOException {
+        File jar = jar(compile(null, "Sample", componentSource("value")));
+        Path cacheFile = temporaryFolder.getRoot().toPath().resolve("cache.bin");
+
+        ClassScanIndex index = build(List.of(jar), cacheFile);
+        assertEquals(1, index.scannedElementCount);
+        assertEquals(0, index.cachedElementCount);
+
+        ClassScanIndex cachedIndex = build(List.of(jar), cacheFile);
+        assertEquals(0, cachedIndex.scannedElementCount);
+        assertEquals(1, cachedIndex.cachedElementCount);
+        assertEquals(index.getClassNames(), cachedIndex.getClassNames());
+        assertEquals(plans(index).getFirst().memberLayout().fieldNames, plans(cachedIndex).getFirst().memberLayout().fieldNames);
+
+        // a changed jar is rescanned
+        assertTrue(jar.setLastModified(jar.lastModified() + 10_000L));
+        ClassScanIndex rescannedIndex = build(List.of(jar), cacheFile);
+        assertEquals(1, rescannedIndex.scannedElementCount);
+    }
+
+    @Test
+    public void testSupertypeInCachedJar() throws IOException {
+        File baseClasses = compile(null,
+                "Base", "public abstract class Base implements com.cleanroommc.kirino.ecs.component.ICleanComponent { }");
+        File baseJar = jar(baseClasses);
+        File derivedJar = jar(compile(baseClasses,
+                "Derived", "@com.cleanroommc.kirino.ecs.component.scan.CleanComponent\npublic class Derived extends Base { public int value; }"));
+        Path cacheFile = temporaryFolder.getRoot().toPath().resolve("cache.bin");
+
+        assertEquals(1, plans(build(List.of(baseJar, derivedJar), cacheFile)).size());
+
+        // only the derived jar is rescanned while the base jar comes from the cache
+        assertTrue(derivedJar.setLastModified(derivedJar.lastModified() + 10_000L));
+        ClassScanIndex index = build(List.of(baseJar, derivedJar), cacheFile);
+        assertEquals(1, index.scannedElementCount);
+        assertEquals(1, index.cachedElementCount);
+
+        List<ComponentRegisterPlan> plans = plans(index);
+        assertEquals(1, plans.size());
+        assertEquals(PACKAGE + ".Derived", plans.getFirst().componentClass());
+    }
+
+    @Test
+    public void testMultiClassJar() throws IOException {
+        File first = compile(null, "Sample", componentSource("fromFirst"));
+        File second = jar(compile(null,
+                "Sample", componentSource("fromSecond"),
+                "Other", componentSource("Other", "value"),
+                "Plain", "public class Plain { }"));
+        Path cacheFile = temporaryFolder.getRoot().toPath().resolve("cache.bin");
+
+        // Sample of the jar is masked by the directory, Other isn't
+        ClassScanIndex index = build(List.of(first, second), cacheFile);
+        assertEquals(2, index.scannedElementCount);
+        List<ComponentRegisterPlan> plans = plans(index);
+        assertEquals(2, plans.size());
+        assertEquals(List.of("fromFirst"), fieldNames(plans, "Sample"));
+        assertEquals(List.of("value"), fieldNames(plans, "Other"));
+
+        // the cache entry of the jar still holds its masked copy of Sample
+        index = build(List.of(second), cacheFile);
+        assertEquals(1, index.cachedElementCount);
+        plans = plans(index);
+        assertEquals(2, plans.size());
+        assertEquals(List.of("fromSecond"), fieldNames(plans, "Sample"));
+        assertEquals(List.of("value"), fieldNames(plans, "Other"));
+    }
+
+    @Test
+    public void testCorruptCache() throws IOException {
+        File jar = jar(compile(null, "Sample", componentSource("value")));
+        Path cacheFile = temporaryFolder.getRoot().toPath().resolve("cache.bin");
+        build(List.of(jar), cacheFile);
+
+        // valid header, then a package count far beyond the file size
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(cacheFile))) {
+            output.writeInt(0x4B45_4353);
+            output.writeInt(2);
+            output.writeInt(Integer.MAX_VALUE);
+        }
+
+        ClassScanIndex index = build(List.of(jar), cacheFile);
+        assertEquals(1, index.scannedElementCount);
+        assertEquals(List.of("value"), plans(index).getFirst().memberLayout().fieldNames);
+
+        // the rewritten cache is valid again
+        assertEquals(1, build(List.of(jar), cacheFile).cachedElementCount);
+    }
+}
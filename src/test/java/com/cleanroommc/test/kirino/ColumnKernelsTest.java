@@ -0,0 +1,182 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.job.kernel.ColumnKernels;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColumnKernelsTest {
+    // longer than ColumnKernels.BATCH_SIZE and not a multiple of it
+    private static final int LENGTH = 1027;
+    // trailing elements must stay untouched
+    private static final int CAPACITY = LENGTH + 5;
+    private static final int SENTINEL = 0x7E57;
+
+    private static float[] randomFloats(Random random) {
+        float[] array = new float[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            array[i] = (random.nextFloat() - 0.5f) * 200f;
+        }
+        return array;
+    }
+
+    private static int[] sentinelMask() {
+        int[] mask = new int[CAPACITY];
+        Arrays.fill(mask, LENGTH, CAPACITY, SENTINEL);
+        return mask;
+    }
+
+    private static void assertTailUntouched(int[] mask) {
+        for (int i = LENGTH; i < CAPACITY; i++) {
+            assertEquals(SENTINEL, mask[i]);
+        }
+    }
+
+    private static void assertTailUntouched(float[] dst) {
+        for (int i = LENGTH; i < CAPACITY; i++) {
+            assertEquals(SENTINEL, dst[i], 0f);
+        }
+    }
+
+    @Test
+    public void testIntToFloat() {
+        int[] src = new int[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            src[i] = i - 500;
+        }
+        float[] dst = new float[CAPACITY];
+        Arrays.fill(dst, SENTINEL);
+
+        ColumnKernels.intToFloat(src, 16f, dst, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            assertEquals((i - 500) * 16f, dst[i], 0f);
+        }
+        assertTailUntouched(dst);
+    }
+
+    @Test
+    public void testScaleToInt() {
+        Random random = new Random(1);
+        float[] src = randomFloats(random);
+        int[] dst = sentinelMask();
+
+        ColumnKernels.scaleToInt(src, 0.25f, dst, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            // truncates towards zero like a cast
+            assertEquals((int) (src[i] * 0.25f), dst[i]);
+        }
+        assertTailUntouched(dst);
+    }
+
+    @Test
+    public void testDistances() {
+        Random random = new Random(2);
+        float[] x = randomFloats(random);
+        float[] y = randomFloats(random);
+        float[] z = randomFloats(random);
+        float[] squared = new float[CAPACITY];
+        float[] distance = new float[CAPACITY];
+        Arrays.fill(squared, SENTINEL);
+        Arrays.fill(distance, SENTINEL);
+
+        ColumnKernels.distanceSquaredToPoint(x, y, z, 1f, -2f, 3f, squared, LENGTH);
+        ColumnKernels.distanceToPoint(x, y, z, 1f, -2f, 3f, distance, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            float dx = x[i] - 1f;
+            float dy = y[i] + 2f;
+            float dz = z[i] - 3f;
+            float expected = dx * dx + dy * dy + dz * dz;
+            assertEquals(expected, squared[i], 0f);
+            assertEquals((float) Math.sqrt(expected), distance[i], 0f);
+        }
+        assertTailUntouched(squared);
+        assertTailUntouched(distance);
+    }
+
+    @Test
+    public void testAabbBehindPlane() {
+        Random random = new Random(3);
+        float[] minX = randomFloats(random);
+        float[] minY = randomFloats(random);
+        float[] minZ = randomFloats(random);
+        float[] maxX = new float[CAPACITY];
+        float[] maxY = new float[CAPACITY];
+        float[] maxZ = new float[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            maxX[i] = minX[i] + random.nextFloat() * 20f;
+            maxY[i] = minY[i] + random.nextFloat() * 20f;
+            maxZ[i] = minZ[i] + random.nextFloat() * 20f;
+        }
+
+        // mixed signs select different vertices per axis
+        float a = 0.6f;
+        float b = -0.48f;
+        float c = 0.64f;
+        float d = 5f;
+        int[] mask = sentinelMask();
+        mask[0] = 0b100;
+
+        ColumnKernels.aabbBehindPlane(minX, minY, minZ, maxX, maxY, maxZ, a, b, c, d, 0b10, mask, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            // brute force over all 8 vertices
+            boolean behind = true;
+            for (int v = 0; v < 8; v++) {
+                float vx = (v & 1) == 0 ? minX[i] : maxX[i];
+                float vy = (v & 2) == 0 ? minY[i] : maxY[i];
+                float vz = (v & 4) == 0 ? minZ[i] : maxZ[i];
+                if (a * vx + b * vy + c * vz + d >= 0f) {
+                    behind = false;
+                    break;
+                }
+            }
+            int existing = i == 0 ? 0b100 : 0;
+            assertEquals("row " + i, existing | (behind ? 0b10 : 0), mask[i]);
+        }
+        assertTailUntouched(mask);
+    }
+
+    @Test
+    public void testThresholdMasks() {
+        Random random = new Random(4);
+        float[] values = randomFloats(random);
+        // exact hits must not pass either strict comparison
+        values[7] = 10f;
+        int[] greater = sentinelMask();
+        int[] less = sentinelMask();
+
+        ColumnKernels.greaterThanMask(values, 10f, 1, greater, LENGTH);
+        ColumnKernels.lessThanMask(values, 10f, 1 << 3, less, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            assertEquals(values[i] > 10f ? 1 : 0, greater[i]);
+            assertEquals(values[i] < 10f ? 1 << 3 : 0, less[i]);
+        }
+        assertEquals(0, greater[7]);
+        assertEquals(0, less[7]);
+        assertTailUntouched(greater);
+        assertTailUntouched(less);
+    }
+
+    @Test
+    public void testEmptyRange() {
+        float[] values = {1f, 2f};
+        int[] mask = {SENTINEL, SENTINEL};
+
+        ColumnKernels.greaterThanMask(values, 0f, 1, mask, 0);
+
+        assertArrayEquals(new int[]{SENTINEL, SENTINEL}, mask);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLengthOutOfBounds() {
+        ColumnKernels.intToFloat(new int[4], 1f, new float[3], 4);
+    }
+}
@@ -0,0 +1,182 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelJob;
+import com.cleanroommc.kirino.ecs.job.IParallelReductionJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.storage.ArchetypeDataPool;
+import com.cleanroommc.kirino.ecs.storage.IArchetypeView;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DoubleBufferedTest {
+    public static class WriteJob implements IParallelJob {
+        @JobDataQuery(componentClass = EcsTestFixture.BufferedComponent.class, fieldAccessChain = {"value"})
+        public IPrimitiveArray valueArray;
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+            valueArray.setInt(index, valueArray.getInt(index) + 100);
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(EcsTestFixture.BufferedComponent.class);
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            return 1;
+        }
+    }
+
+    public static class FrontSumJob implements IParallelReductionJob<int[]> {
+        @JobDataQuery(componentClass = EcsTestFixture.BufferedComponent.class, fieldAccessChain = {"value"})
+        public IPrimitiveArray valueArray;
+
+        private int[] sum;
+
+        @Override
+        public int @NonNull [] newAccumulator() {
+            return new int[1];
+        }
+
+        @Override
+        public void bindAccumulator(int @NonNull [] accumulator) {
+            sum = accumulator;
+        }
+
+        @Override
+        public int @NonNull [] combine(int @NonNull [] left, int @NonNull [] right) {
+            left[0] += right[0];
+            return left;
+        }
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+            sum[0] += valueArray.getInt(index);
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(EcsTestFixture.BufferedComponent.class).readFrontBuffer();
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            return 1;
+        }
+    }
+
+    private static EcsTestFixture newEcs() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        ecs.jobRegistry.registerParallelJob(WriteJob.class);
+        ecs.jobRegistry.registerParallelJob(FrontSumJob.class);
+        // spans multiple copy-on-write blocks
+        for (int i = 0; i < 3000; i++) {
+            ecs.entityManager.createEntity(new EcsTestFixture.BufferedComponent(1), new EcsTestFixture.SampleComponent());
+        }
+        ecs.entityManager.flush();
+        return ecs;
+    }
+
+    private static int frontSum(EcsTestFixture ecs) {
+        int[] sum = ecs.jobScheduler.executeParallelJob(ecs.entityManager, FrontSumJob.class, null, Runnable::run).joinReduction();
+        return sum[0];
+    }
+
+    private static ArchetypeDataPool pool(EcsTestFixture ecs) {
+        List<ArchetypeDataPool> pools = ecs.entityManager.startQuery(ecs.entityManager.newQuery().with(EcsTestFixture.BufferedComponent.class));
+        assertEquals(1, pools.size());
+        return pools.getFirst();
+    }
+
+    @Test
+    public void testReadersSeeFrontUntilSwap() {
+        EcsTestFixture ecs = newEcs();
+        assertEquals(3000, frontSum(ecs));
+
+        ecs.jobScheduler.executeParallelJob(ecs.entityManager, WriteJob.class, null, Runnable::run);
+
+        // writers hit the back buffer
+        assertEquals(101, pool(ecs).getArray(EcsTestFixture.BufferedComponent.class, "value").getInt(0));
+        // readers keep seeing the previous front
+        assertEquals(3000, frontSum(ecs));
+        assertEquals(1, pool(ecs).getFrontView().getArray(EcsTestFixture.BufferedComponent.class, 0).getInt(0));
+
+        ecs.entityManager.flush();
+
+        assertEquals(3000 * 101, frontSum(ecs));
+    }
+
+    @Test
+    public void testOnlyDirtyBlocksAreCopied() {
+        EcsTestFixture ecs = newEcs();
+        long copied = pool(ecs).getStats().swapBytesCopied();
+
+        // a single row in the second block
+        pool(ecs).getArray(EcsTestFixture.BufferedComponent.class, "value").setInt(1500, 7);
+        ecs.entityManager.flush();
+
+        assertEquals(copied + 1024L * Integer.BYTES, pool(ecs).getStats().swapBytesCopied());
+        assertEquals(2999 + 7, frontSum(ecs));
+    }
+
+    @Test
+    public void testSteadyStateSwapsRecycleBlocks() {
+        EcsTestFixture ecs = newEcs();
+
+        // every block is dirty at every flush, like a column rewritten each frame
+        for (int frame = 0; frame < 3; frame++) {
+            ecs.jobScheduler.executeParallelJob(ecs.entityManager, WriteJob.class, null, Runnable::run);
+            ecs.entityManager.flush();
+        }
+        long allocated = pool(ecs).getStats().frontBlocksAllocated();
+
+        for (int frame = 3; frame < 20; frame++) {
+            ecs.jobScheduler.executeParallelJob(ecs.entityManager, WriteJob.class, null, Runnable::run);
+            ecs.entityManager.flush();
+            assertEquals(3000 * (1 + 100 * (frame + 1)), frontSum(ecs));
+        }
+        assertEquals(allocated, pool(ecs).getStats().frontBlocksAllocated());
+    }
+
+    @Test
+    public void testReplacedViewSurvivesOneSwap() {
+        EcsTestFixture ecs = newEcs();
+        for (int frame = 0; frame < 3; frame++) {
+            ecs.jobScheduler.executeParallelJob(ecs.entityManager, WriteJob.class, null, Runnable::run);
+            ecs.entityManager.flush();
+        }
+        IArchetypeView replaced = pool(ecs).getFrontView();
+
+        // the replacing swap and the one after it
+        ecs.jobScheduler.executeParallelJob(ecs.entityManager, WriteJob.class, null, Runnable::run);
+        ecs.entityManager.flush();
+        ecs.jobScheduler.executeParallelJob(ecs.entityManager, WriteJob.class, null, Runnable::run);
+        ecs.entityManager.flush();
+
+        IPrimitiveArray values = replaced.getArray(EcsTestFixture.BufferedComponent.class, 0);
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(301, values.getInt(i));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFrontViewIsReadOnly() {
+        EcsTestFixture ecs = newEcs();
+        pool(ecs).getFrontView().getArray(EcsTestFixture.BufferedComponent.class, 0).setInt(0, 5);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrontViewOfSingleBufferedComponent() {
+        EcsTestFixture ecs = newEcs();
+        pool(ecs).getFrontView().getArray(EcsTestFixture.SampleComponent.class, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.component.ComponentRegistry;
+import com.cleanroommc.kirino.ecs.component.DoubleBuffered;
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldDef;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldRegistry;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.ScalarType;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructRegistry;
+import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.job.JobRegistry;
+import com.cleanroommc.kirino.ecs.job.JobScheduler;
+
+/**
+ * A minimal ECS runtime without class scanning and events, i.e. what <code>CleanECSRuntime</code> sets up
+ * but with the components registered by hand.
+ */
+public final class EcsTestFixture {
+    public static class SampleComponent implements ICleanComponent {
+        public int id;
+        public float value;
+
+        public SampleComponent() {
+        }
+
+        public SampleComponent(int id, float value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    public static class TagComponent implements ICleanComponent {
+        public boolean flag;
+    }
+
+    @DoubleBuffered
+    public static class BufferedComponent implements ICleanComponent {
+        public int value;
+
+        public BufferedComponent() {
+        }
+
+        public BufferedComponent(int value) {
+            this.value = value;
+        }
+    }
+
+    public final ComponentRegistry componentRegistry;
+    public final EntityManager entityManager;
+    public final JobRegistry jobRegistry;
+    public final JobScheduler jobScheduler;
+
+    public EcsTestFixture() {
+        FieldRegistry fieldRegistry = new FieldRegistry(new StructRegistry());
+        fieldRegistry.registerFieldType("int", int.class, new FieldDef(ScalarType.INT));
+        fieldRegistry.registerFieldType("float", float.class, new FieldDef(ScalarType.FLOAT));
+        fieldRegistry.registerFieldType("bool", boolean.class, new FieldDef(ScalarType.BOOL));
+
+        componentRegistry = new ComponentRegistry(fieldRegistry);
+        componentRegistry.registerComponent("SampleComponent", SampleComponent.class, new MemberLayout("id", "value"), "int", "float");
+        componentRegistry.registerComponent("TagComponent", TagComponent.class, new MemberLayout("flag"), "bool");
+        componentRegistry.registerComponent("BufferedComponent", BufferedComponent.class, new MemberLayout("value"), "int");
+
+        entityManager = new EntityManager(componentRegistry);
+        jobRegistry = new JobRegistry(componentRegistry);
+        jobScheduler = new JobScheduler(jobRegistry);
+    }
+}
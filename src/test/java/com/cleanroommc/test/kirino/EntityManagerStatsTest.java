@@ -0,0 +1,75 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.entity.CleanEntityHandle;
+import com.cleanroommc.kirino.ecs.entity.EntityManagerStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EntityManagerStatsTest {
+    @Test
+    public void testCountsAfterCreateDestroyFlush() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        List<CleanEntityHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            handles.add(ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(i, 0f)));
+        }
+        for (int i = 0; i < 2; i++) {
+            handles.add(ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(i, 0f), new EcsTestFixture.TagComponent()));
+        }
+
+        EntityManagerStats stats = ecs.entityManager.getStats();
+        assertEquals(5, stats.pendingCommands());
+        assertEquals(0, stats.liveEntities());
+        assertEquals(0, stats.flushCount());
+
+        ecs.entityManager.flush();
+        stats = ecs.entityManager.getStats();
+        assertEquals(0, stats.pendingCommands());
+        assertEquals(5, stats.liveEntities());
+        assertEquals(5, stats.entitySlots());
+        assertEquals(0, stats.freeEntitySlots());
+        assertEquals(2, stats.archetypes().size());
+        assertEquals(1, stats.flushCount());
+        assertEquals(5, stats.lastFlushCommands());
+
+        assertTrue(handles.get(0).tryDestroy());
+        assertTrue(handles.get(3).tryDestroy());
+        assertEquals(2, ecs.entityManager.getStats().pendingCommands());
+
+        ecs.entityManager.flush();
+        stats = ecs.entityManager.getStats();
+        assertEquals(0, stats.pendingCommands());
+        assertEquals(3, stats.liveEntities());
+        assertEquals(5, stats.entitySlots());
+        assertEquals(2, stats.freeEntitySlots());
+        assertEquals(2, stats.flushCount());
+        assertEquals(2, stats.lastFlushCommands());
+        assertEquals(5, stats.maxFlushCommands());
+        assertEquals(7, stats.totalFlushCommands());
+        assertEquals(3.5d, stats.averageFlushCommands(), 0d);
+    }
+
+    @Test
+    public void testFormatIgnoresDefaultLocale() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(1, 0f));
+        ecs.entityManager.flush();
+        ecs.entityManager.flush();
+
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            // decimal comma
+            Locale.setDefault(Locale.GERMANY);
+            String text = ecs.entityManager.getStats().format();
+            assertTrue(text, text.contains("Commands last/avg/max: 0/0.5/1"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
+import com.cleanroommc.kirino.ecs.entity.CleanEntityHandle;
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.storage.ArchetypeDataPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EntitySnapshotTest {
+    public static class PairComponent implements ICleanComponent {
+        public int first;
+        public int second;
+
+        public PairComponent() {
+        }
+
+        public PairComponent(int first, int second) {
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Three entities in two archetypes; the one in the middle is destroyed, i.e. the entity table is
+     * <code>count=3, generations=[0, 1, 0], freeCount=1, free=[1]</code>.
+     */
+    private static Path writeSnapshot(EcsTestFixture ecs, Path file) throws IOException {
+        ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(10, 1.5f));
+        CleanEntityHandle destroyed = ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(20, 2.5f));
+        ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(30, 3.5f), new EcsTestFixture.TagComponent());
+        ecs.entityManager.flush();
+        assertTrue(destroyed.tryDestroy());
+        ecs.entityManager.flush();
+
+        ecs.entityManager.writeSnapshot(file);
+        return file;
+    }
+
+    private static EcsTestFixture.SampleComponent getSample(EntityManager entityManager, int index) {
+        for (ArchetypeDataPool pool : entityManager.startQuery(entityManager.newQuery().with(EcsTestFixture.SampleComponent.class))) {
+            if (pool.containsEntity(index)) {
+                return (EcsTestFixture.SampleComponent) pool.getComponent(index, EcsTestFixture.SampleComponent.class);
+            }
+        }
+        throw new AssertionError("Entity " + index + " not found.");
+    }
+
+    /**
+     * Overwrites the last int of the entity table written by {@link #writeSnapshot(EcsTestFixture, Path)}, i.e. the free index.
+     * Strings in the schema aren't padded, so the table is searched byte by byte.
+     */
+    private static void patchFreeIndex(Path file, int freeIndex) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int[] entityTable = {3, 0, 1, 0, 1, 1};
+        for (int offset = 0; offset + entityTable.length * Integer.BYTES <= bytes.length; offset++) {
+            int[] ints = new int[entityTable.length];
+            for (int i = 0; i < ints.length; i++) {
+                ints[i] = buffer.getInt(offset + i * Integer.BYTES);
+            }
+            if (Arrays.equals(ints, entityTable)) {
+                buffer.putInt(offset + (entityTable.length - 1) * Integer.BYTES, freeIndex);
+                Files.write(file, bytes);
+                return;
+            }
+        }
+        throw new AssertionError("Entity table not found.");
+    }
+
+    private static void assertRejected(EcsTestFixture ecs, Path file) {
+        CleanEntityHandle survivor = ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(99, 9f));
+        ecs.entityManager.flush();
+
+        try {
+            ecs.entityManager.readSnapshot(file, null);
+            fail("The corrupt snapshot was accepted.");
+        } catch (IOException e) {
+            // expected
+        }
+
+        // nothing is replaced on failure
+        assertTrue(survivor.valid());
+        assertEquals(99, getSample(ecs.entityManager, survivor.index).id);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = writeSnapshot(new EcsTestFixture(), temporaryFolder.getRoot().toPath().resolve("entities.bin"));
+
+        EcsTestFixture restored = new EcsTestFixture();
+        List<CleanEntityHandle> handles = restored.entityManager.readSnapshot(file, null);
+
+        assertEquals(2, handles.size());
+        assertEquals(0, handles.get(0).index);
+        assertEquals(2, handles.get(1).index);
+        assertEquals(10, getSample(restored.entityManager, 0).id);
+        assertEquals(1.5f, getSample(restored.entityManager, 0).value, 0f);
+        assertEquals(30, getSample(restored.entityManager, 2).id);
+        assertEquals(3.5f, getSample(restored.entityManager, 2).value, 0f);
+        assertEquals(2, restored.entityManager.startQuery(restored.entityManager.newQuery().with(EcsTestFixture.SampleComponent.class)).size());
+
+        // the free index is reused with the bumped generation
+        CleanEntityHandle created = restored.entityManager.createEntity(new EcsTestFixture.SampleComponent(40, 4.5f));
+        restored.entityManager.flush();
+        assertEquals(1, created.index);
+        assertEquals(1, created.generation);
+        assertEquals(40, getSample(restored.entityManager, 1).id);
+    }
+
+    @Test
+    public void testFreeIndexOutOfRange() throws IOException {
+        Path file = writeSnapshot(new EcsTestFixture(), temporaryFolder.getRoot().toPath().resolve("entities.bin"));
+        patchFreeIndex(file, 7);
+
+        assertRejected(new EcsTestFixture(), file);
+    }
+
+    @Test
+    public void testFreeIndexOfAliveEntity() throws IOException {
+        Path file = writeSnapshot(new EcsTestFixture(), temporaryFolder.getRoot().toPath().resolve("entities.bin"));
+        patchFreeIndex(file, 0);
+
+        assertRejected(new EcsTestFixture(), file);
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        Path file = writeSnapshot(new EcsTestFixture(), temporaryFolder.getRoot().toPath().resolve("entities.bin"));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertRejected(new EcsTestFixture(), file);
+    }
+
+    @Test
+    public void testReorderedFields() throws IOException {
+        EcsTestFixture writer = new EcsTestFixture();
+        writer.componentRegistry.registerComponent("PairComponent", PairComponent.class, new MemberLayout("first", "second"), "int", "int");
+        writer.entityManager.createEntity(new PairComponent(1, 2));
+        writer.entityManager.flush();
+        Path file = temporaryFolder.getRoot().toPath().resolve("entities.bin");
+        writer.entityManager.writeSnapshot(file);
+
+        // same scalar types, but the columns would be swapped
+        EcsTestFixture reader = new EcsTestFixture();
+        reader.componentRegistry.registerComponent("PairComponent", PairComponent.class, new MemberLayout("second", "first"), "int", "int");
+        assertRejected(reader, file);
+    }
+}
@@ -0,0 +1,244 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
+import com.cleanroommc.kirino.ecs.entity.CleanEntityHandle;
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelJob;
+import com.cleanroommc.kirino.ecs.job.IParallelReductionJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobExternalDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobScheduler;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JobPartitioningTest {
+    public static class Marker0 implements ICleanComponent {
+        public boolean flag;
+    }
+
+    public static class Marker1 implements ICleanComponent {
+        public boolean flag;
+    }
+
+    public static class Marker2 implements ICleanComponent {
+        public boolean flag;
+    }
+
+    public static class Marker3 implements ICleanComponent {
+        public boolean flag;
+    }
+
+    private static final ICleanComponent[][] SMALL_ARCHETYPES = {
+            {new EcsTestFixture.TagComponent()},
+            {new Marker0()},
+            {new Marker1()},
+            {new Marker2()},
+            {new Marker3()},
+            {new Marker0(), new Marker1()},
+            {new Marker0(), new Marker2()},
+            {new Marker0(), new Marker3()},
+            {new Marker1(), new Marker2()},
+            {new Marker1(), new Marker3()},
+            {new Marker2(), new Marker3()},
+            {new Marker0(), new Marker1(), new Marker2(), new Marker3()},
+    };
+    private static final int SMALL_ROWS = 10;
+    private static final int LARGE_ROWS = JobScheduler.REDUCTION_ROWS_PER_PARTITION * 2 + 452;
+
+    // records which thread ordinal visited each entity, keyed by SampleComponent#id
+    public static class VisitJob implements IParallelJob {
+        @JobDataQuery(componentClass = EcsTestFixture.SampleComponent.class, fieldAccessChain = {"id"})
+        public IPrimitiveArray idArray;
+
+        @JobExternalDataQuery
+        public AtomicIntegerArray visits;
+
+        @JobExternalDataQuery
+        public int[] ordinals;
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+            int id = idArray.getInt(index);
+            visits.incrementAndGet(id);
+            ordinals[id] = threadOrdinal;
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(EcsTestFixture.SampleComponent.class);
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            return 1;
+        }
+    }
+
+    // same as VisitJob, but partitioned by rows
+    public static class VisitReductionJob implements IParallelReductionJob<int[]> {
+        @JobDataQuery(componentClass = EcsTestFixture.SampleComponent.class, fieldAccessChain = {"id"})
+        public IPrimitiveArray idArray;
+
+        @JobExternalDataQuery
+        public AtomicIntegerArray visits;
+
+        @JobExternalDataQuery
+        public int[] ordinals;
+
+        private int[] count;
+
+        @Override
+        public int @NonNull [] newAccumulator() {
+            return new int[1];
+        }
+
+        @Override
+        public void bindAccumulator(int @NonNull [] accumulator) {
+            count = accumulator;
+        }
+
+        @Override
+        public int @NonNull [] combine(int @NonNull [] left, int @NonNull [] right) {
+            left[0] += right[0];
+            return left;
+        }
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+            int id = idArray.getInt(index);
+            visits.incrementAndGet(id);
+            ordinals[id] = threadOrdinal;
+            count[0]++;
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(EcsTestFixture.SampleComponent.class);
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            return 1;
+        }
+    }
+
+    private final EcsTestFixture ecs = new EcsTestFixture();
+    private final List<Integer> smallIds = new ArrayList<>();
+    private final List<Integer> largeIds = new ArrayList<>();
+    private final Set<Integer> destroyedIds = new HashSet<>();
+    private int entityCount;
+
+    // many small archetypes plus a large one with holes
+    private void populate() {
+        ecs.componentRegistry.registerComponent("Marker0", Marker0.class, new MemberLayout("flag"), "bool");
+        ecs.componentRegistry.registerComponent("Marker1", Marker1.class, new MemberLayout("flag"), "bool");
+        ecs.componentRegistry.registerComponent("Marker2", Marker2.class, new MemberLayout("flag"), "bool");
+        ecs.componentRegistry.registerComponent("Marker3", Marker3.class, new MemberLayout("flag"), "bool");
+
+        for (ICleanComponent[] markers : SMALL_ARCHETYPES) {
+            for (int i = 0; i < SMALL_ROWS; i++) {
+                ICleanComponent[] components = new ICleanComponent[markers.length + 1];
+                components[0] = new EcsTestFixture.SampleComponent(entityCount, 0f);
+                System.arraycopy(markers, 0, components, 1, markers.length);
+                smallIds.add(entityCount++);
+                ecs.entityManager.createEntity(components);
+            }
+        }
+
+        List<CleanEntityHandle> largeHandles = new ArrayList<>();
+        for (int i = 0; i < LARGE_ROWS; i++) {
+            largeIds.add(entityCount);
+            largeHandles.add(ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(entityCount++, 0f)));
+        }
+        ecs.entityManager.flush();
+
+        for (int i = 0; i < LARGE_ROWS; i += 97) {
+            largeHandles.get(i).tryDestroy();
+            destroyedIds.add(largeIds.get(i));
+        }
+        ecs.entityManager.flush();
+    }
+
+    private Map<String, Object> newExternalData() {
+        Map<String, Object> externalData = new HashMap<>();
+        externalData.put("visits", new AtomicIntegerArray(entityCount));
+        externalData.put("ordinals", new int[entityCount]);
+        return externalData;
+    }
+
+    private void assertVisitedOnce(Map<String, Object> externalData) {
+        AtomicIntegerArray visits = (AtomicIntegerArray) externalData.get("visits");
+        for (int id = 0; id < entityCount; id++) {
+            assertEquals("id=" + id, destroyedIds.contains(id) ? 0 : 1, visits.get(id));
+        }
+    }
+
+    private Set<Integer> ordinalsOf(Map<String, Object> externalData, List<Integer> ids) {
+        int[] ordinals = (int[]) externalData.get("ordinals");
+        Set<Integer> result = new HashSet<>();
+        for (int id : ids) {
+            if (!destroyedIds.contains(id)) {
+                result.add(ordinals[id]);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testEveryAliveRowOnce() {
+        populate();
+        ecs.jobRegistry.registerParallelJob(VisitJob.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Map<String, Object> externalData = newExternalData();
+            ecs.jobScheduler.executeParallelJob(ecs.entityManager, VisitJob.class, externalData, executor).future().join();
+
+            assertVisitedOnce(externalData);
+            // the small archetypes are far below the target workload, so at most one partition boundary falls among them
+            assertTrue(ordinalsOf(externalData, smallIds).size() <= 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPackSmallAndSplitLarge() {
+        populate();
+        ecs.jobRegistry.registerParallelJob(VisitReductionJob.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Map<String, Object> externalData = newExternalData();
+            JobScheduler.ExecutionHandle handle = ecs.jobScheduler.executeParallelJob(ecs.entityManager, VisitReductionJob.class, externalData, executor);
+            int[] count = handle.joinReduction();
+
+            int aliveRows = entityCount - destroyedIds.size();
+            assertEquals(aliveRows, count[0]);
+            assertEquals((aliveRows + JobScheduler.REDUCTION_ROWS_PER_PARTITION - 1) / JobScheduler.REDUCTION_ROWS_PER_PARTITION, handle.totalThreadCount());
+            assertVisitedOnce(externalData);
+
+            // 12 archetypes, 120 rows, one partition
+            assertEquals(1, ordinalsOf(externalData, smallIds).size());
+            assertEquals(handle.totalThreadCount(), ordinalsOf(externalData, largeIds).size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.component.ComponentRegistry;
+import com.cleanroommc.kirino.ecs.component.ICleanComponent;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldDef;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.FieldRegistry;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.scalar.ScalarType;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructDef;
+import com.cleanroommc.kirino.ecs.component.schema.def.field.struct.StructRegistry;
+import com.cleanroommc.kirino.ecs.component.schema.meta.MemberLayout;
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelJob;
+import com.cleanroommc.kirino.ecs.job.JobDataBinding;
+import com.cleanroommc.kirino.ecs.job.JobDataGroupQuery;
+import com.cleanroommc.kirino.ecs.job.JobRegistry;
+import com.cleanroommc.kirino.ecs.storage.column.ColumnGroupType;
+import com.cleanroommc.kirino.ecs.storage.column.Vec3Columns;
+import org.joml.Vector3f;
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JobRegistryTest {
+    public static class IntVec3 {
+        public int x;
+        public int y;
+        public int z;
+    }
+
+    public static class TransformComponent implements ICleanComponent {
+        public int id;
+        public Vector3f position;
+        public IntVec3 cell;
+    }
+
+    public static class PositionJob implements IParallelJob {
+        @JobDataGroupQuery(componentClass = TransformComponent.class, fieldAccessChain = {"position"})
+        public Vec3Columns position;
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(TransformComponent.class);
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            return 1;
+        }
+    }
+
+    // Vec3Columns reads floats, but the members of IntVec3 are ints
+    public static class CellJob implements IParallelJob {
+        @JobDataGroupQuery(componentClass = TransformComponent.class, fieldAccessChain = {"cell"})
+        public Vec3Columns cell;
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(TransformComponent.class);
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            return 1;
+        }
+    }
+
+    private static JobRegistry newJobRegistry() {
+        StructRegistry structRegistry = new StructRegistry();
+        FieldRegistry fieldRegistry = new FieldRegistry(structRegistry);
+        fieldRegistry.registerFieldType("int", int.class, new FieldDef(ScalarType.INT));
+        fieldRegistry.registerFieldType("float", float.class, new FieldDef(ScalarType.FLOAT));
+        fieldRegistry.registerFieldType("vec3", Vector3f.class, new FieldDef(ScalarType.VEC3));
+
+        structRegistry.registerStructType("IntVec3", IntVec3.class, new MemberLayout("x", "y", "z"),
+                new StructDef(new FieldDef(ScalarType.INT), new FieldDef(ScalarType.INT), new FieldDef(ScalarType.INT)));
+        fieldRegistry.registerFieldType("IntVec3", IntVec3.class, new FieldDef("IntVec3"));
+
+        ComponentRegistry componentRegistry = new ComponentRegistry(fieldRegistry);
+        componentRegistry.registerComponent("TransformComponent", TransformComponent.class, new MemberLayout("id", "position", "cell"), "int", "vec3", "IntVec3");
+        return new JobRegistry(componentRegistry);
+    }
+
+    @Test
+    public void testBindFloatGroup() {
+        JobRegistry jobRegistry = newJobRegistry();
+        jobRegistry.registerParallelJob(PositionJob.class);
+
+        List<JobDataBinding> bindings = jobRegistry.getParallelJobDataBindings(PositionJob.class);
+        assertEquals(1, bindings.size());
+        assertEquals(ColumnGroupType.VEC3, bindings.getFirst().groupType());
+        // id comes first
+        assertArrayEquals(new int[]{1, 2, 3}, bindings.getFirst().fieldOrdinals());
+    }
+
+    @Test
+    public void testRejectIntGroup() {
+        JobRegistry jobRegistry = newJobRegistry();
+        try {
+            jobRegistry.registerParallelJob(CellJob.class);
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertTrue(e.getCause().getMessage().contains("INT"));
+        }
+        assertNull(jobRegistry.getParallelJobDataBindings(CellJob.class));
+    }
+}
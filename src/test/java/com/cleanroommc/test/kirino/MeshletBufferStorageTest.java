@@ -0,0 +1,121 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletBufferStorage;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletFormat;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletOutputBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MeshletBufferStorageTest {
+    private static MeshletOutputBuffer clusters(int... sizes) {
+        MeshletOutputBuffer outputBuffer = new MeshletOutputBuffer();
+        for (int size : sizes) {
+            outputBuffer.beginCluster(1);
+            for (int i = 0; i < size; i++) {
+                outputBuffer.addVoxel(Block.pack(2 + i % 8, 3, 4 + i / 8, 0b000010));
+            }
+            outputBuffer.endCluster(0f, 0f, 1f);
+        }
+        return outputBuffer;
+    }
+
+    @Test
+    public void testEncoding() {
+        MeshletOutputBuffer outputBuffer = clusters(10);
+        MeshletBufferStorage storage = new MeshletBufferStorage();
+
+        int slot = storage.allocate(-32, 48, 16, outputBuffer, 0);
+        ByteBuffer buffer = storage.getBuffer();
+        int offset = storage.getByteOffset(slot);
+
+        assertEquals(-32, MeshletFormat.getOriginX(buffer, offset));
+        assertEquals(48, MeshletFormat.getOriginY(buffer, offset));
+        assertEquals(16, MeshletFormat.getOriginZ(buffer, offset));
+        int bounds = MeshletFormat.getBounds(buffer, offset);
+        assertEquals(2, MeshletFormat.unpackMin(bounds, 0));
+        assertEquals(10, MeshletFormat.unpackMax(bounds, 0));
+        assertEquals(3, MeshletFormat.unpackMin(bounds, 1));
+        assertEquals(4, MeshletFormat.unpackMax(bounds, 1));
+        assertEquals(4, MeshletFormat.unpackMin(bounds, 2));
+        assertEquals(6, MeshletFormat.unpackMax(bounds, 2));
+        assertEquals(1, MeshletFormat.unpackPass(bounds));
+        assertEquals(1f, MeshletFormat.getConeAxisZ(buffer, offset), 0f);
+        assertEquals(1f, MeshletFormat.getConeCutoff(buffer, offset), 0f);
+
+        assertEquals(10, storage.getBlockCount(slot));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(outputBuffer.getVoxel(i), storage.getBlock(slot, i));
+        }
+        assertEquals(MeshletFormat.sizeInBytes(10), storage.getLiveBytes());
+    }
+
+    @Test
+    public void testAllocateAndRelease() {
+        MeshletBufferStorage storage = new MeshletBufferStorage();
+
+        int slot = storage.allocate(0, 0, 0, clusters(3), 0);
+        int generation = storage.getGeneration(slot);
+        assertTrue(storage.isValid(slot, generation));
+        assertEquals(1, storage.getLiveCount());
+
+        assertTrue(storage.release(slot, generation));
+        assertFalse(storage.isValid(slot, generation));
+        // stale handles are ignored
+        assertFalse(storage.release(slot, generation));
+        assertEquals(0, storage.getLiveCount());
+        assertEquals(0, storage.getLiveBytes());
+    }
+
+    @Test
+    public void testSlotsAreRecycled() {
+        MeshletBufferStorage storage = new MeshletBufferStorage();
+        MeshletOutputBuffer outputBuffer = clusters(1, 7, 12, 20, 32, 40, 64);
+
+        // churn like re-meshing the same sections over and over
+        int usedBytes = 0;
+        for (int round = 0; round < 100; round++) {
+            int[] slots = new int[700];
+            int[] generations = new int[700];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = storage.allocate(0, 0, 0, outputBuffer, i % outputBuffer.getClusterCount());
+                generations[i] = storage.getGeneration(slots[i]);
+            }
+            if (round == 0) {
+                usedBytes = storage.getUsedBytes();
+            }
+            for (int i = 0; i < slots.length; i++) {
+                assertTrue(storage.release(slots[i], generations[i]));
+            }
+        }
+
+        assertEquals(0, storage.getLiveCount());
+        assertEquals(700, storage.getSlotCount());
+        assertEquals(usedBytes, storage.getUsedBytes());
+
+        int slot = storage.allocate(0, 0, 0, outputBuffer, 0);
+        assertNotEquals(0, storage.getGeneration(slot));
+    }
+
+    @Test
+    public void testGrowthKeepsContents() {
+        MeshletBufferStorage storage = new MeshletBufferStorage();
+        MeshletOutputBuffer outputBuffer = clusters(64);
+
+        int first = storage.allocate(16, 0, 0, outputBuffer, 0);
+        // well beyond the initial capacity
+        for (int i = 0; i < 2000; i++) {
+            storage.allocate(0, 0, 0, outputBuffer, 0);
+        }
+
+        assertTrue(storage.getUsedBytes() > MeshletBufferStorage.PAGE_SIZE * 4);
+        assertEquals(16, MeshletFormat.getOriginX(storage.getBuffer(), storage.getByteOffset(first)));
+        assertEquals(outputBuffer.getVoxel(63), storage.getBlock(first, 63));
+    }
+}
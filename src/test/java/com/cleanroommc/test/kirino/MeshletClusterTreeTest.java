@@ -0,0 +1,144 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletClusterTree;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletOutputBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MeshletClusterTreeTest {
+    private static final float PROJECTION_SCALE = 1080f * 0.5f / (float) Math.tan(Math.toRadians(35d));
+
+    /**
+     * A 16x16 floor at y = 0 facing up, split into 4x4 patches.
+     */
+    private static MeshletOutputBuffer floor() {
+        MeshletOutputBuffer outputBuffer = new MeshletOutputBuffer();
+        for (int patchZ = 0; patchZ < 16; patchZ += 4) {
+            for (int patchX = 0; patchX < 16; patchX += 4) {
+                outputBuffer.beginCluster(0);
+                for (int z = patchZ; z < patchZ + 4; z++) {
+                    for (int x = patchX; x < patchX + 4; x++) {
+                        outputBuffer.addVoxel(Block.pack(x, 0, z, 0b001000));
+                    }
+                }
+                outputBuffer.endCluster(0f, 1f, 0f);
+            }
+        }
+        return outputBuffer;
+    }
+
+    private static void assertValidCut(MeshletClusterTree tree) {
+        for (int leaf = 0; leaf < tree.getLeafCount(); leaf++) {
+            int selectedOnPath = 0;
+            for (int node = leaf; node != -1; node = tree.getParent(node)) {
+                if (tree.isSelected(node)) {
+                    selectedOnPath++;
+                }
+            }
+            assertEquals(1, selectedOnPath);
+        }
+    }
+
+    @Test
+    public void testHierarchy() {
+        MeshletClusterTree tree = MeshletClusterTree.build(32, 64, -16, floor(), 0, 16);
+
+        assertEquals(16, tree.getLeafCount());
+        // 16 patches, 16 level-1 nodes, 4 level-2 nodes and the root
+        assertEquals(37, tree.getNodeCount());
+
+        int root = tree.getNodeCount() - 1;
+        assertEquals(MeshletClusterTree.MAX_LEVEL, tree.getLevel(root));
+        assertEquals(-1, tree.getParent(root));
+        assertEquals(0, tree.getMin(root, 0));
+        assertEquals(16, tree.getMax(root, 0));
+        assertEquals(1, tree.getMax(root, 1));
+        // 2x2 cells of size 8
+        assertEquals(4, tree.getRecordCount(root));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0b001000, Block.unpackFaceMask(tree.getRecord(root, i)));
+        }
+
+        for (int node = 0; node < tree.getNodeCount(); node++) {
+            int parent = tree.getParent(node);
+            if (parent != -1) {
+                assertTrue(tree.getError(parent) > tree.getError(node));
+                assertEquals(tree.getLevel(node) + 1, tree.getLevel(parent));
+            }
+        }
+    }
+
+    @Test
+    public void testCutSelection() {
+        MeshletClusterTree tree = MeshletClusterTree.build(32, 64, -16, floor(), 0, 16);
+
+        // right above the floor: full detail
+        assertEquals(16, tree.selectCut(40f, 66f, -8f, PROJECTION_SCALE, 1f));
+        assertValidCut(tree);
+        for (int leaf = 0; leaf < 16; leaf++) {
+            assertTrue(tree.isSelected(leaf));
+        }
+
+        // far away: only the root
+        assertEquals(1, tree.selectCut(40f, 66f, 20000f, PROJECTION_SCALE, 1f));
+        assertValidCut(tree);
+        assertTrue(tree.isSelected(tree.getNodeCount() - 1));
+
+        // in between: the four level-2 nodes
+        assertEquals(4, tree.selectCut(40f, 66f, 6000f, PROJECTION_SCALE, 1f));
+        assertValidCut(tree);
+    }
+
+    @Test
+    public void testCoarsensWithinRenderDistance() {
+        MeshletClusterTree tree = MeshletClusterTree.build(32, 64, -16, floor(), 0, 16);
+
+        // the default threshold; 32 chunks of render distance is 512 blocks
+        for (float distance : new float[]{300f, 500f}) {
+            tree.selectCut(40f, 66f, distance, PROJECTION_SCALE, 6f);
+            assertValidCut(tree);
+            for (int leaf = 0; leaf < tree.getLeafCount(); leaf++) {
+                assertFalse(tree.isSelected(leaf));
+            }
+        }
+    }
+
+    @Test
+    public void testScratchReuse() {
+        MeshletClusterTree.BuildScratch scratch = new MeshletClusterTree.BuildScratch();
+        MeshletClusterTree first = MeshletClusterTree.build(0, 0, 0, floor(), 0, 16, scratch);
+        MeshletClusterTree second = MeshletClusterTree.build(0, 0, 0, floor(), 0, 16, scratch);
+
+        assertEquals(first.getNodeCount(), second.getNodeCount());
+        for (int node = first.getLeafCount(); node < first.getNodeCount(); node++) {
+            assertEquals(first.getParent(node), second.getParent(node));
+            assertEquals(first.getError(node), second.getError(node), 0f);
+            assertEquals(first.getRecordCount(node), second.getRecordCount(node));
+            for (int i = 0; i < first.getRecordCount(node); i++) {
+                assertEquals(first.getRecord(node, i), second.getRecord(node, i));
+            }
+        }
+    }
+
+    @Test
+    public void testPassesDontMerge() {
+        MeshletOutputBuffer outputBuffer = new MeshletOutputBuffer();
+        for (int pass = 0; pass < 3; pass++) {
+            outputBuffer.beginCluster(pass);
+            outputBuffer.addVoxel(Block.pack(pass, 0, 0, 0b111111));
+            outputBuffer.endCluster(1f, 0f, 0f);
+        }
+
+        MeshletClusterTree tree = MeshletClusterTree.build(0, 0, 0, outputBuffer, 0, 3);
+        assertEquals(3, tree.selectCut(0f, 0f, 20000f, PROJECTION_SCALE, 1f));
+        for (int node = 0; node < tree.getNodeCount(); node++) {
+            if (tree.getParent(node) != -1) {
+                assertEquals(tree.getPass(node), tree.getPass(tree.getParent(node)));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletCulling;
+import org.joml.Matrix4f;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MeshletCullingTest {
+    private static float[] lookingAtNegativeZ() {
+        // camera at the origin looking down -z
+        Matrix4f viewProjection = new Matrix4f()
+                .perspective((float) Math.toRadians(70d), 16f / 9f, 0.05f, 256f)
+                .lookAt(0f, 0f, 0f, 0f, 0f, -1f, 0f, 1f, 0f);
+        return MeshletCulling.extractFrustumPlanes(viewProjection, new float[MeshletCulling.FRUSTUM_PLANE_COUNT * 4]);
+    }
+
+    @Test
+    public void testFrustum() {
+        float[] planes = lookingAtNegativeZ();
+
+        // in front
+        assertFalse(MeshletCulling.isOutsideFrustum(planes, -1f, -1f, -11f, 1f, 1f, -9f));
+        // behind
+        assertTrue(MeshletCulling.isOutsideFrustum(planes, -1f, -1f, 9f, 1f, 1f, 11f));
+        // far to the left
+        assertTrue(MeshletCulling.isOutsideFrustum(planes, -100f, -1f, -11f, -90f, 1f, -9f));
+        // beyond the far plane
+        assertTrue(MeshletCulling.isOutsideFrustum(planes, -1f, -1f, -300f, 1f, 1f, -290f));
+        // straddling the near plane
+        assertFalse(MeshletCulling.isOutsideFrustum(planes, -1f, -1f, -1f, 1f, 1f, 1f));
+    }
+
+    @Test
+    public void testConeCutoff() {
+        // +x only
+        assertEquals(1f, MeshletCulling.coneCutoff(1f, 0f, 0f, 0b100000), 1e-6f);
+        // +x and +y with the diagonal axis
+        float d = (float) Math.sqrt(0.5d);
+        assertEquals(d, MeshletCulling.coneCutoff(d, d, 0f, 0b101000), 1e-6f);
+        // opposite faces
+        assertEquals(-1f, MeshletCulling.coneCutoff(1f, 0f, 0f, 0b110000), 1e-6f);
+    }
+
+    @Test
+    public void testBackfacing() {
+        // a flat meshlet at z in [0, 1] whose faces all point towards +z
+        float cutoff = MeshletCulling.coneCutoff(0f, 0f, 1f, 0b000010);
+
+        // camera on the -z side sees the back
+        assertTrue(MeshletCulling.isBackfacing(0f, 0f, -20f,
+                -4f, -4f, 0f, 4f, 4f, 1f,
+                0f, 0f, 1f, cutoff));
+        // camera on the +z side sees the front
+        assertFalse(MeshletCulling.isBackfacing(0f, 0f, 20f,
+                -4f, -4f, 0f, 4f, 4f, 1f,
+                0f, 0f, 1f, cutoff));
+        // camera inside the bounding sphere is never culled
+        assertFalse(MeshletCulling.isBackfacing(0f, 0f, -1f,
+                -4f, -4f, 0f, 4f, 4f, 1f,
+                0f, 0f, 1f, cutoff));
+        // wide cones are never culled
+        assertFalse(MeshletCulling.isBackfacing(0f, 0f, -20f,
+                -4f, -4f, 0f, 4f, 4f, 1f,
+                1f, 0f, 0f, MeshletCulling.coneCutoff(1f, 0f, 0f, 0b110000)));
+    }
+}
@@ -0,0 +1,115 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.entity.EntityManager;
+import com.cleanroommc.kirino.ecs.entity.EntityQuery;
+import com.cleanroommc.kirino.ecs.job.IParallelReductionJob;
+import com.cleanroommc.kirino.ecs.job.JobDataQuery;
+import com.cleanroommc.kirino.ecs.job.JobScheduler;
+import com.cleanroommc.kirino.ecs.storage.IPrimitiveArray;
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelReductionJobTest {
+    // float addition isn't associative, so the sum depends on the combine order
+    public static class FloatSumJob implements IParallelReductionJob<float[]> {
+        @JobDataQuery(componentClass = EcsTestFixture.SampleComponent.class, fieldAccessChain = {"value"})
+        public IPrimitiveArray valueArray;
+
+        private float[] sum;
+
+        @Override
+        public float @NonNull [] newAccumulator() {
+            return new float[1];
+        }
+
+        @Override
+        public void bindAccumulator(float @NonNull [] accumulator) {
+            sum = accumulator;
+        }
+
+        @Override
+        public float @NonNull [] combine(float @NonNull [] left, float @NonNull [] right) {
+            left[0] += right[0];
+            return left;
+        }
+
+        @Override
+        public void execute(@NonNull EntityManager entityManager, int index, int threadOrdinal) {
+            sum[0] += valueArray.getFloat(index);
+        }
+
+        @Override
+        public void query(@NonNull EntityQuery entityQuery) {
+            entityQuery.with(EcsTestFixture.SampleComponent.class);
+        }
+
+        @Override
+        public int estimateWorkload(int index) {
+            // varies so that workload-based partitioning would differ from row-based partitioning
+            return 1 + (index % 7) * 100;
+        }
+    }
+
+    @Test
+    public void testReproducibleSum() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        ecs.jobRegistry.registerParallelJob(FloatSumJob.class);
+
+        int rows = JobScheduler.REDUCTION_ROWS_PER_PARTITION * 5 + 123;
+        float[] values = new float[rows];
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            values[i] = (float) Math.pow(10d, random.nextInt(8)) * random.nextFloat();
+            ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(i, values[i]));
+        }
+        ecs.entityManager.flush();
+
+        // per partition in row order, then partitions in ascending order
+        float expected = 0f;
+        for (int start = 0; start < rows; start += JobScheduler.REDUCTION_ROWS_PER_PARTITION) {
+            float partial = 0f;
+            for (int i = start; i < Math.min(rows, start + JobScheduler.REDUCTION_ROWS_PER_PARTITION); i++) {
+                partial += values[i];
+            }
+            expected += partial;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // calibration kicks in after the first executions and must not change the partitioning
+            for (int run = 0; run < 20; run++) {
+                JobScheduler.ExecutionHandle handle = ecs.jobScheduler.executeParallelJob(ecs.entityManager, FloatSumJob.class, null, executor);
+                float[] sum = handle.joinReduction();
+
+                assertEquals(6, handle.totalThreadCount());
+                assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(sum[0]));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPartitionsFollowAliveRows() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        ecs.jobRegistry.registerParallelJob(FloatSumJob.class);
+
+        int rows = JobScheduler.REDUCTION_ROWS_PER_PARTITION * 2;
+        for (int i = 0; i < rows; i++) {
+            ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(i, 1f));
+        }
+        ecs.entityManager.flush();
+
+        JobScheduler.ExecutionHandle handle = ecs.jobScheduler.executeParallelJob(ecs.entityManager, FloatSumJob.class, null, Runnable::run);
+        float[] sum = handle.joinReduction();
+
+        assertEquals(2, handle.totalThreadCount());
+        assertEquals(rows, sum[0], 0f);
+    }
+}
@@ -0,0 +1,129 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.ecs.entity.CleanEntityHandle;
+import com.cleanroommc.kirino.ecs.storage.ArchetypeDataPool;
+import com.cleanroommc.kirino.ecs.storage.PoolPolicy;
+import com.cleanroommc.kirino.ecs.storage.PoolStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PoolPolicyTest {
+    private static final int SHRINK_DELAY_FRAMES = 3;
+
+    // initial capacity 4, shrinks at a quarter for 3 flushes
+    private static EcsTestFixture newEcs() {
+        EcsTestFixture ecs = new EcsTestFixture();
+        ecs.entityManager.registerPoolPolicy(new PoolPolicy(2f, 4, 0, 0.25f, SHRINK_DELAY_FRAMES), EcsTestFixture.SampleComponent.class);
+        return ecs;
+    }
+
+    private static List<CleanEntityHandle> createEntities(EcsTestFixture ecs, int count) {
+        List<CleanEntityHandle> handles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            handles.add(ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(i, i * 0.5f)));
+        }
+        ecs.entityManager.flush();
+        return handles;
+    }
+
+    private static ArchetypeDataPool pool(EcsTestFixture ecs) {
+        List<ArchetypeDataPool> pools = ecs.entityManager.startQuery(ecs.entityManager.newQuery().with(EcsTestFixture.SampleComponent.class));
+        assertEquals(1, pools.size());
+        return pools.getFirst();
+    }
+
+    // destroys all but the given entities, leaving holes below the high water mark
+    private static void destroyAllBut(EcsTestFixture ecs, List<CleanEntityHandle> handles, int... keep) {
+        outer:
+        for (int i = 0; i < handles.size(); i++) {
+            for (int k : keep) {
+                if (i == k) {
+                    continue outer;
+                }
+            }
+            handles.get(i).tryDestroy();
+        }
+        ecs.entityManager.flush();
+    }
+
+    private static void assertComponent(EcsTestFixture ecs, CleanEntityHandle handle, int id) {
+        EcsTestFixture.SampleComponent component = (EcsTestFixture.SampleComponent) pool(ecs).getComponent(handle.index, EcsTestFixture.SampleComponent.class);
+        assertEquals(id, component.id);
+        assertEquals(id * 0.5f, component.value, 0f);
+    }
+
+    @Test
+    public void testGrow() {
+        EcsTestFixture ecs = newEcs();
+        createEntities(ecs, 100);
+
+        PoolStats stats = pool(ecs).getStats();
+        // 4 -> 8 -> 16 -> 32 -> 64 -> 128
+        assertEquals(128, stats.capacity());
+        assertEquals(5, stats.growCount());
+        assertEquals(100, stats.liveRows());
+    }
+
+    @Test
+    public void testShrinkFragmentedPool() {
+        EcsTestFixture ecs = newEcs();
+        List<CleanEntityHandle> handles = createEntities(ecs, 100);
+
+        // the last row stays alive, so the high water mark doesn't move
+        destroyAllBut(ecs, handles, 50, 99);
+        assertEquals(100, pool(ecs).getStats().highWaterRows());
+
+        for (int i = 1; i < SHRINK_DELAY_FRAMES; i++) {
+            ecs.entityManager.flush();
+        }
+
+        PoolStats stats = pool(ecs).getStats();
+        assertEquals(1, stats.shrinkCount());
+        assertEquals(4, stats.capacity());
+        assertEquals(2, stats.highWaterRows());
+        assertEquals(0, stats.freeRows());
+        assertComponent(ecs, handles.get(50), 50);
+        assertComponent(ecs, handles.get(99), 99);
+
+        // compacted rows are reused as usual
+        CleanEntityHandle added = ecs.entityManager.createEntity(new EcsTestFixture.SampleComponent(7, 3.5f));
+        ecs.entityManager.flush();
+        assertEquals(3, pool(ecs).getStats().liveRows());
+        assertComponent(ecs, added, 7);
+        assertComponent(ecs, handles.get(99), 99);
+    }
+
+    @Test
+    public void testHysteresis() {
+        EcsTestFixture ecs = newEcs();
+        List<CleanEntityHandle> handles = createEntities(ecs, 100);
+
+        destroyAllBut(ecs, handles, 99);
+        for (int i = 2; i < SHRINK_DELAY_FRAMES; i++) {
+            ecs.entityManager.flush();
+        }
+        // one flush short of the delay
+        assertEquals(128, pool(ecs).getStats().capacity());
+
+        // going back above the threshold resets the delay
+        List<CleanEntityHandle> refill = createEntities(ecs, 40);
+        assertEquals(128, pool(ecs).getStats().capacity());
+        for (CleanEntityHandle handle : refill) {
+            handle.tryDestroy();
+        }
+        for (int i = 0; i < SHRINK_DELAY_FRAMES - 1; i++) {
+            ecs.entityManager.flush();
+        }
+        assertEquals(0, pool(ecs).getStats().shrinkCount());
+        assertEquals(128, pool(ecs).getStats().capacity());
+
+        ecs.entityManager.flush();
+        assertEquals(1, pool(ecs).getStats().shrinkCount());
+        assertEquals(4, pool(ecs).getStats().capacity());
+        assertComponent(ecs, handles.get(99), 99);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.Assert.assertEquals;
 
@@ -40,6 +41,23 @@ public class QuantileUtilsTest {
         assertEquals("5", QuantileUtils.median(arr));
     }
 
+    @Test
+    public void testQuantile() {
+        Random rng = new Random();
+        rng.setSeed(114514);
+        List<Long> list = new ArrayList<>(LongStream.range(1, 1001).boxed().toList());
+        Collections.shuffle(list, rng);
+        assertEquals(500L, (long) QuantileUtils.quantile(list.toArray(new Long[0]), 0.5f, Long::compareTo));
+        assertEquals(990L, (long) QuantileUtils.quantile(list.toArray(new Long[0]), 0.99f, Long::compareTo));
+        assertEquals(1L, (long) QuantileUtils.quantile(list.toArray(new Long[0]), 0f, Long::compareTo));
+        assertEquals(1000L, (long) QuantileUtils.quantile(list.toArray(new Long[0]), 1f, Long::compareTo));
+    }
+
+    @Test
+    public void testQuantileSingle() {
+        assertEquals(7L, (long) QuantileUtils.quantile(new Long[]{7L}, 0.99f, Long::compareTo));
+    }
+
 //    @Test
 //    public void testMedianObjects() {
 //        Random rng = new Random();
@@ -0,0 +1,100 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.geometry.Block;
+import com.cleanroommc.kirino.engine.render.meshlet.ISectionBlockSource;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletOutputBuffer;
+import com.cleanroommc.kirino.engine.render.meshlet.SectionMesher;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockModelType;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockRenderingType;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SectionMesherTest {
+    private static final int STONE = BlockClassificationTable.pack(BlockRenderingType.OPAQUE, BlockModelType.FULL_BLOCK, true, true);
+    private static final int LEAVES = BlockClassificationTable.pack(BlockRenderingType.CUTOUT, BlockModelType.FULL_BLOCK, true, false);
+
+    private static int[] airSection() {
+        int[] entries = new int[ISectionBlockSource.VOLUME];
+        Arrays.fill(entries, BlockClassificationTable.AIR_ENTRY);
+        return entries;
+    }
+
+    private static MeshletOutputBuffer mesh(int[] entries) {
+        MeshletOutputBuffer outputBuffer = new MeshletOutputBuffer();
+        new SectionMesher().mesh(index -> entries[index], outputBuffer);
+        return outputBuffer;
+    }
+
+    @Test
+    public void testAllAir() {
+        assertEquals(0, mesh(airSection()).getClusterCount());
+    }
+
+    @Test
+    public void testAllSolid() {
+        int[] entries = new int[ISectionBlockSource.VOLUME];
+        Arrays.fill(entries, STONE);
+        assertEquals(0, mesh(entries).getClusterCount());
+    }
+
+    @Test
+    public void testSingleBlockPerPass() {
+        int[] entries = airSection();
+        entries[ISectionBlockSource.index(3, 4, 5)] = STONE;
+        entries[ISectionBlockSource.index(10, 10, 10)] = LEAVES;
+        MeshletOutputBuffer outputBuffer = mesh(entries);
+
+        assertEquals(2, outputBuffer.getClusterCount());
+        assertEquals(0, outputBuffer.getClusterPass(0));
+        assertEquals(2, outputBuffer.getClusterPass(1));
+        assertEquals(Block.pack(3, 4, 5, 0b111111), outputBuffer.getVoxel(outputBuffer.getClusterStart(0)));
+        assertEquals(Block.pack(10, 10, 10, 0b111111), outputBuffer.getVoxel(outputBuffer.getClusterStart(1)));
+    }
+
+    @Test
+    public void testFloorCoversTopLayer() {
+        int[] entries = airSection();
+        for (int y = -1; y < 8; y++) {
+            for (int z = -1; z <= 16; z++) {
+                for (int x = -1; x <= 16; x++) {
+                    entries[ISectionBlockSource.index(x, y, z)] = STONE;
+                }
+            }
+        }
+        MeshletOutputBuffer outputBuffer = mesh(entries);
+
+        // only the top layer is exposed, each voxel exactly once
+        assertEquals(256, outputBuffer.getVoxelCount());
+        assertTrue(outputBuffer.getClusterCount() >= 256 / 32);
+        for (int i = 0; i < outputBuffer.getVoxelCount(); i++) {
+            int voxel = outputBuffer.getVoxel(i);
+            assertEquals(7, Block.unpackY(voxel));
+            assertEquals(0b001000, Block.unpackFaceMask(voxel));
+        }
+    }
+
+    @Test
+    public void testMesherIsReusable() {
+        int[] entries = airSection();
+        for (int i = 0; i < 4096; i += 7) {
+            entries[ISectionBlockSource.index(i & 15, (i >>> 4) & 15, i >>> 8)] = STONE;
+        }
+
+        SectionMesher mesher = new SectionMesher();
+        MeshletOutputBuffer first = new MeshletOutputBuffer();
+        mesher.mesh(index -> entries[index], first);
+        MeshletOutputBuffer second = new MeshletOutputBuffer();
+        mesher.mesh(index -> entries[index], second);
+
+        assertEquals(first.getClusterCount(), second.getClusterCount());
+        assertEquals(first.getVoxelCount(), second.getVoxelCount());
+        for (int i = 0; i < first.getVoxelCount(); i++) {
+            assertEquals(first.getVoxel(i), second.getVoxel(i));
+        }
+    }
+}
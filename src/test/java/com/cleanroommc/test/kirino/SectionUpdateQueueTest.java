@@ -0,0 +1,111 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionKey;
+import com.cleanroommc.kirino.engine.render.minecraft.chunk.SectionUpdateQueue;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockModelType;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockRenderingType;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SectionUpdateQueueTest {
+    private static final int AIR_ID = 0;
+    private static final int STONE_ID = 1;
+    private static final int DIRT_ID = 10;
+    private static final int STONE = BlockClassificationTable.pack(BlockRenderingType.OPAQUE, BlockModelType.FULL_BLOCK, true, true);
+
+    // stone to air, i.e. the classification changes
+    private static boolean breakStone(SectionUpdateQueue queue, int x, int y, int z) {
+        return queue.onBlockUpdate(x, y, z, STONE_ID, AIR_ID, STONE, BlockClassificationTable.AIR_ENTRY);
+    }
+
+    private static LongSet keys(int... coordinates) {
+        LongSet keys = new LongOpenHashSet();
+        for (int i = 0; i < coordinates.length; i += 3) {
+            keys.add(SectionKey.pack(coordinates[i], coordinates[i + 1], coordinates[i + 2]));
+        }
+        return keys;
+    }
+
+    @Test
+    public void testInterior() {
+        SectionUpdateQueue queue = new SectionUpdateQueue();
+        assertTrue(breakStone(queue, 8 + 16 * 2, 8 + 16 * 4, 8 - 16 * 3));
+        assertEquals(keys(2, 4, -3), queue.drain());
+    }
+
+    @Test
+    public void testEdges() {
+        SectionUpdateQueue queue = new SectionUpdateQueue();
+        breakStone(queue, 0, 72, 8);
+        assertEquals(keys(0, 4, 0, -1, 4, 0), queue.drain());
+
+        breakStone(queue, 8, 79, 8);
+        assertEquals(keys(0, 4, 0, 0, 5, 0), queue.drain());
+
+        // local z of -1 is 15
+        breakStone(queue, 8, 72, -1);
+        assertEquals(keys(0, 4, -1, 0, 4, 0), queue.drain());
+
+        // local x of -16 is 0
+        breakStone(queue, -16, 72, 8);
+        assertEquals(keys(-1, 4, 0, -2, 4, 0), queue.drain());
+    }
+
+    @Test
+    public void testCorners() {
+        SectionUpdateQueue queue = new SectionUpdateQueue();
+        breakStone(queue, 15, 79, 15);
+        assertEquals(keys(0, 4, 0, 1, 4, 0, 0, 5, 0, 0, 4, 1), queue.drain());
+
+        breakStone(queue, -16, 64, -16);
+        assertEquals(keys(-1, 4, -1, -2, 4, -1, -1, 3, -1, -1, 4, -2), queue.drain());
+    }
+
+    @Test
+    public void testWorldBounds() {
+        SectionUpdateQueue queue = new SectionUpdateQueue();
+        // no sections below 0 or above 15
+        breakStone(queue, 0, 0, 0);
+        assertEquals(keys(0, 0, 0, -1, 0, 0, 0, 0, -1), queue.drain());
+
+        breakStone(queue, 15, 255, 15);
+        assertEquals(keys(0, 15, 0, 1, 15, 0, 0, 15, 1), queue.drain());
+
+        assertFalse(breakStone(queue, 8, -1, 8));
+        assertFalse(breakStone(queue, 8, 256, 8));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testSameClassificationStaysLocal() {
+        SectionUpdateQueue queue = new SectionUpdateQueue();
+        // stone to dirt on a corner only changes the texture
+        assertTrue(queue.onBlockUpdate(15, 79, 15, STONE_ID, DIRT_ID, STONE, STONE));
+        assertEquals(keys(0, 4, 0), queue.drain());
+
+        assertFalse(queue.onBlockUpdate(15, 79, 15, STONE_ID, STONE_ID, STONE, STONE));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testDrainCoalesces() {
+        SectionUpdateQueue queue = new SectionUpdateQueue();
+        breakStone(queue, 1, 72, 1);
+        breakStone(queue, 2, 72, 2);
+        breakStone(queue, 0, 72, 8);
+        LongSet drained = queue.drain();
+        assertEquals(keys(0, 4, 0, -1, 4, 0), drained);
+        assertTrue(queue.isEmpty());
+
+        // the previous result stays valid until the next drain
+        breakStone(queue, 40, 72, 40);
+        assertEquals(keys(0, 4, 0, -1, 4, 0), drained);
+        assertEquals(keys(2, 4, 2), queue.drain());
+    }
+}
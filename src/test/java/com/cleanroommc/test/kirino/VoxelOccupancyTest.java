@@ -0,0 +1,124 @@
+package com.cleanroommc.test.kirino;
+
+import com.cleanroommc.kirino.engine.render.geometry.VoxelOccupancy;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VoxelOccupancyTest {
+    private static final int[][] FACE_DIRS = {
+            {1, 0, 0}, {-1, 0, 0},
+            {0, 1, 0}, {0, -1, 0},
+            {0, 0, 1}, {0, 0, -1}};
+
+    private static boolean isEdge(int x, int y, int z) {
+        int borders = 0;
+        if (x == -1 || x == 16) {
+            borders++;
+        }
+        if (y == -1 || y == 16) {
+            borders++;
+        }
+        if (z == -1 || z == 16) {
+            borders++;
+        }
+        return borders >= 2;
+    }
+
+    @Test
+    public void testSingleVoxel() {
+        VoxelOccupancy occupancy = new VoxelOccupancy();
+        occupancy.set(3, 4, 5);
+        occupancy.computeFaceMasks();
+
+        assertFalse(occupancy.isInnerEmpty());
+        assertEquals(0b111111, occupancy.getFaceMask(3, 4, 5));
+        assertEquals(0, occupancy.getFaceMask(4, 4, 5));
+        assertEquals(1 << 3, occupancy.getSurfaceRow(4, 5));
+    }
+
+    @Test
+    public void testBorderHidesFaces() {
+        VoxelOccupancy occupancy = new VoxelOccupancy();
+        occupancy.set(0, 0, 0);
+        occupancy.set(-1, 0, 0);
+        occupancy.set(0, -1, 0);
+        occupancy.set(0, 0, -1);
+        occupancy.computeFaceMasks();
+
+        // only the positive faces are visible
+        assertEquals(0b101010, occupancy.getFaceMask(0, 0, 0));
+    }
+
+    @Test
+    public void testEmpty() {
+        VoxelOccupancy occupancy = new VoxelOccupancy();
+        occupancy.set(-1, 3, 3);
+        occupancy.set(16, 3, 3);
+        occupancy.computeFaceMasks();
+
+        assertTrue(occupancy.isInnerEmpty());
+        assertEquals(0, occupancy.getSurfaceRow(3, 3));
+
+        occupancy.set(3, 3, 3);
+        occupancy.computeFaceMasks();
+        assertFalse(occupancy.isInnerEmpty());
+
+        occupancy.clear();
+        occupancy.computeFaceMasks();
+        assertTrue(occupancy.isInnerEmpty());
+    }
+
+    @Test
+    public void testMatchesNeighborLookup() {
+        Random rng = new Random();
+        rng.setSeed(114514);
+
+        boolean[][][] voxels = new boolean[18][18][18];
+        VoxelOccupancy occupancy = new VoxelOccupancy();
+        for (int x = -1; x <= 16; x++) {
+            for (int y = -1; y <= 16; y++) {
+                for (int z = -1; z <= 16; z++) {
+                    if (!isEdge(x, y, z) && rng.nextFloat() < 0.4f) {
+                        voxels[x + 1][y + 1][z + 1] = true;
+                        occupancy.set(x, y, z);
+                    }
+                }
+            }
+        }
+        occupancy.computeFaceMasks();
+
+        for (int x = -1; x <= 16; x++) {
+            for (int y = -1; y <= 16; y++) {
+                for (int z = -1; z <= 16; z++) {
+                    assertEquals(voxels[x + 1][y + 1][z + 1], occupancy.get(x, y, z));
+                }
+            }
+        }
+
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    int expected = 0;
+                    if (voxels[x + 1][y + 1][z + 1]) {
+                        for (int i = 0; i < FACE_DIRS.length; i++) {
+                            int[] dir = FACE_DIRS[i];
+                            if (!voxels[x + 1 + dir[0]][y + 1 + dir[1]][z + 1 + dir[2]]) {
+                                expected |= 1 << (5 - i);
+                            }
+                        }
+                    }
+                    assertEquals(expected, occupancy.getFaceMask(x, y, z));
+                    assertEquals(expected != 0, (occupancy.getSurfaceRow(y, z) >>> x & 1) != 0);
+                    for (int i = 0; i < FACE_DIRS.length; i++) {
+                        assertEquals((expected >>> (5 - i) & 1) != 0, (occupancy.getFaceRow(i, y, z) >>> x & 1) != 0);
+                    }
+                }
+            }
+        }
+    }
+}
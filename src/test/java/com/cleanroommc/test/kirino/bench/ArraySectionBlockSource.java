@@ -0,0 +1,32 @@
+package com.cleanroommc.test.kirino.bench;
+
+import com.cleanroommc.kirino.engine.render.meshlet.ISectionBlockSource;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+
+import java.util.Arrays;
+
+/**
+ * A plain array of classified blocks, i.e. a section without a world behind it.
+ */
+public final class ArraySectionBlockSource implements ISectionBlockSource {
+    private final int[] entries = new int[VOLUME];
+
+    public ArraySectionBlockSource() {
+        Arrays.fill(entries, BlockClassificationTable.AIR_ENTRY);
+    }
+
+    /**
+     * @param x Local x-coordinate. Domain: [-1, 16]
+     * @param y Local y-coordinate. Domain: [-1, 16]
+     * @param z Local z-coordinate. Domain: [-1, 16]
+     * @param entry The packed {@link BlockClassificationTable} entry
+     */
+    public void set(int x, int y, int z, int entry) {
+        entries[ISectionBlockSource.index(x, y, z)] = entry;
+    }
+
+    @Override
+    public int getEntry(int index) {
+        return entries[index];
+    }
+}
@@ -0,0 +1,68 @@
+package com.cleanroommc.test.kirino.bench;
+
+import com.sun.management.ThreadMXBean;
+import org.jspecify.annotations.NonNull;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Warmup and measurement rounds shared by the plain benchmark harnesses.
+ *
+ * <p>Time is wall-clock time per operation and allocation is the bytes the measuring thread allocated per operation,
+ * as reported by {@link ThreadMXBean#getCurrentThreadAllocatedBytes()}.</p>
+ */
+final class BenchmarkHarness {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASUREMENT_ROUNDS = 5;
+    private static final long ROUND_NANOS = 1_000_000_000L;
+    // operations between two clock reads
+    private static final int BATCH_SIZE = 64;
+
+    interface Operation {
+        int run();
+    }
+
+    record Result(double nanosPerOperation, double bytesPerOperation) {
+    }
+
+    // keeps results alive so nothing gets eliminated
+    private static volatile int sink;
+
+    private final ThreadMXBean threadMXBean;
+
+    BenchmarkHarness() {
+        threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static long runRound(Operation operation) {
+        long startNanos = System.nanoTime();
+        long operations = 0;
+        int result = 0;
+        do {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                result += operation.run();
+            }
+            operations += BATCH_SIZE;
+        } while (System.nanoTime() - startNanos < ROUND_NANOS);
+        sink = result;
+        return operations;
+    }
+
+    @NonNull Result measure(@NonNull Operation operation) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runRound(operation);
+        }
+
+        long operations = 0;
+        long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int round = 0; round < MEASUREMENT_ROUNDS; round++) {
+            operations += runRound(operation);
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+
+        return new Result((double) nanos / operations, (double) bytes / operations);
+    }
+}
@@ -0,0 +1,144 @@
+package com.cleanroommc.test.kirino.bench;
+
+import com.cleanroommc.kirino.ecs.job.kernel.ColumnKernels;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Column kernel throughput over {@link #ROWS} rows, processed in {@link ColumnKernels#BATCH_SIZE} batches the way
+ * batch jobs call them. One operation is one pass over all rows, so the target of under 1 ms per 100k rows means
+ * under 1,000,000 ns/op. It's a plain harness, so run {@link #main(String[])} from the test classpath.
+ *
+ * <ul>
+ *     <li>intToFloat: one int column scaled into a float column</li>
+ *     <li>distanceSquared: squared distance of three float columns to a point</li>
+ *     <li>frustumMask: {@link ColumnKernels#aabbBehindPlane} against six planes, as in chunk prioritization</li>
+ *     <li>thresholdMask: {@link ColumnKernels#greaterThanMask} against a threshold</li>
+ * </ul>
+ */
+public final class ColumnKernelsBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int PLANE_COUNT = 6;
+
+    private final int[] ints = new int[ROWS];
+    private final float[] minX = new float[ROWS];
+    private final float[] minY = new float[ROWS];
+    private final float[] minZ = new float[ROWS];
+    private final float[] maxX = new float[ROWS];
+    private final float[] maxY = new float[ROWS];
+    private final float[] maxZ = new float[ROWS];
+    private final float[] planes = new float[PLANE_COUNT * 4];
+
+    // batch-sized columns, as batch jobs use them
+    private final int[] intColumn = new int[ColumnKernels.BATCH_SIZE];
+    private final float[] xColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] yColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] zColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] xMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] yMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] zMaxColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final float[] floatColumn = new float[ColumnKernels.BATCH_SIZE];
+    private final int[] maskColumn = new int[ColumnKernels.BATCH_SIZE];
+
+    private ColumnKernelsBenchmark() {
+        Random random = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            ints[i] = random.nextInt(4096) - 2048;
+            minX[i] = (random.nextFloat() - 0.5f) * 1024f;
+            minY[i] = (random.nextFloat() - 0.5f) * 256f;
+            minZ[i] = (random.nextFloat() - 0.5f) * 1024f;
+            maxX[i] = minX[i] + 16f;
+            maxY[i] = minY[i] + 16f;
+            maxZ[i] = minZ[i] + 16f;
+        }
+        for (int plane = 0; plane < PLANE_COUNT; plane++) {
+            float a = random.nextFloat() - 0.5f;
+            float b = random.nextFloat() - 0.5f;
+            float c = random.nextFloat() - 0.5f;
+            float length = (float) Math.sqrt(a * a + b * b + c * c);
+            planes[plane * 4] = a / length;
+            planes[plane * 4 + 1] = b / length;
+            planes[plane * 4 + 2] = c / length;
+            planes[plane * 4 + 3] = (random.nextFloat() - 0.5f) * 64f;
+        }
+    }
+
+    private int intToFloat() {
+        int result = 0;
+        for (int batchStart = 0; batchStart < ROWS; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, ROWS - batchStart);
+            System.arraycopy(ints, batchStart, intColumn, 0, length);
+            ColumnKernels.intToFloat(intColumn, 16f, floatColumn, length);
+            result += Float.floatToRawIntBits(floatColumn[length - 1]);
+        }
+        return result;
+    }
+
+    private int distanceSquared() {
+        int result = 0;
+        for (int batchStart = 0; batchStart < ROWS; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, ROWS - batchStart);
+            System.arraycopy(minX, batchStart, xColumn, 0, length);
+            System.arraycopy(minY, batchStart, yColumn, 0, length);
+            System.arraycopy(minZ, batchStart, zColumn, 0, length);
+            ColumnKernels.distanceSquaredToPoint(xColumn, yColumn, zColumn, 8f, 64f, -8f, floatColumn, length);
+            result += Float.floatToRawIntBits(floatColumn[length - 1]);
+        }
+        return result;
+    }
+
+    private int frustumMask() {
+        int result = 0;
+        for (int batchStart = 0; batchStart < ROWS; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, ROWS - batchStart);
+            System.arraycopy(minX, batchStart, xColumn, 0, length);
+            System.arraycopy(minY, batchStart, yColumn, 0, length);
+            System.arraycopy(minZ, batchStart, zColumn, 0, length);
+            System.arraycopy(maxX, batchStart, xMaxColumn, 0, length);
+            System.arraycopy(maxY, batchStart, yMaxColumn, 0, length);
+            System.arraycopy(maxZ, batchStart, zMaxColumn, 0, length);
+            for (int i = 0; i < length; i++) {
+                maskColumn[i] = 0;
+            }
+            for (int plane = 0; plane < PLANE_COUNT; plane++) {
+                ColumnKernels.aabbBehindPlane(
+                        xColumn, yColumn, zColumn,
+                        xMaxColumn, yMaxColumn, zMaxColumn,
+                        planes[plane * 4], planes[plane * 4 + 1], planes[plane * 4 + 2], planes[plane * 4 + 3],
+                        1 << plane, maskColumn, length);
+            }
+            result += maskColumn[length - 1];
+        }
+        return result;
+    }
+
+    private int thresholdMask() {
+        int result = 0;
+        for (int batchStart = 0; batchStart < ROWS; batchStart += ColumnKernels.BATCH_SIZE) {
+            int length = Math.min(ColumnKernels.BATCH_SIZE, ROWS - batchStart);
+            System.arraycopy(minX, batchStart, floatColumn, 0, length);
+            for (int i = 0; i < length; i++) {
+                maskColumn[i] = 0;
+            }
+            ColumnKernels.greaterThanMask(floatColumn, 0f, 1, maskColumn, length);
+            result += maskColumn[length - 1];
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkHarness harness = new BenchmarkHarness();
+        ColumnKernelsBenchmark benchmark = new ColumnKernelsBenchmark();
+
+        System.out.printf("%-16s %14s %12s%n", "benchmark", "ns/op", "B/op");
+        print("intToFloat", harness.measure(benchmark::intToFloat));
+        print("distanceSquared", harness.measure(benchmark::distanceSquared));
+        print("frustumMask", harness.measure(benchmark::frustumMask));
+        print("thresholdMask", harness.measure(benchmark::thresholdMask));
+    }
+
+    private static void print(String name, BenchmarkHarness.Result result) {
+        System.out.printf(Locale.ROOT, "%-16s %14.1f %12.1f%n", name, result.nanosPerOperation(), result.bytesPerOperation());
+    }
+}
@@ -0,0 +1,136 @@
+package com.cleanroommc.test.kirino.bench;
+
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockClassificationTable;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockModelType;
+import com.cleanroommc.kirino.engine.render.minecraft.semantic.BlockRenderingType;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Deterministic sections covering the meshing cost range, from nothing to mesh to every voxel being a surface.
+ *
+ * <p>Every fixture is a function of the local coordinates, so the one-block border agrees with
+ * what the neighbor sections would contain.</p>
+ */
+public enum SectionFixture {
+    /**
+     * Solid below y = 8; one horizontal surface.
+     */
+    FLAT {
+        @Override
+        int entryAt(int x, int y, int z) {
+            return y < 8 ? STONE : BlockClassificationTable.AIR_ENTRY;
+        }
+    },
+    /**
+     * Rolling hills with water below the sea level and scattered leaves above the ground, i.e. all three passes.
+     */
+    NOISE_TERRAIN {
+        @Override
+        int entryAt(int x, int y, int z) {
+            int height = 4 + (int) (valueNoise(x * 0.125f, 0f, z * 0.125f) * 6f + valueNoise(x * 0.5f, 7f, z * 0.5f) * 2f);
+            if (y < height) {
+                return STONE;
+            }
+            if (y < SEA_LEVEL) {
+                return WATER;
+            }
+            if (y < height + 3 && hash(x, y, z) < 0.2f) {
+                return LEAVES;
+            }
+            return BlockClassificationTable.AIR_ENTRY;
+        }
+    },
+    /**
+     * Solid stone carved by 3D noise; lots of enclosed surfaces in every direction.
+     */
+    CAVES {
+        @Override
+        int entryAt(int x, int y, int z) {
+            return valueNoise(x * 0.25f, y * 0.25f, z * 0.25f) > 0.6f ? BlockClassificationTable.AIR_ENTRY : STONE;
+        }
+    },
+    /**
+     * The worst case: every solid voxel exposes all six faces and no two surface voxels are adjacent,
+     * so region growing emits one cluster per voxel.
+     */
+    CHECKERBOARD {
+        @Override
+        int entryAt(int x, int y, int z) {
+            return ((x + y + z) & 1) == 0 ? STONE : BlockClassificationTable.AIR_ENTRY;
+        }
+    },
+    /**
+     * The best case: nothing to mesh.
+     */
+    ALL_AIR {
+        @Override
+        int entryAt(int x, int y, int z) {
+            return BlockClassificationTable.AIR_ENTRY;
+        }
+    };
+
+    static final int SEA_LEVEL = 7;
+
+    static final int STONE = BlockClassificationTable.pack(BlockRenderingType.OPAQUE, BlockModelType.FULL_BLOCK, true, true);
+    static final int WATER = BlockClassificationTable.pack(BlockRenderingType.TRANSPARENT, BlockModelType.FLUID, false, false);
+    static final int LEAVES = BlockClassificationTable.pack(BlockRenderingType.CUTOUT, BlockModelType.FULL_BLOCK, true, false);
+
+    /**
+     * @param x Local x-coordinate. Domain: [-1, 16]
+     * @param y Local y-coordinate. Domain: [-1, 16]
+     * @param z Local z-coordinate. Domain: [-1, 16]
+     * @return The packed {@link BlockClassificationTable} entry
+     */
+    abstract int entryAt(int x, int y, int z);
+
+    public @NonNull ArraySectionBlockSource create() {
+        ArraySectionBlockSource source = new ArraySectionBlockSource();
+        for (int y = -1; y <= 16; y++) {
+            for (int z = -1; z <= 16; z++) {
+                for (int x = -1; x <= 16; x++) {
+                    source.set(x, y, z, entryAt(x, y, z));
+                }
+            }
+        }
+        return source;
+    }
+
+    /**
+     * @return A pseudo-random value in [0, 1)
+     */
+    static float hash(int x, int y, int z) {
+        int h = x * 0x27D4EB2D + y * 0x165667B1 + z * 0x61C88647;
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 12;
+        return (h >>> 8) * 0x1.0p-24f;
+    }
+
+    /**
+     * Trilinear value noise with smoothstep weights.
+     *
+     * @return A value in [0, 1)
+     */
+    static float valueNoise(float x, float y, float z) {
+        int x0 = (int) Math.floor(x);
+        int y0 = (int) Math.floor(y);
+        int z0 = (int) Math.floor(z);
+        float tx = smoothstep(x - x0);
+        float ty = smoothstep(y - y0);
+        float tz = smoothstep(z - z0);
+
+        float c00 = lerp(hash(x0, y0, z0), hash(x0 + 1, y0, z0), tx);
+        float c10 = lerp(hash(x0, y0 + 1, z0), hash(x0 + 1, y0 + 1, z0), tx);
+        float c01 = lerp(hash(x0, y0, z0 + 1), hash(x0 + 1, y0, z0 + 1), tx);
+        float c11 = lerp(hash(x0, y0 + 1, z0 + 1), hash(x0 + 1, y0 + 1, z0 + 1), tx);
+        return lerp(lerp(c00, c10, ty), lerp(c01, c11, ty), tz);
+    }
+
+    private static float smoothstep(float t) {
+        return t * t * (3f - 2f * t);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+}
@@ -0,0 +1,95 @@
+package com.cleanroommc.test.kirino.bench;
+
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletClusterTree;
+import com.cleanroommc.kirino.engine.render.meshlet.MeshletOutputBuffer;
+import com.cleanroommc.kirino.engine.render.meshlet.SectionMesher;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Per-section meshing cost over every {@link SectionFixture}. One operation is one section. It's a plain harness, so run
+ * {@link #main(String[])} from the test classpath, optionally with fixture names to run only those.
+ *
+ * <p>Time and allocation are measured by {@link BenchmarkHarness}. In steady state {@link #faceMasks()} and
+ * {@link #regionGrowing()} allocate nothing, while {@link #fullPipeline()} allocates the cluster tree it returns,
+ * i.e. its per-node arrays and coarse records, which grows with the cluster count.</p>
+ *
+ * <ul>
+ *     <li>{@link #faceMasks()}: classification sweep plus face masks of all passes</li>
+ *     <li>{@link #regionGrowing()}: region growing alone, over precomputed face masks</li>
+ *     <li>{@link #fullPipeline()}: everything a meshing job does per section, including the cluster tree</li>
+ * </ul>
+ */
+public final class SectionMeshingBenchmark {
+    private final ArraySectionBlockSource source;
+    private final SectionMesher mesher = new SectionMesher();
+    private final SectionMesher preparedMesher = new SectionMesher();
+    private final MeshletOutputBuffer outputBuffer = new MeshletOutputBuffer();
+    private final MeshletClusterTree.BuildScratch treeScratch = new MeshletClusterTree.BuildScratch();
+
+    private SectionMeshingBenchmark(@NonNull SectionFixture fixture) {
+        source = fixture.create();
+
+        preparedMesher.buildOccupancies(source);
+        preparedMesher.computeFaceMasks();
+
+        // grow the output buffer to its steady-state capacity
+        outputBuffer.clear();
+        mesher.mesh(source, outputBuffer);
+    }
+
+    private int faceMasks() {
+        mesher.buildOccupancies(source);
+        mesher.computeFaceMasks();
+        int emptyPasses = 0;
+        for (int pass = 0; pass < SectionMesher.PASS_COUNT; pass++) {
+            if (mesher.getOccupancy(pass).isInnerEmpty()) {
+                emptyPasses++;
+            }
+        }
+        return emptyPasses;
+    }
+
+    private int regionGrowing() {
+        outputBuffer.clear();
+        preparedMesher.growRegions(outputBuffer);
+        return outputBuffer.getClusterCount();
+    }
+
+    private int fullPipeline() {
+        outputBuffer.clear();
+        mesher.mesh(source, outputBuffer);
+        int clusterCount = outputBuffer.getClusterCount();
+        if (clusterCount == 0) {
+            return 0;
+        }
+        return MeshletClusterTree.build(0, 0, 0, outputBuffer, 0, clusterCount, treeScratch).getNodeCount();
+    }
+
+    public static void main(String[] args) {
+        BenchmarkHarness harness = new BenchmarkHarness();
+
+        SectionFixture[] fixtures;
+        if (args.length == 0) {
+            fixtures = SectionFixture.values();
+        } else {
+            fixtures = new SectionFixture[args.length];
+            for (int i = 0; i < args.length; i++) {
+                fixtures[i] = SectionFixture.valueOf(args[i].toUpperCase(Locale.ROOT));
+            }
+        }
+
+        System.out.printf("%-16s %-14s %14s %12s%n", "fixture", "benchmark", "ns/op", "B/op");
+        for (SectionFixture fixture : fixtures) {
+            SectionMeshingBenchmark benchmark = new SectionMeshingBenchmark(fixture);
+            print(fixture, "faceMasks", harness.measure(benchmark::faceMasks));
+            print(fixture, "regionGrowing", harness.measure(benchmark::regionGrowing));
+            print(fixture, "fullPipeline", harness.measure(benchmark::fullPipeline));
+        }
+    }
+
+    private static void print(SectionFixture fixture, String name, BenchmarkHarness.Result result) {
+        System.out.printf(Locale.ROOT, "%-16s %-14s %14.1f %12.1f%n", fixture, name, result.nanosPerOperation(), result.bytesPerOperation());
+    }
+}